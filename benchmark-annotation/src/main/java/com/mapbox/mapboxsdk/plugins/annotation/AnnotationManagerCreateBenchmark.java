@@ -0,0 +1,77 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating symbols in bulk, including the source update committing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationManagerCreateBenchmark {
+
+  @Param( {"1000", "10000", "100000"})
+  int symbolCount;
+
+  @Param( {"false", "true"})
+  boolean directSerialization;
+
+  private final MapView mapView = new MapView();
+  private final MapboxMap mapboxMap = new MapboxMap();
+  private final List<SymbolOptions> optionsList = new ArrayList<>();
+  private SymbolManager symbolManager;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    for (int i = 0; i < symbolCount; i++) {
+      optionsList.add(new SymbolOptions()
+        .withLatLng(new LatLng(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180))
+        .withIconImage("marker")
+        .withIconSize(random.nextFloat() + 0.5f)
+        .withTextField("symbol " + i)
+        .withTextOffset(new Float[] {0f, 1.5f})
+        .withZIndex(random.nextInt(10)));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createManager() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, mapboxMap.getStyle());
+    symbolManager.setDirectSerializationEnabled(directSerialization);
+  }
+
+  @TearDown(Level.Invocation)
+  public void destroyManager() {
+    symbolManager.onDestroy();
+  }
+
+  @Benchmark
+  public List<Symbol> create() {
+    return symbolManager.create(optionsList);
+  }
+}
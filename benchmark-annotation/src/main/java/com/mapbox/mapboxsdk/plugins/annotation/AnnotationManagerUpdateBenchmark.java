@@ -0,0 +1,83 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of updating the source of a symbol manager, after a single symbol changed and after all symbols
+ * were invalidated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationManagerUpdateBenchmark {
+
+  @Param( {"1000", "10000", "100000"})
+  int symbolCount;
+
+  @Param( {"false", "true"})
+  boolean directSerialization;
+
+  private final MapboxMap mapboxMap = new MapboxMap();
+  private SymbolManager symbolManager;
+  private List<Symbol> symbols;
+  private int updatedIndex;
+
+  @Setup
+  public void setup() {
+    symbolManager = new SymbolManager(new MapView(), mapboxMap, mapboxMap.getStyle());
+    symbolManager.setDirectSerializationEnabled(directSerialization);
+
+    Random random = new Random(0);
+    List<SymbolOptions> optionsList = new ArrayList<>();
+    for (int i = 0; i < symbolCount; i++) {
+      optionsList.add(new SymbolOptions()
+        .withLatLng(new LatLng(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180))
+        .withIconImage("marker")
+        .withIconRotate(0f)
+        .withTextField("symbol " + i)
+        .withZIndex(random.nextInt(10)));
+    }
+    symbols = symbolManager.create(optionsList);
+  }
+
+  @TearDown
+  public void tearDown() {
+    symbolManager.onDestroy();
+  }
+
+  @Benchmark
+  public void updateSingleSymbol() {
+    updatedIndex = (updatedIndex + 7919) % symbolCount;
+    Symbol symbol = symbols.get(updatedIndex);
+    symbol.setIconRotate(symbol.getIconRotate() + 1);
+    symbolManager.update(symbol);
+  }
+
+  @Benchmark
+  public void updateAllSymbols() {
+    symbolManager.updateSource();
+  }
+}
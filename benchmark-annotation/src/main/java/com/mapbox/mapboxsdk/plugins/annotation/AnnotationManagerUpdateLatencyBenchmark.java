@@ -0,0 +1,90 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of handing changed symbols to a symbol manager, without the source update. Updates are deferred to the
+ * next frame, which never renders on the JVM, so only the membership check and the bookkeeping are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationManagerUpdateLatencyBenchmark {
+
+  private static final int BATCH_SIZE = 16;
+
+  @Param( {"1000", "10000", "50000", "100000"})
+  int symbolCount;
+
+  private final MapboxMap mapboxMap = new MapboxMap();
+  private SymbolManager symbolManager;
+  private List<Symbol> symbols;
+  private final List<Symbol> batch = new ArrayList<>();
+  private int updatedIndex;
+
+  @Setup
+  public void setup() {
+    symbolManager = new SymbolManager(new MapView(), mapboxMap, mapboxMap.getStyle());
+    symbolManager.setDeferredUpdatesEnabled(true);
+
+    Random random = new Random(0);
+    List<SymbolOptions> optionsList = new ArrayList<>();
+    for (int i = 0; i < symbolCount; i++) {
+      optionsList.add(new SymbolOptions()
+        .withLatLng(new LatLng(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180))
+        .withIconImage("marker")
+        .withIconRotate(0f)
+        .withTextField("symbol " + i));
+    }
+    symbols = symbolManager.create(optionsList);
+  }
+
+  @TearDown
+  public void tearDown() {
+    symbolManager.onDestroy();
+  }
+
+  @Benchmark
+  public void updateSingleSymbol() {
+    symbolManager.update(nextSymbol());
+  }
+
+  @Benchmark
+  public void updateSymbolList() {
+    batch.clear();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(nextSymbol());
+    }
+    symbolManager.update(batch);
+  }
+
+  private Symbol nextSymbol() {
+    updatedIndex = (updatedIndex + 7919) % symbolCount;
+    Symbol symbol = symbols.get(updatedIndex);
+    symbol.setIconRotate(symbol.getIconRotate() + 1);
+    return symbol;
+  }
+}
@@ -0,0 +1,80 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.google.gson.JsonArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting array properties, such as offsets and fonts, between arrays and JSON for every annotation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertUtilsBenchmark {
+
+  @Param( {"1000", "10000", "100000"})
+  int annotationCount;
+
+  private Float[][] offsets;
+  private String[][] fonts;
+  private JsonArray[] offsetArrays;
+  private JsonArray[] fontArrays;
+
+  @Setup
+  public void setup() {
+    offsets = new Float[annotationCount][];
+    fonts = new String[annotationCount][];
+    offsetArrays = new JsonArray[annotationCount];
+    fontArrays = new JsonArray[annotationCount];
+    for (int i = 0; i < annotationCount; i++) {
+      offsets[i] = new Float[] {(float) (i % 10), 1.5f};
+      fonts[i] = new String[] {"Open Sans Regular", "Arial Unicode MS Regular"};
+      offsetArrays[i] = ConvertUtils.convertArray(offsets[i]);
+      fontArrays[i] = ConvertUtils.convertArray(fonts[i]);
+    }
+  }
+
+  @Benchmark
+  public void floatArraysToJson(Blackhole blackhole) {
+    for (Float[] offset : offsets) {
+      blackhole.consume(ConvertUtils.convertArray(offset));
+    }
+  }
+
+  @Benchmark
+  public void stringArraysToJson(Blackhole blackhole) {
+    for (String[] font : fonts) {
+      blackhole.consume(ConvertUtils.convertArray(font));
+    }
+  }
+
+  @Benchmark
+  public void jsonToFloatArrays(Blackhole blackhole) {
+    for (JsonArray offsetArray : offsetArrays) {
+      blackhole.consume(ConvertUtils.toFloatArray(offsetArray));
+    }
+  }
+
+  @Benchmark
+  public void jsonToStringArrays(Blackhole blackhole) {
+    for (JsonArray fontArray : fontArrays) {
+      blackhole.consume(ConvertUtils.toStringArray(fontArray));
+    }
+  }
+}
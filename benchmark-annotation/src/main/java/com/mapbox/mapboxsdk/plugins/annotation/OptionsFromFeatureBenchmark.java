@@ -0,0 +1,67 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.Point;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing symbol options out of GeoJSON features, as done when creating symbols from GeoJSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionsFromFeatureBenchmark {
+
+  @Param( {"1000", "10000", "100000"})
+  int featureCount;
+
+  private final List<Feature> features = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    for (int i = 0; i < featureCount; i++) {
+      JsonObject properties = new JsonObject();
+      properties.addProperty(SymbolOptions.PROPERTY_iconImage, "marker");
+      properties.addProperty(SymbolOptions.PROPERTY_iconSize, random.nextFloat() + 0.5f);
+      properties.addProperty(SymbolOptions.PROPERTY_textField, "symbol " + i);
+      properties.addProperty(SymbolOptions.PROPERTY_textColor, "rgba(0, 0, 0, 1)");
+      JsonArray textOffset = new JsonArray();
+      textOffset.add(0f);
+      textOffset.add(1.5f);
+      properties.add(SymbolOptions.PROPERTY_textOffset, textOffset);
+      properties.addProperty(SymbolOptions.PROPERTY_zIndex, random.nextInt(10));
+      features.add(Feature.fromGeometry(
+        Point.fromLngLat(random.nextDouble() * 360 - 180, random.nextDouble() * 170 - 85), properties));
+    }
+  }
+
+  @Benchmark
+  public void symbolOptionsFromFeature(Blackhole blackhole) {
+    for (Feature feature : features) {
+      blackhole.consume(SymbolOptions.fromFeature(feature));
+    }
+  }
+}
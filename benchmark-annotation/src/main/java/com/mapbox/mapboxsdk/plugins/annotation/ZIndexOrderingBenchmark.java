@@ -0,0 +1,92 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.google.gson.JsonObject;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.Point;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of ordering symbol features by z-index for a source update after a single symbol changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZIndexOrderingBenchmark {
+
+  private static final String PROPERTY_Z_INDEX = SymbolOptions.PROPERTY_zIndex;
+  private static final int Z_INDEX_RANGE = 10;
+
+  @SuppressWarnings("deprecation")
+  private static final Comparator<Feature> SYMBOL_COMPARATOR = new SymbolComparator();
+
+  @Param( {"1000", "10000", "100000"})
+  int symbolCount;
+
+  private final List<Feature> features = new ArrayList<>();
+  private final ZIndexBuckets<Feature> buckets = new ZIndexBuckets<>();
+  private int updatedId;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    for (int id = 0; id < symbolCount; id++) {
+      Feature feature = createFeature(id, random.nextInt(Z_INDEX_RANGE));
+      features.add(feature);
+      buckets.put(id, feature.getProperty(PROPERTY_Z_INDEX).getAsInt(), feature);
+    }
+  }
+
+  @Benchmark
+  public List<Feature> sortOnEveryUpdate() {
+    int id = nextUpdatedId();
+    features.set(id, createFeature(id, id % Z_INDEX_RANGE));
+
+    List<Feature> featureList = new ArrayList<>(features);
+    Collections.sort(featureList, SYMBOL_COMPARATOR);
+    return featureList;
+  }
+
+  @Benchmark
+  public List<Feature> zIndexBuckets() {
+    int id = nextUpdatedId();
+    int zIndex = id % Z_INDEX_RANGE;
+    buckets.put(id, zIndex, createFeature(id, zIndex));
+
+    List<Feature> featureList = new ArrayList<>(buckets.size());
+    buckets.addValuesTo(featureList, -1);
+    return featureList;
+  }
+
+  private int nextUpdatedId() {
+    updatedId = (updatedId + 7919) % symbolCount;
+    return updatedId;
+  }
+
+  private static Feature createFeature(int id, int zIndex) {
+    JsonObject properties = new JsonObject();
+    properties.addProperty("id", id);
+    properties.addProperty(PROPERTY_Z_INDEX, zIndex);
+    return Feature.fromGeometry(Point.fromLngLat(id % 360 - 180, id % 170 - 85), properties);
+  }
+}
@@ -0,0 +1,8 @@
+package android.animation;
+
+/**
+ * JVM stand-in for the Android time interpolator.
+ */
+public interface TimeInterpolator {
+  float getInterpolation(float input);
+}
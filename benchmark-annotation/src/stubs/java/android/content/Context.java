@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * JVM stand-in for the Android context.
+ */
+public class Context {
+}
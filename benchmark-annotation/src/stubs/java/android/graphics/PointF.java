@@ -0,0 +1,23 @@
+package android.graphics;
+
+/**
+ * JVM stand-in for the Android float point.
+ */
+public class PointF {
+
+  public float x;
+  public float y;
+
+  public PointF() {
+  }
+
+  public PointF(float x, float y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  public void set(float x, float y) {
+    this.x = x;
+    this.y = y;
+  }
+}
@@ -0,0 +1,21 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android handler, messages are executed immediately on the posting thread.
+ */
+public class Handler {
+
+  public Handler() {
+  }
+
+  public Handler(Looper looper) {
+  }
+
+  public boolean post(Runnable runnable) {
+    runnable.run();
+    return true;
+  }
+
+  public void removeCallbacksAndMessages(Object token) {
+  }
+}
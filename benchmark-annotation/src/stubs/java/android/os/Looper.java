@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android looper, benchmarks run on a single thread acting as main thread.
+ */
+public class Looper {
+
+  private static final Looper MAIN = new Looper();
+
+  public static Looper getMainLooper() {
+    return MAIN;
+  }
+
+  public static Looper myLooper() {
+    return MAIN;
+  }
+}
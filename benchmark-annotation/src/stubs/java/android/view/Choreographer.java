@@ -0,0 +1,23 @@
+package android.view;
+
+/**
+ * JVM stand-in for the Android choreographer, frames are never rendered and callbacks never run.
+ */
+public class Choreographer {
+
+  private static final Choreographer INSTANCE = new Choreographer();
+
+  public interface FrameCallback {
+    void doFrame(long frameTimeNanos);
+  }
+
+  public static Choreographer getInstance() {
+    return INSTANCE;
+  }
+
+  public void postFrameCallback(FrameCallback callback) {
+  }
+
+  public void removeFrameCallback(FrameCallback callback) {
+  }
+}
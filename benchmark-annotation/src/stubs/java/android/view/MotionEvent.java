@@ -0,0 +1,7 @@
+package android.view;
+
+/**
+ * JVM stand-in for the Android motion event.
+ */
+public class MotionEvent {
+}
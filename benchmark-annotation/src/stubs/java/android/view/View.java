@@ -0,0 +1,38 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * JVM stand-in for the Android view, without layout or rendering.
+ */
+public class View {
+
+  private final Context context = new Context();
+
+  public interface OnTouchListener {
+    boolean onTouch(View view, MotionEvent event);
+  }
+
+  public Context getContext() {
+    return context;
+  }
+
+  public void setOnTouchListener(OnTouchListener listener) {
+  }
+
+  public int getScrollX() {
+    return 0;
+  }
+
+  public int getScrollY() {
+    return 0;
+  }
+
+  public int getMeasuredWidth() {
+    return 0;
+  }
+
+  public int getMeasuredHeight() {
+    return 0;
+  }
+}
@@ -0,0 +1,9 @@
+package android.view.animation;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * JVM stand-in for the Android view interpolator.
+ */
+public interface Interpolator extends TimeInterpolator {
+}
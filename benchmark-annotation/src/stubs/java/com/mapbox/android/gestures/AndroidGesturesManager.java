@@ -0,0 +1,20 @@
+package com.mapbox.android.gestures;
+
+import android.content.Context;
+import android.view.MotionEvent;
+
+/**
+ * JVM stand-in for the gestures manager, no gestures are ever detected.
+ */
+public class AndroidGesturesManager {
+
+  public AndroidGesturesManager(Context context, boolean applyDefaultThresholds) {
+  }
+
+  public void setMoveGestureListener(MoveGestureDetector.OnMoveGestureListener listener) {
+  }
+
+  public boolean onTouchEvent(MotionEvent motionEvent) {
+    return false;
+  }
+}
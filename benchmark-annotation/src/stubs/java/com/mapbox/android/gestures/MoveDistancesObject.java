@@ -0,0 +1,23 @@
+package com.mapbox.android.gestures;
+
+/**
+ * JVM stand-in for the distances of a moving pointer.
+ */
+public class MoveDistancesObject {
+
+  public float getCurrentX() {
+    return 0;
+  }
+
+  public float getCurrentY() {
+    return 0;
+  }
+
+  public float getDistanceXSinceLast() {
+    return 0;
+  }
+
+  public float getDistanceYSinceLast() {
+    return 0;
+  }
+}
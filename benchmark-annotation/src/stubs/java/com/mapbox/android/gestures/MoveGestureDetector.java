@@ -0,0 +1,32 @@
+package com.mapbox.android.gestures;
+
+import android.graphics.PointF;
+
+/**
+ * JVM stand-in for the move gesture detector.
+ */
+public class MoveGestureDetector {
+
+  private final PointF focalPoint = new PointF();
+  private final MoveDistancesObject moveObject = new MoveDistancesObject();
+
+  public interface OnMoveGestureListener {
+    boolean onMoveBegin(MoveGestureDetector detector);
+
+    boolean onMove(MoveGestureDetector detector, float distanceX, float distanceY);
+
+    void onMoveEnd(MoveGestureDetector detector, float velocityX, float velocityY);
+  }
+
+  public int getPointersCount() {
+    return 1;
+  }
+
+  public PointF getFocalPoint() {
+    return focalPoint;
+  }
+
+  public MoveDistancesObject getMoveObject(int pointerIndex) {
+    return moveObject;
+  }
+}
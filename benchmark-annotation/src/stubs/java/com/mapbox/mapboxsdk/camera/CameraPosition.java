@@ -0,0 +1,21 @@
+package com.mapbox.mapboxsdk.camera;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+/**
+ * JVM stand-in for the camera position.
+ */
+public final class CameraPosition {
+
+  public final LatLng target;
+  public final double zoom;
+  public final double tilt;
+  public final double bearing;
+
+  public CameraPosition(LatLng target, double zoom, double tilt, double bearing) {
+    this.target = target;
+    this.zoom = zoom;
+    this.tilt = tilt;
+    this.bearing = bearing;
+  }
+}
@@ -0,0 +1,9 @@
+package com.mapbox.mapboxsdk.camera;
+
+/**
+ * JVM stand-in for a camera update.
+ */
+public interface CameraUpdate {
+
+  CameraPosition getCameraPosition(CameraPosition current);
+}
@@ -0,0 +1,13 @@
+package com.mapbox.mapboxsdk.camera;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+/**
+ * JVM stand-in for the camera update factory.
+ */
+public final class CameraUpdateFactory {
+
+  public static CameraUpdate newLatLngZoom(LatLng latLng, double zoom) {
+    return current -> new CameraPosition(latLng, zoom, current.tilt, current.bearing);
+  }
+}
@@ -0,0 +1,10 @@
+package com.mapbox.mapboxsdk.constants;
+
+/**
+ * JVM stand-in for the geometry constants.
+ */
+public class GeometryConstants {
+
+  public static final double MAX_MERCATOR_LATITUDE = 85.05112877980659;
+  public static final double MIN_MERCATOR_LATITUDE = -85.05112877980659;
+}
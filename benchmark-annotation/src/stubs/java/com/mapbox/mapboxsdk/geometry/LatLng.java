@@ -0,0 +1,34 @@
+package com.mapbox.mapboxsdk.geometry;
+
+/**
+ * JVM stand-in for a geographical location.
+ */
+public class LatLng {
+
+  private double latitude;
+  private double longitude;
+
+  public LatLng() {
+  }
+
+  public LatLng(double latitude, double longitude) {
+    this.latitude = latitude;
+    this.longitude = longitude;
+  }
+
+  public double getLatitude() {
+    return latitude;
+  }
+
+  public void setLatitude(double latitude) {
+    this.latitude = latitude;
+  }
+
+  public double getLongitude() {
+    return longitude;
+  }
+
+  public void setLongitude(double longitude) {
+    this.longitude = longitude;
+  }
+}
@@ -0,0 +1,39 @@
+package com.mapbox.mapboxsdk.geometry;
+
+/**
+ * JVM stand-in for geographical bounds.
+ */
+public class LatLngBounds {
+
+  private final double latitudeNorth;
+  private final double longitudeEast;
+  private final double latitudeSouth;
+  private final double longitudeWest;
+
+  private LatLngBounds(double latitudeNorth, double longitudeEast, double latitudeSouth, double longitudeWest) {
+    this.latitudeNorth = latitudeNorth;
+    this.longitudeEast = longitudeEast;
+    this.latitudeSouth = latitudeSouth;
+    this.longitudeWest = longitudeWest;
+  }
+
+  public static LatLngBounds from(double latNorth, double lonEast, double latSouth, double lonWest) {
+    return new LatLngBounds(latNorth, lonEast, latSouth, lonWest);
+  }
+
+  public double getLatNorth() {
+    return latitudeNorth;
+  }
+
+  public double getLatSouth() {
+    return latitudeSouth;
+  }
+
+  public double getLonEast() {
+    return longitudeEast;
+  }
+
+  public double getLonWest() {
+    return longitudeWest;
+  }
+}
@@ -0,0 +1,13 @@
+package com.mapbox.mapboxsdk.geometry;
+
+/**
+ * JVM stand-in for the visible region of the map.
+ */
+public class VisibleRegion {
+
+  public final LatLngBounds latLngBounds;
+
+  public VisibleRegion(LatLngBounds latLngBounds) {
+    this.latLngBounds = latLngBounds;
+  }
+}
@@ -0,0 +1,11 @@
+package com.mapbox.mapboxsdk.log;
+
+/**
+ * JVM stand-in for the logger, writing errors to standard error.
+ */
+public final class Logger {
+
+  public static void e(String tag, String message) {
+    System.err.println(tag + ": " + message);
+  }
+}
@@ -0,0 +1,19 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.view.View;
+
+/**
+ * JVM stand-in for the map view, the style never reloads.
+ */
+public class MapView extends View {
+
+  public interface OnDidFinishLoadingStyleListener {
+    void onDidFinishLoadingStyle();
+  }
+
+  public void addOnDidFinishLoadingStyleListener(OnDidFinishLoadingStyleListener listener) {
+  }
+
+  public void removeOnDidFinishLoadingStyleListener(OnDidFinishLoadingStyleListener listener) {
+  }
+}
@@ -0,0 +1,101 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.PointF;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.camera.CameraUpdate;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for the map, holding a camera position and a style but without rendering.
+ * Queries for rendered features never return results.
+ */
+public class MapboxMap {
+
+  private final Style style = new Style();
+  private final Projection projection = new Projection(this, 1080, 1920);
+  private final List<OnCameraIdleListener> cameraIdleListeners = new ArrayList<>();
+  private CameraPosition cameraPosition = new CameraPosition(new LatLng(), 0, 0, 0);
+
+  public interface OnMapClickListener {
+    boolean onMapClick(LatLng point);
+  }
+
+  public interface OnMapLongClickListener {
+    boolean onMapLongClick(LatLng point);
+  }
+
+  public interface OnCameraIdleListener {
+    void onCameraIdle();
+  }
+
+  public interface OnCameraMoveListener {
+    void onCameraMove();
+  }
+
+  public Style getStyle() {
+    return style;
+  }
+
+  public void getStyle(Style.OnStyleLoaded onStyleLoaded) {
+    onStyleLoaded.onStyleLoaded(style);
+  }
+
+  public Projection getProjection() {
+    return projection;
+  }
+
+  public CameraPosition getCameraPosition() {
+    return cameraPosition;
+  }
+
+  /**
+   * Move the camera, notifying camera idle listeners as the map would after the camera stops moving.
+   *
+   * @param cameraPosition the new camera position
+   */
+  public void setCameraPosition(CameraPosition cameraPosition) {
+    this.cameraPosition = cameraPosition;
+    for (OnCameraIdleListener listener : new ArrayList<>(cameraIdleListeners)) {
+      listener.onCameraIdle();
+    }
+  }
+
+  public void animateCamera(CameraUpdate update) {
+    setCameraPosition(update.getCameraPosition(cameraPosition));
+  }
+
+  public void addOnCameraIdleListener(OnCameraIdleListener listener) {
+    cameraIdleListeners.add(listener);
+  }
+
+  public void removeOnCameraIdleListener(OnCameraIdleListener listener) {
+    cameraIdleListeners.remove(listener);
+  }
+
+  public void addOnCameraMoveListener(OnCameraMoveListener listener) {
+  }
+
+  public void removeOnCameraMoveListener(OnCameraMoveListener listener) {
+  }
+
+  public void addOnMapClickListener(OnMapClickListener listener) {
+  }
+
+  public void removeOnMapClickListener(OnMapClickListener listener) {
+  }
+
+  public void addOnMapLongClickListener(OnMapLongClickListener listener) {
+  }
+
+  public void removeOnMapLongClickListener(OnMapLongClickListener listener) {
+  }
+
+  public List<Feature> queryRenderedFeatures(PointF coordinates, String... layerIds) {
+    return new ArrayList<>();
+  }
+}
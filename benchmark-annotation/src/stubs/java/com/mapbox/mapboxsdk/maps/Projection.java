@@ -0,0 +1,70 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.PointF;
+
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.VisibleRegion;
+
+/**
+ * JVM stand-in for the projection, a web mercator projection of a north up, untilted camera.
+ */
+public class Projection {
+
+  private static final int TILE_SIZE = 512;
+  private static final double EARTH_RADIUS_METERS = 6378137;
+
+  private final MapboxMap mapboxMap;
+  private final float width;
+  private final float height;
+
+  Projection(MapboxMap mapboxMap, float width, float height) {
+    this.mapboxMap = mapboxMap;
+    this.width = width;
+    this.height = height;
+  }
+
+  public PointF toScreenLocation(LatLng latLng) {
+    CameraPosition camera = mapboxMap.getCameraPosition();
+    double scale = worldSize(camera);
+    return new PointF(
+      (float) ((x(latLng.getLongitude()) - x(camera.target.getLongitude())) * scale + width / 2),
+      (float) ((y(latLng.getLatitude()) - y(camera.target.getLatitude())) * scale + height / 2));
+  }
+
+  public LatLng fromScreenLocation(PointF point) {
+    CameraPosition camera = mapboxMap.getCameraPosition();
+    double scale = worldSize(camera);
+    double x = x(camera.target.getLongitude()) + (point.x - width / 2) / scale;
+    double y = y(camera.target.getLatitude()) + (point.y - height / 2) / scale;
+    return new LatLng(
+      Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y)))),
+      x * 360 - 180);
+  }
+
+  public VisibleRegion getVisibleRegion() {
+    LatLng northWest = fromScreenLocation(new PointF(0, 0));
+    LatLng southEast = fromScreenLocation(new PointF(width, height));
+    return new VisibleRegion(LatLngBounds.from(
+      northWest.getLatitude(), southEast.getLongitude(), southEast.getLatitude(), northWest.getLongitude()));
+  }
+
+  public double getMetersPerPixelAtLatitude(double latitude) {
+    return Math.cos(Math.toRadians(latitude)) * 2 * Math.PI * EARTH_RADIUS_METERS
+      / worldSize(mapboxMap.getCameraPosition());
+  }
+
+  private static double worldSize(CameraPosition camera) {
+    return TILE_SIZE * Math.pow(2, camera.zoom);
+  }
+
+  private static double x(double longitude) {
+    return (longitude + 180) / 360;
+  }
+
+  private static double y(double latitude) {
+    double sin = Math.sin(Math.toRadians(latitude));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+}
@@ -0,0 +1,56 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.style.layers.Layer;
+import com.mapbox.mapboxsdk.style.sources.Source;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for a fully loaded style, keeping track of the sources and layers added.
+ */
+public class Style {
+
+  private final Map<String, Source> sources = new HashMap<>();
+  private final Map<String, Layer> layers = new HashMap<>();
+
+  public interface OnStyleLoaded {
+    void onStyleLoaded(Style style);
+  }
+
+  public boolean isFullyLoaded() {
+    return true;
+  }
+
+  public void addSource(Source source) {
+    sources.put(source.getId(), source);
+  }
+
+  public Source getSource(String id) {
+    return sources.get(id);
+  }
+
+  public boolean removeSource(Source source) {
+    return sources.remove(source.getId()) != null;
+  }
+
+  public void addLayer(Layer layer) {
+    layers.put(layer.getId(), layer);
+  }
+
+  public void addLayerBelow(Layer layer, String below) {
+    addLayer(layer);
+  }
+
+  public void addLayerAbove(Layer layer, String above) {
+    addLayer(layer);
+  }
+
+  public Layer getLayer(String id) {
+    return layers.get(id);
+  }
+
+  public boolean removeLayer(Layer layer) {
+    return layers.remove(layer.getId()) != null;
+  }
+}
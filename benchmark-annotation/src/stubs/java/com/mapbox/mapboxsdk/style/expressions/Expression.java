@@ -0,0 +1,86 @@
+package com.mapbox.mapboxsdk.style.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for a style expression, holding the operator and arguments.
+ */
+public class Expression {
+
+  private final String operator;
+  private final Object[] arguments;
+
+  public Expression(String operator, Object... arguments) {
+    this.operator = operator;
+    this.arguments = arguments;
+  }
+
+  public static Expression get(String key) {
+    return new Expression("get", key);
+  }
+
+  public static Expression has(String key) {
+    return new Expression("has", key);
+  }
+
+  public static Expression not(Expression input) {
+    return new Expression("!", input);
+  }
+
+  public static Expression neq(Expression compareOne, Expression compareTwo) {
+    return new Expression("!=", compareOne, compareTwo);
+  }
+
+  public static Expression all(Expression... input) {
+    return new Expression("all", (Object[]) input);
+  }
+
+  public static Expression literal(Object value) {
+    return new Expression("literal", value);
+  }
+
+  public static Expression switchCase(Expression... input) {
+    return new Expression("case", (Object[]) input);
+  }
+
+  public static Expression color(int color) {
+    return new Expression("to-color", color);
+  }
+
+  public static Expression step(Expression input, Expression defaultOutput, Stop... stops) {
+    List<Object> arguments = new ArrayList<>();
+    arguments.add(input);
+    arguments.add(defaultOutput);
+    for (Stop stop : stops) {
+      arguments.add(stop.input);
+      arguments.add(stop.output);
+    }
+    return new Expression("step", arguments.toArray());
+  }
+
+  public static Stop stop(Object input, Object output) {
+    return new Stop(input, output);
+  }
+
+  public Object[] toArray() {
+    Object[] array = new Object[arguments.length + 1];
+    array[0] = operator;
+    for (int i = 0; i < arguments.length; i++) {
+      Object argument = arguments[i];
+      array[i + 1] = argument instanceof Expression ? ((Expression) argument).toArray() : argument;
+    }
+    return array;
+  }
+
+  public static class Stop {
+
+    private final Object input;
+    private final Object output;
+
+    public Stop(Object input, Object output) {
+      this.input = input;
+      this.output = output;
+    }
+  }
+}
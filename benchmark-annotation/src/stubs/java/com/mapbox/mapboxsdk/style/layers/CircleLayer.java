@@ -0,0 +1,27 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+/**
+ * JVM stand-in for a circle layer.
+ */
+public class CircleLayer extends Layer {
+
+  public CircleLayer(String layerId, String sourceId) {
+    super(layerId);
+  }
+
+  public PropertyValue<Float[]> getCircleTranslate() {
+    return getProperty("circle-translate");
+  }
+
+  public PropertyValue<String> getCircleTranslateAnchor() {
+    return getProperty("circle-translate-anchor");
+  }
+
+  public PropertyValue<String> getCirclePitchScale() {
+    return getProperty("circle-pitch-scale");
+  }
+
+  public PropertyValue<String> getCirclePitchAlignment() {
+    return getProperty("circle-pitch-alignment");
+  }
+}
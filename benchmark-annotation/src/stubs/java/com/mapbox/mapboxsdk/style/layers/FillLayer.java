@@ -0,0 +1,23 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+/**
+ * JVM stand-in for a fill layer.
+ */
+public class FillLayer extends Layer {
+
+  public FillLayer(String layerId, String sourceId) {
+    super(layerId);
+  }
+
+  public PropertyValue<Boolean> getFillAntialias() {
+    return getProperty("fill-antialias");
+  }
+
+  public PropertyValue<Float[]> getFillTranslate() {
+    return getProperty("fill-translate");
+  }
+
+  public PropertyValue<String> getFillTranslateAnchor() {
+    return getProperty("fill-translate-anchor");
+  }
+}
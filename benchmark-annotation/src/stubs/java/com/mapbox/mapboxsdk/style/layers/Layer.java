@@ -0,0 +1,44 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+import com.mapbox.mapboxsdk.style.expressions.Expression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for a layer, keeping the properties and filter set.
+ */
+public abstract class Layer {
+
+  private final String id;
+  private final Map<String, PropertyValue<?>> properties = new HashMap<>();
+  private Expression filter;
+
+  protected Layer(String id) {
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setProperties(PropertyValue<?>... properties) {
+    for (PropertyValue<?> property : properties) {
+      this.properties.put(property.name, property);
+    }
+  }
+
+  public void setFilter(Expression filter) {
+    this.filter = filter;
+  }
+
+  public Expression getFilter() {
+    return filter;
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> PropertyValue<T> getProperty(String name) {
+    PropertyValue<T> property = (PropertyValue<T>) properties.get(name);
+    return property != null ? property : new PropertyValue<>(name, null);
+  }
+}
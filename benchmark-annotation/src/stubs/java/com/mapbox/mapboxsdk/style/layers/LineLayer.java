@@ -0,0 +1,35 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+/**
+ * JVM stand-in for a line layer.
+ */
+public class LineLayer extends Layer {
+
+  public LineLayer(String layerId, String sourceId) {
+    super(layerId);
+  }
+
+  public PropertyValue<String> getLineCap() {
+    return getProperty("line-cap");
+  }
+
+  public PropertyValue<Float> getLineMiterLimit() {
+    return getProperty("line-miter-limit");
+  }
+
+  public PropertyValue<Float> getLineRoundLimit() {
+    return getProperty("line-round-limit");
+  }
+
+  public PropertyValue<Float[]> getLineTranslate() {
+    return getProperty("line-translate");
+  }
+
+  public PropertyValue<String> getLineTranslateAnchor() {
+    return getProperty("line-translate-anchor");
+  }
+
+  public PropertyValue<Float[]> getLineDasharray() {
+    return getProperty("line-dasharray");
+  }
+}
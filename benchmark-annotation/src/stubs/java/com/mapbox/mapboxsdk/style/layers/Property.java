@@ -0,0 +1,92 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * JVM stand-in for the layer property value definitions used by the annotation plugin.
+ */
+public final class Property {
+
+  public static final String SYMBOL_Z_ORDER_SOURCE = "source";
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface CIRCLE_PITCH_ALIGNMENT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface CIRCLE_PITCH_SCALE {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface CIRCLE_TRANSLATE_ANCHOR {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface FILL_TRANSLATE_ANCHOR {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface ICON_ANCHOR {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface ICON_PITCH_ALIGNMENT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface ICON_ROTATION_ALIGNMENT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface ICON_TEXT_FIT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface ICON_TRANSLATE_ANCHOR {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface LINE_CAP {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface LINE_JOIN {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface LINE_TRANSLATE_ANCHOR {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface SYMBOL_PLACEMENT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface SYMBOL_Z_ORDER_SOURCE {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface TEXT_ANCHOR {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface TEXT_JUSTIFY {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface TEXT_PITCH_ALIGNMENT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface TEXT_ROTATION_ALIGNMENT {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface TEXT_TRANSFORM {
+  }
+
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface TEXT_TRANSLATE_ANCHOR {
+  }
+}
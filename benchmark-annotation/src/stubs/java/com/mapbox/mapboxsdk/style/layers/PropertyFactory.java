@@ -0,0 +1,339 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+/**
+ * JVM stand-in for the layer property factory, accepting constant values as well as expressions.
+ */
+public class PropertyFactory {
+
+  public static <T> PropertyValue<T> circleBlur(T value) {
+    return new PropertyValue<>("circle-blur", value);
+  }
+
+  public static <T> PropertyValue<T> circleColor(T value) {
+    return new PropertyValue<>("circle-color", value);
+  }
+
+  public static <T> PropertyValue<T> circleOpacity(T value) {
+    return new PropertyValue<>("circle-opacity", value);
+  }
+
+  public static <T> PropertyValue<T> circlePitchAlignment(T value) {
+    return new PropertyValue<>("circle-pitch-alignment", value);
+  }
+
+  public static <T> PropertyValue<T> circlePitchScale(T value) {
+    return new PropertyValue<>("circle-pitch-scale", value);
+  }
+
+  public static <T> PropertyValue<T> circleRadius(T value) {
+    return new PropertyValue<>("circle-radius", value);
+  }
+
+  public static <T> PropertyValue<T> circleStrokeColor(T value) {
+    return new PropertyValue<>("circle-stroke-color", value);
+  }
+
+  public static <T> PropertyValue<T> circleStrokeOpacity(T value) {
+    return new PropertyValue<>("circle-stroke-opacity", value);
+  }
+
+  public static <T> PropertyValue<T> circleStrokeWidth(T value) {
+    return new PropertyValue<>("circle-stroke-width", value);
+  }
+
+  public static <T> PropertyValue<T> circleTranslate(T value) {
+    return new PropertyValue<>("circle-translate", value);
+  }
+
+  public static <T> PropertyValue<T> circleTranslateAnchor(T value) {
+    return new PropertyValue<>("circle-translate-anchor", value);
+  }
+
+  public static <T> PropertyValue<T> fillAntialias(T value) {
+    return new PropertyValue<>("fill-antialias", value);
+  }
+
+  public static <T> PropertyValue<T> fillColor(T value) {
+    return new PropertyValue<>("fill-color", value);
+  }
+
+  public static <T> PropertyValue<T> fillOpacity(T value) {
+    return new PropertyValue<>("fill-opacity", value);
+  }
+
+  public static <T> PropertyValue<T> fillOutlineColor(T value) {
+    return new PropertyValue<>("fill-outline-color", value);
+  }
+
+  public static <T> PropertyValue<T> fillPattern(T value) {
+    return new PropertyValue<>("fill-pattern", value);
+  }
+
+  public static <T> PropertyValue<T> fillTranslate(T value) {
+    return new PropertyValue<>("fill-translate", value);
+  }
+
+  public static <T> PropertyValue<T> fillTranslateAnchor(T value) {
+    return new PropertyValue<>("fill-translate-anchor", value);
+  }
+
+  public static <T> PropertyValue<T> iconAllowOverlap(T value) {
+    return new PropertyValue<>("icon-allow-overlap", value);
+  }
+
+  public static <T> PropertyValue<T> iconAnchor(T value) {
+    return new PropertyValue<>("icon-anchor", value);
+  }
+
+  public static <T> PropertyValue<T> iconColor(T value) {
+    return new PropertyValue<>("icon-color", value);
+  }
+
+  public static <T> PropertyValue<T> iconHaloBlur(T value) {
+    return new PropertyValue<>("icon-halo-blur", value);
+  }
+
+  public static <T> PropertyValue<T> iconHaloColor(T value) {
+    return new PropertyValue<>("icon-halo-color", value);
+  }
+
+  public static <T> PropertyValue<T> iconHaloWidth(T value) {
+    return new PropertyValue<>("icon-halo-width", value);
+  }
+
+  public static <T> PropertyValue<T> iconIgnorePlacement(T value) {
+    return new PropertyValue<>("icon-ignore-placement", value);
+  }
+
+  public static <T> PropertyValue<T> iconImage(T value) {
+    return new PropertyValue<>("icon-image", value);
+  }
+
+  public static <T> PropertyValue<T> iconKeepUpright(T value) {
+    return new PropertyValue<>("icon-keep-upright", value);
+  }
+
+  public static <T> PropertyValue<T> iconOffset(T value) {
+    return new PropertyValue<>("icon-offset", value);
+  }
+
+  public static <T> PropertyValue<T> iconOpacity(T value) {
+    return new PropertyValue<>("icon-opacity", value);
+  }
+
+  public static <T> PropertyValue<T> iconOptional(T value) {
+    return new PropertyValue<>("icon-optional", value);
+  }
+
+  public static <T> PropertyValue<T> iconPadding(T value) {
+    return new PropertyValue<>("icon-padding", value);
+  }
+
+  public static <T> PropertyValue<T> iconPitchAlignment(T value) {
+    return new PropertyValue<>("icon-pitch-alignment", value);
+  }
+
+  public static <T> PropertyValue<T> iconRotate(T value) {
+    return new PropertyValue<>("icon-rotate", value);
+  }
+
+  public static <T> PropertyValue<T> iconRotationAlignment(T value) {
+    return new PropertyValue<>("icon-rotation-alignment", value);
+  }
+
+  public static <T> PropertyValue<T> iconSize(T value) {
+    return new PropertyValue<>("icon-size", value);
+  }
+
+  public static <T> PropertyValue<T> iconTextFit(T value) {
+    return new PropertyValue<>("icon-text-fit", value);
+  }
+
+  public static <T> PropertyValue<T> iconTextFitPadding(T value) {
+    return new PropertyValue<>("icon-text-fit-padding", value);
+  }
+
+  public static <T> PropertyValue<T> iconTranslate(T value) {
+    return new PropertyValue<>("icon-translate", value);
+  }
+
+  public static <T> PropertyValue<T> iconTranslateAnchor(T value) {
+    return new PropertyValue<>("icon-translate-anchor", value);
+  }
+
+  public static <T> PropertyValue<T> lineBlur(T value) {
+    return new PropertyValue<>("line-blur", value);
+  }
+
+  public static <T> PropertyValue<T> lineCap(T value) {
+    return new PropertyValue<>("line-cap", value);
+  }
+
+  public static <T> PropertyValue<T> lineColor(T value) {
+    return new PropertyValue<>("line-color", value);
+  }
+
+  public static <T> PropertyValue<T> lineDasharray(T value) {
+    return new PropertyValue<>("line-dasharray", value);
+  }
+
+  public static <T> PropertyValue<T> lineGapWidth(T value) {
+    return new PropertyValue<>("line-gap-width", value);
+  }
+
+  public static <T> PropertyValue<T> lineJoin(T value) {
+    return new PropertyValue<>("line-join", value);
+  }
+
+  public static <T> PropertyValue<T> lineMiterLimit(T value) {
+    return new PropertyValue<>("line-miter-limit", value);
+  }
+
+  public static <T> PropertyValue<T> lineOffset(T value) {
+    return new PropertyValue<>("line-offset", value);
+  }
+
+  public static <T> PropertyValue<T> lineOpacity(T value) {
+    return new PropertyValue<>("line-opacity", value);
+  }
+
+  public static <T> PropertyValue<T> linePattern(T value) {
+    return new PropertyValue<>("line-pattern", value);
+  }
+
+  public static <T> PropertyValue<T> lineRoundLimit(T value) {
+    return new PropertyValue<>("line-round-limit", value);
+  }
+
+  public static <T> PropertyValue<T> lineTranslate(T value) {
+    return new PropertyValue<>("line-translate", value);
+  }
+
+  public static <T> PropertyValue<T> lineTranslateAnchor(T value) {
+    return new PropertyValue<>("line-translate-anchor", value);
+  }
+
+  public static <T> PropertyValue<T> lineWidth(T value) {
+    return new PropertyValue<>("line-width", value);
+  }
+
+  public static <T> PropertyValue<T> symbolAvoidEdges(T value) {
+    return new PropertyValue<>("symbol-avoid-edges", value);
+  }
+
+  public static <T> PropertyValue<T> symbolPlacement(T value) {
+    return new PropertyValue<>("symbol-placement", value);
+  }
+
+  public static <T> PropertyValue<T> symbolSpacing(T value) {
+    return new PropertyValue<>("symbol-spacing", value);
+  }
+
+  public static <T> PropertyValue<T> symbolZOrder(T value) {
+    return new PropertyValue<>("symbol-z-order", value);
+  }
+
+  public static <T> PropertyValue<T> textAllowOverlap(T value) {
+    return new PropertyValue<>("text-allow-overlap", value);
+  }
+
+  public static <T> PropertyValue<T> textAnchor(T value) {
+    return new PropertyValue<>("text-anchor", value);
+  }
+
+  public static <T> PropertyValue<T> textColor(T value) {
+    return new PropertyValue<>("text-color", value);
+  }
+
+  public static <T> PropertyValue<T> textField(T value) {
+    return new PropertyValue<>("text-field", value);
+  }
+
+  public static <T> PropertyValue<T> textFont(T value) {
+    return new PropertyValue<>("text-font", value);
+  }
+
+  public static <T> PropertyValue<T> textHaloBlur(T value) {
+    return new PropertyValue<>("text-halo-blur", value);
+  }
+
+  public static <T> PropertyValue<T> textHaloColor(T value) {
+    return new PropertyValue<>("text-halo-color", value);
+  }
+
+  public static <T> PropertyValue<T> textHaloWidth(T value) {
+    return new PropertyValue<>("text-halo-width", value);
+  }
+
+  public static <T> PropertyValue<T> textIgnorePlacement(T value) {
+    return new PropertyValue<>("text-ignore-placement", value);
+  }
+
+  public static <T> PropertyValue<T> textJustify(T value) {
+    return new PropertyValue<>("text-justify", value);
+  }
+
+  public static <T> PropertyValue<T> textKeepUpright(T value) {
+    return new PropertyValue<>("text-keep-upright", value);
+  }
+
+  public static <T> PropertyValue<T> textLetterSpacing(T value) {
+    return new PropertyValue<>("text-letter-spacing", value);
+  }
+
+  public static <T> PropertyValue<T> textLineHeight(T value) {
+    return new PropertyValue<>("text-line-height", value);
+  }
+
+  public static <T> PropertyValue<T> textMaxAngle(T value) {
+    return new PropertyValue<>("text-max-angle", value);
+  }
+
+  public static <T> PropertyValue<T> textMaxWidth(T value) {
+    return new PropertyValue<>("text-max-width", value);
+  }
+
+  public static <T> PropertyValue<T> textOffset(T value) {
+    return new PropertyValue<>("text-offset", value);
+  }
+
+  public static <T> PropertyValue<T> textOpacity(T value) {
+    return new PropertyValue<>("text-opacity", value);
+  }
+
+  public static <T> PropertyValue<T> textOptional(T value) {
+    return new PropertyValue<>("text-optional", value);
+  }
+
+  public static <T> PropertyValue<T> textPadding(T value) {
+    return new PropertyValue<>("text-padding", value);
+  }
+
+  public static <T> PropertyValue<T> textPitchAlignment(T value) {
+    return new PropertyValue<>("text-pitch-alignment", value);
+  }
+
+  public static <T> PropertyValue<T> textRotate(T value) {
+    return new PropertyValue<>("text-rotate", value);
+  }
+
+  public static <T> PropertyValue<T> textRotationAlignment(T value) {
+    return new PropertyValue<>("text-rotation-alignment", value);
+  }
+
+  public static <T> PropertyValue<T> textSize(T value) {
+    return new PropertyValue<>("text-size", value);
+  }
+
+  public static <T> PropertyValue<T> textTransform(T value) {
+    return new PropertyValue<>("text-transform", value);
+  }
+
+  public static <T> PropertyValue<T> textTranslate(T value) {
+    return new PropertyValue<>("text-translate", value);
+  }
+
+  public static <T> PropertyValue<T> textTranslateAnchor(T value) {
+    return new PropertyValue<>("text-translate-anchor", value);
+  }
+}
@@ -0,0 +1,37 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+import com.mapbox.mapboxsdk.style.expressions.Expression;
+
+/**
+ * JVM stand-in for a layer property value.
+ */
+public class PropertyValue<T> {
+
+  public final String name;
+  public final T value;
+
+  public PropertyValue(String name, T value) {
+    this.name = name;
+    this.value = value;
+  }
+
+  public boolean isNull() {
+    return value == null;
+  }
+
+  public boolean isExpression() {
+    return value instanceof Expression;
+  }
+
+  public Expression getExpression() {
+    return isExpression() ? (Expression) value : null;
+  }
+
+  public boolean isValue() {
+    return !isNull() && !isExpression();
+  }
+
+  public T getValue() {
+    return isValue() ? value : null;
+  }
+}
@@ -0,0 +1,111 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+/**
+ * JVM stand-in for a symbol layer.
+ */
+public class SymbolLayer extends Layer {
+
+  public SymbolLayer(String layerId, String sourceId) {
+    super(layerId);
+  }
+
+  public PropertyValue<String> getSymbolPlacement() {
+    return getProperty("symbol-placement");
+  }
+
+  public PropertyValue<Float> getSymbolSpacing() {
+    return getProperty("symbol-spacing");
+  }
+
+  public PropertyValue<Boolean> getSymbolAvoidEdges() {
+    return getProperty("symbol-avoid-edges");
+  }
+
+  public PropertyValue<Boolean> getIconAllowOverlap() {
+    return getProperty("icon-allow-overlap");
+  }
+
+  public PropertyValue<Boolean> getIconIgnorePlacement() {
+    return getProperty("icon-ignore-placement");
+  }
+
+  public PropertyValue<Boolean> getIconOptional() {
+    return getProperty("icon-optional");
+  }
+
+  public PropertyValue<String> getIconRotationAlignment() {
+    return getProperty("icon-rotation-alignment");
+  }
+
+  public PropertyValue<String> getIconTextFit() {
+    return getProperty("icon-text-fit");
+  }
+
+  public PropertyValue<Float[]> getIconTextFitPadding() {
+    return getProperty("icon-text-fit-padding");
+  }
+
+  public PropertyValue<Float> getIconPadding() {
+    return getProperty("icon-padding");
+  }
+
+  public PropertyValue<Boolean> getIconKeepUpright() {
+    return getProperty("icon-keep-upright");
+  }
+
+  public PropertyValue<String> getIconPitchAlignment() {
+    return getProperty("icon-pitch-alignment");
+  }
+
+  public PropertyValue<String> getTextPitchAlignment() {
+    return getProperty("text-pitch-alignment");
+  }
+
+  public PropertyValue<String> getTextRotationAlignment() {
+    return getProperty("text-rotation-alignment");
+  }
+
+  public PropertyValue<Float> getTextLineHeight() {
+    return getProperty("text-line-height");
+  }
+
+  public PropertyValue<Float> getTextMaxAngle() {
+    return getProperty("text-max-angle");
+  }
+
+  public PropertyValue<Float> getTextPadding() {
+    return getProperty("text-padding");
+  }
+
+  public PropertyValue<Boolean> getTextKeepUpright() {
+    return getProperty("text-keep-upright");
+  }
+
+  public PropertyValue<Boolean> getTextAllowOverlap() {
+    return getProperty("text-allow-overlap");
+  }
+
+  public PropertyValue<Boolean> getTextIgnorePlacement() {
+    return getProperty("text-ignore-placement");
+  }
+
+  public PropertyValue<Boolean> getTextOptional() {
+    return getProperty("text-optional");
+  }
+
+  public PropertyValue<Float[]> getIconTranslate() {
+    return getProperty("icon-translate");
+  }
+
+  public PropertyValue<String> getIconTranslateAnchor() {
+    return getProperty("icon-translate-anchor");
+  }
+
+  public PropertyValue<Float[]> getTextTranslate() {
+    return getProperty("text-translate");
+  }
+
+  public PropertyValue<String> getTextTranslateAnchor() {
+    return getProperty("text-translate-anchor");
+  }
+}
@@ -0,0 +1,24 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import java.util.HashMap;
+
+/**
+ * JVM stand-in for the GeoJSON source options.
+ */
+public class GeoJsonOptions extends HashMap<String, Object> {
+
+  public GeoJsonOptions withCluster(boolean cluster) {
+    put("cluster", cluster);
+    return this;
+  }
+
+  public GeoJsonOptions withClusterMaxZoom(int clusterMaxZoom) {
+    put("clusterMaxZoom", clusterMaxZoom);
+    return this;
+  }
+
+  public GeoJsonOptions withClusterRadius(int clusterRadius) {
+    put("clusterRadius", clusterRadius);
+    return this;
+  }
+}
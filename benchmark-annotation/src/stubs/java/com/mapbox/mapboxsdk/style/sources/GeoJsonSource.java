@@ -0,0 +1,46 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+
+import java.util.ArrayList;
+
+/**
+ * JVM stand-in for the GeoJSON source.
+ * <p>
+ * Features and feature collections are serialized to GeoJSON, so every way of setting data ends with the same
+ * string as setting it directly. Parsing that string into the native representation isn't part of the measurements.
+ * </p>
+ */
+public class GeoJsonSource extends Source {
+
+  private String data;
+
+  public GeoJsonSource(String id) {
+    super(id);
+  }
+
+  public GeoJsonSource(String id, GeoJsonOptions options) {
+    super(id);
+  }
+
+  public void setGeoJson(FeatureCollection featureCollection) {
+    data = featureCollection.toJson();
+  }
+
+  public void setGeoJson(Feature feature) {
+    data = feature.toJson();
+  }
+
+  public void setGeoJson(String json) {
+    data = json;
+  }
+
+  public FeatureCollection getClusterLeaves(Feature cluster, long limit, long offset) {
+    return FeatureCollection.fromFeatures(new ArrayList<>());
+  }
+
+  public int getClusterExpansionZoom(Feature cluster) {
+    return 0;
+  }
+}
@@ -0,0 +1,17 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+/**
+ * JVM stand-in for a source.
+ */
+public abstract class Source {
+
+  private final String id;
+
+  protected Source(String id) {
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+}
@@ -0,0 +1,35 @@
+package com.mapbox.mapboxsdk.utils;
+
+import android.graphics.Color;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JVM stand-in for the color conversions between color integers and rgba strings.
+ */
+public class ColorUtils {
+
+  private static final Pattern RGBA_PATTERN =
+    Pattern.compile("rgba?\\s*\\(\\s*(\\d+\\.?\\d*)\\s*,\\s*(\\d+\\.?\\d*)\\s*,\\s*(\\d+\\.?\\d*)\\s*,?\\s*(\\d+\\.?\\d*)?\\s*\\)");
+
+  public static String colorToRgbaString(int color) {
+    float alpha = Color.alpha(color) / 255f;
+    return String.format(Locale.US, "rgba(%d, %d, %d, %.3f)",
+      Color.red(color), Color.green(color), Color.blue(color), alpha);
+  }
+
+  public static int rgbaToColor(String value) {
+    Matcher matcher = RGBA_PATTERN.matcher(value);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Not a valid rgb/rgba value: " + value);
+    }
+    String alpha = matcher.group(4);
+    return Color.argb(
+      alpha == null ? 255 : (int) (Float.parseFloat(alpha) * 255),
+      (int) Float.parseFloat(matcher.group(1)),
+      (int) Float.parseFloat(matcher.group(2)),
+      (int) Float.parseFloat(matcher.group(3)));
+  }
+}
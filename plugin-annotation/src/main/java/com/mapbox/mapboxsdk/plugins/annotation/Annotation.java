@@ -1,21 +1,32 @@
 package com.mapbox.mapboxsdk.plugins.annotation;
 
+import android.graphics.PointF;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.mapbox.android.gestures.MoveDistancesObject;
 import com.mapbox.geojson.Geometry;
 import com.mapbox.mapboxsdk.maps.Projection;
 
+import java.util.Map;
+
 public abstract class Annotation<T extends Geometry> {
 
   static final String ID_KEY = "id";
+  static final String GROUP_KEY = "annotation-group";
+  private final long id;
+  @Nullable
   protected JsonObject jsonObject;
   protected T geometry;
   private boolean isDraggable;
+  @Nullable
+  private CompactPropertyStore propertyStore;
+  private int row = -1;
 
   Annotation(long id, JsonObject jsonObject, T geometry) {
+    this.id = id;
     this.jsonObject = jsonObject;
     this.jsonObject.addProperty(ID_KEY, id);
     this.geometry = geometry;
@@ -49,13 +60,237 @@ public abstract class Annotation<T extends Geometry> {
    * @return annotation's internal ID
    */
   public long getId() {
-    return jsonObject.get(ID_KEY).getAsLong();
+    return id;
   }
 
+  /**
+   * Returns the properties of this annotation.
+   * <p>
+   * When the properties are held by a {@link CompactPropertyStore}, a new JsonObject is materialized.
+   * </p>
+   *
+   * @return the properties of the annotation
+   */
   JsonObject getFeature() {
+    if (propertyStore != null) {
+      JsonObject feature = propertyStore.toJsonObject(row);
+      feature.addProperty(ID_KEY, id);
+      return feature;
+    }
     return jsonObject;
   }
 
+  /**
+   * Write the properties of this annotation, identical to the JSON representation of {@link #getFeature()}.
+   *
+   * @param writer the writer to write the properties to
+   */
+  void writeProperties(@NonNull GeoJsonWriter writer) {
+    if (propertyStore != null) {
+      writer.beginObject();
+      propertyStore.writeProperties(row, writer);
+      writer.name(ID_KEY);
+      writer.value(id);
+      writer.endObject();
+    } else {
+      writer.writeObject(jsonObject);
+    }
+  }
+
+  /**
+   * Move the properties of this annotation into a store, releasing the JsonObject holding them.
+   *
+   * @param propertyStore the store to move the properties to
+   */
+  void attachToStore(@NonNull CompactPropertyStore propertyStore) {
+    if (this.propertyStore != null) {
+      return;
+    }
+
+    row = propertyStore.allocateRow();
+    for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+      if (!ID_KEY.equals(entry.getKey())) {
+        propertyStore.set(row, entry.getKey(), entry.getValue());
+      }
+    }
+    this.propertyStore = propertyStore;
+    jsonObject = null;
+  }
+
+  /**
+   * Move the properties of this annotation out of its store back into a JsonObject.
+   */
+  void detachFromStore() {
+    if (propertyStore == null) {
+      return;
+    }
+
+    jsonObject = getFeature();
+    propertyStore.releaseRow(row);
+    propertyStore = null;
+    row = -1;
+  }
+
+  /**
+   * Take over the geometry, properties and draggable state of another annotation of the same type.
+   * <p>
+   * If the other annotation isn't part of a group, this annotation stays in its group.
+   * </p>
+   *
+   * @param annotation the annotation to copy, its properties are moved and it shouldn't be used afterwards
+   */
+  void copyFrom(@NonNull Annotation<T> annotation) {
+    String group = annotation.isPropertySet(GROUP_KEY) ? null : getGroup();
+    geometry = annotation.geometry;
+    isDraggable = annotation.isDraggable;
+    CompactPropertyStore store = propertyStore;
+    if (store != null) {
+      store.releaseRow(row);
+      propertyStore = null;
+      row = -1;
+    }
+    jsonObject = annotation.getFeature();
+    jsonObject.addProperty(ID_KEY, id);
+    if (group != null) {
+      jsonObject.addProperty(GROUP_KEY, group);
+    }
+    if (store != null) {
+      attachToStore(store);
+    }
+  }
+
+  /**
+   * Returns whether {@link #copyFrom(Annotation)} would change this annotation.
+   * <p>
+   * Unlike {@link #equals(Object)}, properties set to null and properties left out are alike, as compact
+   * property storage leaves out unset properties.
+   * </p>
+   *
+   * @param annotation the annotation to copy
+   * @return true if the geometry, any property or the draggable state differs
+   */
+  boolean isChangedByCopy(@NonNull Annotation<T> annotation) {
+    if (isDraggable != annotation.isDraggable || !geometry.equals(annotation.geometry)) {
+      return true;
+    }
+
+    JsonObject properties = getFeature();
+    int count = 0;
+    for (Map.Entry<String, JsonElement> entry : annotation.getFeature().entrySet()) {
+      if (!entry.getValue().isJsonNull() && !ID_KEY.equals(entry.getKey())) {
+        if (!entry.getValue().equals(properties.get(entry.getKey()))) {
+          return true;
+        }
+        count++;
+      }
+    }
+
+    boolean keepsGroup = !annotation.isPropertySet(GROUP_KEY);
+    for (Map.Entry<String, JsonElement> entry : properties.entrySet()) {
+      if (!entry.getValue().isJsonNull() && !ID_KEY.equals(entry.getKey())
+        && !(keepsGroup && GROUP_KEY.equals(entry.getKey()))) {
+        count--;
+      }
+    }
+    return count != 0;
+  }
+
+  boolean isPropertySet(@NonNull String key) {
+    if (propertyStore != null) {
+      return propertyStore.isSet(row, key);
+    }
+    JsonElement value = jsonObject.get(key);
+    return value != null && !value.isJsonNull();
+  }
+
+  Float getFloatProperty(@NonNull String key) {
+    if (propertyStore != null) {
+      return propertyStore.getFloat(row, key);
+    }
+    return jsonObject.get(key).getAsFloat();
+  }
+
+  void setFloatProperty(@NonNull String key, @Nullable Float value) {
+    if (propertyStore != null) {
+      propertyStore.setFloat(row, key, value);
+    } else {
+      jsonObject.addProperty(key, value);
+    }
+    if (value != null) {
+      onPropertySet(key);
+    }
+  }
+
+  int getIntProperty(@NonNull String key) {
+    if (propertyStore != null) {
+      return propertyStore.getInt(row, key);
+    }
+    return jsonObject.get(key).getAsInt();
+  }
+
+  void setIntProperty(@NonNull String key, int value) {
+    if (propertyStore != null) {
+      propertyStore.setInt(row, key, value);
+    } else {
+      jsonObject.addProperty(key, value);
+    }
+    onPropertySet(key);
+  }
+
+  String getStringProperty(@NonNull String key) {
+    if (propertyStore != null) {
+      return propertyStore.getString(row, key);
+    }
+    return jsonObject.get(key).getAsString();
+  }
+
+  void setStringProperty(@NonNull String key, @Nullable String value) {
+    if (propertyStore != null) {
+      propertyStore.setString(row, key, value);
+    } else {
+      jsonObject.addProperty(key, value);
+    }
+    if (value != null) {
+      onPropertySet(key);
+    }
+  }
+
+  Float[] getFloatArrayProperty(@NonNull String key) {
+    if (propertyStore != null) {
+      return propertyStore.getArray(row, key, Float[].class);
+    }
+    return ConvertUtils.toFloatArray(jsonObject.getAsJsonArray(key));
+  }
+
+  String[] getStringArrayProperty(@NonNull String key) {
+    if (propertyStore != null) {
+      return propertyStore.getArray(row, key, String[].class);
+    }
+    return ConvertUtils.toStringArray(jsonObject.getAsJsonArray(key));
+  }
+
+  void setArrayProperty(@NonNull String key, @Nullable Float[] value) {
+    if (propertyStore != null) {
+      propertyStore.setArray(row, key, value);
+    } else {
+      jsonObject.add(key, ConvertUtils.convertArray(value));
+    }
+    if (value != null) {
+      onPropertySet(key);
+    }
+  }
+
+  void setArrayProperty(@NonNull String key, @Nullable String[] value) {
+    if (propertyStore != null) {
+      propertyStore.setArray(row, key, value);
+    } else {
+      jsonObject.add(key, ConvertUtils.convertArray(value));
+    }
+    if (value != null) {
+      onPropertySet(key);
+    }
+  }
+
   /**
    * Returns whether this annotation is draggable, meaning it can be dragged across the screen when touched and moved.
    *
@@ -75,11 +310,70 @@ public abstract class Annotation<T extends Geometry> {
     isDraggable = draggable;
   }
 
+  /**
+   * Set the group of this annotation, all annotations of a group are shown or hidden at once with
+   * {@link AnnotationManager#setGroupVisible(String, boolean)}.
+   * <p>
+   * To update the annotation on the map, call {@link AnnotationManager#update(Annotation)}.
+   * </p>
+   *
+   * @param group the group of the annotation, null to remove it from its group
+   */
+  public void setGroup(@Nullable String group) {
+    setStringProperty(GROUP_KEY, group);
+  }
+
+  /**
+   * Get the group of this annotation.
+   *
+   * @return the group of the annotation, null if it isn't part of a group
+   */
+  @Nullable
+  public String getGroup() {
+    return isPropertySet(GROUP_KEY) ? getStringProperty(GROUP_KEY) : null;
+  }
+
   @Nullable
   abstract Geometry getOffsetGeometry(@NonNull Projection projection, @NonNull MoveDistancesObject moveDistancesObject,
                                       float touchAreaShiftX, float touchAreaShiftY);
 
-  abstract void setUsedDataDrivenProperties();
+  /**
+   * Called when a property is set to a value, allowing the manager to enable the property on its layer the first
+   * time it's used.
+   *
+   * @param key the name of the property
+   */
+  abstract void onPropertySet(@NonNull String key);
+
+  /**
+   * Returns the z-index defining the order of this annotation within the source of its manager.
+   *
+   * @return the z-index, 0 for annotation types which don't support ordering
+   */
+  int getSourceZIndex() {
+    return 0;
+  }
+
+  /**
+   * Returns how far the rendering of this annotation extends beyond its geometry, used to hit test with the
+   * spatial index. Property defaults of the style specification apply to properties that aren't set.
+   *
+   * @param tolerance the hit tolerance in pixels, approximating the extent of content of unknown size like icons
+   * @return the extent in pixels
+   */
+  float getRenderedRadius(float tolerance) {
+    return 0;
+  }
+
+  /**
+   * Returns the offset of the rendering of this annotation from its geometry, used to hit test with the spatial index.
+   *
+   * @return the offset in pixels, x pointing right and y pointing down, null if the annotation isn't offset
+   */
+  @Nullable
+  PointF getRenderedOffset() {
+    return null;
+  }
 
   abstract String getName();
 
@@ -97,15 +391,15 @@ public abstract class Annotation<T extends Geometry> {
     if (isDraggable != that.isDraggable) {
       return false;
     }
-    if (!jsonObject.equals(that.jsonObject)) {
+    if (!geometry.equals(that.geometry)) {
       return false;
     }
-    return geometry.equals(that.geometry);
+    return getFeature().equals(that.getFeature());
   }
 
   @Override
   public int hashCode() {
-    int result = jsonObject.hashCode();
+    int result = getFeature().hashCode();
     result = 31 * result + geometry.hashCode();
     result = 31 * result + (isDraggable ? 1 : 0);
     return result;
@@ -115,7 +409,7 @@ public abstract class Annotation<T extends Geometry> {
   public String toString() {
     return getName()
       + "{geometry=" + geometry
-      + ", properties=" + jsonObject
+      + ", properties=" + getFeature()
       + ", isDraggable=" + isDraggable
       + '}';
   }
@@ -0,0 +1,395 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.animation.TimeInterpolator;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.LongSparseArray;
+import android.view.animation.LinearInterpolator;
+
+import com.mapbox.geojson.Point;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Animates annotations of an annotation manager on a single frame clock.
+ * <p>
+ * All running animations are advanced together once per rendered frame, writing the interpolated values into the
+ * annotations. The changed annotations are then committed to the source with a single update, regardless of the
+ * amount of animated annotations. Starting an animation for a property that is already animated replaces the
+ * running animation, starting from the current value.
+ * </p>
+ * <p>
+ * Obtain an instance with {@link AnnotationManager#getAnimator()}.
+ * </p>
+ *
+ * @param <T> type of annotation animated
+ */
+@UiThread
+public class AnnotationAnimator<T extends Annotation> {
+
+  /**
+   * Icon rotation of a symbol in degrees, animated along the shortest direction.
+   */
+  public static final AnimatedProperty<Symbol> ICON_ROTATE =
+    new AnimatedProperty<Symbol>(SymbolOptions.PROPERTY_iconRotate, 0, true) {
+      @Nullable
+      @Override
+      Float get(@NonNull Symbol annotation) {
+        return annotation.getIconRotate();
+      }
+
+      @Override
+      void set(@NonNull Symbol annotation, float value) {
+        annotation.setIconRotate(value);
+      }
+    };
+
+  /**
+   * Icon opacity of a symbol.
+   */
+  public static final AnimatedProperty<Symbol> ICON_OPACITY =
+    new AnimatedProperty<Symbol>(SymbolOptions.PROPERTY_iconOpacity, 1, false) {
+      @Nullable
+      @Override
+      Float get(@NonNull Symbol annotation) {
+        return annotation.getIconOpacity();
+      }
+
+      @Override
+      void set(@NonNull Symbol annotation, float value) {
+        annotation.setIconOpacity(value);
+      }
+    };
+
+  /**
+   * Text opacity of a symbol.
+   */
+  public static final AnimatedProperty<Symbol> TEXT_OPACITY =
+    new AnimatedProperty<Symbol>(SymbolOptions.PROPERTY_textOpacity, 1, false) {
+      @Nullable
+      @Override
+      Float get(@NonNull Symbol annotation) {
+        return annotation.getTextOpacity();
+      }
+
+      @Override
+      void set(@NonNull Symbol annotation, float value) {
+        annotation.setTextOpacity(value);
+      }
+    };
+
+  /**
+   * Opacity of a circle.
+   */
+  public static final AnimatedProperty<Circle> CIRCLE_OPACITY =
+    new AnimatedProperty<Circle>(CircleOptions.PROPERTY_circleOpacity, 1, false) {
+      @Nullable
+      @Override
+      Float get(@NonNull Circle annotation) {
+        return annotation.getCircleOpacity();
+      }
+
+      @Override
+      void set(@NonNull Circle annotation, float value) {
+        annotation.setCircleOpacity(value);
+      }
+    };
+
+  /**
+   * Opacity of a line.
+   */
+  public static final AnimatedProperty<Line> LINE_OPACITY =
+    new AnimatedProperty<Line>(LineOptions.PROPERTY_lineOpacity, 1, false) {
+      @Nullable
+      @Override
+      Float get(@NonNull Line annotation) {
+        return annotation.getLineOpacity();
+      }
+
+      @Override
+      void set(@NonNull Line annotation, float value) {
+        annotation.setLineOpacity(value);
+      }
+    };
+
+  /**
+   * Opacity of a fill.
+   */
+  public static final AnimatedProperty<Fill> FILL_OPACITY =
+    new AnimatedProperty<Fill>(FillOptions.PROPERTY_fillOpacity, 1, false) {
+      @Nullable
+      @Override
+      Float get(@NonNull Fill annotation) {
+        return annotation.getFillOpacity();
+      }
+
+      @Override
+      void set(@NonNull Fill annotation, float value) {
+        annotation.setFillOpacity(value);
+      }
+    };
+
+  private final AnnotationManager<?, T, ?, ?, ?, ?> annotationManager;
+  private final FrameScheduler frameScheduler;
+  private final List<Animation<T>> animations = new ArrayList<>();
+  private final LongSparseArray<T> changedAnnotations = new LongSparseArray<>();
+  private TimeInterpolator interpolator = new LinearInterpolator();
+
+  AnnotationAnimator(@NonNull AnnotationManager<?, T, ?, ?, ?, ?> annotationManager) {
+    this.annotationManager = annotationManager;
+    this.frameScheduler = new FrameScheduler(this::doFrame);
+  }
+
+  /**
+   * Set the interpolator used by animations started afterwards. Defaults to a linear interpolator.
+   *
+   * @param interpolator the interpolator
+   */
+  public void setInterpolator(@NonNull TimeInterpolator interpolator) {
+    this.interpolator = interpolator;
+  }
+
+  /**
+   * Animate the position of a symbol or circle to a location.
+   *
+   * @param annotation the symbol or circle to move
+   * @param target     the location to move to
+   * @param duration   the duration in milliseconds
+   */
+  public void animateLatLng(@NonNull T annotation, @NonNull LatLng target, long duration) {
+    if (!(annotation.getGeometry() instanceof Point)) {
+      throw new IllegalArgumentException("Only annotations with a point geometry can be moved: " + annotation);
+    }
+    start(new PositionAnimation<>(annotation, target, duration, interpolator));
+  }
+
+  /**
+   * Animate a property of an annotation to a value.
+   *
+   * @param annotation the annotation
+   * @param property   the property to animate, for example {@link #ICON_ROTATE}
+   * @param target     the value to animate to
+   * @param duration   the duration in milliseconds
+   */
+  public void animate(@NonNull T annotation, @NonNull AnimatedProperty<? super T> property, float target,
+                      long duration) {
+    start(new PropertyAnimation<>(annotation, property, target, duration, interpolator));
+  }
+
+  /**
+   * Cancel all animations of an annotation, leaving it at its current state.
+   *
+   * @param annotation the annotation
+   */
+  public void cancel(@NonNull T annotation) {
+    for (int i = animations.size() - 1; i >= 0; i--) {
+      if (animations.get(i).annotation == annotation) {
+        removeAt(i);
+      }
+    }
+    if (animations.isEmpty()) {
+      frameScheduler.cancel();
+    }
+  }
+
+  /**
+   * Cancel all animations, leaving annotations at their current state.
+   */
+  public void cancelAll() {
+    animations.clear();
+    frameScheduler.cancel();
+  }
+
+  /**
+   * Returns whether any animation is running.
+   *
+   * @return true if an animation is running
+   */
+  public boolean isRunning() {
+    return !animations.isEmpty();
+  }
+
+  private void start(@NonNull Animation<T> animation) {
+    for (int i = animations.size() - 1; i >= 0; i--) {
+      if (animations.get(i).replaces(animation)) {
+        removeAt(i);
+      }
+    }
+    animations.add(animation);
+    frameScheduler.schedule();
+  }
+
+  private void removeAt(int index) {
+    // order of animations doesn't matter, avoid shifting the list
+    int last = animations.size() - 1;
+    animations.set(index, animations.get(last));
+    animations.remove(last);
+  }
+
+  /**
+   * Advance all animations and commit the changed annotations.
+   *
+   * @param frameTimeNanos the time the frame started rendering
+   */
+  @VisibleForTesting
+  void doFrame(long frameTimeNanos) {
+    for (int i = animations.size() - 1; i >= 0; i--) {
+      Animation<T> animation = animations.get(i);
+      T annotation = animation.annotation;
+      if (!annotationManager.isActive(annotation)) {
+        // deleted while animating
+        removeAt(i);
+        continue;
+      }
+
+      if (animation.advance(frameTimeNanos)) {
+        removeAt(i);
+      }
+      changedAnnotations.put(annotation.getId(), annotation);
+    }
+
+    if (changedAnnotations.size() > 0) {
+      annotationManager.onAnimationFrame(changedAnnotations);
+      changedAnnotations.clear();
+    }
+    if (!animations.isEmpty()) {
+      frameScheduler.schedule();
+    }
+  }
+
+  /**
+   * A float property of an annotation that can be animated.
+   *
+   * @param <T> type of annotation holding the property
+   */
+  public abstract static class AnimatedProperty<T extends Annotation> {
+
+    private final String key;
+    private final float defaultValue;
+    private final boolean angle;
+
+    AnimatedProperty(@NonNull String key, float defaultValue, boolean angle) {
+      this.key = key;
+      this.defaultValue = defaultValue;
+      this.angle = angle;
+    }
+
+    @Nullable
+    abstract Float get(@NonNull T annotation);
+
+    abstract void set(@NonNull T annotation, float value);
+  }
+
+  private abstract static class Animation<T extends Annotation> {
+
+    final T annotation;
+    private final long durationNanos;
+    private final TimeInterpolator interpolator;
+    private long startNanos = -1;
+
+    Animation(@NonNull T annotation, long duration, @NonNull TimeInterpolator interpolator) {
+      this.annotation = annotation;
+      this.durationNanos = Math.max(duration, 0) * 1000000;
+      this.interpolator = interpolator;
+    }
+
+    /**
+     * Apply the value of the animation at a frame.
+     *
+     * @param frameTimeNanos the time of the frame
+     * @return true if the animation finished
+     */
+    boolean advance(long frameTimeNanos) {
+      if (startNanos < 0) {
+        // animations start with the first frame rendered after starting them
+        startNanos = frameTimeNanos;
+      }
+
+      float fraction = durationNanos == 0 ? 1 : Math.min(1, (float) (frameTimeNanos - startNanos) / durationNanos);
+      apply(fraction == 1 ? 1 : interpolator.getInterpolation(fraction));
+      return fraction == 1;
+    }
+
+    abstract void apply(float fraction);
+
+    abstract boolean replaces(@NonNull Animation<T> animation);
+  }
+
+  private static class PositionAnimation<T extends Annotation> extends Animation<T> {
+
+    private final double startLatitude;
+    private final double startLongitude;
+    private final double deltaLatitude;
+    private final double deltaLongitude;
+
+    PositionAnimation(@NonNull T annotation, @NonNull LatLng target, long duration,
+                      @NonNull TimeInterpolator interpolator) {
+      super(annotation, duration, interpolator);
+      Point start = (Point) annotation.getGeometry();
+      startLatitude = start.latitude();
+      startLongitude = start.longitude();
+      deltaLatitude = target.getLatitude() - startLatitude;
+      deltaLongitude = shortestDelta(target.getLongitude() - startLongitude, 360);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void apply(float fraction) {
+      double longitude = startLongitude + deltaLongitude * fraction;
+      if (longitude > 180) {
+        longitude -= 360;
+      } else if (longitude < -180) {
+        longitude += 360;
+      }
+      ((Annotation<Point>) annotation).setGeometry(
+        Point.fromLngLat(longitude, startLatitude + deltaLatitude * fraction));
+    }
+
+    @Override
+    boolean replaces(@NonNull Animation<T> animation) {
+      return animation.annotation == annotation && animation instanceof PositionAnimation;
+    }
+  }
+
+  private static class PropertyAnimation<T extends Annotation> extends Animation<T> {
+
+    private final AnimatedProperty<? super T> property;
+    private final float start;
+    private final float delta;
+
+    PropertyAnimation(@NonNull T annotation, @NonNull AnimatedProperty<? super T> property, float target,
+                      long duration, @NonNull TimeInterpolator interpolator) {
+      super(annotation, duration, interpolator);
+      this.property = property;
+      // getters can't read properties that were never set
+      Float current = annotation.isPropertySet(property.key) ? property.get(annotation) : null;
+      start = current != null ? current : property.defaultValue;
+      delta = property.angle ? (float) shortestDelta(target - start, 360) : target - start;
+    }
+
+    @Override
+    void apply(float fraction) {
+      property.set(annotation, start + delta * fraction);
+    }
+
+    @Override
+    boolean replaces(@NonNull Animation<T> animation) {
+      return animation.annotation == annotation && animation instanceof PropertyAnimation
+        && ((PropertyAnimation) animation).property == property;
+    }
+  }
+
+  private static double shortestDelta(double delta, double period) {
+    double wrapped = delta % period;
+    if (wrapped > period / 2) {
+      wrapped -= period;
+    } else if (wrapped < -period / 2) {
+      wrapped += period;
+    }
+    return wrapped;
+  }
+}
@@ -7,25 +7,40 @@ import android.support.annotation.UiThread;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.LongSparseArray;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.Point;
+import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
 import com.mapbox.mapboxsdk.log.Logger;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
 import com.mapbox.mapboxsdk.style.layers.Layer;
 import com.mapbox.mapboxsdk.style.layers.PropertyValue;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Generic AnnotationManager, can be used to create annotation specific managers.
@@ -45,25 +60,96 @@ public abstract class AnnotationManager<
   V extends OnAnnotationLongClickListener<T>> {
 
   private static final String TAG = "AnnotationManager";
+  private static final float DEFAULT_HIT_TOLERANCE = 24;
+  private static final float DEFAULT_VIEWPORT_CULLING_MARGIN = 0.5f;
+  private static final double VIEWPORT_CULLING_SHRINK_FACTOR = 4;
+  private static final int DEFAULT_IMPORT_CHUNK_SIZE = 1000;
 
   protected final MapboxMap mapboxMap;
   protected final LongSparseArray<T> annotations = new LongSparseArray<>();
+  private final ZIndexBuckets<Feature> features = new ZIndexBuckets<>();
+  private final LongSparseArray<T> dirtyAnnotations = new LongSparseArray<>();
+  private boolean fullUpdateRequired = true;
+  private boolean deferredUpdatesEnabled;
+  private final FrameScheduler frameScheduler = new FrameScheduler(frameTimeNanos -> flush());
+  @Nullable
+  private BackgroundSerializer backgroundSerializer;
+  @Nullable
+  private CompactPropertyStore propertyStore;
+  @Nullable
+  private GeoJsonWriter geoJsonWriter;
+  private final ZIndexBuckets<T> orderedAnnotations = new ZIndexBuckets<>();
+  private final List<T> writtenAnnotations = new ArrayList<>();
+  @Nullable
+  private SpatialGridIndex spatialIndex;
+  private boolean spatialIndexEnabled;
+  private float hitTolerance = DEFAULT_HIT_TOLERANCE;
+  // the largest extent of an indexed annotation beyond its geometry in pixels
+  private float maxRenderedExtent;
+  @Nullable
+  private ViewportCullingListener viewportCullingListener;
+  private float viewportCullingMargin = DEFAULT_VIEWPORT_CULLING_MARGIN;
+  @Nullable
+  private double[] culledRegion;
+  @Nullable
+  private LevelOfDetail levelOfDetail;
+  @Nullable
+  private LevelOfDetailListener levelOfDetailListener;
+  @Nullable
+  private AnnotationAnimator<T> animator;
+  @Nullable
+  private AnnotationMetrics metrics;
+  @Nullable
+  private OnAnnotationMetricsListener metricsListener;
+  private final FrameScheduler metricsScheduler = new FrameScheduler(frameTimeNanos -> dispatchMetrics());
   final Map<String, Boolean> dataDrivenPropertyUsageMap = new HashMap<>();
   final Map<String, PropertyValue> constantPropertyUsageMap = new HashMap<>();
+  final Map<String, PropertyValue> propertyOverrides = new HashMap<>();
+  // annotations created by submit, by key
+  private final Map<Object, T> keyedAnnotations = new HashMap<>();
+  @Nullable
+  private ParallelAnnotationBuilder parallelBuilder;
+  // sorted for a stable filter expression
+  private final Set<String> hiddenGroups = new TreeSet<>();
   Expression layerFilter;
 
   private final DraggableAnnotationController<T, D> draggableAnnotationController;
   private final List<D> dragListeners = new ArrayList<>();
   private final List<U> clickListeners = new ArrayList<>();
   private final List<V> longClickListeners = new ArrayList<>();
+  private final List<OnClusterClickListener<T>> clusterClickListeners = new ArrayList<>();
+  private final List<OnClusterLongClickListener<T>> clusterLongClickListeners = new ArrayList<>();
+  private final List<GeoJsonImporter<S>> imports = new ArrayList<>();
   private long currentId;
 
   protected L layer;
   private GeoJsonSource geoJsonSource;
-  private final MapClickResolver mapClickResolver;
+  // layers and sources of the shards following the first one, which uses the layer and source above
+  protected final List<L> shardLayers = new ArrayList<>();
+  private final List<GeoJsonSource> shardSources = new ArrayList<>();
+  private int shardCount = 1;
+  @Nullable
+  private boolean[] dirtyShards;
+  @Nullable
+  private BackgroundSerializer[] shardSerializers;
+  @Nullable
+  protected L dragLayer;
+  @Nullable
+  private GeoJsonSource dragSource;
+  @Nullable
+  private T draggedAnnotation;
+  @Nullable
+  private final ClusterOptions clusterOptions;
+  @Nullable
+  private CircleLayer clusterLayer;
+  @Nullable
+  private SymbolLayer clusterCountLayer;
+  private final MapClickDispatcher mapClickDispatcher;
   private final Comparator<Feature> comparator;
   private Style style;
   private String belowLayerId;
+  @Nullable
+  private final GeoJsonOptions geoJsonOptions;
   private CoreElementProvider<L> coreElementProvider;
 
   @UiThread
@@ -71,28 +157,31 @@ public abstract class AnnotationManager<
                               CoreElementProvider<L> coreElementProvider,
                               Comparator<Feature> comparator,
                               DraggableAnnotationController<T, D> draggableAnnotationController,
-                              String belowLayerId, GeoJsonOptions geoJsonOptions) {
+                              String belowLayerId, GeoJsonOptions geoJsonOptions,
+                              @Nullable ClusterOptions clusterOptions) {
     this.mapboxMap = mapboxMap;
     this.comparator = comparator;
     this.style = style;
     this.belowLayerId = belowLayerId;
     this.coreElementProvider = coreElementProvider;
+    this.clusterOptions = clusterOptions;
+    this.geoJsonOptions = geoJsonOptions;
+    GeoJsonOptions sourceOptions = clusterOptions != null ? clusterOptions.applyTo(geoJsonOptions) : geoJsonOptions;
 
     if (!style.isFullyLoaded()) {
       throw new RuntimeException("The style has to be non-null and fully loaded.");
     }
 
-    mapboxMap.addOnMapClickListener(mapClickResolver = new MapClickResolver());
-    mapboxMap.addOnMapLongClickListener(mapClickResolver);
+    mapClickDispatcher = MapClickDispatcher.register(mapboxMap, this);
     this.draggableAnnotationController = draggableAnnotationController;
     draggableAnnotationController.injectAnnotationManager(this);
 
-    initializeSourcesAndLayers(geoJsonOptions);
+    initializeSourcesAndLayers(sourceOptions);
 
     mapView.addOnDidFinishLoadingStyleListener(() ->
       mapboxMap.getStyle(loadedStyle -> {
         this.style = loadedStyle;
-        initializeSourcesAndLayers(geoJsonOptions);
+        initializeSourcesAndLayers(sourceOptions);
       })
     );
   }
@@ -116,9 +205,13 @@ public abstract class AnnotationManager<
   @UiThread
   public T create(S options) {
     T t = options.build(currentId, this);
+    if (propertyStore != null) {
+      t.attachToStore(propertyStore);
+    }
     annotations.put(t.getId(), t);
+    markDirty(t);
     currentId++;
-    updateSource();
+    updateChangedAnnotations();
     return t;
   }
 
@@ -130,14 +223,267 @@ public abstract class AnnotationManager<
    */
   @UiThread
   public List<T> create(List<S> optionsList) {
+    List<T> annotationList = createAnnotations(optionsList);
+    updateChangedAnnotations();
+    return annotationList;
+  }
+
+  /**
+   * Create a large list of annotations on the map, building them in parallel.
+   * <p>
+   * Like {@link #create(List)}, but the annotations are built on a pool of worker threads, in ranges of at least
+   * {@value ParallelAnnotationBuilder#MIN_RANGE_SIZE} options, before they are added on the main thread and the
+   * source is updated once. Ids are assigned up front in the order of the list, the result is the same as the
+   * one of {@link #create(List)}.
+   * </p>
+   *
+   * @param optionsList the list of annotation options defining the list of annotations to build
+   * @return the list of build annotations
+   */
+  @UiThread
+  public List<T> createParallel(@NonNull List<S> optionsList) {
+    if (parallelBuilder == null) {
+      parallelBuilder = new ParallelAnnotationBuilder();
+    }
+    List<T> annotationList = parallelBuilder.build(optionsList, currentId, this);
+    currentId += annotationList.size();
+
+    int index = 0;
+    for (S options : optionsList) {
+      options.enableDataDrivenProperties(this);
+      T annotation = annotationList.get(index++);
+      if (propertyStore != null) {
+        annotation.attachToStore(propertyStore);
+      }
+      annotations.put(annotation.getId(), annotation);
+      markDirty(annotation);
+    }
+    updateChangedAnnotations();
+    return annotationList;
+  }
+
+  /**
+   * Reconcile the annotations of this manager with a list of options, matched by key.
+   * <p>
+   * Annotations submitted before with a key found in the list are kept and updated when their options changed,
+   * options with a new key create an annotation and submitted annotations whose key is missing are deleted.
+   * Unchanged annotations aren't serialized again and the source is updated at most once, submitting the full list
+   * after every change of the application state costs roughly the size of the change. Annotations created without
+   * this method aren't affected, and annotations keep the group set with {@link Annotation#setGroup(String)} unless
+   * their options set a group.
+   * </p>
+   *
+   * @param optionsList the options of all annotations to show
+   * @param keyFunction provides the key identifying the annotation of an options object
+   * @return the annotations, in the order of the options
+   * @throws IllegalArgumentException if two options have the same key
+   */
+  @UiThread
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public List<T> submit(@NonNull List<S> optionsList, @NonNull KeyFunction<S> keyFunction) {
+    Map<Object, T> submitted = new HashMap<>();
+    List<Object> keys = new ArrayList<>(optionsList.size());
+    for (S options : optionsList) {
+      Object key = keyFunction.getKey(options);
+      if (submitted.containsKey(key)) {
+        throw new IllegalArgumentException("Duplicate key: " + key);
+      }
+      // keys are checked before changing any annotation
+      submitted.put(key, null);
+      keys.add(key);
+    }
+
+    boolean changed = false;
+    List<T> annotationList = new ArrayList<>(optionsList.size());
+    for (int i = 0; i < optionsList.size(); i++) {
+      Object key = keys.get(i);
+      T annotation = keyedAnnotations.remove(key);
+      if (annotation != null && isActive(annotation)) {
+        T updated = optionsList.get(i).build(annotation.getId(), this);
+        if (annotation.isChangedByCopy(updated)) {
+          annotation.copyFrom(updated);
+          markDirty(annotation);
+          changed = true;
+        }
+      } else {
+        annotation = optionsList.get(i).build(currentId, this);
+        if (propertyStore != null) {
+          annotation.attachToStore(propertyStore);
+        }
+        annotations.put(annotation.getId(), annotation);
+        markDirty(annotation);
+        currentId++;
+        changed = true;
+      }
+      submitted.put(key, annotation);
+      annotationList.add(annotation);
+    }
+
+    for (T annotation : keyedAnnotations.values()) {
+      // skip annotations deleted since they were submitted
+      if (isActive(annotation)) {
+        annotations.remove(annotation.getId());
+        removeFeature(annotation.getId());
+        annotation.detachFromStore();
+        changed = true;
+      }
+    }
+    keyedAnnotations.clear();
+    keyedAnnotations.putAll(submitted);
+    if (changed) {
+      updateChangedAnnotations();
+    }
+    return annotationList;
+  }
+
+  /**
+   * Import annotations from a GeoJSON feature collection, reading the collection incrementally.
+   * <p>
+   * Features are parsed on a background thread, annotations are created on the main thread in chunks of
+   * 1000 and the source is updated once per chunk. Unlike creating annotations from a GeoJSON string, the
+   * memory used is bounded by the chunk size instead of the size of the input. Supports the same properties
+   * as creating annotations from a GeoJSON string.
+   * </p>
+   *
+   * @param inputStream the UTF-8 encoded GeoJSON feature collection, closed when the import finishes
+   * @param listener    optional callback notified of the progress of the import
+   */
+  @UiThread
+  public void importGeoJson(@NonNull InputStream inputStream, @Nullable OnAnnotationImportListener<T> listener) {
+    importGeoJson(new InputStreamReader(inputStream, Charset.forName("UTF-8")), DEFAULT_IMPORT_CHUNK_SIZE, true,
+      listener);
+  }
+
+  /**
+   * Import annotations from a GeoJSON feature collection, reading the collection incrementally.
+   * <p>
+   * Features are parsed on a background thread, annotations are created on the main thread in chunks.
+   * The parser doesn't get more than two chunks ahead of the main thread, bounding the memory used by
+   * the import regardless of the size of the input. Supports the same properties as creating annotations
+   * from a GeoJSON string. Imports still running are canceled by {@link #onDestroy()}.
+   * </p>
+   *
+   * @param reader         the GeoJSON feature collection, closed when the import finishes
+   * @param chunkSize      the maximum amount of annotations created at once
+   * @param commitPerChunk true to update the source after every chunk, false to update it once at the end
+   * @param listener       optional callback notified of the progress of the import
+   */
+  @UiThread
+  public void importGeoJson(@NonNull Reader reader, int chunkSize, boolean commitPerChunk,
+                            @Nullable OnAnnotationImportListener<T> listener) {
+    GeoJsonImporter<S> importer = new GeoJsonImporter<>();
+    imports.add(importer);
+    importer.start(reader, chunkSize, this::optionsFromFeature, new GeoJsonImporter.Callback<S>() {
+      @Override
+      public void onChunk(@NonNull List<S> options, int featureCount) {
+        List<T> annotationList = createAnnotations(options);
+        if (commitPerChunk) {
+          updateChangedAnnotations();
+        }
+        if (listener != null) {
+          listener.onAnnotationsImported(annotationList, featureCount);
+        }
+      }
+
+      @Override
+      public void onFinished(int featureCount) {
+        imports.remove(importer);
+        if (!commitPerChunk) {
+          updateChangedAnnotations();
+        }
+        if (listener != null) {
+          listener.onImportFinished(featureCount);
+        }
+      }
+
+      @Override
+      public void onFailed(@NonNull Exception exception) {
+        imports.remove(importer);
+        if (!commitPerChunk) {
+          updateChangedAnnotations();
+        }
+        if (listener != null) {
+          listener.onImportFailed(exception);
+        }
+      }
+    });
+  }
+
+  /**
+   * Write all annotations of this manager into a compact binary snapshot.
+   * <p>
+   * The snapshot can be kept in a Bundle, a file or a retained object and restored with
+   * {@link #restoreSnapshot(byte[])}, for example when an activity is recreated after a configuration change.
+   * Annotations keep their ids, geometries, properties and whether they are draggable.
+   * </p>
+   *
+   * @return the snapshot
+   */
+  @UiThread
+  @NonNull
+  public byte[] createSnapshot() {
+    return AnnotationSnapshot.write(getAnnotationLayerId(), annotations);
+  }
+
+  /**
+   * Restore the annotations of a snapshot created with {@link #createSnapshot()}.
+   * <p>
+   * Annotations are recreated with their original ids directly from the snapshot, without building options.
+   * The data-driven properties used by the snapshot are enabled once up front and the source is updated once.
+   * </p>
+   *
+   * @param snapshot the snapshot to restore
+   * @return the restored annotations, ordered by id
+   * @throws IllegalArgumentException if the snapshot is invalid, holds another type of annotations or
+   *                                  holds an annotation with the id of an annotation of this manager
+   */
+  @UiThread
+  @NonNull
+  public List<T> restoreSnapshot(@NonNull byte[] snapshot) {
+    List<T> annotationList = new ArrayList<>();
+    AnnotationSnapshot.read(snapshot, getAnnotationLayerId(), new AnnotationSnapshot.Reader() {
+      @Override
+      public void onPropertyKey(@NonNull String key) {
+        enableDataDrivenProperty(key);
+      }
+
+      @Override
+      public void onAnnotation(long id, boolean draggable, @NonNull JsonObject properties,
+                               @NonNull Geometry geometry) {
+        if (annotations.get(id) != null) {
+          throw new IllegalArgumentException("An annotation with id " + id + " already exists.");
+        }
+        T annotation = createAnnotation(id, properties, geometry);
+        annotation.setDraggable(draggable);
+        annotationList.add(annotation);
+      }
+    });
+
+    for (T annotation : annotationList) {
+      if (propertyStore != null) {
+        annotation.attachToStore(propertyStore);
+      }
+      annotations.put(annotation.getId(), annotation);
+      markDirty(annotation);
+      currentId = Math.max(currentId, annotation.getId() + 1);
+    }
+    updateChangedAnnotations();
+    return annotationList;
+  }
+
+  private List<T> createAnnotations(List<S> optionsList) {
     List<T> annotationList = new ArrayList<>();
     for (S options : optionsList) {
       T annotation = options.build(currentId, this);
+      if (propertyStore != null) {
+        annotation.attachToStore(propertyStore);
+      }
       annotationList.add(annotation);
       annotations.put(annotation.getId(), annotation);
+      markDirty(annotation);
       currentId++;
     }
-    updateSource();
     return annotationList;
   }
 
@@ -149,7 +495,9 @@ public abstract class AnnotationManager<
   @UiThread
   public void delete(T annotation) {
     annotations.remove(annotation.getId());
-    updateSource();
+    removeFeature(annotation.getId());
+    annotation.detachFromStore();
+    updateChangedAnnotations();
   }
 
   /**
@@ -161,8 +509,10 @@ public abstract class AnnotationManager<
   public void delete(List<T> annotationList) {
     for (T annotation : annotationList) {
       annotations.remove(annotation.getId());
+      removeFeature(annotation.getId());
+      annotation.detachFromStore();
     }
-    updateSource();
+    updateChangedAnnotations();
   }
 
   /**
@@ -170,8 +520,23 @@ public abstract class AnnotationManager<
    */
   @UiThread
   public void deleteAll() {
+    if (propertyStore != null) {
+      // deleted annotations keep using the previous store, which is released together with them
+      propertyStore = new CompactPropertyStore();
+    }
     annotations.clear();
-    updateSource();
+    keyedAnnotations.clear();
+    features.clear();
+    orderedAnnotations.clear();
+    dirtyAnnotations.clear();
+    if (spatialIndex != null) {
+      spatialIndex.clear();
+    }
+    if (levelOfDetail != null) {
+      levelOfDetail.clear();
+    }
+    markAllShardsDirty();
+    updateChangedAnnotations();
   }
 
   /**
@@ -181,13 +546,11 @@ public abstract class AnnotationManager<
    */
   @UiThread
   public void update(T annotation) {
-    if (annotations.containsValue(annotation)) {
-      annotations.put(annotation.getId(), annotation);
-      updateSource();
+    if (isActive(annotation)) {
+      markDirty(annotation);
+      updateChangedAnnotations();
     } else {
-      Logger.e(TAG, "Can't update annotation: "
-        + annotation.toString()
-        + ", the annotation isn't active annotation.");
+      logInactiveUpdate(annotation);
     }
   }
 
@@ -199,206 +562,1878 @@ public abstract class AnnotationManager<
   @UiThread
   public void update(List<T> annotationList) {
     for (T annotation : annotationList) {
-      annotations.put(annotation.getId(), annotation);
+      if (isActive(annotation)) {
+        markDirty(annotation);
+      } else {
+        logInactiveUpdate(annotation);
+      }
     }
-    updateSource();
+    updateChangedAnnotations();
   }
 
   /**
-   * Trigger an update to the underlying source
+   * Returns whether an annotation belongs to this manager and wasn't deleted.
+   * <p>
+   * Annotations are looked up by id and compared by identity, without comparing their properties.
+   * </p>
+   *
+   * @param annotation the annotation
+   * @return true if the annotation is active
    */
-  public void updateSource() {
-    draggableAnnotationController.onSourceUpdated();
-    internalUpdateSource();
+  boolean isActive(@NonNull T annotation) {
+    return annotations.get(annotation.getId()) == annotation;
   }
 
-  void internalUpdateSource() {
-    if (!style.isFullyLoaded()) {
-      // We are in progress of loading a new style
-      return;
-    }
-
-    List<Feature> features = new ArrayList<>();
-    T t;
-    for (int i = 0; i < annotations.size(); i++) {
-      t = annotations.valueAt(i);
-      features.add(Feature.fromGeometry(t.getGeometry(), t.getFeature()));
-      t.setUsedDataDrivenProperties();
-    }
-
-    if (comparator != null) {
-      Collections.sort(features, comparator);
-    }
-    geoJsonSource.setGeoJson(FeatureCollection.fromFeatures(features));
+  private void logInactiveUpdate(@NonNull T annotation) {
+    Logger.e(TAG, "Can't update annotation: "
+      + annotation.toString()
+      + ", the annotation isn't active annotation.");
   }
 
-  void enableDataDrivenProperty(@NonNull String property) {
-    if (dataDrivenPropertyUsageMap.get(property).equals(false)) {
-      dataDrivenPropertyUsageMap.put(property, true);
-      setDataDrivenPropertyIsUsed(property);
+  /**
+   * Trigger an update to the underlying source.
+   * <p>
+   * All annotations are serialized again, use this method when annotations were mutated
+   * without calling {@link #update(Annotation)}.
+   * </p>
+   */
+  public void updateSource() {
+    fullUpdateRequired = true;
+    if (spatialIndex != null) {
+      rebuildSpatialIndex();
     }
+    updateChangedAnnotations();
   }
 
-  protected abstract void setDataDrivenPropertyIsUsed(@NonNull String property);
-
   /**
-   * Add a callback to be invoked when an annotation is dragged.
+   * Set whether changes to annotations are committed to the source once per rendered frame.
+   * <p>
+   * When enabled, creating, updating and deleting annotations only marks them as changed and the
+   * source is updated once with the next frame, regardless of the amount of changes made in between.
+   * Use {@link #flush()} to commit pending changes immediately.
+   * </p>
    *
-   * @param d the callback to be invoked when an annotation is dragged
+   * @param enabled true to coalesce source updates per frame, false to update the source for every change
    */
   @UiThread
-  public void addDragListener(@NonNull D d) {
-    dragListeners.add(d);
+  public void setDeferredUpdatesEnabled(boolean enabled) {
+    deferredUpdatesEnabled = enabled;
+    if (!enabled && frameScheduler.isScheduled()) {
+      flush();
+    }
   }
 
   /**
-   * Remove a previously added callback that was to be invoked when an annotation has been dragged.
+   * Returns whether changes to annotations are committed to the source once per rendered frame.
    *
-   * @param d the callback to be removed
+   * @return true if source updates are coalesced per frame
+   */
+  public boolean isDeferredUpdatesEnabled() {
+    return deferredUpdatesEnabled;
+  }
+
+  /**
+   * Commit pending annotation changes to the source immediately.
+   * <p>
+   * Only relevant when deferred updates are enabled, see {@link #setDeferredUpdatesEnabled(boolean)}.
+   * </p>
    */
   @UiThread
-  public void removeDragListener(@NonNull D d) {
-    dragListeners.remove(d);
+  public void flush() {
+    frameScheduler.cancel();
+    draggableAnnotationController.onSourceUpdated();
+    internalUpdateSource();
   }
 
   /**
-   * Add a callback to be invoked when a symbol has been clicked.
+   * Get the animator advancing animations of the annotations of this manager on a single frame clock.
+   * <p>
+   * Changes made by all running animations are committed to the source with a single update per frame.
+   * </p>
    *
-   * @param u the callback to be invoked when a symbol is clicked
+   * @return the animator
    */
   @UiThread
-  public void addClickListener(@NonNull U u) {
-    clickListeners.add(u);
+  @NonNull
+  public AnnotationAnimator<T> getAnimator() {
+    if (animator == null) {
+      animator = new AnnotationAnimator<>(this);
+    }
+    return animator;
   }
 
   /**
-   * Remove a previously added callback that was to be invoked when symbol has been clicked.
+   * Commit the annotations changed by running animations, invoked once per frame.
    *
-   * @param u the callback to be removed
+   * @param changedAnnotations the annotations changed with this frame
    */
-  @UiThread
-  public void removeClickListener(@NonNull U u) {
-    clickListeners.remove(u);
+  void onAnimationFrame(@NonNull LongSparseArray<T> changedAnnotations) {
+    for (int i = 0; i < changedAnnotations.size(); i++) {
+      markDirty(changedAnnotations.valueAt(i));
+    }
+    // already in a frame callback, deferring to the next frame would only add latency
+    flush();
   }
 
   /**
-   * Add a callback to be invoked when a symbol has been long clicked.
+   * Set a listener receiving performance metrics of this manager.
+   * <p>
+   * Metrics are only collected while a listener is set, counters start at 0 when setting a listener while
+   * none was set. The listener is invoked at most once per rendered frame after metrics changed, see
+   * {@link AnnotationMetrics} for the available metrics.
+   * </p>
    *
-   * @param v the callback to be invoked when a symbol is clicked
+   * @param listener the listener to receive metrics, null to stop collecting metrics
    */
   @UiThread
-  public void addLongClickListener(@NonNull V v) {
-    longClickListeners.add(v);
+  public void setMetricsListener(@Nullable OnAnnotationMetricsListener listener) {
+    metricsListener = listener;
+    if (listener == null) {
+      metrics = null;
+      metricsScheduler.cancel();
+    } else if (metrics == null) {
+      metrics = new AnnotationMetrics();
+    }
   }
 
   /**
-   * Remove a previously added callback that was to be invoked when symbol has been long clicked.
+   * Get the performance metrics collected while a metrics listener is set.
    *
-   * @param v the callback to be removed
+   * @return the metrics, null if no metrics listener is set
    */
   @UiThread
-  public void removeLongClickListener(@NonNull V v) {
-    longClickListeners.remove(v);
+  @Nullable
+  public AnnotationMetrics getMetrics() {
+    return metrics;
   }
 
-  @VisibleForTesting
-  List<U> getClickListeners() {
-    return clickListeners;
+  private void dispatchMetrics() {
+    if (metricsListener != null && metrics != null) {
+      metricsListener.onMetricsUpdated(metrics);
+    }
   }
 
-  @VisibleForTesting
-  List<V> getLongClickListeners() {
-    return longClickListeners;
+  /**
+   * Set whether annotations are converted to GeoJSON on a background thread.
+   * <p>
+   * When enabled, a snapshot of the changed annotations is taken on the main thread while sorting and
+   * conversion to GeoJSON happen on a background thread. The source is updated asynchronously with the
+   * result, results of snapshots that have been superseded by a newer one are dropped.
+   * </p>
+   *
+   * @param enabled true to serialize annotations on a background thread, false to serialize on the main thread
+   */
+  @UiThread
+  public void setBackgroundSerializationEnabled(boolean enabled) {
+    if (enabled != isBackgroundSerializationEnabled()) {
+      setBackgroundSerializer(enabled ? new BackgroundSerializer() : null);
+    }
   }
 
-  List<D> getDragListeners() {
-    return dragListeners;
+  @VisibleForTesting
+  void setBackgroundSerializer(@Nullable BackgroundSerializer serializer) {
+    if (backgroundSerializer != null) {
+      backgroundSerializer.cancel();
+      cancelShardSerializers();
+    }
+    backgroundSerializer = serializer;
+    // cached features either need to be detached from or attached to the annotation properties
+    updateSource();
   }
 
   /**
-   * Cleanup annotation manager, used to clear listeners
+   * Returns whether annotations are converted to GeoJSON on a background thread.
+   *
+   * @return true if annotations are serialized on a background thread
    */
-  @UiThread
-  public void onDestroy() {
-    mapboxMap.removeOnMapClickListener(mapClickResolver);
-    mapboxMap.removeOnMapLongClickListener(mapClickResolver);
-    dragListeners.clear();
-    clickListeners.clear();
-    longClickListeners.clear();
+  public boolean isBackgroundSerializationEnabled() {
+    return backgroundSerializer != null;
   }
 
-  abstract String getAnnotationLayerId();
-
-  abstract String getAnnotationIdKey();
-
-  abstract void initializeDataDrivenPropertyMap();
-
-  abstract void setFilter(@NonNull Expression expression);
-
-  private void initializeSourcesAndLayers(GeoJsonOptions geoJsonOptions) {
-    geoJsonSource = coreElementProvider.getSource(geoJsonOptions);
-    layer = coreElementProvider.getLayer();
-
-    style.addSource(geoJsonSource);
-    if (belowLayerId == null) {
-      style.addLayer(layer);
-    } else {
-      style.addLayerBelow(layer, belowLayerId);
+  /**
+   * Set whether annotation properties are kept in a compact, column based store.
+   * <p>
+   * By default every annotation holds its properties in a JsonObject. When enabled, properties of all
+   * annotations of this manager are kept in primitive arrays per property instead, which greatly reduces
+   * memory usage and garbage collection pressure for large amounts of annotations. Features are only
+   * materialized when the source is updated. Annotation getters and setters keep working in both modes.
+   * </p>
+   *
+   * @param enabled true to use compact property storage, false to use a JsonObject per annotation
+   */
+  @UiThread
+  public void setCompactPropertyStorageEnabled(boolean enabled) {
+    if (enabled == isCompactPropertyStorageEnabled()) {
+      return;
     }
 
-    initializeDataDrivenPropertyMap();
-    layer.setProperties(constantPropertyUsageMap.values().toArray(new PropertyValue[0]));
-    if (layerFilter != null) {
-      setFilter(layerFilter);
+    if (enabled) {
+      propertyStore = new CompactPropertyStore();
+      for (int i = 0; i < annotations.size(); i++) {
+        annotations.valueAt(i).attachToStore(propertyStore);
+      }
+      features.clear();
+    } else {
+      for (int i = 0; i < annotations.size(); i++) {
+        annotations.valueAt(i).detachFromStore();
+      }
+      propertyStore = null;
     }
-
     updateSource();
   }
 
   /**
-   * Inner class for transforming map click events into annotation clicks
+   * Returns whether annotation properties are kept in a compact, column based store.
+   *
+   * @return true if compact property storage is used
    */
-  private class MapClickResolver implements MapboxMap.OnMapClickListener, MapboxMap.OnMapLongClickListener {
-
-    @Override
-    public boolean onMapClick(@NonNull LatLng point) {
-      if (clickListeners.isEmpty()) {
-        return false;
-      }
+  public boolean isCompactPropertyStorageEnabled() {
+    return propertyStore != null;
+  }
 
-      T annotation = queryMapForFeatures(point);
-      if (annotation != null) {
-        for (U clickListener : clickListeners) {
-          clickListener.onAnnotationClick(annotation);
-        }
-      }
-      return false;
+  /**
+   * Set whether annotations are written to GeoJSON directly.
+   * <p>
+   * By default a Feature is created for every annotation, which are combined into a FeatureCollection when
+   * updating the source. When enabled, the geometry and properties of annotations are written straight into
+   * a reusable buffer instead, avoiding the intermediate objects. The resulting GeoJSON is identical.
+   * Annotations are written on the main thread, background serialization doesn't apply in this mode.
+   * </p>
+   *
+   * @param enabled true to write annotations to GeoJSON directly
+   */
+  @UiThread
+  public void setDirectSerializationEnabled(boolean enabled) {
+    if (enabled == isDirectSerializationEnabled()) {
+      return;
     }
 
-    @Override
-    public boolean onMapLongClick(@NonNull LatLng point) {
-      if (longClickListeners.isEmpty()) {
-        return false;
-      }
+    if (enabled && comparator != null) {
+      Logger.e(TAG, "Can't enable direct serialization, annotations are ordered by a custom comparator.");
+      return;
+    }
 
-      T annotation = queryMapForFeatures(point);
-      if (annotation != null) {
-        for (V clickListener : longClickListeners) {
-          clickListener.onAnnotationLongClick(annotation);
-        }
-      }
-      return false;
+    geoJsonWriter = enabled ? new GeoJsonWriter() : null;
+    if (geoJsonWriter != null) {
+      geoJsonWriter.setLevelOfDetail(levelOfDetail);
     }
+    features.clear();
+    orderedAnnotations.clear();
+    updateSource();
   }
 
-  @Nullable
-  private T queryMapForFeatures(@NonNull LatLng point) {
-    return queryMapForFeatures(mapboxMap.getProjection().toScreenLocation(point));
+  /**
+   * Returns whether annotations are written to GeoJSON directly.
+   *
+   * @return true if annotations are written to GeoJSON directly
+   */
+  public boolean isDirectSerializationEnabled() {
+    return geoJsonWriter != null;
+  }
+
+  /**
+   * Set whether annotations are kept in an in-memory spatial index.
+   * <p>
+   * The index is maintained as annotations are created, updated and deleted. When enabled, clicks, long clicks
+   * and drags are resolved through the index instead of querying rendered features of the map, see
+   * {@link #setHitTolerance(float)}. The index can't evaluate layer filters, while a filter is set with
+   * {@code setFilter} rendered features are queried to honour it. The index also speeds up
+   * {@link #getAnnotationsIn(LatLngBounds)} and {@link #getNearest(LatLng, float)}.
+   * </p>
+   *
+   * @param enabled true to maintain a spatial index
+   */
+  @UiThread
+  public void setSpatialIndexEnabled(boolean enabled) {
+    if (enabled == spatialIndexEnabled) {
+      return;
+    }
+
+    spatialIndexEnabled = enabled;
+    if (enabled && spatialIndex == null) {
+      spatialIndex = new SpatialGridIndex();
+      rebuildSpatialIndex();
+    } else if (!enabled && viewportCullingListener == null) {
+      spatialIndex = null;
+    }
+  }
+
+  /**
+   * Returns whether annotations are kept in an in-memory spatial index.
+   *
+   * @return true if a spatial index is maintained
+   */
+  public boolean isSpatialIndexEnabled() {
+    return spatialIndexEnabled;
+  }
+
+  /**
+   * Set whether only annotations near the visible region of the map are added to the source.
+   * <p>
+   * When enabled, the source only contains annotations intersecting the visible region extended by a margin,
+   * see {@link #setViewportCullingMargin(float)}. The region is re-evaluated while the camera moves, as soon as
+   * the visible region leaves the extended region, and when the camera becomes idle. Serialization cost and
+   * memory used by the map then depend on the annotations in view instead of all annotations.
+   * </p>
+   * <p>
+   * Annotations are kept in a spatial index while viewport culling is enabled. Annotations mutated without calling
+   * {@link #update(Annotation)} require a call to {@link #updateSource()}.
+   * </p>
+   *
+   * @param enabled true to only add annotations near the visible region to the source
+   */
+  @UiThread
+  public void setViewportCullingEnabled(boolean enabled) {
+    if (enabled == isViewportCullingEnabled()) {
+      return;
+    }
+
+    if (enabled) {
+      viewportCullingListener = new ViewportCullingListener();
+      mapboxMap.addOnCameraMoveListener(viewportCullingListener);
+      mapboxMap.addOnCameraIdleListener(viewportCullingListener);
+      if (spatialIndex == null) {
+        spatialIndex = new SpatialGridIndex();
+      }
+      culledRegion = calculateCulledRegion();
+    } else {
+      removeViewportCullingListener();
+      culledRegion = null;
+      if (!spatialIndexEnabled) {
+        spatialIndex = null;
+      }
+    }
+    updateSource();
+  }
+
+  /**
+   * Returns whether only annotations near the visible region of the map are added to the source.
+   *
+   * @return true if viewport culling is enabled
+   */
+  public boolean isViewportCullingEnabled() {
+    return viewportCullingListener != null;
+  }
+
+  /**
+   * Set the margin around the visible region in which annotations are added to the source with viewport culling.
+   * <p>
+   * The margin is relative to the size of the visible region and applied on every side, a margin of 0.5 results
+   * in a region twice as wide and high as the visible region. Larger margins update the source less often while
+   * panning at the cost of more annotations in the source. Defaults to 0.5.
+   * </p>
+   *
+   * @param margin the margin relative to the size of the visible region
+   */
+  @UiThread
+  public void setViewportCullingMargin(float margin) {
+    if (margin < 0) {
+      throw new IllegalArgumentException("The viewport culling margin can't be negative: " + margin);
+    }
+
+    viewportCullingMargin = margin;
+    if (culledRegion != null) {
+      updateCulledRegion();
+    }
+  }
+
+  /**
+   * Get the margin around the visible region in which annotations are added to the source with viewport culling.
+   *
+   * @return the margin relative to the size of the visible region
+   */
+  public float getViewportCullingMargin() {
+    return viewportCullingMargin;
+  }
+
+  /**
+   * Set whether line and polygon geometries are simplified depending on the zoom level.
+   *
+   * @param enabled true to simplify geometries
+   */
+  @UiThread
+  void setLevelOfDetailEnabled(boolean enabled) {
+    if (enabled == isLevelOfDetailEnabled()) {
+      return;
+    }
+
+    if (enabled) {
+      levelOfDetail = new LevelOfDetail();
+      levelOfDetail.setZoom(mapboxMap.getCameraPosition().zoom);
+      levelOfDetailListener = new LevelOfDetailListener();
+      mapboxMap.addOnCameraMoveListener(levelOfDetailListener);
+      mapboxMap.addOnCameraIdleListener(levelOfDetailListener);
+    } else {
+      removeLevelOfDetailListener();
+      levelOfDetail = null;
+    }
+    if (geoJsonWriter != null) {
+      geoJsonWriter.setLevelOfDetail(levelOfDetail);
+    }
+    updateSource();
+  }
+
+  /**
+   * Returns whether line and polygon geometries are simplified depending on the zoom level.
+   *
+   * @return true if geometries are simplified
+   */
+  boolean isLevelOfDetailEnabled() {
+    return levelOfDetail != null;
+  }
+
+  private void removeLevelOfDetailListener() {
+    if (levelOfDetailListener != null) {
+      mapboxMap.removeOnCameraMoveListener(levelOfDetailListener);
+      mapboxMap.removeOnCameraIdleListener(levelOfDetailListener);
+      levelOfDetailListener = null;
+    }
+  }
+
+  /**
+   * Set the maximum distance between a touch and a rendered annotation for the annotation to be hit.
+   * <p>
+   * Only used when the spatial index is enabled, see {@link #setSpatialIndexEnabled(boolean)}.
+   * The rendered extent of circles and lines is derived from their radius, width and offset. Icons of symbols are
+   * of unknown size, the tolerance is scaled with their icon size and moved by their icon offset.
+   * Touches inside of fills always hit. Defaults to 24 pixels.
+   * </p>
+   *
+   * @param hitTolerance the tolerance in pixels
+   */
+  public void setHitTolerance(float hitTolerance) {
+    this.hitTolerance = hitTolerance;
+    if (spatialIndex != null) {
+      // the extent of symbols is derived from the tolerance
+      rebuildSpatialIndex();
+    }
+  }
+
+  /**
+   * Get the maximum distance between a touch and an annotation's geometry for the annotation to be hit.
+   *
+   * @return the tolerance in pixels
+   */
+  public float getHitTolerance() {
+    return hitTolerance;
+  }
+
+  /**
+   * Override a data-driven property for all annotations, for example {@code setPropertyOverride(iconOpacity(0.5f))}
+   * to dim all symbols.
+   * <p>
+   * The override is set on the layer, the annotations keep their own values and the source isn't updated.
+   * Setting a null value clears the override, see {@link #clearPropertyOverride(String)}.
+   * </p>
+   *
+   * @param value the property value, a constant or an expression
+   */
+  public void setPropertyOverride(@NonNull PropertyValue<?> value) {
+    setPropertyOverride(value, null);
+  }
+
+  /**
+   * Override a data-driven property for the annotations matching a filter, for example
+   * {@code setPropertyOverride(circleColor(Color.RED), gt(get("circle-radius"), 10))} to highlight large circles.
+   * <p>
+   * The layer evaluates the filter for every annotation, annotations not matching it keep their own value.
+   * The override is set on the layer, the annotations keep their own values and the source isn't updated.
+   * Setting a null value clears the override, see {@link #clearPropertyOverride(String)}.
+   * </p>
+   *
+   * @param value  the property value, a constant or an expression
+   * @param filter the filter expression selecting the annotations to override, null to override all annotations
+   */
+  public void setPropertyOverride(@NonNull PropertyValue<?> value, @Nullable Expression filter) {
+    if (!dataDrivenPropertyUsageMap.containsKey(value.name)) {
+      throw new IllegalArgumentException("Only data-driven properties can be overridden: " + value.name);
+    }
+    if (value.value == null) {
+      clearPropertyOverride(value.name);
+      return;
+    }
+
+    PropertyValue override = value;
+    if (filter != null) {
+      Expression overrideValue = value.value instanceof Expression
+        ? (Expression) value.value : Expression.literal(value.value);
+      override = new PropertyValue<>(value.name,
+        Expression.switchCase(filter, overrideValue, Expression.get(value.name)));
+    }
+    propertyOverrides.put(value.name, override);
+    layer.setProperties(override);
+    for (L shardLayer : shardLayers) {
+      shardLayer.setProperties(override);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(override);
+    }
+  }
+
+  /**
+   * Clear the override of a data-driven property, showing the values of the annotations again.
+   *
+   * @param property the name of the property, for example {@code "icon-opacity"}
+   */
+  public void clearPropertyOverride(@NonNull String property) {
+    if (propertyOverrides.remove(property) == null) {
+      return;
+    }
+
+    resetDataDrivenProperty(property, layer);
+    for (L shardLayer : shardLayers) {
+      resetDataDrivenProperty(property, shardLayer);
+    }
+    if (dragLayer != null) {
+      resetDataDrivenProperty(property, dragLayer);
+    }
+  }
+
+  /**
+   * Clear all property overrides, showing the values of the annotations again.
+   */
+  public void clearPropertyOverrides() {
+    for (String property : new ArrayList<>(propertyOverrides.keySet())) {
+      clearPropertyOverride(property);
+    }
+  }
+
+  private void resetDataDrivenProperty(@NonNull String property, @NonNull L targetLayer) {
+    if (dataDrivenPropertyUsageMap.get(property)) {
+      setDataDrivenPropertyIsUsed(property, targetLayer);
+    } else {
+      targetLayer.setProperties(new PropertyValue<>(property, null));
+    }
+  }
+
+  /**
+   * Set the amount of sources and layers annotations are spread across.
+   * <p>
+   * By default all annotations are kept in a single source, which is serialized and tiled again as a whole with
+   * every change. With multiple shards, annotations are assigned to a shard by their id and only the sources of
+   * shards containing changed annotations are updated. All shard layers share the layer properties and the filter
+   * of this manager. Ordering by z-index only applies within a shard, shards are stacked in the order of their
+   * index. Sharding isn't supported while annotations are clustered.
+   * </p>
+   *
+   * @param shardCount the amount of shards, 1 to keep all annotations in a single source
+   */
+  @UiThread
+  public void setShardCount(int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("The amount of shards must be at least 1: " + shardCount);
+    }
+    if (shardCount == this.shardCount) {
+      return;
+    }
+
+    if (clusterOptions != null) {
+      Logger.e(TAG, "Can't shard the source, annotations are clustered.");
+      return;
+    }
+
+    for (L shardLayer : shardLayers) {
+      style.removeLayer(shardLayer);
+    }
+    for (GeoJsonSource shardSource : shardSources) {
+      style.removeSource(shardSource);
+    }
+    this.shardCount = shardCount;
+    initializeShards();
+    if (shardCount == 1) {
+      // the first shard only contained part of the annotations
+      updateSource();
+    } else {
+      updateChangedAnnotations();
+    }
+  }
+
+  /**
+   * Get the amount of sources and layers annotations are spread across.
+   *
+   * @return the amount of shards
+   */
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  private void initializeShards() {
+    shardLayers.clear();
+    shardSources.clear();
+    cancelShardSerializers();
+    if (shardCount == 1) {
+      dirtyShards = null;
+      return;
+    }
+
+    dirtyShards = new boolean[shardCount];
+    markAllShardsDirty();
+    String aboveLayerId = layer.getId();
+    PropertyValue[] constantProperties = constantPropertyUsageMap.values().toArray(new PropertyValue[0]);
+    for (int shard = 1; shard < shardCount; shard++) {
+      GeoJsonSource shardSource = coreElementProvider.getShardSource(shard, geoJsonOptions);
+      L shardLayer = coreElementProvider.getShardLayer(shard);
+      style.addSource(shardSource);
+      style.addLayerAbove(shardLayer, aboveLayerId);
+      aboveLayerId = shardLayer.getId();
+      shardLayer.setProperties(constantProperties);
+      applyDataDrivenProperties(shardLayer);
+      shardSources.add(shardSource);
+      shardLayers.add(shardLayer);
+    }
+    Expression filter = applyManagedFilters(layerFilter);
+    if (filter != null) {
+      setLayerFilter(filter);
+    }
+  }
+
+  private void markShardDirty(long id) {
+    if (dirtyShards != null) {
+      dirtyShards[(int) (id % shardCount)] = true;
+    }
+  }
+
+  private void markAllShardsDirty() {
+    if (dirtyShards != null) {
+      Arrays.fill(dirtyShards, true);
+    }
+  }
+
+  private void cancelShardSerializers() {
+    if (shardSerializers != null) {
+      for (BackgroundSerializer serializer : shardSerializers) {
+        if (serializer != null) {
+          serializer.cancel();
+        }
+      }
+      shardSerializers = null;
+    }
+  }
+
+  @NonNull
+  private GeoJsonSource getShardSource(int shard) {
+    return shard == 0 ? geoJsonSource : shardSources.get(shard - 1);
+  }
+
+  /**
+   * Returns whether a source, updated asynchronously after serializing in the background, still renders the
+   * annotations of a shard. Sources are replaced when the style is reloaded.
+   *
+   * @param shard  the shard the source was serialized for
+   * @param source the source to update
+   * @return true if the source can be updated
+   */
+  private boolean isCurrentSource(int shard, @NonNull GeoJsonSource source) {
+    return style.isFullyLoaded() && shard <= shardSources.size() && getShardSource(shard) == source;
+  }
+
+  @NonNull
+  private BackgroundSerializer getShardSerializer(int shard) {
+    if (shard == 0) {
+      return backgroundSerializer;
+    }
+    if (shardSerializers == null) {
+      shardSerializers = new BackgroundSerializer[shardCount];
+    }
+    if (shardSerializers[shard] == null) {
+      shardSerializers[shard] = new BackgroundSerializer();
+    }
+    return shardSerializers[shard];
+  }
+
+  @NonNull
+  private String[] getAnnotationLayerIds() {
+    String[] layerIds = new String[shardLayers.size() + 1];
+    layerIds[0] = getAnnotationLayerId();
+    for (int i = 0; i < shardLayers.size(); i++) {
+      layerIds[i + 1] = shardLayers.get(i).getId();
+    }
+    return layerIds;
+  }
+
+  /**
+   * Get all annotations whose bounding box intersects the given bounds.
+   *
+   * @param bounds the bounds to search in
+   * @return the annotations within the bounds, ordered by id
+   */
+  @UiThread
+  @NonNull
+  public List<T> getAnnotationsIn(@NonNull LatLngBounds bounds) {
+    LongSparseArray<T> result = new LongSparseArray<>();
+    collectAnnotationsIn(bounds.getLonWest(), bounds.getLatSouth(), bounds.getLonEast(), bounds.getLatNorth(), result);
+
+    List<T> annotationList = new ArrayList<>(result.size());
+    for (int i = 0; i < result.size(); i++) {
+      annotationList.add(result.valueAt(i));
+    }
+    return annotationList;
+  }
+
+  /**
+   * Get the annotation closest to a location within a radius.
+   * <p>
+   * Locations inside a fill have a distance of 0 to the fill. If multiple annotations have the same
+   * distance, the one rendered on top is returned: the one with the highest z-index, then the one created last.
+   * </p>
+   *
+   * @param latLng   the location to search around
+   * @param radiusPx the search radius in pixels at the current zoom level
+   * @return the closest annotation, null if none is within the radius
+   */
+  @UiThread
+  @Nullable
+  public T getNearest(@NonNull LatLng latLng, float radiusPx) {
+    return findNearest(latLng, radiusPx, false);
+  }
+
+  /**
+   * Find the annotation closest to a location within a radius.
+   *
+   * @param latLng   the location to search around
+   * @param radiusPx the search radius in pixels at the current zoom level
+   * @param rendered true to measure the distance to the rendered annotations, see
+   *                 {@link Annotation#getRenderedRadius(float)}, false to measure it to their geometries
+   * @return the closest annotation, null if none is within the radius
+   */
+  @Nullable
+  private T findNearest(@NonNull LatLng latLng, float radiusPx, boolean rendered) {
+    double latitude = latLng.getLatitude();
+    double longitude = latLng.getLongitude();
+    double metersPerPixel = mapboxMap.getProjection().getMetersPerPixelAtLatitude(latitude);
+    double metersPerDegreeLongitude =
+      GeometryUtils.METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+    double searchRadius = metersPerPixel * (rendered ? radiusPx + maxRenderedExtent : radiusPx);
+    double deltaLatitude = searchRadius / GeometryUtils.METERS_PER_DEGREE;
+    double deltaLongitude = searchRadius / metersPerDegreeLongitude;
+
+    // a search region crossing the antimeridian is given by a western longitude exceeding the eastern one
+    double west = longitude - deltaLongitude;
+    double east = longitude + deltaLongitude;
+    if (deltaLongitude >= 180) {
+      west = -180;
+      east = 180;
+    } else if (west < -180) {
+      west += 360;
+    } else if (east > 180) {
+      east -= 360;
+    }
+
+    LongSparseArray<T> candidates = new LongSparseArray<>();
+    collectAnnotationsIn(west, latitude - deltaLatitude, east, latitude + deltaLatitude, candidates);
+
+    T nearest = null;
+    double nearestDistance = radiusPx;
+    T candidate;
+    double distance;
+    PointF offset;
+    for (int i = 0; i < candidates.size(); i++) {
+      candidate = candidates.valueAt(i);
+      offset = rendered ? candidate.getRenderedOffset() : null;
+      if (offset == null) {
+        distance = GeometryUtils.distanceInMeters(candidate.getGeometry(), latitude, longitude);
+      } else {
+        // move the location instead of the annotation, y points down
+        distance = GeometryUtils.distanceInMeters(candidate.getGeometry(),
+          latitude + offset.y * metersPerPixel / GeometryUtils.METERS_PER_DEGREE,
+          longitude - offset.x * metersPerPixel / metersPerDegreeLongitude);
+      }
+      distance /= metersPerPixel;
+      if (rendered) {
+        distance = Math.max(0, distance - candidate.getRenderedRadius(radiusPx));
+      }
+
+      // candidates are ordered by id, annotations created later are rendered on top of earlier ones
+      if (distance < nearestDistance || (distance == nearestDistance
+        && (nearest == null || candidate.getSourceZIndex() >= nearest.getSourceZIndex()))) {
+        nearest = candidate;
+        nearestDistance = distance;
+      }
+    }
+    return nearest;
+  }
+
+  /**
+   * Collect the annotations whose bounding box intersects a bounding box, in ascending order of their ids.
+   * A western longitude greater than the eastern longitude denotes a bounding box crossing the antimeridian.
+   *
+   * @param west   the western longitude of the bounding box
+   * @param south  the southern latitude of the bounding box
+   * @param east   the eastern longitude of the bounding box
+   * @param north  the northern latitude of the bounding box
+   * @param result the empty array to collect the annotations in
+   */
+  private void collectAnnotationsIn(double west, double south, double east, double north,
+                                    @NonNull LongSparseArray<T> result) {
+    // ids are appended in ascending order, inserting them out of order would shift the array with every insert
+    if (spatialIndex != null) {
+      for (long id : spatialIndex.queryIds(west, south, east, north)) {
+        result.append(id, annotations.get(id));
+      }
+      return;
+    }
+
+    boolean crossesAntimeridian = west > east;
+    T t;
+    double[] bbox;
+    for (int i = 0; i < annotations.size(); i++) {
+      t = annotations.valueAt(i);
+      bbox = GeometryUtils.boundingBox(t.getGeometry());
+      if (bbox[1] <= north && bbox[3] >= south && (crossesAntimeridian
+        ? bbox[0] <= east || bbox[2] >= west
+        : bbox[0] <= east && bbox[2] >= west)) {
+        result.append(t.getId(), t);
+      }
+    }
+  }
+
+  /**
+   * Calculate the visible region extended by the viewport culling margin.
+   * <p>
+   * Longitudes of the region are continuous, the eastern longitude can exceed 180 degrees when the region
+   * crosses the antimeridian.
+   * </p>
+   *
+   * @return the region as west, south, east and north
+   */
+  @NonNull
+  private double[] calculateCulledRegion() {
+    LatLngBounds bounds = mapboxMap.getProjection().getVisibleRegion().latLngBounds;
+    double west = bounds.getLonWest();
+    double east = bounds.getLonEast();
+    if (east < west) {
+      east += 360;
+    }
+    double marginX = (east - west) * viewportCullingMargin;
+    double marginY = (bounds.getLatNorth() - bounds.getLatSouth()) * viewportCullingMargin;
+    if (east - west + 2 * marginX >= 360) {
+      west = -180;
+      east = 180;
+    } else {
+      west -= marginX;
+      east += marginX;
+    }
+    return new double[] {
+      west, Math.max(bounds.getLatSouth() - marginY, -90), east, Math.min(bounds.getLatNorth() + marginY, 90)
+    };
+  }
+
+  private void updateCulledRegion() {
+    culledRegion = calculateCulledRegion();
+    fullUpdateRequired = true;
+    updateChangedAnnotations();
+  }
+
+  private boolean isInCulledRegion(@NonNull T annotation) {
+    double[] bbox = GeometryUtils.boundingBox(annotation.getGeometry());
+    for (int offset = -360; offset <= 360; offset += 360) {
+      if (bbox[0] + offset <= culledRegion[2] && bbox[2] + offset >= culledRegion[0]
+        && bbox[1] <= culledRegion[3] && bbox[3] >= culledRegion[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the annotations to add to the source, either all annotations or the ones within the culled region.
+   *
+   * @return the annotations to add to the source
+   */
+  @NonNull
+  private LongSparseArray<T> getSourceAnnotations() {
+    if (culledRegion == null) {
+      return annotations;
+    }
+
+    LongSparseArray<T> result = new LongSparseArray<>();
+    if (culledRegion[2] - culledRegion[0] >= 360) {
+      collectAnnotationsIn(-180, culledRegion[1], 180, culledRegion[3], result);
+    } else {
+      collectAnnotationsIn(wrapLongitude(culledRegion[0]), culledRegion[1],
+        wrapLongitude(culledRegion[2]), culledRegion[3], result);
+    }
+    return result;
+  }
+
+  private static double wrapLongitude(double longitude) {
+    return ((longitude + 180) % 360 + 360) % 360 - 180;
+  }
+
+  private void removeViewportCullingListener() {
+    if (viewportCullingListener != null) {
+      mapboxMap.removeOnCameraMoveListener(viewportCullingListener);
+      mapboxMap.removeOnCameraIdleListener(viewportCullingListener);
+      viewportCullingListener = null;
+    }
+  }
+
+  private void rebuildSpatialIndex() {
+    spatialIndex.clear();
+    maxRenderedExtent = 0;
+    for (int i = 0; i < annotations.size(); i++) {
+      indexAnnotation(annotations.valueAt(i));
+    }
+  }
+
+  private void indexAnnotation(T annotation) {
+    double[] bbox = GeometryUtils.boundingBox(annotation.getGeometry());
+    spatialIndex.put(annotation.getId(), bbox[0], bbox[1], bbox[2], bbox[3]);
+    float extent = annotation.getRenderedRadius(hitTolerance);
+    PointF offset = annotation.getRenderedOffset();
+    if (offset != null) {
+      extent += Math.hypot(offset.x, offset.y);
+    }
+    // only grows until the index is rebuilt, a larger extent just widens the hit test query
+    maxRenderedExtent = Math.max(maxRenderedExtent, extent);
+  }
+
+  private void updateChangedAnnotations() {
+    if (deferredUpdatesEnabled) {
+      frameScheduler.schedule();
+    } else {
+      flush();
+    }
+  }
+
+  /**
+   * Marks an annotation to be serialized again with the next source update.
+   *
+   * @param annotation the annotation that changed
+   */
+  void markDirty(T annotation) {
+    dirtyAnnotations.put(annotation.getId(), annotation);
+    markShardDirty(annotation.getId());
+    if (spatialIndex != null) {
+      indexAnnotation(annotation);
+    }
+  }
+
+  private void removeFeature(long id) {
+    markShardDirty(id);
+    features.remove(id);
+    orderedAnnotations.remove(id);
+    dirtyAnnotations.remove(id);
+    if (spatialIndex != null) {
+      spatialIndex.remove(id);
+    }
+    if (levelOfDetail != null) {
+      levelOfDetail.remove(id);
+    }
+  }
+
+  void internalUpdateSource() {
+    if (!style.isFullyLoaded()) {
+      // We are in progress of loading a new style
+      return;
+    }
+
+    long startNanos = metrics != null ? System.nanoTime() : 0;
+    // the dragged annotation is rendered by the drag layer
+    long draggedId = draggedAnnotation != null ? draggedAnnotation.getId() : -1;
+    if (dirtyShards != null) {
+      updateShards(draggedId, startNanos);
+      return;
+    }
+
+    if (geoJsonWriter != null) {
+      updateCache();
+      orderedAnnotations.addValuesTo(writtenAnnotations, draggedId);
+      String geoJson = geoJsonWriter.write(writtenAnnotations);
+      int featureCount = writtenAnnotations.size();
+      writtenAnnotations.clear();
+      geoJsonSource.setGeoJson(geoJson);
+      if (metrics != null) {
+        metrics.recordSourceUpdate(featureCount, System.nanoTime() - startNanos);
+        metrics.recordSourceData(geoJson.length());
+        metricsScheduler.schedule();
+      }
+      return;
+    }
+
+    List<Feature> featureList;
+    if (propertyStore != null) {
+      // features are materialized for this update only, caching them would defeat the compact storage
+      dirtyAnnotations.clear();
+      ZIndexBuckets<Feature> orderedFeatures = new ZIndexBuckets<>();
+      LongSparseArray<T> sourceAnnotations = getSourceAnnotations();
+      T t;
+      for (int i = 0; i < sourceAnnotations.size(); i++) {
+        t = sourceAnnotations.valueAt(i);
+        orderedFeatures.put(t.getId(), t.getSourceZIndex(), createFeature(t));
+      }
+      featureList = new ArrayList<>(orderedFeatures.size());
+      orderedFeatures.addValuesTo(featureList, draggedId);
+    } else {
+      updateCache();
+      featureList = new ArrayList<>(features.size());
+      features.addValuesTo(featureList, draggedId);
+    }
+
+    if (backgroundSerializer != null) {
+      if (metrics != null) {
+        metrics.recordSourceUpdate(featureList.size(), System.nanoTime() - startNanos);
+        metricsScheduler.schedule();
+      }
+      GeoJsonSource source = geoJsonSource;
+      backgroundSerializer.submit(featureList, comparator, geoJson -> {
+        if (!isCurrentSource(0, source)) {
+          return;
+        }
+        source.setGeoJson(geoJson);
+        if (metrics != null) {
+          metrics.recordSourceData(geoJson.length());
+          metricsScheduler.schedule();
+        }
+      });
+      return;
+    }
+
+    long sortNanos = 0;
+    if (comparator != null) {
+      long sortStartNanos = metrics != null ? System.nanoTime() : 0;
+      Collections.sort(featureList, comparator);
+      if (metrics != null) {
+        sortNanos = System.nanoTime() - sortStartNanos;
+        metrics.recordSort(sortNanos);
+      }
+    }
+    geoJsonSource.setGeoJson(FeatureCollection.fromFeatures(featureList));
+    if (metrics != null) {
+      metrics.recordSourceUpdate(featureList.size(), System.nanoTime() - startNanos - sortNanos);
+      metricsScheduler.schedule();
+    }
+  }
+
+  /**
+   * Bring the cache of annotations in the source up to date, either the cached features or, when writing
+   * GeoJSON directly, the ordered annotations.
+   *
+   * @return true if the cache was rebuilt from all annotations
+   */
+  private boolean updateCache() {
+    if (!fullUpdateRequired) {
+      T t;
+      for (int i = 0; i < dirtyAnnotations.size(); i++) {
+        t = dirtyAnnotations.valueAt(i);
+        if (!isActive(t)) {
+          continue;
+        }
+
+        if (culledRegion == null || isInCulledRegion(t)) {
+          cache(t);
+        } else {
+          features.remove(t.getId());
+          orderedAnnotations.remove(t.getId());
+        }
+      }
+      dirtyAnnotations.clear();
+
+      // annotations were added or removed through getAnnotations(), the cache can't be trusted
+      int cacheSize = geoJsonWriter != null ? orderedAnnotations.size() : features.size();
+      fullUpdateRequired = culledRegion == null && cacheSize != annotations.size();
+    }
+
+    if (fullUpdateRequired) {
+      features.clear();
+      orderedAnnotations.clear();
+      dirtyAnnotations.clear();
+      LongSparseArray<T> sourceAnnotations = getSourceAnnotations();
+      for (int i = 0; i < sourceAnnotations.size(); i++) {
+        cache(sourceAnnotations.valueAt(i));
+      }
+      fullUpdateRequired = false;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Update the sources of the shards containing changed annotations.
+   *
+   * @param draggedId  the id of the dragged annotation, -1 if no annotation is dragged
+   * @param startNanos the time the update started, for metrics
+   */
+  private void updateShards(long draggedId, long startNanos) {
+    List<List<Object>> shardValues = new ArrayList<>(shardCount);
+    if (propertyStore != null) {
+      dirtyAnnotations.clear();
+      if (fullUpdateRequired) {
+        markAllShardsDirty();
+        fullUpdateRequired = false;
+      }
+      List<ZIndexBuckets<Feature>> shardFeatures = new ArrayList<>(shardCount);
+      for (int shard = 0; shard < shardCount; shard++) {
+        shardFeatures.add(dirtyShards[shard] ? new ZIndexBuckets<>() : null);
+      }
+      // features are only materialized for the shards that changed
+      LongSparseArray<T> sourceAnnotations = getSourceAnnotations();
+      T t;
+      for (int i = 0; i < sourceAnnotations.size(); i++) {
+        t = sourceAnnotations.valueAt(i);
+        ZIndexBuckets<Feature> buckets = shardFeatures.get((int) (t.getId() % shardCount));
+        if (buckets != null) {
+          buckets.put(t.getId(), t.getSourceZIndex(), createFeature(t));
+        }
+      }
+      for (ZIndexBuckets<Feature> buckets : shardFeatures) {
+        List<Object> values = null;
+        if (buckets != null) {
+          values = new ArrayList<>(buckets.size());
+          buckets.addValuesTo(values, draggedId);
+        }
+        shardValues.add(values);
+      }
+    } else {
+      if (updateCache()) {
+        markAllShardsDirty();
+      }
+      for (int shard = 0; shard < shardCount; shard++) {
+        shardValues.add(dirtyShards[shard] ? new ArrayList<>() : null);
+      }
+      if (geoJsonWriter != null) {
+        orderedAnnotations.addShardValuesTo(shardValues, draggedId);
+      } else {
+        features.addShardValuesTo(shardValues, draggedId);
+      }
+    }
+    Arrays.fill(dirtyShards, false);
+
+    for (int shard = 0; shard < shardCount; shard++) {
+      List<Object> values = shardValues.get(shard);
+      if (values != null) {
+        updateShard(shard, values, startNanos);
+        startNanos = metrics != null ? System.nanoTime() : 0;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void updateShard(int shard, @NonNull List<Object> values, long startNanos) {
+    GeoJsonSource shardSource = getShardSource(shard);
+    if (geoJsonWriter != null) {
+      String geoJson = geoJsonWriter.write((List<T>) (List<?>) values);
+      shardSource.setGeoJson(geoJson);
+      if (metrics != null) {
+        metrics.recordSourceUpdate(values.size(), System.nanoTime() - startNanos);
+        metrics.recordSourceData(geoJson.length());
+        metricsScheduler.schedule();
+      }
+      return;
+    }
+
+    List<Feature> featureList = (List<Feature>) (List<?>) values;
+    if (backgroundSerializer != null) {
+      if (metrics != null) {
+        metrics.recordSourceUpdate(featureList.size(), System.nanoTime() - startNanos);
+        metricsScheduler.schedule();
+      }
+      getShardSerializer(shard).submit(featureList, comparator, geoJson -> {
+        if (!isCurrentSource(shard, shardSource)) {
+          return;
+        }
+        shardSource.setGeoJson(geoJson);
+        if (metrics != null) {
+          metrics.recordSourceData(geoJson.length());
+          metricsScheduler.schedule();
+        }
+      });
+      return;
+    }
+
+    long sortNanos = 0;
+    if (comparator != null) {
+      long sortStartNanos = metrics != null ? System.nanoTime() : 0;
+      Collections.sort(featureList, comparator);
+      if (metrics != null) {
+        sortNanos = System.nanoTime() - sortStartNanos;
+        metrics.recordSort(sortNanos);
+      }
+    }
+    shardSource.setGeoJson(FeatureCollection.fromFeatures(featureList));
+    if (metrics != null) {
+      metrics.recordSourceUpdate(featureList.size(), System.nanoTime() - startNanos - sortNanos);
+      metricsScheduler.schedule();
+    }
+  }
+
+  private void cache(T annotation) {
+    if (geoJsonWriter != null) {
+      orderedAnnotations.put(annotation.getId(), annotation.getSourceZIndex(), annotation);
+    } else {
+      features.put(annotation.getId(), annotation.getSourceZIndex(), createFeature(annotation));
+    }
+  }
+
+  private Feature createFeature(T annotation) {
+    return createFeature(annotation,
+      levelOfDetail != null ? levelOfDetail.getGeometry(annotation) : annotation.getGeometry());
+  }
+
+  private Feature createFeature(T annotation, Geometry geometry) {
+    JsonObject properties = annotation.getFeature();
+    if (backgroundSerializer != null && propertyStore == null) {
+      // the background thread can't read properties that might be mutated in the meantime
+      properties = properties.deepCopy();
+    }
+    return Feature.fromGeometry(geometry, properties);
+  }
+
+  /**
+   * Move an annotation to the drag layer, which is updated on its own while the annotation is dragged.
+   *
+   * @param annotation the annotation that started being dragged
+   */
+  void onDragStarted(@NonNull T annotation) {
+    if (dragSource == null) {
+      initializeDragSourceAndLayer();
+    }
+    draggedAnnotation = annotation;
+    markShardDirty(annotation.getId());
+    // dragged geometries change with every move, they aren't simplified
+    dragSource.setGeoJson(createFeature(annotation, annotation.getGeometry()));
+    if (metrics != null) {
+      metrics.recordDragStarted(System.nanoTime());
+    }
+    internalUpdateSource();
+  }
+
+  /**
+   * Update the drag layer with the current state of the dragged annotation.
+   *
+   * @param annotation the annotation being dragged
+   */
+  void onDragUpdated(@NonNull T annotation) {
+    markDirty(annotation);
+    if (annotation == draggedAnnotation) {
+      dragSource.setGeoJson(createFeature(annotation, annotation.getGeometry()));
+    } else {
+      internalUpdateSource();
+    }
+    if (metrics != null) {
+      metrics.recordDragUpdate(System.nanoTime());
+      metricsScheduler.schedule();
+    }
+  }
+
+  /**
+   * Move the dragged annotation back from the drag layer.
+   * <p>
+   * The annotation is only part of the annotation source again with the next source update.
+   * </p>
+   *
+   * @param annotation the annotation that stopped being dragged
+   */
+  void onDragFinished(@NonNull T annotation) {
+    markDirty(annotation);
+    if (annotation == draggedAnnotation) {
+      draggedAnnotation = null;
+      dragSource.setGeoJson(FeatureCollection.fromFeatures(new ArrayList<>()));
+    }
+  }
+
+  private void initializeDragSourceAndLayer() {
+    dragSource = coreElementProvider.getDragSource();
+    dragLayer = coreElementProvider.getDragLayer();
+    style.addSource(dragSource);
+    L topLayer = shardLayers.isEmpty() ? layer : shardLayers.get(shardLayers.size() - 1);
+    style.addLayerAbove(dragLayer, topLayer.getId());
+
+    dragLayer.setProperties(constantPropertyUsageMap.values().toArray(new PropertyValue[0]));
+    applyDataDrivenProperties(dragLayer);
+  }
+
+  private void applyDataDrivenProperties(@NonNull L targetLayer) {
+    for (Map.Entry<String, Boolean> entry : dataDrivenPropertyUsageMap.entrySet()) {
+      if (entry.getValue() && !propertyOverrides.containsKey(entry.getKey())) {
+        setDataDrivenPropertyIsUsed(entry.getKey(), targetLayer);
+      }
+    }
+    if (!propertyOverrides.isEmpty()) {
+      targetLayer.setProperties(propertyOverrides.values().toArray(new PropertyValue[0]));
+    }
+  }
+
+  /**
+   * Enable a data-driven property on the layers the first time an annotation uses it.
+   * <p>
+   * Called when a property is set through an options builder or an annotation setter, so updating the source
+   * doesn't have to scan the properties of every annotation.
+   * </p>
+   *
+   * @param property the name of the property
+   */
+  void enableDataDrivenProperty(@NonNull String property) {
+    Boolean used = dataDrivenPropertyUsageMap.get(property);
+    if (used != null && !used) {
+      dataDrivenPropertyUsageMap.put(property, true);
+      if (propertyOverrides.containsKey(property)) {
+        // the override already reads the property for annotations it doesn't apply to
+        return;
+      }
+      setDataDrivenPropertyIsUsed(property, layer);
+      for (L shardLayer : shardLayers) {
+        setDataDrivenPropertyIsUsed(property, shardLayer);
+      }
+      if (dragLayer != null) {
+        setDataDrivenPropertyIsUsed(property, dragLayer);
+      }
+    }
+  }
+
+  protected abstract void setDataDrivenPropertyIsUsed(@NonNull String property, @NonNull L targetLayer);
+
+  /**
+   * Returns whether annotations are clustered, see {@link ClusterOptions}.
+   *
+   * @return true if annotations are clustered
+   */
+  public boolean isClusteringEnabled() {
+    return clusterOptions != null;
+  }
+
+  /**
+   * Get the annotations contained in a cluster.
+   *
+   * @param cluster the cluster feature, as provided to {@link OnClusterClickListener}
+   * @return the annotations in the cluster, ordered as in the cluster
+   */
+  @UiThread
+  @NonNull
+  public List<T> getClusterLeaves(@NonNull Feature cluster) {
+    long pointCount = cluster.getNumberProperty(ClusterOptions.PROPERTY_POINT_COUNT).longValue();
+    List<Feature> leaves = geoJsonSource.getClusterLeaves(cluster, pointCount, 0).features();
+
+    List<T> annotationList = new ArrayList<>();
+    if (leaves != null) {
+      T annotation;
+      for (Feature leaf : leaves) {
+        annotation = annotations.get(leaf.getProperty(getAnnotationIdKey()).getAsLong());
+        if (annotation != null) {
+          annotationList.add(annotation);
+        }
+      }
+    }
+    return annotationList;
+  }
+
+  /**
+   * Get the zoom level at which a cluster expands into multiple children.
+   *
+   * @param cluster the cluster feature, as provided to {@link OnClusterClickListener}
+   * @return the zoom level at which the cluster expands
+   */
+  @UiThread
+  public int getClusterExpansionZoom(@NonNull Feature cluster) {
+    return geoJsonSource.getClusterExpansionZoom(cluster);
+  }
+
+  /**
+   * Animate the camera to the center of a cluster, zooming in to the level at which the cluster expands.
+   *
+   * @param cluster the cluster feature, as provided to {@link OnClusterClickListener}
+   */
+  @UiThread
+  public void expandCluster(@NonNull Feature cluster) {
+    Point point = (Point) cluster.geometry();
+    mapboxMap.animateCamera(CameraUpdateFactory.newLatLngZoom(
+      new LatLng(point.latitude(), point.longitude()), getClusterExpansionZoom(cluster)));
+  }
+
+  /**
+   * Add a callback to be invoked when a cluster has been clicked.
+   *
+   * @param listener the callback to be invoked when a cluster is clicked
+   */
+  @UiThread
+  public void addClusterClickListener(@NonNull OnClusterClickListener<T> listener) {
+    clusterClickListeners.add(listener);
+  }
+
+  /**
+   * Remove a previously added callback that was to be invoked when a cluster has been clicked.
+   *
+   * @param listener the callback to be removed
+   */
+  @UiThread
+  public void removeClusterClickListener(@NonNull OnClusterClickListener<T> listener) {
+    clusterClickListeners.remove(listener);
+  }
+
+  /**
+   * Add a callback to be invoked when a cluster has been long clicked.
+   *
+   * @param listener the callback to be invoked when a cluster is long clicked
+   */
+  @UiThread
+  public void addClusterLongClickListener(@NonNull OnClusterLongClickListener<T> listener) {
+    clusterLongClickListeners.add(listener);
+  }
+
+  /**
+   * Remove a previously added callback that was to be invoked when a cluster has been long clicked.
+   *
+   * @param listener the callback to be removed
+   */
+  @UiThread
+  public void removeClusterLongClickListener(@NonNull OnClusterLongClickListener<T> listener) {
+    clusterLongClickListeners.remove(listener);
+  }
+
+  /**
+   * Show or hide all annotations of a group, see {@link Annotation#setGroup(String)}.
+   * <p>
+   * Hidden groups are excluded by the filter of the annotation layers, toggling the visibility of a group
+   * updates the filter only and doesn't serialize annotations again. Hidden annotations can't be clicked or
+   * dragged.
+   * </p>
+   *
+   * @param group   the group to show or hide
+   * @param visible true to show the annotations of the group
+   */
+  @UiThread
+  public void setGroupVisible(@NonNull String group, boolean visible) {
+    if (visible ? hiddenGroups.remove(group) : hiddenGroups.add(group)) {
+      Expression filter = applyManagedFilters(layerFilter);
+      setLayerFilter(filter != null ? filter : Expression.literal(true));
+    }
+  }
+
+  /**
+   * Returns whether the annotations of a group are visible.
+   *
+   * @param group the group
+   * @return false if the group was hidden with {@link #setGroupVisible(String, boolean)}
+   */
+  public boolean isGroupVisible(@NonNull String group) {
+    return !hiddenGroups.contains(group);
+  }
+
+  /**
+   * Combine a filter for the annotation layer with the filters hiding clusters, if annotations are clustered,
+   * and hidden groups.
+   *
+   * @param filter the filter of the annotation layer, can be null
+   * @return the filter to set on the annotation layer
+   */
+  @Nullable
+  Expression applyManagedFilters(@Nullable Expression filter) {
+    List<Expression> filters = new ArrayList<>();
+    if (clusterOptions != null) {
+      filters.add(Expression.not(Expression.has(ClusterOptions.PROPERTY_POINT_COUNT)));
+    }
+    for (String group : hiddenGroups) {
+      filters.add(Expression.neq(Expression.get(Annotation.GROUP_KEY), Expression.literal(group)));
+    }
+    if (filters.isEmpty()) {
+      return filter;
+    }
+
+    if (filter != null) {
+      filters.add(filter);
+    }
+    return filters.size() == 1 ? filters.get(0) : Expression.all(filters.toArray(new Expression[0]));
+  }
+
+  private boolean isHidden(@Nullable T annotation) {
+    if (annotation == null || hiddenGroups.isEmpty()) {
+      return false;
+    }
+    String group = annotation.getGroup();
+    return group != null && hiddenGroups.contains(group);
+  }
+
+  /**
+   * Add a callback to be invoked when an annotation is dragged.
+   *
+   * @param d the callback to be invoked when an annotation is dragged
+   */
+  @UiThread
+  public void addDragListener(@NonNull D d) {
+    dragListeners.add(d);
+  }
+
+  /**
+   * Remove a previously added callback that was to be invoked when an annotation has been dragged.
+   *
+   * @param d the callback to be removed
+   */
+  @UiThread
+  public void removeDragListener(@NonNull D d) {
+    dragListeners.remove(d);
+  }
+
+  /**
+   * Add a callback to be invoked when a symbol has been clicked.
+   *
+   * @param u the callback to be invoked when a symbol is clicked
+   */
+  @UiThread
+  public void addClickListener(@NonNull U u) {
+    clickListeners.add(u);
+  }
+
+  /**
+   * Remove a previously added callback that was to be invoked when symbol has been clicked.
+   *
+   * @param u the callback to be removed
+   */
+  @UiThread
+  public void removeClickListener(@NonNull U u) {
+    clickListeners.remove(u);
+  }
+
+  /**
+   * Add a callback to be invoked when a symbol has been long clicked.
+   *
+   * @param v the callback to be invoked when a symbol is clicked
+   */
+  @UiThread
+  public void addLongClickListener(@NonNull V v) {
+    longClickListeners.add(v);
+  }
+
+  /**
+   * Remove a previously added callback that was to be invoked when symbol has been long clicked.
+   *
+   * @param v the callback to be removed
+   */
+  @UiThread
+  public void removeLongClickListener(@NonNull V v) {
+    longClickListeners.remove(v);
+  }
+
+  @VisibleForTesting
+  List<U> getClickListeners() {
+    return clickListeners;
+  }
+
+  @VisibleForTesting
+  List<V> getLongClickListeners() {
+    return longClickListeners;
+  }
+
+  List<D> getDragListeners() {
+    return dragListeners;
+  }
+
+  /**
+   * Cleanup annotation manager, used to clear listeners
+   */
+  @UiThread
+  public void onDestroy() {
+    frameScheduler.cancel();
+    setMetricsListener(null);
+    if (animator != null) {
+      animator.cancelAll();
+    }
+    if (backgroundSerializer != null) {
+      backgroundSerializer.cancel();
+    }
+    cancelShardSerializers();
+    mapClickDispatcher.unregister(this);
+    removeViewportCullingListener();
+    removeLevelOfDetailListener();
+    dragListeners.clear();
+    clickListeners.clear();
+    longClickListeners.clear();
+    clusterClickListeners.clear();
+    clusterLongClickListeners.clear();
+    for (GeoJsonImporter<S> importer : imports) {
+      importer.cancel();
+    }
+    imports.clear();
+  }
+
+  abstract String getAnnotationLayerId();
+
+  abstract String getAnnotationIdKey();
+
+  abstract void initializeDataDrivenPropertyMap();
+
+  abstract void setFilter(@NonNull Expression expression);
+
+  abstract void setLayerFilter(@NonNull Expression filter);
+
+  @Nullable
+  abstract S optionsFromFeature(@NonNull Feature feature);
+
+  /**
+   * Create an annotation from its parts, used when restoring a snapshot.
+   *
+   * @param id         the id of the annotation
+   * @param properties the properties of the annotation
+   * @param geometry   the geometry of the annotation
+   * @return the annotation
+   */
+  abstract T createAnnotation(long id, @NonNull JsonObject properties, @NonNull Geometry geometry);
+
+  private void initializeSourcesAndLayers(GeoJsonOptions geoJsonOptions) {
+    // the drag source and layer are recreated lazily with the next drag
+    dragSource = null;
+    dragLayer = null;
+    draggedAnnotation = null;
+    // shard layers of a previous style are gone, they are recreated below
+    shardLayers.clear();
+    shardSources.clear();
+    geoJsonSource = coreElementProvider.getSource(geoJsonOptions);
+    layer = coreElementProvider.getLayer();
+
+    style.addSource(geoJsonSource);
+    if (belowLayerId == null) {
+      style.addLayer(layer);
+    } else {
+      style.addLayerBelow(layer, belowLayerId);
+    }
+
+    if (clusterOptions != null) {
+      clusterLayer = coreElementProvider.getClusterLayer();
+      clusterCountLayer = coreElementProvider.getClusterCountLayer();
+      clusterOptions.applyTo(clusterLayer);
+      clusterOptions.applyTo(clusterCountLayer);
+      style.addLayerAbove(clusterLayer, layer.getId());
+      style.addLayerAbove(clusterCountLayer, clusterLayer.getId());
+    }
+
+    if (dataDrivenPropertyUsageMap.isEmpty()) {
+      initializeDataDrivenPropertyMap();
+    }
+    layer.setProperties(constantPropertyUsageMap.values().toArray(new PropertyValue[0]));
+    // properties used by existing annotations aren't set again, enable them on the new layer
+    applyDataDrivenProperties(layer);
+    Expression filter = applyManagedFilters(layerFilter);
+    if (filter != null) {
+      setLayerFilter(filter);
+    }
+    initializeShards();
+
+    updateSource();
+  }
+
+  /**
+   * Returns whether clicks or long clicks are listened to, including clicks on clusters.
+   *
+   * @param longClick true for long clicks
+   * @return true if there are listeners
+   */
+  boolean hasClickListeners(boolean longClick) {
+    return longClick
+      ? !longClickListeners.isEmpty() || !clusterLongClickListeners.isEmpty()
+      : !clickListeners.isEmpty() || !clusterClickListeners.isEmpty();
+  }
+
+  /**
+   * Add the ids of the layers to query for clicks, annotations hit tested with the spatial index aren't queried.
+   *
+   * @param layerIds the list to add the layer ids to
+   */
+  void addClickLayerIds(@NonNull List<String> layerIds) {
+    if (clusterLayer != null) {
+      layerIds.add(clusterLayer.getId());
+    }
+    if (!isIndexHitTesting()) {
+      layerIds.add(getAnnotationLayerId());
+      for (L shardLayer : shardLayers) {
+        layerIds.add(shardLayer.getId());
+      }
+    }
+  }
+
+  /**
+   * Returns whether a feature of a click query may be a cluster or an annotation of this manager.
+   *
+   * @param feature the queried feature
+   * @return true if the feature may belong to this manager
+   */
+  boolean isClickTarget(@NonNull Feature feature) {
+    if (feature.hasProperty(ClusterOptions.PROPERTY_POINT_COUNT)) {
+      return clusterLayer != null;
+    }
+    if (isIndexHitTesting() || !feature.hasNonNullValueForProperty(getAnnotationIdKey())) {
+      return false;
+    }
+
+    T annotation = annotations.get(feature.getProperty(getAnnotationIdKey()).getAsLong());
+    // rendered geometries may be split into multi geometries
+    return annotation != null
+      && (feature.geometry() == null || feature.geometry().type().endsWith(annotation.getGeometry().type()));
+  }
+
+  /**
+   * Returns whether a feature carries any of the data-driven properties of this manager.
+   *
+   * @param feature the queried feature
+   * @return true if a property of the feature is a data-driven property of this manager
+   */
+  boolean hasDataDrivenProperties(@NonNull Feature feature) {
+    JsonObject properties = feature.properties();
+    if (properties != null) {
+      for (Map.Entry<String, JsonElement> entry : properties.entrySet()) {
+        if (dataDrivenPropertyUsageMap.containsKey(entry.getKey())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  void dispatchClick(@NonNull Feature feature, boolean longClick) {
+    if (feature.hasProperty(ClusterOptions.PROPERTY_POINT_COUNT)) {
+      dispatchClusterClick(feature, longClick);
+      return;
+    }
+
+    T annotation = annotations.get(feature.getProperty(getAnnotationIdKey()).getAsLong());
+    if (annotation != null) {
+      dispatchClick(annotation, longClick);
+    }
+  }
+
+  boolean dispatchNearestClick(@NonNull LatLng point, boolean longClick) {
+    if (!isIndexHitTesting()) {
+      return false;
+    }
+
+    T annotation = queryMapForFeatures(point);
+    if (annotation != null) {
+      dispatchClick(annotation, longClick);
+      return true;
+    }
+    return false;
+  }
+
+  private void dispatchClick(@NonNull T annotation, boolean longClick) {
+    if (longClick) {
+      for (V longClickListener : longClickListeners) {
+        longClickListener.onAnnotationLongClick(annotation);
+      }
+    } else {
+      for (U clickListener : clickListeners) {
+        clickListener.onAnnotationClick(annotation);
+      }
+    }
+  }
+
+  private void dispatchClusterClick(@NonNull Feature cluster, boolean longClick) {
+    if (longClick) {
+      if (!clusterLongClickListeners.isEmpty()) {
+        List<T> leaves = getClusterLeaves(cluster);
+        for (OnClusterLongClickListener<T> clusterLongClickListener : clusterLongClickListeners) {
+          clusterLongClickListener.onClusterLongClick(cluster, leaves);
+        }
+      }
+    } else if (!clusterClickListeners.isEmpty()) {
+      List<T> leaves = getClusterLeaves(cluster);
+      for (OnClusterClickListener<T> clusterClickListener : clusterClickListeners) {
+        clusterClickListener.onClusterClick(cluster, leaves);
+      }
+    }
+  }
+
+  /**
+   * Inner class re-evaluating the culled region when the camera changes
+   */
+  class ViewportCullingListener implements MapboxMap.OnCameraMoveListener, MapboxMap.OnCameraIdleListener {
+
+    @Override
+    public void onCameraMove() {
+      // only update while moving when annotations outside of the culled region could become visible
+      if (!containsVisibleRegion(culledRegion)) {
+        updateCulledRegion();
+      }
+    }
+
+    @Override
+    public void onCameraIdle() {
+      double[] region = calculateCulledRegion();
+      double area = (region[2] - region[0]) * (region[3] - region[1]);
+      double culledArea = (culledRegion[2] - culledRegion[0]) * (culledRegion[3] - culledRegion[1]);
+      // shrink the culled region after zooming in
+      if (!containsVisibleRegion(culledRegion) || culledArea > area * VIEWPORT_CULLING_SHRINK_FACTOR) {
+        updateCulledRegion();
+      }
+    }
+
+    private boolean containsVisibleRegion(@NonNull double[] region) {
+      LatLngBounds bounds = mapboxMap.getProjection().getVisibleRegion().latLngBounds;
+      double west = bounds.getLonWest();
+      double east = bounds.getLonEast();
+      if (east < west) {
+        east += 360;
+      }
+      // align the visible region with the culled region, both can be shifted by a multiple of 360 degrees
+      double offset = 360 * Math.round((region[0] + region[2] - west - east) / 720);
+      return west + offset >= region[0] && east + offset <= region[2]
+        && bounds.getLatSouth() >= region[1] && bounds.getLatNorth() <= region[3];
+    }
+  }
+
+  /**
+   * Inner class updating the level of detail when the camera changes
+   */
+  class LevelOfDetailListener implements MapboxMap.OnCameraMoveListener, MapboxMap.OnCameraIdleListener {
+
+    @Override
+    public void onCameraMove() {
+      // refine immediately while zooming in, coarser levels only save work and can wait for idle
+      if (levelOfDetail.refineZoom(mapboxMap.getCameraPosition().zoom)) {
+        onLevelChanged();
+      }
+    }
+
+    @Override
+    public void onCameraIdle() {
+      if (levelOfDetail.setZoom(mapboxMap.getCameraPosition().zoom)) {
+        onLevelChanged();
+      }
+    }
+
+    private void onLevelChanged() {
+      // cached features hold geometries of the previous level
+      fullUpdateRequired = true;
+      updateChangedAnnotations();
+    }
+  }
+
+  @Nullable
+  private T queryMapForFeatures(@NonNull LatLng point) {
+    long startNanos = metrics != null ? System.nanoTime() : 0;
+    T annotation = isIndexHitTesting()
+      ? findNearest(point, hitTolerance, true)
+      : queryRenderedAnnotation(mapboxMap.getProjection().toScreenLocation(point));
+    recordHitTest(startNanos);
+    return !isHidden(annotation) ? annotation : null;
   }
 
   @Nullable
   T queryMapForFeatures(@NonNull PointF point) {
-    List<Feature> features = mapboxMap.queryRenderedFeatures(point, getAnnotationLayerId());
+    long startNanos = metrics != null ? System.nanoTime() : 0;
+    T annotation = isIndexHitTesting()
+      ? findNearest(mapboxMap.getProjection().fromScreenLocation(point), hitTolerance, true)
+      : queryRenderedAnnotation(point);
+    recordHitTest(startNanos);
+    return !isHidden(annotation) ? annotation : null;
+  }
+
+  /**
+   * Returns whether touches are resolved with the spatial index, which can't evaluate the layer filter.
+   *
+   * @return true if the spatial index is used for hit testing
+   */
+  private boolean isIndexHitTesting() {
+    return spatialIndexEnabled && layerFilter == null;
+  }
+
+  void recordHitTest(long startNanos) {
+    if (metrics != null) {
+      metrics.recordHitTest(System.nanoTime() - startNanos);
+      metricsScheduler.schedule();
+    }
+  }
+
+  @Nullable
+  private T queryRenderedAnnotation(@NonNull PointF point) {
+    List<Feature> features = mapboxMap.queryRenderedFeatures(point, getAnnotationLayerIds());
     if (!features.isEmpty()) {
       long id = features.get(0).getProperty(getAnnotationIdKey()).getAsLong();
       return annotations.get(id);
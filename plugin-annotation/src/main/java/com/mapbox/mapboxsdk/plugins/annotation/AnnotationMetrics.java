@@ -0,0 +1,276 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.UiThread;
+
+import java.util.Arrays;
+
+/**
+ * Performance metrics of an annotation manager, collected while a listener is set with
+ * {@link AnnotationManager#setMetricsListener(OnAnnotationMetricsListener)}.
+ * <p>
+ * Counters are cumulative since the listener was set. Histograms hold the most recent
+ * {@link Histogram#SIZE} samples. Durations are in nanoseconds and measured on the main thread.
+ * </p>
+ */
+@UiThread
+public final class AnnotationMetrics {
+
+  private long sourceUpdateCount;
+  private long serializedFeatureCount;
+  private long sourceDataLength;
+  private long dragUpdateCount;
+  private long hitTestCount;
+  private long lastDragUpdateNanos = -1;
+
+  private final Histogram featuresPerUpdate = new Histogram();
+  private final Histogram serializationTime = new Histogram();
+  private final Histogram sortTime = new Histogram();
+  private final Histogram sourceDataLengths = new Histogram();
+  private final Histogram dragUpdateIntervals = new Histogram();
+  private final Histogram hitTestTime = new Histogram();
+
+  AnnotationMetrics() {
+  }
+
+  /**
+   * Get the amount of source updates.
+   *
+   * @return the cumulative amount of source updates
+   */
+  public long getSourceUpdateCount() {
+    return sourceUpdateCount;
+  }
+
+  /**
+   * Get the amount of features serialized by all source updates.
+   *
+   * @return the cumulative amount of serialized features
+   */
+  public long getSerializedFeatureCount() {
+    return serializedFeatureCount;
+  }
+
+  /**
+   * Get the amount of features serialized per source update.
+   *
+   * @return the histogram of features per update
+   */
+  @NonNull
+  public Histogram getFeaturesPerUpdate() {
+    return featuresPerUpdate;
+  }
+
+  /**
+   * Get the time spent converting annotations into the data handed to the source, per source update.
+   * <p>
+   * With background serialization, this is the time spent taking the snapshot on the main thread.
+   * </p>
+   *
+   * @return the histogram of serialization times in nanoseconds
+   */
+  @NonNull
+  public Histogram getSerializationTime() {
+    return serializationTime;
+  }
+
+  /**
+   * Get the time spent sorting features with a custom comparator, per source update.
+   * <p>
+   * Only source updates sorting on the main thread are included.
+   * </p>
+   *
+   * @return the histogram of sort times in nanoseconds
+   */
+  @NonNull
+  public Histogram getSortTime() {
+    return sortTime;
+  }
+
+  /**
+   * Get the length of the GeoJSON handed to the source by all source updates.
+   * <p>
+   * Only updates handing GeoJSON strings to the source are included, as done with direct and background
+   * serialization. Feature collections are converted by the map itself and aren't measured.
+   * </p>
+   *
+   * @return the cumulative length in characters
+   */
+  public long getSourceDataLength() {
+    return sourceDataLength;
+  }
+
+  /**
+   * Get the length of the GeoJSON handed to the source per source update, see {@link #getSourceDataLength()}.
+   *
+   * @return the histogram of lengths in characters
+   */
+  @NonNull
+  public Histogram getSourceDataLengths() {
+    return sourceDataLengths;
+  }
+
+  /**
+   * Get the amount of updates of dragged annotations.
+   *
+   * @return the cumulative amount of drag updates
+   */
+  public long getDragUpdateCount() {
+    return dragUpdateCount;
+  }
+
+  /**
+   * Get the time between consecutive updates of a dragged annotation, the inverse of the drag update frequency.
+   *
+   * @return the histogram of drag update intervals in nanoseconds
+   */
+  @NonNull
+  public Histogram getDragUpdateIntervals() {
+    return dragUpdateIntervals;
+  }
+
+  /**
+   * Get the amount of queries for the annotation at a location of the map, as done for clicks and drags.
+   *
+   * @return the cumulative amount of hit tests
+   */
+  public long getHitTestCount() {
+    return hitTestCount;
+  }
+
+  /**
+   * Get the time spent querying for the annotation at a location of the map.
+   *
+   * @return the histogram of hit test times in nanoseconds
+   */
+  @NonNull
+  public Histogram getHitTestTime() {
+    return hitTestTime;
+  }
+
+  void recordSourceUpdate(int featureCount, long serializationNanos) {
+    sourceUpdateCount++;
+    serializedFeatureCount += featureCount;
+    featuresPerUpdate.add(featureCount);
+    serializationTime.add(serializationNanos);
+  }
+
+  void recordSort(long sortNanos) {
+    sortTime.add(sortNanos);
+  }
+
+  void recordSourceData(int length) {
+    sourceDataLength += length;
+    sourceDataLengths.add(length);
+  }
+
+  void recordDragStarted(long timeNanos) {
+    lastDragUpdateNanos = timeNanos;
+  }
+
+  void recordDragUpdate(long timeNanos) {
+    dragUpdateCount++;
+    if (lastDragUpdateNanos >= 0) {
+      dragUpdateIntervals.add(timeNanos - lastDragUpdateNanos);
+    }
+    lastDragUpdateNanos = timeNanos;
+  }
+
+  void recordHitTest(long hitTestNanos) {
+    hitTestCount++;
+    hitTestTime.add(hitTestNanos);
+  }
+
+  /**
+   * Distribution of the most recent samples of a metric.
+   */
+  @UiThread
+  public static final class Histogram {
+
+    /**
+     * The amount of most recent samples kept.
+     */
+    public static final int SIZE = 128;
+
+    private final long[] samples = new long[SIZE];
+    private long[] sorted;
+    private int count;
+    private int next;
+
+    Histogram() {
+    }
+
+    void add(long sample) {
+      samples[next] = sample;
+      next = (next + 1) % SIZE;
+      count = Math.min(count + 1, SIZE);
+      sorted = null;
+    }
+
+    /**
+     * Get the amount of samples held, at most {@link #SIZE}.
+     *
+     * @return the amount of samples
+     */
+    public int getSampleCount() {
+      return count;
+    }
+
+    /**
+     * Get the smallest sample.
+     *
+     * @return the smallest sample, 0 without samples
+     */
+    public long getMin() {
+      return getPercentile(0);
+    }
+
+    /**
+     * Get the largest sample.
+     *
+     * @return the largest sample, 0 without samples
+     */
+    public long getMax() {
+      return getPercentile(100);
+    }
+
+    /**
+     * Get the mean of the samples.
+     *
+     * @return the mean, 0 without samples
+     */
+    public double getMean() {
+      if (count == 0) {
+        return 0;
+      }
+
+      double sum = 0;
+      for (int i = 0; i < count; i++) {
+        sum += samples[i];
+      }
+      return sum / count;
+    }
+
+    /**
+     * Get the sample at a percentile, using the nearest rank.
+     *
+     * @param percentile the percentile from 0 to 100, for example 50 for the median
+     * @return the sample at the percentile, 0 without samples
+     */
+    public long getPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("The percentile has to be between 0 and 100: " + percentile);
+      }
+      if (count == 0) {
+        return 0;
+      }
+
+      if (sorted == null) {
+        sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+      }
+      int rank = (int) Math.ceil(percentile / 100 * count);
+      return sorted[Math.max(rank, 1) - 1];
+    }
+  }
+}
@@ -0,0 +1,396 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.LongSparseArray;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads annotations in a compact binary format.
+ * <p>
+ * A snapshot holds the id, draggable state, geometry and properties of every annotation. Property names are
+ * written once into a table and referenced by index, values keep their JSON type, including the distinction
+ * between int and float numbers, so restored annotations serialize to the same GeoJSON as the original ones.
+ * </p>
+ */
+class AnnotationSnapshot {
+
+  /**
+   * Receives the annotations read from a snapshot.
+   */
+  interface Reader {
+
+    /**
+     * Called once for every property having a value in at least one annotation of the snapshot.
+     *
+     * @param key the name of the property
+     */
+    void onPropertyKey(@NonNull String key);
+
+    /**
+     * Called for every annotation of the snapshot, in order of their ids.
+     *
+     * @param id         the id of the annotation
+     * @param draggable  whether the annotation is draggable
+     * @param properties the properties of the annotation, excluding the id
+     * @param geometry   the geometry of the annotation
+     */
+    void onAnnotation(long id, boolean draggable, @NonNull JsonObject properties, @NonNull Geometry geometry);
+  }
+
+  private static final int VERSION = 1;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final byte GEOMETRY_POINT = 0;
+  private static final byte GEOMETRY_LINE_STRING = 1;
+  private static final byte GEOMETRY_POLYGON = 2;
+  private static final byte GEOMETRY_WITH_ALTITUDE = 0x10;
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_FALSE = 1;
+  private static final byte VALUE_TRUE = 2;
+  private static final byte VALUE_INT = 3;
+  private static final byte VALUE_LONG = 4;
+  private static final byte VALUE_FLOAT = 5;
+  private static final byte VALUE_DOUBLE = 6;
+  private static final byte VALUE_STRING = 7;
+  private static final byte VALUE_ARRAY = 8;
+
+  private AnnotationSnapshot() {
+    // utility class
+  }
+
+  /**
+   * Write annotations into a snapshot.
+   *
+   * @param type        identifies the type of the annotations, checked when reading the snapshot
+   * @param annotations the annotations to write
+   * @return the snapshot
+   */
+  @NonNull
+  static byte[] write(@NonNull String type, @NonNull LongSparseArray<? extends Annotation> annotations) {
+    // collect the property names first, so they can be referenced by index
+    Map<String, Integer> keys = new HashMap<>();
+    List<String> keyList = new ArrayList<>();
+    List<Boolean> keyUsed = new ArrayList<>();
+    List<JsonObject> propertiesList = new ArrayList<>(annotations.size());
+    for (int i = 0; i < annotations.size(); i++) {
+      JsonObject properties = annotations.valueAt(i).getFeature();
+      for (Map.Entry<String, JsonElement> entry : properties.entrySet()) {
+        if (Annotation.ID_KEY.equals(entry.getKey())) {
+          continue;
+        }
+        Integer index = keys.get(entry.getKey());
+        if (index == null) {
+          keys.put(entry.getKey(), keyList.size());
+          keyList.add(entry.getKey());
+          keyUsed.add(!entry.getValue().isJsonNull());
+        } else if (!entry.getValue().isJsonNull()) {
+          keyUsed.set(index, true);
+        }
+      }
+      propertiesList.add(properties);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(VERSION);
+      writeString(out, type);
+      out.writeInt(keyList.size());
+      for (int i = 0; i < keyList.size(); i++) {
+        writeString(out, keyList.get(i));
+        out.writeBoolean(keyUsed.get(i));
+      }
+
+      out.writeInt(annotations.size());
+      for (int i = 0; i < annotations.size(); i++) {
+        Annotation annotation = annotations.valueAt(i);
+        out.writeLong(annotation.getId());
+        out.writeBoolean(annotation.isDraggable());
+        writeGeometry(out, annotation.getGeometry());
+
+        JsonObject properties = propertiesList.get(i);
+        out.writeInt(properties.has(Annotation.ID_KEY) ? properties.size() - 1 : properties.size());
+        for (Map.Entry<String, JsonElement> entry : properties.entrySet()) {
+          if (!Annotation.ID_KEY.equals(entry.getKey())) {
+            out.writeInt(keys.get(entry.getKey()));
+            writeValue(out, entry.getValue());
+          }
+        }
+      }
+      out.flush();
+    } catch (IOException exception) {
+      // writing to memory doesn't fail
+      throw new IllegalStateException(exception);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Read the annotations of a snapshot.
+   *
+   * @param snapshot the snapshot
+   * @param type     the type of annotations expected
+   * @param reader   the reader receiving the annotations
+   * @throws IllegalArgumentException if the snapshot is invalid or holds another type of annotations
+   */
+  static void read(@NonNull byte[] snapshot, @NonNull String type, @NonNull Reader reader) {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+    try {
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported snapshot version: " + version);
+      }
+      String snapshotType = readString(in);
+      if (!type.equals(snapshotType)) {
+        throw new IllegalArgumentException("The snapshot holds annotations of another type: " + snapshotType);
+      }
+
+      // a key is stored as its length, its bytes and whether it is a data-driven property
+      String[] keys = new String[readLength(in, 5)];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = readString(in);
+        if (in.readBoolean()) {
+          reader.onPropertyKey(keys[i]);
+        }
+      }
+
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        long id = in.readLong();
+        boolean draggable = in.readBoolean();
+        Geometry geometry = readGeometry(in);
+        JsonObject properties = new JsonObject();
+        int propertyCount = in.readInt();
+        for (int j = 0; j < propertyCount; j++) {
+          String key = keys[in.readInt()];
+          properties.add(key, readValue(in));
+        }
+        reader.onAnnotation(id, draggable, properties, geometry);
+      }
+    } catch (IOException | IndexOutOfBoundsException | NegativeArraySizeException exception) {
+      throw new IllegalArgumentException("Invalid snapshot", exception);
+    }
+  }
+
+  private static void writeGeometry(@NonNull DataOutputStream out, @NonNull Geometry geometry) throws IOException {
+    // altitudes are rare, they are only written for geometries having one
+    boolean altitude;
+    if (geometry instanceof Point) {
+      altitude = ((Point) geometry).hasAltitude();
+      out.writeByte(GEOMETRY_POINT | (altitude ? GEOMETRY_WITH_ALTITUDE : 0));
+      writePoint(out, (Point) geometry, altitude);
+    } else if (geometry instanceof LineString) {
+      List<Point> points = ((LineString) geometry).coordinates();
+      altitude = hasAltitude(points);
+      out.writeByte(GEOMETRY_LINE_STRING | (altitude ? GEOMETRY_WITH_ALTITUDE : 0));
+      writePoints(out, points, altitude);
+    } else if (geometry instanceof Polygon) {
+      List<List<Point>> rings = ((Polygon) geometry).coordinates();
+      altitude = false;
+      for (List<Point> ring : rings) {
+        altitude |= hasAltitude(ring);
+      }
+      out.writeByte(GEOMETRY_POLYGON | (altitude ? GEOMETRY_WITH_ALTITUDE : 0));
+      out.writeInt(rings.size());
+      for (List<Point> ring : rings) {
+        writePoints(out, ring, altitude);
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported geometry type: " + geometry.type());
+    }
+  }
+
+  private static boolean hasAltitude(@NonNull List<Point> points) {
+    for (Point point : points) {
+      if (point.hasAltitude()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void writePoints(@NonNull DataOutputStream out, @NonNull List<Point> points, boolean altitude)
+    throws IOException {
+    out.writeInt(points.size());
+    for (Point point : points) {
+      writePoint(out, point, altitude);
+    }
+  }
+
+  private static void writePoint(@NonNull DataOutputStream out, @NonNull Point point, boolean altitude)
+    throws IOException {
+    out.writeDouble(point.longitude());
+    out.writeDouble(point.latitude());
+    if (altitude) {
+      out.writeDouble(point.hasAltitude() ? point.altitude() : Double.NaN);
+    }
+  }
+
+  @NonNull
+  private static Geometry readGeometry(@NonNull DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    boolean altitude = (type & GEOMETRY_WITH_ALTITUDE) != 0;
+    switch (type & ~GEOMETRY_WITH_ALTITUDE) {
+      case GEOMETRY_POINT:
+        return readPoint(in, altitude);
+      case GEOMETRY_LINE_STRING:
+        return LineString.fromLngLats(readPoints(in, altitude));
+      case GEOMETRY_POLYGON:
+        int ringCount = readLength(in, 4);
+        List<List<Point>> rings = new ArrayList<>(ringCount);
+        for (int i = 0; i < ringCount; i++) {
+          rings.add(readPoints(in, altitude));
+        }
+        return Polygon.fromLngLats(rings);
+      default:
+        throw new IOException("Unknown geometry type: " + type);
+    }
+  }
+
+  @NonNull
+  private static List<Point> readPoints(@NonNull DataInputStream in, boolean altitude) throws IOException {
+    int count = readLength(in, altitude ? 24 : 16);
+    List<Point> points = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      points.add(readPoint(in, altitude));
+    }
+    return points;
+  }
+
+  @NonNull
+  private static Point readPoint(@NonNull DataInputStream in, boolean altitude) throws IOException {
+    double longitude = in.readDouble();
+    double latitude = in.readDouble();
+    if (altitude) {
+      double value = in.readDouble();
+      if (!Double.isNaN(value)) {
+        return Point.fromLngLat(longitude, latitude, value);
+      }
+    }
+    return Point.fromLngLat(longitude, latitude);
+  }
+
+  private static void writeValue(@NonNull DataOutputStream out, @NonNull JsonElement value) throws IOException {
+    if (value.isJsonNull()) {
+      out.writeByte(VALUE_NULL);
+    } else if (value.isJsonArray()) {
+      JsonArray array = value.getAsJsonArray();
+      out.writeByte(VALUE_ARRAY);
+      out.writeInt(array.size());
+      for (JsonElement element : array) {
+        writeValue(out, element);
+      }
+    } else if (value.isJsonPrimitive()) {
+      JsonPrimitive primitive = value.getAsJsonPrimitive();
+      if (primitive.isBoolean()) {
+        out.writeByte(primitive.getAsBoolean() ? VALUE_TRUE : VALUE_FALSE);
+      } else if (primitive.isString()) {
+        out.writeByte(VALUE_STRING);
+        writeString(out, primitive.getAsString());
+      } else {
+        writeNumber(out, primitive.getAsNumber());
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported property value: " + value);
+    }
+  }
+
+  private static void writeNumber(@NonNull DataOutputStream out, @NonNull Number number) throws IOException {
+    if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+      out.writeByte(VALUE_INT);
+      out.writeInt(number.intValue());
+    } else if (number instanceof Long) {
+      out.writeByte(VALUE_LONG);
+      out.writeLong(number.longValue());
+    } else if (number instanceof Float) {
+      out.writeByte(VALUE_FLOAT);
+      out.writeFloat(number.floatValue());
+    } else {
+      out.writeByte(VALUE_DOUBLE);
+      out.writeDouble(number.doubleValue());
+    }
+  }
+
+  @NonNull
+  private static JsonElement readValue(@NonNull DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case VALUE_NULL:
+        return JsonNull.INSTANCE;
+      case VALUE_FALSE:
+        return new JsonPrimitive(false);
+      case VALUE_TRUE:
+        return new JsonPrimitive(true);
+      case VALUE_INT:
+        return new JsonPrimitive(in.readInt());
+      case VALUE_LONG:
+        return new JsonPrimitive(in.readLong());
+      case VALUE_FLOAT:
+        return new JsonPrimitive(in.readFloat());
+      case VALUE_DOUBLE:
+        return new JsonPrimitive(in.readDouble());
+      case VALUE_STRING:
+        return new JsonPrimitive(readString(in));
+      case VALUE_ARRAY:
+        int size = in.readInt();
+        JsonArray array = new JsonArray();
+        for (int i = 0; i < size; i++) {
+          array.add(readValue(in));
+        }
+        return array;
+      default:
+        throw new IOException("Unknown value type: " + type);
+    }
+  }
+
+  private static void writeString(@NonNull DataOutputStream out, @NonNull String value) throws IOException {
+    // not limited to 64 KB like writeUTF
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @NonNull
+  private static String readString(@NonNull DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readLength(in, 1)];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * Read the number of elements that follow, checked against the remaining input before anything is allocated.
+   *
+   * @param in          the input
+   * @param elementSize the minimum number of bytes of an element
+   * @return the number of elements
+   * @throws IOException if the elements can't fit into the remaining input
+   */
+  private static int readLength(@NonNull DataInputStream in, int elementSize) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available() / elementSize) {
+      throw new IOException("Invalid length: " + length);
+    }
+    return length;
+  }
+}
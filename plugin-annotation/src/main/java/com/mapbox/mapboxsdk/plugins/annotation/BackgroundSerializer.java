@@ -0,0 +1,105 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.VisibleForTesting;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorts and converts snapshots of annotation features to GeoJSON on a background thread.
+ * <p>
+ * Snapshots which are outdated by the time they are processed are skipped. A finished result is delivered unless a
+ * newer result was delivered already, so continuous updates that each take longer to serialize than the time between
+ * them still update the source.
+ * </p>
+ */
+class BackgroundSerializer {
+
+  interface OnSerializedListener {
+    @UiThread
+    void onSerialized(@NonNull String geoJson);
+  }
+
+  private static ExecutorService sharedExecutor;
+
+  private final Executor executor;
+  private final Handler mainHandler;
+  private final AtomicLong latestSnapshot = new AtomicLong();
+  // only accessed on the main thread
+  private long deliveredSnapshot;
+
+  BackgroundSerializer() {
+    this(getSharedExecutor(), new Handler(Looper.getMainLooper()));
+  }
+
+  @VisibleForTesting
+  BackgroundSerializer(Executor executor, Handler mainHandler) {
+    this.executor = executor;
+    this.mainHandler = mainHandler;
+  }
+
+  /**
+   * Queue a snapshot of features for serialization.
+   * <p>
+   * The features and their properties may not be mutated after being submitted.
+   * </p>
+   *
+   * @param features   the features to serialize, ownership of the list is transferred
+   * @param comparator optional comparator defining the order of the features
+   * @param listener   listener invoked on the main thread with the resulting GeoJSON
+   */
+  @UiThread
+  void submit(@NonNull List<Feature> features, @Nullable Comparator<Feature> comparator,
+              @NonNull OnSerializedListener listener) {
+    final long snapshot = latestSnapshot.incrementAndGet();
+    executor.execute(() -> {
+      if (snapshot != latestSnapshot.get()) {
+        // a newer snapshot has been queued in the meantime
+        return;
+      }
+
+      if (comparator != null) {
+        Collections.sort(features, comparator);
+      }
+      String geoJson = FeatureCollection.fromFeatures(features).toJson();
+      mainHandler.post(() -> {
+        if (snapshot > deliveredSnapshot) {
+          deliveredSnapshot = snapshot;
+          listener.onSerialized(geoJson);
+        }
+      });
+    });
+  }
+
+  /**
+   * Drop all snapshots which are queued or being processed.
+   */
+  @UiThread
+  void cancel() {
+    deliveredSnapshot = latestSnapshot.incrementAndGet();
+  }
+
+  private static synchronized ExecutorService getSharedExecutor() {
+    if (sharedExecutor == null) {
+      sharedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AnnotationSerializer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return sharedExecutor;
+  }
+}
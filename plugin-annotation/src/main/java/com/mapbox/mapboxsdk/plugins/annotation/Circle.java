@@ -5,8 +5,6 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 import android.support.annotation.ColorInt;
 import android.graphics.PointF;
 import android.support.annotation.UiThread;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
@@ -42,28 +40,8 @@ public class Circle extends Annotation<Point> {
   }
 
   @Override
-  void setUsedDataDrivenProperties() {
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleRadius) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleRadius);
-    }
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleColor);
-    }
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleBlur) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleBlur);
-    }
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleOpacity) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleOpacity);
-    }
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleStrokeWidth) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleStrokeWidth);
-    }
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleStrokeColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleStrokeColor);
-    }
-    if (!(jsonObject.get(CircleOptions.PROPERTY_circleStrokeOpacity) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(CircleOptions.PROPERTY_circleStrokeOpacity);
-    }
+  void onPropertySet(@NonNull String key) {
+    annotationManager.enableDataDrivenProperty(key);
   }
 
   /**
@@ -88,6 +66,13 @@ public class Circle extends Annotation<Point> {
     return new LatLng(geometry.latitude(), geometry.longitude());
   }
 
+  @Override
+  float getRenderedRadius(float tolerance) {
+    float radius = isPropertySet(CircleOptions.PROPERTY_circleRadius) ? getCircleRadius() : 5;
+    return isPropertySet(CircleOptions.PROPERTY_circleStrokeWidth)
+      ? radius + getCircleStrokeWidth() : radius;
+  }
+
   // Property accessors
 
   /**
@@ -99,7 +84,7 @@ public class Circle extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getCircleRadius() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleRadius).getAsFloat();
+    return getFloatProperty(CircleOptions.PROPERTY_circleRadius);
   }
 
   /**
@@ -114,7 +99,7 @@ public class Circle extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setCircleRadius(Float value) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleRadius, value);
+    setFloatProperty(CircleOptions.PROPERTY_circleRadius, value);
   }
 
   /**
@@ -127,7 +112,7 @@ public class Circle extends Annotation<Point> {
    */
   @ColorInt
   public int getCircleColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(CircleOptions.PROPERTY_circleColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(CircleOptions.PROPERTY_circleColor));
   }
 
   /**
@@ -139,7 +124,7 @@ public class Circle extends Annotation<Point> {
    * @return color value for String
    */
   public String getCircleColor() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleColor).getAsString();
+    return getStringProperty(CircleOptions.PROPERTY_circleColor);
   }
 
   /**
@@ -154,7 +139,7 @@ public class Circle extends Annotation<Point> {
    * @param color value for String
    */
   public void setCircleColor(@ColorInt int color) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(CircleOptions.PROPERTY_circleColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -169,7 +154,7 @@ public class Circle extends Annotation<Point> {
    * @param color value for String
    */
   public void setCircleColor(@NonNull String color) {
-    jsonObject.addProperty("circle-color", color);
+    setStringProperty(CircleOptions.PROPERTY_circleColor, color);
   }
 
   /**
@@ -181,7 +166,7 @@ public class Circle extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getCircleBlur() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleBlur).getAsFloat();
+    return getFloatProperty(CircleOptions.PROPERTY_circleBlur);
   }
 
   /**
@@ -196,7 +181,7 @@ public class Circle extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setCircleBlur(Float value) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleBlur, value);
+    setFloatProperty(CircleOptions.PROPERTY_circleBlur, value);
   }
 
   /**
@@ -208,7 +193,7 @@ public class Circle extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getCircleOpacity() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleOpacity).getAsFloat();
+    return getFloatProperty(CircleOptions.PROPERTY_circleOpacity);
   }
 
   /**
@@ -223,7 +208,7 @@ public class Circle extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setCircleOpacity(Float value) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleOpacity, value);
+    setFloatProperty(CircleOptions.PROPERTY_circleOpacity, value);
   }
 
   /**
@@ -235,7 +220,7 @@ public class Circle extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getCircleStrokeWidth() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleStrokeWidth).getAsFloat();
+    return getFloatProperty(CircleOptions.PROPERTY_circleStrokeWidth);
   }
 
   /**
@@ -250,7 +235,7 @@ public class Circle extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setCircleStrokeWidth(Float value) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleStrokeWidth, value);
+    setFloatProperty(CircleOptions.PROPERTY_circleStrokeWidth, value);
   }
 
   /**
@@ -263,7 +248,7 @@ public class Circle extends Annotation<Point> {
    */
   @ColorInt
   public int getCircleStrokeColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(CircleOptions.PROPERTY_circleStrokeColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(CircleOptions.PROPERTY_circleStrokeColor));
   }
 
   /**
@@ -275,7 +260,7 @@ public class Circle extends Annotation<Point> {
    * @return color value for String
    */
   public String getCircleStrokeColor() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleStrokeColor).getAsString();
+    return getStringProperty(CircleOptions.PROPERTY_circleStrokeColor);
   }
 
   /**
@@ -290,7 +275,7 @@ public class Circle extends Annotation<Point> {
    * @param color value for String
    */
   public void setCircleStrokeColor(@ColorInt int color) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleStrokeColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(CircleOptions.PROPERTY_circleStrokeColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -305,7 +290,7 @@ public class Circle extends Annotation<Point> {
    * @param color value for String
    */
   public void setCircleStrokeColor(@NonNull String color) {
-    jsonObject.addProperty("circle-stroke-color", color);
+    setStringProperty(CircleOptions.PROPERTY_circleStrokeColor, color);
   }
 
   /**
@@ -317,7 +302,7 @@ public class Circle extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getCircleStrokeOpacity() {
-    return jsonObject.get(CircleOptions.PROPERTY_circleStrokeOpacity).getAsFloat();
+    return getFloatProperty(CircleOptions.PROPERTY_circleStrokeOpacity);
   }
 
   /**
@@ -332,7 +317,7 @@ public class Circle extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setCircleStrokeOpacity(Float value) {
-    jsonObject.addProperty(CircleOptions.PROPERTY_circleStrokeOpacity, value);
+    setFloatProperty(CircleOptions.PROPERTY_circleStrokeOpacity, value);
   }
 
   @Override
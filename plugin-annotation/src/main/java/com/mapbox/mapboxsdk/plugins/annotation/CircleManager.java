@@ -7,19 +7,24 @@ import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 import android.support.annotation.VisibleForTesting;
 
+import com.google.gson.JsonObject;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.Point;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
 import com.mapbox.mapboxsdk.style.layers.CircleLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.mapboxsdk.style.layers.PropertyValue;
 import com.mapbox.mapboxsdk.style.layers.PropertyFactory;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.style.layers.Property;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +38,10 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
 
   public static final String ID_GEOJSON_SOURCE = "mapbox-android-circle-source";
   public static final String ID_GEOJSON_LAYER = "mapbox-android-circle-layer";
+  public static final String ID_GEOJSON_DRAG_SOURCE = "mapbox-android-circle-drag-source";
+  public static final String ID_GEOJSON_DRAG_LAYER = "mapbox-android-circle-drag-layer";
+  public static final String ID_GEOJSON_CLUSTER_LAYER = "mapbox-android-circle-cluster-layer";
+  public static final String ID_GEOJSON_CLUSTER_COUNT_LAYER = "mapbox-android-circle-cluster-count-layer";
 
   private static final String PROPERTY_circleTranslate = "circle-translate";
   private static final String PROPERTY_circleTranslateAnchor = "circle-translate-anchor";
@@ -72,6 +81,20 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
    */
   @UiThread
   public CircleManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions) {
+    this(mapView, mapboxMap, style, belowLayerId, geoJsonOptions, null);
+  }
+
+  /**
+   * Create a circle manager, used to manage circles.
+   *
+   * @param mapboxMap the map object to add circles to
+   * @param style a valid a fully loaded style object
+   * @param belowLayerId the id of the layer above the circle layer
+   * @param geoJsonOptions options for the internal source
+   * @param clusterOptions options for clustering the circles, null to not cluster circles
+   */
+  @UiThread
+  public CircleManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, @Nullable ClusterOptions clusterOptions) {
     this(mapView, mapboxMap, style,
       new CoreElementProvider<CircleLayer>() {
         @Override
@@ -87,13 +110,52 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
             return new GeoJsonSource(ID_GEOJSON_SOURCE);
           }
         }
+
+        @Override
+        public CircleLayer getShardLayer(int shard) {
+          return new CircleLayer(ID_GEOJSON_LAYER + "-" + shard, ID_GEOJSON_SOURCE + "-" + shard);
+        }
+
+        @Override
+        public GeoJsonSource getShardSource(int shard, @Nullable GeoJsonOptions geoJsonOptions) {
+          if (geoJsonOptions != null) {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard, geoJsonOptions);
+          } else {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard);
+          }
+        }
+
+        @Override
+        public CircleLayer getDragLayer() {
+          return new CircleLayer(ID_GEOJSON_DRAG_LAYER, ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public GeoJsonSource getDragSource() {
+          return new GeoJsonSource(ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public CircleLayer getClusterLayer() {
+          return new CircleLayer(ID_GEOJSON_CLUSTER_LAYER, ID_GEOJSON_SOURCE);
+        }
+
+        @Override
+        public SymbolLayer getClusterCountLayer() {
+          return new SymbolLayer(ID_GEOJSON_CLUSTER_COUNT_LAYER, ID_GEOJSON_SOURCE);
+        }
       },
-     belowLayerId, geoJsonOptions, new DraggableAnnotationController<>(mapView, mapboxMap));
+     belowLayerId, geoJsonOptions, clusterOptions, new DraggableAnnotationController<>(mapView, mapboxMap));
   }
 
   @VisibleForTesting
   CircleManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @NonNull CoreElementProvider<CircleLayer> coreElementProvider, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, DraggableAnnotationController<Circle, OnCircleDragListener> draggableAnnotationController) {
-    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions);
+    this(mapView, mapboxMap, style, coreElementProvider, belowLayerId, geoJsonOptions, null, draggableAnnotationController);
+  }
+
+  @VisibleForTesting
+  CircleManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @NonNull CoreElementProvider<CircleLayer> coreElementProvider, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, @Nullable ClusterOptions clusterOptions, DraggableAnnotationController<Circle, OnCircleDragListener> draggableAnnotationController) {
+    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions, clusterOptions);
   }
 
   @Override
@@ -108,28 +170,28 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
   }
 
   @Override
-  protected void setDataDrivenPropertyIsUsed(@NonNull String property) {
+  protected void setDataDrivenPropertyIsUsed(@NonNull String property, @NonNull CircleLayer targetLayer) {
     switch (property) {
       case CircleOptions.PROPERTY_circleRadius:
-        layer.setProperties(circleRadius(get(CircleOptions.PROPERTY_circleRadius)));
+        targetLayer.setProperties(circleRadius(get(CircleOptions.PROPERTY_circleRadius)));
         break;
       case CircleOptions.PROPERTY_circleColor:
-        layer.setProperties(circleColor(get(CircleOptions.PROPERTY_circleColor)));
+        targetLayer.setProperties(circleColor(get(CircleOptions.PROPERTY_circleColor)));
         break;
       case CircleOptions.PROPERTY_circleBlur:
-        layer.setProperties(circleBlur(get(CircleOptions.PROPERTY_circleBlur)));
+        targetLayer.setProperties(circleBlur(get(CircleOptions.PROPERTY_circleBlur)));
         break;
       case CircleOptions.PROPERTY_circleOpacity:
-        layer.setProperties(circleOpacity(get(CircleOptions.PROPERTY_circleOpacity)));
+        targetLayer.setProperties(circleOpacity(get(CircleOptions.PROPERTY_circleOpacity)));
         break;
       case CircleOptions.PROPERTY_circleStrokeWidth:
-        layer.setProperties(circleStrokeWidth(get(CircleOptions.PROPERTY_circleStrokeWidth)));
+        targetLayer.setProperties(circleStrokeWidth(get(CircleOptions.PROPERTY_circleStrokeWidth)));
         break;
       case CircleOptions.PROPERTY_circleStrokeColor:
-        layer.setProperties(circleStrokeColor(get(CircleOptions.PROPERTY_circleStrokeColor)));
+        targetLayer.setProperties(circleStrokeColor(get(CircleOptions.PROPERTY_circleStrokeColor)));
         break;
       case CircleOptions.PROPERTY_circleStrokeOpacity:
-        layer.setProperties(circleStrokeOpacity(get(CircleOptions.PROPERTY_circleStrokeOpacity)));
+        targetLayer.setProperties(circleStrokeOpacity(get(CircleOptions.PROPERTY_circleStrokeOpacity)));
         break;
     }
   }
@@ -151,6 +213,9 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
    * <p>
    * Out of spec properties:<br>
    * "is-draggable" - Boolean, true if the circle should be draggable, false otherwise
+   * <p>
+   * Large collections should be imported with {@link #importGeoJson(InputStream, OnAnnotationImportListener)}
+   * instead, which doesn't need to keep the whole collection in memory.
    *
    * @param json the GeoJSON defining the list of circles to build
    * @return the list of built circles
@@ -196,6 +261,17 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
     return create(options);
   }
 
+  @Override
+  @Nullable
+  CircleOptions optionsFromFeature(@NonNull Feature feature) {
+    return CircleOptions.fromFeature(feature);
+  }
+
+  @Override
+  Circle createAnnotation(long id, @NonNull JsonObject properties, @NonNull Geometry geometry) {
+    return new Circle(id, this, properties, (Point) geometry);
+  }
+
   /**
    * Get the layer id of the annotation layer.
    *
@@ -241,6 +317,12 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
     PropertyValue propertyValue = circleTranslate(value);
     constantPropertyUsageMap.put(PROPERTY_circleTranslate, propertyValue);
     layer.setProperties(propertyValue);
+    for (CircleLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -267,6 +349,12 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
     PropertyValue propertyValue = circleTranslateAnchor(value);
     constantPropertyUsageMap.put(PROPERTY_circleTranslateAnchor, propertyValue);
     layer.setProperties(propertyValue);
+    for (CircleLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -293,6 +381,12 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
     PropertyValue propertyValue = circlePitchScale(value);
     constantPropertyUsageMap.put(PROPERTY_circlePitchScale, propertyValue);
     layer.setProperties(propertyValue);
+    for (CircleLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -319,6 +413,12 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
     PropertyValue propertyValue = circlePitchAlignment(value);
     constantPropertyUsageMap.put(PROPERTY_circlePitchAlignment, propertyValue);
     layer.setProperties(propertyValue);
+    for (CircleLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -329,16 +429,28 @@ public class CircleManager extends AnnotationManager<CircleLayer, Circle, Circle
    @Override
   public void setFilter(@NonNull Expression expression) {
     layerFilter = expression;
-    layer.setFilter(layerFilter);
+    setLayerFilter(applyManagedFilters(layerFilter));
+  }
+
+  @Override
+  void setLayerFilter(@NonNull Expression filter) {
+    layer.setFilter(filter);
+    for (CircleLayer shardLayer : shardLayers) {
+      shardLayer.setFilter(filter);
+    }
   }
 
   /**
-   * Get filter of the managed circles.
+   * Get filter of the managed circles, as set with {@link #setFilter(Expression)}.
+   * <p>
+   * The filter set on the layer also hides clusters and the groups hidden with
+   * {@link #setGroupVisible(String, boolean)}, those parts aren't returned.
+   * </p>
    *
    * @return expression
    */
   @Nullable
   public Expression getFilter() {
-    return layer.getFilter();
+    return layerFilter;
   }
 }
@@ -34,6 +34,7 @@ public class CircleOptions extends Options<Circle> {
   private Float circleStrokeWidth;
   private String circleStrokeColor;
   private Float circleStrokeOpacity;
+  private String group;
 
   static final String PROPERTY_circleRadius = "circle-radius";
   static final String PROPERTY_circleColor = "circle-color";
@@ -254,8 +255,30 @@ public class CircleOptions extends Options<Circle> {
     return this;
   }
 
+  /**
+   * Get the group to initialise the circle with.
+   *
+   * @return the group, null if the circle isn't part of a group
+   */
+  @Nullable
+  public String getGroup() {
+    return group;
+  }
+
+  /**
+   * Set the group to initialise the circle with, all annotations of a group are shown or hidden at once with
+   * {@link AnnotationManager#setGroupVisible(String, boolean)}.
+   *
+   * @param group the group of the circle
+   * @return this
+   */
+  public CircleOptions withGroup(@Nullable String group) {
+    this.group = group;
+    return this;
+  }
+
   @Override
-  Circle build(long id, AnnotationManager<?, Circle, ?, ?, ?, ?> annotationManager) {
+  Circle buildAnnotation(long id, AnnotationManager<?, Circle, ?, ?, ?, ?> annotationManager) {
     if (geometry == null) {
       throw new RuntimeException("geometry field is required");
     }
@@ -267,11 +290,39 @@ public class CircleOptions extends Options<Circle> {
     jsonObject.addProperty(PROPERTY_circleStrokeWidth, circleStrokeWidth);
     jsonObject.addProperty(PROPERTY_circleStrokeColor, circleStrokeColor);
     jsonObject.addProperty(PROPERTY_circleStrokeOpacity, circleStrokeOpacity);
+    if (group != null) {
+      jsonObject.addProperty(Annotation.GROUP_KEY, group);
+    }
     Circle circle = new Circle(id, annotationManager, jsonObject, geometry);
     circle.setDraggable(isDraggable);
     return circle;
   }
 
+  @Override
+  void enableDataDrivenProperties(AnnotationManager<?, Circle, ?, ?, ?, ?> annotationManager) {
+    if (circleRadius != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleRadius);
+    }
+    if (circleColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleColor);
+    }
+    if (circleBlur != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleBlur);
+    }
+    if (circleOpacity != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleOpacity);
+    }
+    if (circleStrokeWidth != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleStrokeWidth);
+    }
+    if (circleStrokeColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleStrokeColor);
+    }
+    if (circleStrokeOpacity != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_circleStrokeOpacity);
+    }
+  }
+
   /**
    * Creates CircleOptions out of a Feature.
    *
@@ -312,6 +363,9 @@ public class CircleOptions extends Options<Circle> {
     if (feature.hasProperty(PROPERTY_isDraggable)) {
       options.isDraggable = feature.getProperty(PROPERTY_isDraggable).getAsBoolean();
     }
+    if (feature.hasNonNullValueForProperty(Annotation.GROUP_KEY)) {
+      options.group = feature.getStringProperty(Annotation.GROUP_KEY);
+    }
     return options;
   }
 }
@@ -0,0 +1,223 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.Color;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Pair;
+
+import com.mapbox.mapboxsdk.style.expressions.Expression;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mapbox.mapboxsdk.style.expressions.Expression.color;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.get;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.step;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.stop;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.circleColor;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.circleRadius;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.textAllowOverlap;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.textColor;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.textField;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.textIgnorePlacement;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.textSize;
+
+/**
+ * Builder class defining how annotations are clustered and how clusters are rendered.
+ * <p>
+ * Clusters are rendered as circles, colored by the amount of annotations they contain, with the amount of
+ * annotations as label.
+ * </p>
+ */
+public class ClusterOptions {
+
+  static final String PROPERTY_POINT_COUNT = "point_count";
+  private static final String PROPERTY_POINT_COUNT_ABBREVIATED = "point_count_abbreviated";
+
+  private int clusterRadius = 50;
+  private int clusterMaxZoom = 14;
+  private float circleRadius = 18;
+  private float textSize = 12;
+  @ColorInt
+  private int textColor = Color.WHITE;
+  private List<Pair<Integer, Integer>> colorLevels = new ArrayList<>();
+
+  public ClusterOptions() {
+    colorLevels.add(new Pair<>(0, Color.rgb(81, 187, 214)));
+    colorLevels.add(new Pair<>(100, Color.rgb(241, 240, 117)));
+    colorLevels.add(new Pair<>(750, Color.rgb(242, 140, 177)));
+  }
+
+  /**
+   * Set the radius of each cluster when clustering annotations, defaults to 50.
+   *
+   * @param clusterRadius the radius in pixels
+   * @return this
+   */
+  public ClusterOptions withClusterRadius(int clusterRadius) {
+    this.clusterRadius = clusterRadius;
+    return this;
+  }
+
+  /**
+   * Get the radius of each cluster when clustering annotations.
+   *
+   * @return the radius in pixels
+   */
+  public int getClusterRadius() {
+    return clusterRadius;
+  }
+
+  /**
+   * Set the maximum zoom level on which annotations are clustered, defaults to 14.
+   *
+   * @param clusterMaxZoom the maximum zoom level
+   * @return this
+   */
+  public ClusterOptions withClusterMaxZoom(int clusterMaxZoom) {
+    this.clusterMaxZoom = clusterMaxZoom;
+    return this;
+  }
+
+  /**
+   * Get the maximum zoom level on which annotations are clustered.
+   *
+   * @return the maximum zoom level
+   */
+  public int getClusterMaxZoom() {
+    return clusterMaxZoom;
+  }
+
+  /**
+   * Set the radius of the circle rendering a cluster, defaults to 18.
+   *
+   * @param circleRadius the radius in pixels
+   * @return this
+   */
+  public ClusterOptions withCircleRadius(float circleRadius) {
+    this.circleRadius = circleRadius;
+    return this;
+  }
+
+  /**
+   * Get the radius of the circle rendering a cluster.
+   *
+   * @return the radius in pixels
+   */
+  public float getCircleRadius() {
+    return circleRadius;
+  }
+
+  /**
+   * Set the size of the label of a cluster, defaults to 12.
+   *
+   * @param textSize the text size in pixels
+   * @return this
+   */
+  public ClusterOptions withTextSize(float textSize) {
+    this.textSize = textSize;
+    return this;
+  }
+
+  /**
+   * Get the size of the label of a cluster.
+   *
+   * @return the text size in pixels
+   */
+  public float getTextSize() {
+    return textSize;
+  }
+
+  /**
+   * Set the color of the label of a cluster, defaults to white.
+   *
+   * @param textColor the text color
+   * @return this
+   */
+  public ClusterOptions withTextColor(@ColorInt int textColor) {
+    this.textColor = textColor;
+    return this;
+  }
+
+  /**
+   * Get the color of the label of a cluster.
+   *
+   * @return the text color
+   */
+  @ColorInt
+  public int getTextColor() {
+    return textColor;
+  }
+
+  /**
+   * Set the colors of clusters by the amount of annotations they contain.
+   * <p>
+   * Every level is a pair of the minimum amount of annotations and the color of clusters containing at least that
+   * amount of annotations. Levels have to be ordered by amount of annotations, ascending.
+   * </p>
+   *
+   * @param colorLevels the color levels
+   * @return this
+   */
+  public ClusterOptions withColorLevels(@NonNull List<Pair<Integer, Integer>> colorLevels) {
+    if (colorLevels.isEmpty()) {
+      throw new IllegalArgumentException("At least one color level is required");
+    }
+    this.colorLevels = new ArrayList<>(colorLevels);
+    return this;
+  }
+
+  /**
+   * Get the colors of clusters by the amount of annotations they contain.
+   *
+   * @return the color levels
+   */
+  public List<Pair<Integer, Integer>> getColorLevels() {
+    return colorLevels;
+  }
+
+  /**
+   * Add the cluster settings to the options of the annotation source.
+   *
+   * @param geoJsonOptions the options of the annotation source, can be null
+   * @return the options of the annotation source with clustering enabled
+   */
+  @NonNull
+  GeoJsonOptions applyTo(@Nullable GeoJsonOptions geoJsonOptions) {
+    if (geoJsonOptions == null) {
+      geoJsonOptions = new GeoJsonOptions();
+    }
+    return geoJsonOptions
+      .withCluster(true)
+      .withClusterRadius(clusterRadius)
+      .withClusterMaxZoom(clusterMaxZoom);
+  }
+
+  void applyTo(@NonNull CircleLayer clusterLayer) {
+    Expression.Stop[] stops = new Expression.Stop[colorLevels.size() - 1];
+    for (int i = 1; i < colorLevels.size(); i++) {
+      stops[i - 1] = stop(colorLevels.get(i).first, color(colorLevels.get(i).second));
+    }
+
+    clusterLayer.setProperties(
+      circleRadius(circleRadius),
+      circleColor(step(get(PROPERTY_POINT_COUNT), color(colorLevels.get(0).second), stops))
+    );
+    clusterLayer.setFilter(Expression.has(PROPERTY_POINT_COUNT));
+  }
+
+  void applyTo(@NonNull SymbolLayer clusterCountLayer) {
+    clusterCountLayer.setProperties(
+      textField(get(PROPERTY_POINT_COUNT_ABBREVIATED)),
+      textSize(textSize),
+      textColor(textColor),
+      textIgnorePlacement(true),
+      textAllowOverlap(true)
+    );
+    clusterCountLayer.setFilter(Expression.has(PROPERTY_POINT_COUNT));
+  }
+}
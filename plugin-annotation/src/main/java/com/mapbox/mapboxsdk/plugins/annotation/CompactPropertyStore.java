@@ -0,0 +1,431 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays storage for annotation properties.
+ * <p>
+ * Every annotation occupies a row and every property a column. Numeric properties are kept in primitive
+ * float or int arrays and string values are interned, annotations sharing a value share a single instance.
+ * Interned strings are reference counted and dropped as soon as no row uses them anymore.
+ * Properties are only converted to a {@link JsonObject} when a feature needs to be materialized.
+ * </p>
+ */
+class CompactPropertyStore {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Map<String, Column> columns = new LinkedHashMap<>();
+  private final StringPool stringPool = new StringPool();
+  private int capacity = INITIAL_CAPACITY;
+  private int rowCount;
+  private int[] releasedRows = new int[INITIAL_CAPACITY];
+  private int releasedRowCount;
+
+  /**
+   * Allocate a row without any properties set.
+   *
+   * @return the index of the row
+   */
+  int allocateRow() {
+    if (releasedRowCount > 0) {
+      return releasedRows[--releasedRowCount];
+    }
+
+    if (rowCount == capacity) {
+      capacity *= 2;
+      for (Column column : columns.values()) {
+        column.resize(capacity);
+      }
+    }
+    return rowCount++;
+  }
+
+  /**
+   * Release a row, making it available for reuse.
+   *
+   * @param row the index of the row
+   */
+  void releaseRow(int row) {
+    for (Column column : columns.values()) {
+      column.clear(row);
+    }
+
+    if (releasedRowCount == releasedRows.length) {
+      releasedRows = Arrays.copyOf(releasedRows, releasedRowCount * 2);
+    }
+    releasedRows[releasedRowCount++] = row;
+  }
+
+  /**
+   * Returns the number of allocated rows.
+   *
+   * @return the number of rows in use
+   */
+  int size() {
+    return rowCount - releasedRowCount;
+  }
+
+  /**
+   * Returns the number of distinct interned strings.
+   *
+   * @return the number of strings in the pool
+   */
+  int getStringPoolSize() {
+    return stringPool.size();
+  }
+
+  boolean isSet(int row, @NonNull String key) {
+    Column column = columns.get(key);
+    return column != null && column.isSet(row);
+  }
+
+  void clear(int row, @NonNull String key) {
+    Column column = columns.get(key);
+    if (column != null) {
+      column.clear(row);
+    }
+  }
+
+  float getFloat(int row, @NonNull String key) {
+    return getSetColumn(row, key, FloatColumn.class).values[row];
+  }
+
+  void setFloat(int row, @NonNull String key, @Nullable Float value) {
+    if (value == null) {
+      clear(row, key);
+      return;
+    }
+
+    FloatColumn column = obtainColumn(key, FloatColumn.class);
+    column.values[row] = value;
+    column.set.set(row);
+  }
+
+  int getInt(int row, @NonNull String key) {
+    return getSetColumn(row, key, IntColumn.class).values[row];
+  }
+
+  void setInt(int row, @NonNull String key, int value) {
+    IntColumn column = obtainColumn(key, IntColumn.class);
+    column.values[row] = value;
+    column.set.set(row);
+  }
+
+  @NonNull
+  String getString(int row, @NonNull String key) {
+    return getSetColumn(row, key, StringColumn.class).values[row];
+  }
+
+  void setString(int row, @NonNull String key, @Nullable String value) {
+    if (value == null) {
+      clear(row, key);
+      return;
+    }
+
+    StringColumn column = obtainColumn(key, StringColumn.class);
+    String interned = stringPool.obtain(value);
+    if (column.isSet(row)) {
+      stringPool.release(column.values[row]);
+    }
+    column.values[row] = interned;
+    column.set.set(row);
+  }
+
+  @NonNull
+  <V> V[] getArray(int row, @NonNull String key, @NonNull Class<V[]> type) {
+    Object[] value = getSetColumn(row, key, ArrayColumn.class).values[row];
+    return Arrays.copyOf(value, value.length, type);
+  }
+
+  void setArray(int row, @NonNull String key, @Nullable Object[] value) {
+    if (value == null) {
+      clear(row, key);
+      return;
+    }
+
+    ArrayColumn column = obtainColumn(key, ArrayColumn.class);
+    column.values[row] = value.clone();
+    column.set.set(row);
+  }
+
+  /**
+   * Set a property from its JSON representation.
+   *
+   * @param row   the index of the row
+   * @param key   the name of the property
+   * @param value the value of the property, null values clear the property
+   * @throws IllegalArgumentException if the value can't be represented in a column
+   */
+  void set(int row, @NonNull String key, @Nullable JsonElement value) {
+    if (value == null || value.isJsonNull()) {
+      clear(row, key);
+    } else if (value.isJsonArray()) {
+      JsonArray jsonArray = value.getAsJsonArray();
+      if (jsonArray.size() > 0 && jsonArray.get(0).getAsJsonPrimitive().isNumber()) {
+        setArray(row, key, ConvertUtils.toFloatArray(jsonArray));
+      } else {
+        setArray(row, key, ConvertUtils.toStringArray(jsonArray));
+      }
+    } else if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
+      setString(row, key, value.getAsString());
+    } else if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+      Number number = value.getAsNumber();
+      if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+        setInt(row, key, number.intValue());
+      } else {
+        setFloat(row, key, number.floatValue());
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported value for property " + key + ": " + value);
+    }
+  }
+
+  /**
+   * Materialize the properties of a row.
+   *
+   * @param row the index of the row
+   * @return a new JsonObject containing all set properties of the row
+   */
+  @NonNull
+  JsonObject toJsonObject(int row) {
+    JsonObject jsonObject = new JsonObject();
+    for (Map.Entry<String, Column> entry : columns.entrySet()) {
+      Column column = entry.getValue();
+      if (column.isSet(row)) {
+        jsonObject.add(entry.getKey(), column.toJson(row));
+      }
+    }
+    return jsonObject;
+  }
+
+  /**
+   * Write the properties of a row, in the same order as {@link #toJsonObject(int)}.
+   *
+   * @param row    the index of the row
+   * @param writer the writer positioned within an object
+   */
+  void writeProperties(int row, @NonNull GeoJsonWriter writer) {
+    for (Map.Entry<String, Column> entry : columns.entrySet()) {
+      Column column = entry.getValue();
+      if (column.isSet(row)) {
+        writer.name(entry.getKey());
+        column.write(row, writer);
+      }
+    }
+  }
+
+  private <C extends Column> C getSetColumn(int row, @NonNull String key, @NonNull Class<C> type) {
+    Column column = columns.get(key);
+    if (column == null || !column.isSet(row)) {
+      throw new UnsupportedOperationException("Property " + key + " isn't set");
+    }
+    return checkType(key, column, type);
+  }
+
+  private <C extends Column> C obtainColumn(@NonNull String key, @NonNull Class<C> type) {
+    Column column = columns.get(key);
+    if (column == null) {
+      if (type == FloatColumn.class) {
+        column = new FloatColumn(capacity);
+      } else if (type == IntColumn.class) {
+        column = new IntColumn(capacity);
+      } else if (type == StringColumn.class) {
+        column = new StringColumn(capacity, stringPool);
+      } else {
+        column = new ArrayColumn(capacity);
+      }
+      columns.put(key, column);
+    }
+    return checkType(key, column, type);
+  }
+
+  private static <C extends Column> C checkType(@NonNull String key, @NonNull Column column,
+                                                @NonNull Class<C> type) {
+    if (!type.isInstance(column)) {
+      throw new IllegalArgumentException("Property " + key + " is stored in a " + column.getClass().getSimpleName());
+    }
+    return type.cast(column);
+  }
+
+  private abstract static class Column {
+    final BitSet set = new BitSet();
+
+    boolean isSet(int row) {
+      return set.get(row);
+    }
+
+    void clear(int row) {
+      set.clear(row);
+    }
+
+    abstract void resize(int capacity);
+
+    abstract JsonElement toJson(int row);
+
+    abstract void write(int row, GeoJsonWriter writer);
+  }
+
+  private static class FloatColumn extends Column {
+    float[] values;
+
+    FloatColumn(int capacity) {
+      values = new float[capacity];
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    JsonElement toJson(int row) {
+      return new JsonPrimitive(values[row]);
+    }
+
+    @Override
+    void write(int row, GeoJsonWriter writer) {
+      writer.value(values[row]);
+    }
+  }
+
+  private static class IntColumn extends Column {
+    int[] values;
+
+    IntColumn(int capacity) {
+      values = new int[capacity];
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    JsonElement toJson(int row) {
+      return new JsonPrimitive(values[row]);
+    }
+
+    @Override
+    void write(int row, GeoJsonWriter writer) {
+      writer.value(values[row]);
+    }
+  }
+
+  private static class StringColumn extends Column {
+    private final StringPool stringPool;
+    String[] values;
+
+    StringColumn(int capacity, StringPool stringPool) {
+      this.stringPool = stringPool;
+      values = new String[capacity];
+    }
+
+    @Override
+    void clear(int row) {
+      if (isSet(row)) {
+        stringPool.release(values[row]);
+      }
+      super.clear(row);
+      values[row] = null;
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    JsonElement toJson(int row) {
+      return new JsonPrimitive(values[row]);
+    }
+
+    @Override
+    void write(int row, GeoJsonWriter writer) {
+      writer.value(values[row]);
+    }
+  }
+
+  private static class StringPool {
+    private final Map<String, PooledString> strings = new HashMap<>();
+
+    String obtain(String value) {
+      PooledString pooled = strings.get(value);
+      if (pooled == null) {
+        pooled = new PooledString(value);
+        strings.put(value, pooled);
+      }
+      pooled.references++;
+      return pooled.value;
+    }
+
+    void release(String value) {
+      PooledString pooled = strings.get(value);
+      if (pooled != null && --pooled.references == 0) {
+        strings.remove(value);
+      }
+    }
+
+    int size() {
+      return strings.size();
+    }
+  }
+
+  private static class PooledString {
+    final String value;
+    int references;
+
+    PooledString(String value) {
+      this.value = value;
+    }
+  }
+
+  private static class ArrayColumn extends Column {
+    Object[][] values;
+
+    ArrayColumn(int capacity) {
+      values = new Object[capacity][];
+    }
+
+    @Override
+    void clear(int row) {
+      super.clear(row);
+      values[row] = null;
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    JsonElement toJson(int row) {
+      JsonArray jsonArray = new JsonArray();
+      for (Object element : values[row]) {
+        if (element instanceof Number) {
+          jsonArray.add((Number) element);
+        } else {
+          jsonArray.add((String) element);
+        }
+      }
+      return jsonArray;
+    }
+
+    @Override
+    void write(int row, GeoJsonWriter writer) {
+      writer.value(values[row]);
+    }
+  }
+}
@@ -2,7 +2,9 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 
 import android.support.annotation.Nullable;
 
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
 import com.mapbox.mapboxsdk.style.layers.Layer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 
@@ -11,4 +13,16 @@ interface CoreElementProvider<L extends Layer> {
   L getLayer();
 
   GeoJsonSource getSource(@Nullable GeoJsonOptions geoJsonOptions);
+
+  L getShardLayer(int shard);
+
+  GeoJsonSource getShardSource(int shard, @Nullable GeoJsonOptions geoJsonOptions);
+
+  L getDragLayer();
+
+  GeoJsonSource getDragSource();
+
+  CircleLayer getClusterLayer();
+
+  SymbolLayer getClusterCountLayer();
 }
@@ -0,0 +1,226 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.Projection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mapbox.mapboxsdk.constants.GeometryConstants.MAX_MERCATOR_LATITUDE;
+import static com.mapbox.mapboxsdk.constants.GeometryConstants.MIN_MERCATOR_LATITUDE;
+
+/**
+ * Offsets the coordinates of a dragged line or fill, reusing coordinate buffers between move events.
+ * <p>
+ * The coordinates are copied once when the drag starts and are offset in place afterwards. When the camera
+ * isn't tilted, screen space maps linearly onto spherical mercator, so a screen delta is a single mercator
+ * translation: only one vertex is converted through the projection and the others are translated directly.
+ * With a tilted camera each vertex is converted through the projection instead.
+ * </p>
+ */
+final class DragGeometryBuffer {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final LatLng latLng = new LatLng();
+  private double[] coordinates = new double[INITIAL_CAPACITY];
+  private double[] offsetCoordinates = new double[INITIAL_CAPACITY];
+  private int[] ringSizes = new int[1];
+  private int ringCount;
+  private int pointCount;
+  private boolean polygon;
+  private boolean linear;
+
+  @Nullable
+  private Geometry geometry;
+
+  /**
+   * Start dragging a geometry.
+   *
+   * @param geometry the geometry of the dragged annotation
+   * @return true if the geometry is handled by this buffer
+   */
+  boolean begin(@Nullable Geometry geometry) {
+    this.geometry = null;
+    if (geometry instanceof LineString) {
+      polygon = false;
+      ringCount = 0;
+      pointCount = 0;
+      addRing(((LineString) geometry).coordinates());
+    } else if (geometry instanceof Polygon) {
+      polygon = true;
+      ringCount = 0;
+      pointCount = 0;
+      for (List<Point> ring : ((Polygon) geometry).coordinates()) {
+        addRing(ring);
+      }
+    } else {
+      return false;
+    }
+
+    this.geometry = geometry;
+    linear = false;
+    return true;
+  }
+
+  /**
+   * Set whether screen space maps linearly onto mercator space, which is the case if the camera isn't tilted.
+   *
+   * @param linear true to offset the geometry as a single mercator translation
+   */
+  void setLinear(boolean linear) {
+    this.linear = linear;
+  }
+
+  /**
+   * Returns whether the geometry of the dragged annotation is still the last geometry handled by this buffer.
+   *
+   * @param geometry the current geometry of the dragged annotation
+   * @return true if the buffered coordinates can be offset
+   */
+  boolean isTracking(@Nullable Geometry geometry) {
+    return geometry != null && geometry == this.geometry;
+  }
+
+  /**
+   * Stop tracking the dragged geometry.
+   */
+  void end() {
+    geometry = null;
+  }
+
+  /**
+   * Offset the buffered coordinates by a screen distance.
+   *
+   * @param projection the projection of the map
+   * @param distanceX  the horizontal screen distance to move the geometry back by
+   * @param distanceY  the vertical screen distance to move the geometry back by
+   * @return the offset geometry, null if it would leave the mercator bounds
+   */
+  @Nullable
+  Geometry offset(@NonNull Projection projection, float distanceX, float distanceY) {
+    if (pointCount == 0 || (linear ? !translate(projection, distanceX, distanceY)
+      : !project(projection, distanceX, distanceY))) {
+      return null;
+    }
+
+    double[] swap = coordinates;
+    coordinates = offsetCoordinates;
+    offsetCoordinates = swap;
+    geometry = toGeometry();
+    return geometry;
+  }
+
+  private boolean translate(@NonNull Projection projection, float distanceX, float distanceY) {
+    LatLng reference = offsetLatLng(projection, coordinates[1], coordinates[0], distanceX, distanceY);
+    double deltaX = reference.getLongitude() - coordinates[0];
+    if (deltaX > 180) {
+      // the projection wrapped the reference across the antimeridian
+      deltaX -= 360;
+    } else if (deltaX < -180) {
+      deltaX += 360;
+    }
+    double deltaY = mercatorY(reference.getLatitude()) - mercatorY(coordinates[1]);
+
+    for (int i = 0; i < pointCount * 2; i += 2) {
+      double latitude = latitude(mercatorY(coordinates[i + 1]) + deltaY);
+      if (latitude > MAX_MERCATOR_LATITUDE || latitude < MIN_MERCATOR_LATITUDE) {
+        return false;
+      }
+      offsetCoordinates[i] = coordinates[i] + deltaX;
+      offsetCoordinates[i + 1] = latitude;
+    }
+    return true;
+  }
+
+  private boolean project(@NonNull Projection projection, float distanceX, float distanceY) {
+    for (int i = 0; i < pointCount * 2; i += 2) {
+      LatLng offset = offsetLatLng(projection, coordinates[i + 1], coordinates[i], distanceX, distanceY);
+      if (offset.getLatitude() > MAX_MERCATOR_LATITUDE || offset.getLatitude() < MIN_MERCATOR_LATITUDE) {
+        return false;
+      }
+      offsetCoordinates[i] = offset.getLongitude();
+      offsetCoordinates[i + 1] = offset.getLatitude();
+    }
+    return true;
+  }
+
+  @NonNull
+  private LatLng offsetLatLng(@NonNull Projection projection, double latitude, double longitude,
+                              float distanceX, float distanceY) {
+    latLng.setLatitude(latitude);
+    latLng.setLongitude(longitude);
+    PointF pointF = projection.toScreenLocation(latLng);
+    pointF.x -= distanceX;
+    pointF.y -= distanceY;
+    return projection.fromScreenLocation(pointF);
+  }
+
+  private void addRing(@NonNull List<Point> points) {
+    ensureCapacity(pointCount + points.size());
+    if (ringCount == ringSizes.length) {
+      int[] sizes = new int[ringCount * 2];
+      System.arraycopy(ringSizes, 0, sizes, 0, ringCount);
+      ringSizes = sizes;
+    }
+
+    for (Point point : points) {
+      coordinates[pointCount * 2] = point.longitude();
+      coordinates[pointCount * 2 + 1] = point.latitude();
+      pointCount++;
+    }
+    ringSizes[ringCount++] = points.size();
+  }
+
+  private void ensureCapacity(int points) {
+    if (points * 2 > coordinates.length) {
+      int length = Math.max(points * 2, coordinates.length * 2);
+      double[] expanded = new double[length];
+      System.arraycopy(coordinates, 0, expanded, 0, pointCount * 2);
+      coordinates = expanded;
+      offsetCoordinates = new double[length];
+    }
+  }
+
+  @NonNull
+  private Geometry toGeometry() {
+    if (!polygon) {
+      return LineString.fromLngLats(toPoints(0, pointCount));
+    }
+
+    List<List<Point>> rings = new ArrayList<>(ringCount);
+    int start = 0;
+    for (int i = 0; i < ringCount; i++) {
+      rings.add(toPoints(start, ringSizes[i]));
+      start += ringSizes[i];
+    }
+    return Polygon.fromLngLats(rings);
+  }
+
+  @NonNull
+  private List<Point> toPoints(int start, int size) {
+    List<Point> points = new ArrayList<>(size);
+    for (int i = start; i < start + size; i++) {
+      points.add(Point.fromLngLat(coordinates[i * 2], coordinates[i * 2 + 1]));
+    }
+    return points;
+  }
+
+  private static double mercatorY(double latitude) {
+    // atanh(sin(latitude)), which unlike log(tan(pi / 4 + latitude / 2)) maps the equator exactly onto 0
+    double sin = Math.sin(Math.toRadians(latitude));
+    return (Math.log1p(sin) - Math.log1p(-sin)) / 2;
+  }
+
+  private static double latitude(double mercatorY) {
+    return Math.toDegrees(Math.atan(Math.sinh(mercatorY)));
+  }
+}
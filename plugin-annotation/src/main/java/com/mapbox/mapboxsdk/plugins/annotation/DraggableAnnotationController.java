@@ -14,6 +14,7 @@ import com.mapbox.android.gestures.MoveGestureDetector;
 import com.mapbox.geojson.Geometry;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
 
 final class DraggableAnnotationController<T extends Annotation, D extends OnAnnotationDragListener<T>> {
   private final MapboxMap mapboxMap;
@@ -25,6 +26,7 @@ final class DraggableAnnotationController<T extends Annotation, D extends OnAnno
   private final int touchAreaMaxY;
 
   @Nullable private T draggedAnnotation;
+  private final DragGeometryBuffer dragGeometryBuffer = new DragGeometryBuffer();
 
   @SuppressLint("ClickableViewAccessibility")
   DraggableAnnotationController(MapView mapView, MapboxMap mapboxMap) {
@@ -60,7 +62,8 @@ final class DraggableAnnotationController<T extends Annotation, D extends OnAnno
   }
 
   void onSourceUpdated() {
-    stopDragging(draggedAnnotation);
+    // the dragged annotation is part of the source update that follows
+    finishDragging(draggedAnnotation);
   }
 
   boolean onMoveBegin(MoveGestureDetector detector) {
@@ -94,15 +97,25 @@ final class DraggableAnnotationController<T extends Annotation, D extends OnAnno
         return true;
       }
 
-      Geometry shiftedGeometry = draggedAnnotation.getOffsetGeometry(
-        mapboxMap.getProjection(), moveObject, touchAreaShiftX, touchAreaShiftY
-      );
+      Projection projection = mapboxMap.getProjection();
+      Geometry geometry = draggedAnnotation.getGeometry();
+      Geometry shiftedGeometry;
+      if (dragGeometryBuffer.isTracking(geometry) || beginBufferedDrag(geometry)) {
+        // lines and fills are offset in reused buffers
+        shiftedGeometry = dragGeometryBuffer.offset(
+          projection, moveObject.getDistanceXSinceLast(), moveObject.getDistanceYSinceLast()
+        );
+      } else {
+        shiftedGeometry = draggedAnnotation.getOffsetGeometry(
+          projection, moveObject, touchAreaShiftX, touchAreaShiftY
+        );
+      }
 
       if (shiftedGeometry != null) {
         draggedAnnotation.setGeometry(
           shiftedGeometry
         );
-        annotationManager.internalUpdateSource();
+        annotationManager.onDragUpdated(draggedAnnotation);
         if (!annotationManager.getDragListeners().isEmpty()) {
           for (D d : annotationManager.getDragListeners()) {
             d.onAnnotationDrag(draggedAnnotation);
@@ -115,6 +128,14 @@ final class DraggableAnnotationController<T extends Annotation, D extends OnAnno
     return false;
   }
 
+  private boolean beginBufferedDrag(@Nullable Geometry geometry) {
+    if (dragGeometryBuffer.begin(geometry)) {
+      dragGeometryBuffer.setLinear(mapboxMap.getCameraPosition().tilt == 0);
+      return true;
+    }
+    return false;
+  }
+
   void onMoveEnd() {
     // Stopping the drag when move ends
     stopDragging(draggedAnnotation);
@@ -128,20 +149,32 @@ final class DraggableAnnotationController<T extends Annotation, D extends OnAnno
         }
       }
       draggedAnnotation = annotation;
+      annotationManager.onDragStarted(annotation);
       return true;
     }
     return false;
   }
 
   void stopDragging(@Nullable T annotation) {
-    if (annotation != null) {
-      if (!annotationManager.getDragListeners().isEmpty()) {
-        for (D d : annotationManager.getDragListeners()) {
-          d.onAnnotationDragFinished(annotation);
-        }
-      }
+    if (finishDragging(annotation)) {
+      annotationManager.internalUpdateSource();
     }
+  }
+
+  private boolean finishDragging(@Nullable T annotation) {
     draggedAnnotation = null;
+    dragGeometryBuffer.end();
+    if (annotation == null) {
+      return false;
+    }
+
+    annotationManager.onDragFinished(annotation);
+    if (!annotationManager.getDragListeners().isEmpty()) {
+      for (D d : annotationManager.getDragListeners()) {
+        d.onAnnotationDragFinished(annotation);
+      }
+    }
+    return true;
   }
 
   private class AnnotationMoveGestureListener implements MoveGestureDetector.OnMoveGestureListener {
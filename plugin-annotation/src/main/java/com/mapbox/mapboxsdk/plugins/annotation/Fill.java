@@ -5,8 +5,6 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 import android.support.annotation.ColorInt;
 import android.graphics.PointF;
 import android.support.annotation.UiThread;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
@@ -42,19 +40,8 @@ public class Fill extends Annotation<Polygon> {
   }
 
   @Override
-  void setUsedDataDrivenProperties() {
-    if (!(jsonObject.get(FillOptions.PROPERTY_fillOpacity) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(FillOptions.PROPERTY_fillOpacity);
-    }
-    if (!(jsonObject.get(FillOptions.PROPERTY_fillColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(FillOptions.PROPERTY_fillColor);
-    }
-    if (!(jsonObject.get(FillOptions.PROPERTY_fillOutlineColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(FillOptions.PROPERTY_fillOutlineColor);
-    }
-    if (!(jsonObject.get(FillOptions.PROPERTY_fillPattern) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(FillOptions.PROPERTY_fillPattern);
-    }
+  void onPropertySet(@NonNull String key) {
+    annotationManager.enableDataDrivenProperty(key);
   }
 
   /**
@@ -110,7 +97,7 @@ public class Fill extends Annotation<Polygon> {
    * @return property wrapper value around Float
    */
   public Float getFillOpacity() {
-    return jsonObject.get(FillOptions.PROPERTY_fillOpacity).getAsFloat();
+    return getFloatProperty(FillOptions.PROPERTY_fillOpacity);
   }
 
   /**
@@ -125,7 +112,7 @@ public class Fill extends Annotation<Polygon> {
    * @param value constant property value for Float
    */
   public void setFillOpacity(Float value) {
-    jsonObject.addProperty(FillOptions.PROPERTY_fillOpacity, value);
+    setFloatProperty(FillOptions.PROPERTY_fillOpacity, value);
   }
 
   /**
@@ -138,7 +125,7 @@ public class Fill extends Annotation<Polygon> {
    */
   @ColorInt
   public int getFillColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(FillOptions.PROPERTY_fillColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(FillOptions.PROPERTY_fillColor));
   }
 
   /**
@@ -150,7 +137,7 @@ public class Fill extends Annotation<Polygon> {
    * @return color value for String
    */
   public String getFillColor() {
-    return jsonObject.get(FillOptions.PROPERTY_fillColor).getAsString();
+    return getStringProperty(FillOptions.PROPERTY_fillColor);
   }
 
   /**
@@ -165,7 +152,7 @@ public class Fill extends Annotation<Polygon> {
    * @param color value for String
    */
   public void setFillColor(@ColorInt int color) {
-    jsonObject.addProperty(FillOptions.PROPERTY_fillColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(FillOptions.PROPERTY_fillColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -180,7 +167,7 @@ public class Fill extends Annotation<Polygon> {
    * @param color value for String
    */
   public void setFillColor(@NonNull String color) {
-    jsonObject.addProperty("fill-color", color);
+    setStringProperty(FillOptions.PROPERTY_fillColor, color);
   }
 
   /**
@@ -193,7 +180,7 @@ public class Fill extends Annotation<Polygon> {
    */
   @ColorInt
   public int getFillOutlineColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(FillOptions.PROPERTY_fillOutlineColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(FillOptions.PROPERTY_fillOutlineColor));
   }
 
   /**
@@ -205,7 +192,7 @@ public class Fill extends Annotation<Polygon> {
    * @return color value for String
    */
   public String getFillOutlineColor() {
-    return jsonObject.get(FillOptions.PROPERTY_fillOutlineColor).getAsString();
+    return getStringProperty(FillOptions.PROPERTY_fillOutlineColor);
   }
 
   /**
@@ -220,7 +207,7 @@ public class Fill extends Annotation<Polygon> {
    * @param color value for String
    */
   public void setFillOutlineColor(@ColorInt int color) {
-    jsonObject.addProperty(FillOptions.PROPERTY_fillOutlineColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(FillOptions.PROPERTY_fillOutlineColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -235,7 +222,7 @@ public class Fill extends Annotation<Polygon> {
    * @param color value for String
    */
   public void setFillOutlineColor(@NonNull String color) {
-    jsonObject.addProperty("fill-outline-color", color);
+    setStringProperty(FillOptions.PROPERTY_fillOutlineColor, color);
   }
 
   /**
@@ -247,7 +234,7 @@ public class Fill extends Annotation<Polygon> {
    * @return property wrapper value around String
    */
   public String getFillPattern() {
-    return jsonObject.get(FillOptions.PROPERTY_fillPattern).getAsString();
+    return getStringProperty(FillOptions.PROPERTY_fillPattern);
   }
 
   /**
@@ -262,7 +249,7 @@ public class Fill extends Annotation<Polygon> {
    * @param value constant property value for String
    */
   public void setFillPattern(String value) {
-    jsonObject.addProperty(FillOptions.PROPERTY_fillPattern, value);
+    setStringProperty(FillOptions.PROPERTY_fillPattern, value);
   }
 
   @Override
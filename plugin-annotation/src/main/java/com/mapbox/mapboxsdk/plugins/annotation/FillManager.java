@@ -7,19 +7,25 @@ import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 import android.support.annotation.VisibleForTesting;
 
+import com.google.gson.JsonObject;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.Polygon;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
 import com.mapbox.mapboxsdk.style.layers.FillLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.mapboxsdk.style.layers.PropertyValue;
 import com.mapbox.mapboxsdk.style.layers.PropertyFactory;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.style.layers.Property;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +39,10 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
 
   public static final String ID_GEOJSON_SOURCE = "mapbox-android-fill-source";
   public static final String ID_GEOJSON_LAYER = "mapbox-android-fill-layer";
+  public static final String ID_GEOJSON_DRAG_SOURCE = "mapbox-android-fill-drag-source";
+  public static final String ID_GEOJSON_DRAG_LAYER = "mapbox-android-fill-drag-layer";
+  public static final String ID_GEOJSON_CLUSTER_LAYER = "mapbox-android-fill-cluster-layer";
+  public static final String ID_GEOJSON_CLUSTER_COUNT_LAYER = "mapbox-android-fill-cluster-count-layer";
 
   private static final String PROPERTY_fillAntialias = "fill-antialias";
   private static final String PROPERTY_fillTranslate = "fill-translate";
@@ -86,13 +96,47 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
             return new GeoJsonSource(ID_GEOJSON_SOURCE);
           }
         }
+
+        @Override
+        public FillLayer getShardLayer(int shard) {
+          return new FillLayer(ID_GEOJSON_LAYER + "-" + shard, ID_GEOJSON_SOURCE + "-" + shard);
+        }
+
+        @Override
+        public GeoJsonSource getShardSource(int shard, @Nullable GeoJsonOptions geoJsonOptions) {
+          if (geoJsonOptions != null) {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard, geoJsonOptions);
+          } else {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard);
+          }
+        }
+
+        @Override
+        public FillLayer getDragLayer() {
+          return new FillLayer(ID_GEOJSON_DRAG_LAYER, ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public GeoJsonSource getDragSource() {
+          return new GeoJsonSource(ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public CircleLayer getClusterLayer() {
+          return new CircleLayer(ID_GEOJSON_CLUSTER_LAYER, ID_GEOJSON_SOURCE);
+        }
+
+        @Override
+        public SymbolLayer getClusterCountLayer() {
+          return new SymbolLayer(ID_GEOJSON_CLUSTER_COUNT_LAYER, ID_GEOJSON_SOURCE);
+        }
       },
      belowLayerId, geoJsonOptions, new DraggableAnnotationController<>(mapView, mapboxMap));
   }
 
   @VisibleForTesting
   FillManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @NonNull CoreElementProvider<FillLayer> coreElementProvider, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, DraggableAnnotationController<Fill, OnFillDragListener> draggableAnnotationController) {
-    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions);
+    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions, null);
   }
 
   @Override
@@ -104,19 +148,19 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
   }
 
   @Override
-  protected void setDataDrivenPropertyIsUsed(@NonNull String property) {
+  protected void setDataDrivenPropertyIsUsed(@NonNull String property, @NonNull FillLayer targetLayer) {
     switch (property) {
       case FillOptions.PROPERTY_fillOpacity:
-        layer.setProperties(fillOpacity(get(FillOptions.PROPERTY_fillOpacity)));
+        targetLayer.setProperties(fillOpacity(get(FillOptions.PROPERTY_fillOpacity)));
         break;
       case FillOptions.PROPERTY_fillColor:
-        layer.setProperties(fillColor(get(FillOptions.PROPERTY_fillColor)));
+        targetLayer.setProperties(fillColor(get(FillOptions.PROPERTY_fillColor)));
         break;
       case FillOptions.PROPERTY_fillOutlineColor:
-        layer.setProperties(fillOutlineColor(get(FillOptions.PROPERTY_fillOutlineColor)));
+        targetLayer.setProperties(fillOutlineColor(get(FillOptions.PROPERTY_fillOutlineColor)));
         break;
       case FillOptions.PROPERTY_fillPattern:
-        layer.setProperties(fillPattern(get(FillOptions.PROPERTY_fillPattern)));
+        targetLayer.setProperties(fillPattern(get(FillOptions.PROPERTY_fillPattern)));
         break;
     }
   }
@@ -135,6 +179,9 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
    * <p>
    * Out of spec properties:<br>
    * "is-draggable" - Boolean, true if the fill should be draggable, false otherwise
+   * <p>
+   * Large collections should be imported with {@link #importGeoJson(InputStream, OnAnnotationImportListener)}
+   * instead, which doesn't need to keep the whole collection in memory.
    *
    * @param json the GeoJSON defining the list of fills to build
    * @return the list of built fills
@@ -177,6 +224,44 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
     return create(options);
   }
 
+  @Override
+  @Nullable
+  FillOptions optionsFromFeature(@NonNull Feature feature) {
+    return FillOptions.fromFeature(feature);
+  }
+
+  @Override
+  Fill createAnnotation(long id, @NonNull JsonObject properties, @NonNull Geometry geometry) {
+    return new Fill(id, this, properties, (Polygon) geometry);
+  }
+
+  /**
+   * Set whether fill geometries are simplified depending on the zoom level of the map.
+   * <p>
+   * When enabled, simplified versions of every geometry are derived for several zoom levels using Douglas-Peucker,
+   * and the version matching the current zoom level is added to the source. The level is re-evaluated when the camera
+   * becomes idle. Simplified versions are only recomputed for geometries that changed, the dragged fill and
+   * zoom levels above 16 use the full geometry.
+   * </p>
+   *
+   * @param enabled true to simplify geometries depending on the zoom level
+   */
+  @Override
+  @UiThread
+  public void setLevelOfDetailEnabled(boolean enabled) {
+    super.setLevelOfDetailEnabled(enabled);
+  }
+
+  /**
+   * Returns whether fill geometries are simplified depending on the zoom level of the map.
+   *
+   * @return true if geometries are simplified
+   */
+  @Override
+  public boolean isLevelOfDetailEnabled() {
+    return super.isLevelOfDetailEnabled();
+  }
+
   /**
    * Get the layer id of the annotation layer.
    *
@@ -222,6 +307,12 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
     PropertyValue propertyValue = fillAntialias(value);
     constantPropertyUsageMap.put(PROPERTY_fillAntialias, propertyValue);
     layer.setProperties(propertyValue);
+    for (FillLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -248,6 +339,12 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
     PropertyValue propertyValue = fillTranslate(value);
     constantPropertyUsageMap.put(PROPERTY_fillTranslate, propertyValue);
     layer.setProperties(propertyValue);
+    for (FillLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -274,6 +371,12 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
     PropertyValue propertyValue = fillTranslateAnchor(value);
     constantPropertyUsageMap.put(PROPERTY_fillTranslateAnchor, propertyValue);
     layer.setProperties(propertyValue);
+    for (FillLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -284,16 +387,28 @@ public class FillManager extends AnnotationManager<FillLayer, Fill, FillOptions,
    @Override
   public void setFilter(@NonNull Expression expression) {
     layerFilter = expression;
-    layer.setFilter(layerFilter);
+    setLayerFilter(applyManagedFilters(layerFilter));
+  }
+
+  @Override
+  void setLayerFilter(@NonNull Expression filter) {
+    layer.setFilter(filter);
+    for (FillLayer shardLayer : shardLayers) {
+      shardLayer.setFilter(filter);
+    }
   }
 
   /**
-   * Get filter of the managed fills.
+   * Get filter of the managed fills, as set with {@link #setFilter(Expression)}.
+   * <p>
+   * The filter set on the layer also hides clusters and the groups hidden with
+   * {@link #setGroupVisible(String, boolean)}, those parts aren't returned.
+   * </p>
    *
    * @return expression
    */
   @Nullable
   public Expression getFilter() {
-    return layer.getFilter();
+    return layerFilter;
   }
 }
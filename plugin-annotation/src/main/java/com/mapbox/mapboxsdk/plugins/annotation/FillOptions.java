@@ -31,6 +31,7 @@ public class FillOptions extends Options<Fill> {
   private String fillColor;
   private String fillOutlineColor;
   private String fillPattern;
+  private String group;
 
   static final String PROPERTY_fillOpacity = "fill-opacity";
   static final String PROPERTY_fillColor = "fill-color";
@@ -184,8 +185,30 @@ public class FillOptions extends Options<Fill> {
     return this;
   }
 
+  /**
+   * Get the group to initialise the fill with.
+   *
+   * @return the group, null if the fill isn't part of a group
+   */
+  @Nullable
+  public String getGroup() {
+    return group;
+  }
+
+  /**
+   * Set the group to initialise the fill with, all annotations of a group are shown or hidden at once with
+   * {@link AnnotationManager#setGroupVisible(String, boolean)}.
+   *
+   * @param group the group of the fill
+   * @return this
+   */
+  public FillOptions withGroup(@Nullable String group) {
+    this.group = group;
+    return this;
+  }
+
   @Override
-  Fill build(long id, AnnotationManager<?, Fill, ?, ?, ?, ?> annotationManager) {
+  Fill buildAnnotation(long id, AnnotationManager<?, Fill, ?, ?, ?, ?> annotationManager) {
     if (geometry == null) {
       throw new RuntimeException("geometry field is required");
     }
@@ -194,11 +217,30 @@ public class FillOptions extends Options<Fill> {
     jsonObject.addProperty(PROPERTY_fillColor, fillColor);
     jsonObject.addProperty(PROPERTY_fillOutlineColor, fillOutlineColor);
     jsonObject.addProperty(PROPERTY_fillPattern, fillPattern);
+    if (group != null) {
+      jsonObject.addProperty(Annotation.GROUP_KEY, group);
+    }
     Fill fill = new Fill(id, annotationManager, jsonObject, geometry);
     fill.setDraggable(isDraggable);
     return fill;
   }
 
+  @Override
+  void enableDataDrivenProperties(AnnotationManager<?, Fill, ?, ?, ?, ?> annotationManager) {
+    if (fillOpacity != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_fillOpacity);
+    }
+    if (fillColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_fillColor);
+    }
+    if (fillOutlineColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_fillOutlineColor);
+    }
+    if (fillPattern != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_fillPattern);
+    }
+  }
+
   /**
    * Creates FillOptions out of a Feature.
    *
@@ -229,6 +271,9 @@ public class FillOptions extends Options<Fill> {
     if (feature.hasProperty(PROPERTY_isDraggable)) {
       options.isDraggable = feature.getProperty(PROPERTY_isDraggable).getAsBoolean();
     }
+    if (feature.hasNonNullValueForProperty(Annotation.GROUP_KEY)) {
+      options.group = feature.getStringProperty(Annotation.GROUP_KEY);
+    }
     return options;
   }
 }
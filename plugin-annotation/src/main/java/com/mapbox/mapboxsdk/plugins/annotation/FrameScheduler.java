@@ -0,0 +1,57 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.UiThread;
+import android.view.Choreographer;
+
+/**
+ * Coalesces requests into a single callback invoked when the next frame is rendered.
+ */
+@UiThread
+class FrameScheduler implements Choreographer.FrameCallback {
+
+  private final Choreographer.FrameCallback callback;
+  private Choreographer choreographer;
+  private boolean scheduled;
+
+  FrameScheduler(@NonNull Choreographer.FrameCallback callback) {
+    this.callback = callback;
+  }
+
+  /**
+   * Request the callback to be invoked on the next frame, repeated requests before that frame are ignored.
+   */
+  void schedule() {
+    if (!scheduled) {
+      scheduled = true;
+      getChoreographer().postFrameCallback(this);
+    }
+  }
+
+  /**
+   * Remove a pending request, if any.
+   */
+  void cancel() {
+    if (scheduled) {
+      scheduled = false;
+      getChoreographer().removeFrameCallback(this);
+    }
+  }
+
+  boolean isScheduled() {
+    return scheduled;
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    scheduled = false;
+    callback.doFrame(frameTimeNanos);
+  }
+
+  private Choreographer getChoreographer() {
+    if (choreographer == null) {
+      choreographer = Choreographer.getInstance();
+    }
+    return choreographer;
+  }
+}
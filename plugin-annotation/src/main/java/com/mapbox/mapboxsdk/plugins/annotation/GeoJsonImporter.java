@@ -0,0 +1,252 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reads a GeoJSON feature collection incrementally on a background thread, converting features to
+ * annotation options and delivering them to the main thread in chunks.
+ * <p>
+ * Only a single feature is materialized at a time while parsing. The parser waits for the main thread
+ * when it is {@link #MAX_PENDING_CHUNKS} chunks ahead, bounding memory usage regardless of the size
+ * of the input.
+ * </p>
+ *
+ * @param <S> type of options for building the annotations
+ */
+class GeoJsonImporter<S> {
+
+  private static final int MAX_PENDING_CHUNKS = 2;
+
+  interface FeatureConverter<S> {
+    @WorkerThread
+    @Nullable
+    S convert(@NonNull Feature feature);
+  }
+
+  interface Callback<S> {
+    @UiThread
+    void onChunk(@NonNull List<S> options, int featureCount);
+
+    @UiThread
+    void onFinished(int featureCount);
+
+    @UiThread
+    void onFailed(@NonNull Exception exception);
+  }
+
+  private static ExecutorService sharedExecutor;
+
+  private final Executor executor;
+  private final Handler mainHandler;
+  private volatile boolean canceled;
+
+  GeoJsonImporter() {
+    this(getSharedExecutor(), new Handler(Looper.getMainLooper()));
+  }
+
+  @VisibleForTesting
+  GeoJsonImporter(Executor executor, Handler mainHandler) {
+    this.executor = executor;
+    this.mainHandler = mainHandler;
+  }
+
+  /**
+   * Start reading a feature collection.
+   *
+   * @param reader    the reader providing the GeoJSON, closed when reading finishes
+   * @param chunkSize the maximum amount of options delivered at once
+   * @param converter the converter from features to options, features converted to null are skipped
+   * @param callback  the callback invoked on the main thread
+   */
+  @UiThread
+  void start(@NonNull Reader reader, int chunkSize, @NonNull FeatureConverter<S> converter,
+             @NonNull Callback<S> callback) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size has to be positive: " + chunkSize);
+    }
+
+    executor.execute(() -> {
+      Semaphore pendingChunks = new Semaphore(MAX_PENDING_CHUNKS);
+      JsonReader jsonReader = new JsonReader(reader);
+      try {
+        int featureCount = read(jsonReader, chunkSize, converter, callback, pendingChunks);
+        if (!canceled) {
+          mainHandler.post(() -> {
+            if (!canceled) {
+              callback.onFinished(featureCount);
+            }
+          });
+        }
+      } catch (Exception exception) {
+        mainHandler.post(() -> {
+          if (!canceled) {
+            callback.onFailed(exception);
+          }
+        });
+      } finally {
+        try {
+          jsonReader.close();
+        } catch (IOException ignored) {
+          // nothing left to release
+        }
+      }
+    });
+  }
+
+  /**
+   * Stop reading, no further chunks are delivered.
+   */
+  void cancel() {
+    canceled = true;
+  }
+
+  @WorkerThread
+  private int read(@NonNull JsonReader jsonReader, int chunkSize, @NonNull FeatureConverter<S> converter,
+                   @NonNull Callback<S> callback, @NonNull Semaphore pendingChunks)
+    throws IOException, InterruptedException {
+    JsonParser jsonParser = new JsonParser();
+    List<S> chunk = new ArrayList<>();
+    int featureCount = 0;
+
+    jsonReader.beginObject();
+    while (jsonReader.hasNext()) {
+      if (!"features".equals(jsonReader.nextName())) {
+        jsonReader.skipValue();
+        continue;
+      }
+
+      jsonReader.beginArray();
+      while (jsonReader.hasNext()) {
+        if (canceled) {
+          return featureCount;
+        }
+
+        Feature feature = toFeature(jsonParser.parse(jsonReader).getAsJsonObject());
+        featureCount++;
+        S options = feature != null ? converter.convert(feature) : null;
+        if (options != null) {
+          chunk.add(options);
+        }
+
+        if (chunk.size() == chunkSize) {
+          deliver(chunk, featureCount, callback, pendingChunks);
+          chunk = new ArrayList<>();
+        }
+      }
+      jsonReader.endArray();
+    }
+    jsonReader.endObject();
+
+    if (!chunk.isEmpty()) {
+      deliver(chunk, featureCount, callback, pendingChunks);
+    }
+    return featureCount;
+  }
+
+  @WorkerThread
+  private void deliver(@NonNull List<S> chunk, int featureCount, @NonNull Callback<S> callback,
+                       @NonNull Semaphore pendingChunks) throws InterruptedException {
+    pendingChunks.acquire();
+    mainHandler.post(() -> {
+      if (!canceled) {
+        callback.onChunk(chunk, featureCount);
+      }
+      pendingChunks.release();
+    });
+  }
+
+  /**
+   * Convert a GeoJSON feature, reusing its properties object.
+   *
+   * @param json the feature as JSON
+   * @return the feature, null if its geometry type isn't supported by annotations
+   */
+  @Nullable
+  private static Feature toFeature(@NonNull JsonObject json) {
+    JsonElement geometryJson = json.get("geometry");
+    JsonElement propertiesJson = json.get("properties");
+    JsonObject properties = propertiesJson != null && propertiesJson.isJsonObject()
+      ? propertiesJson.getAsJsonObject() : new JsonObject();
+    if (geometryJson == null || geometryJson.isJsonNull()) {
+      // rejected by the options with a meaningful error
+      return Feature.fromGeometry(null, properties);
+    }
+
+    Geometry geometry = toGeometry(geometryJson.getAsJsonObject());
+    return geometry != null ? Feature.fromGeometry(geometry, properties) : null;
+  }
+
+  @Nullable
+  private static Geometry toGeometry(@NonNull JsonObject json) {
+    JsonArray coordinates = json.getAsJsonArray("coordinates");
+    switch (json.get("type").getAsString()) {
+      case "Point":
+        return toPoint(coordinates);
+      case "LineString":
+        return LineString.fromLngLats(toPoints(coordinates));
+      case "Polygon":
+        List<List<Point>> rings = new ArrayList<>(coordinates.size());
+        for (JsonElement ring : coordinates) {
+          rings.add(toPoints(ring.getAsJsonArray()));
+        }
+        return Polygon.fromLngLats(rings);
+      default:
+        return null;
+    }
+  }
+
+  @NonNull
+  private static List<Point> toPoints(@NonNull JsonArray coordinates) {
+    List<Point> points = new ArrayList<>(coordinates.size());
+    for (JsonElement coordinate : coordinates) {
+      points.add(toPoint(coordinate.getAsJsonArray()));
+    }
+    return points;
+  }
+
+  @NonNull
+  private static Point toPoint(@NonNull JsonArray coordinate) {
+    if (coordinate.size() > 2) {
+      return Point.fromLngLat(coordinate.get(0).getAsDouble(), coordinate.get(1).getAsDouble(),
+        coordinate.get(2).getAsDouble());
+    }
+    return Point.fromLngLat(coordinate.get(0).getAsDouble(), coordinate.get(1).getAsDouble());
+  }
+
+  private static synchronized ExecutorService getSharedExecutor() {
+    if (sharedExecutor == null) {
+      sharedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AnnotationImporter");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return sharedExecutor;
+  }
+}
@@ -0,0 +1,280 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes annotations as a GeoJSON feature collection into a reusable buffer.
+ * <p>
+ * Geometries and properties are written directly, without creating intermediate features or a feature
+ * collection. The output is identical to serializing the annotations with {@link com.mapbox.geojson.FeatureCollection}:
+ * coordinates keep their full precision, null properties are omitted and strings are escaped HTML safe.
+ * </p>
+ */
+class GeoJsonWriter {
+
+  private static final String[] REPLACEMENT_CHARS = new String[128];
+
+  static {
+    for (int i = 0; i < 0x20; i++) {
+      REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+    }
+    REPLACEMENT_CHARS['"'] = "\\\"";
+    REPLACEMENT_CHARS['\\'] = "\\\\";
+    REPLACEMENT_CHARS['\t'] = "\\t";
+    REPLACEMENT_CHARS['\b'] = "\\b";
+    REPLACEMENT_CHARS['\n'] = "\\n";
+    REPLACEMENT_CHARS['\r'] = "\\r";
+    REPLACEMENT_CHARS['\f'] = "\\f";
+    REPLACEMENT_CHARS['<'] = "\\u003c";
+    REPLACEMENT_CHARS['>'] = "\\u003e";
+    REPLACEMENT_CHARS['&'] = "\\u0026";
+    REPLACEMENT_CHARS['='] = "\\u003d";
+    REPLACEMENT_CHARS['\''] = "\\u0027";
+  }
+
+  private final StringBuilder builder = new StringBuilder();
+  private boolean firstMember;
+  @Nullable
+  private LevelOfDetail levelOfDetail;
+
+  /**
+   * Set the level of detail simplifying the written geometries.
+   *
+   * @param levelOfDetail the level of detail, null to write full geometries
+   */
+  void setLevelOfDetail(@Nullable LevelOfDetail levelOfDetail) {
+    this.levelOfDetail = levelOfDetail;
+  }
+
+  /**
+   * Write annotations as a feature collection.
+   *
+   * @param annotations the annotations to write, in order
+   * @return the feature collection as GeoJSON
+   */
+  @NonNull
+  String write(@NonNull List<? extends Annotation> annotations) {
+    builder.setLength(0);
+    builder.append("{\"type\":\"FeatureCollection\",\"features\":[");
+    for (int i = 0; i < annotations.size(); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      writeFeature(annotations.get(i));
+    }
+    builder.append("]}");
+    return builder.toString();
+  }
+
+  private void writeFeature(@NonNull Annotation annotation) {
+    builder.append("{\"type\":\"Feature\",\"geometry\":");
+    writeGeometry(levelOfDetail != null ? levelOfDetail.getGeometry(annotation) : annotation.getGeometry());
+    builder.append(",\"properties\":");
+    annotation.writeProperties(this);
+    builder.append('}');
+  }
+
+  private void writeGeometry(@NonNull Geometry geometry) {
+    builder.append("{\"type\":\"").append(geometry.type()).append("\",\"coordinates\":");
+    if (geometry instanceof Point) {
+      writePoint((Point) geometry);
+    } else if (geometry instanceof LineString) {
+      writePoints(((LineString) geometry).coordinates());
+    } else if (geometry instanceof Polygon) {
+      List<List<Point>> rings = ((Polygon) geometry).coordinates();
+      builder.append('[');
+      for (int i = 0; i < rings.size(); i++) {
+        if (i > 0) {
+          builder.append(',');
+        }
+        writePoints(rings.get(i));
+      }
+      builder.append(']');
+    } else {
+      throw new IllegalArgumentException("Unsupported geometry type: " + geometry.type());
+    }
+    builder.append('}');
+  }
+
+  private void writePoints(@NonNull List<Point> points) {
+    builder.append('[');
+    for (int i = 0; i < points.size(); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      writePoint(points.get(i));
+    }
+    builder.append(']');
+  }
+
+  private void writePoint(@NonNull Point point) {
+    builder.append('[');
+    writeDouble(point.longitude());
+    builder.append(',');
+    writeDouble(point.latitude());
+    if (point.hasAltitude()) {
+      builder.append(',');
+      writeDouble(point.altitude());
+    }
+    builder.append(']');
+  }
+
+  /**
+   * Write the properties held by a JsonObject.
+   *
+   * @param jsonObject the properties
+   */
+  void writeObject(@NonNull JsonObject jsonObject) {
+    beginObject();
+    for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+      if (!entry.getValue().isJsonNull()) {
+        name(entry.getKey());
+        writeElement(entry.getValue());
+      }
+    }
+    endObject();
+  }
+
+  void beginObject() {
+    builder.append('{');
+    firstMember = true;
+  }
+
+  void endObject() {
+    builder.append('}');
+  }
+
+  void name(@NonNull String name) {
+    if (!firstMember) {
+      builder.append(',');
+    }
+    firstMember = false;
+    writeString(name);
+    builder.append(':');
+  }
+
+  void value(float value) {
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    builder.append(value);
+  }
+
+  void value(long value) {
+    builder.append(value);
+  }
+
+  void value(@NonNull String value) {
+    writeString(value);
+  }
+
+  void value(@NonNull Object[] values) {
+    builder.append('[');
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      if (values[i] instanceof Number) {
+        writeNumber((Number) values[i]);
+      } else {
+        writeString((String) values[i]);
+      }
+    }
+    builder.append(']');
+  }
+
+  private void writeElement(@NonNull JsonElement element) {
+    if (element.isJsonNull()) {
+      builder.append("null");
+    } else if (element.isJsonPrimitive()) {
+      JsonPrimitive primitive = element.getAsJsonPrimitive();
+      if (primitive.isNumber()) {
+        writeNumber(primitive.getAsNumber());
+      } else if (primitive.isBoolean()) {
+        builder.append(primitive.getAsBoolean());
+      } else {
+        writeString(primitive.getAsString());
+      }
+    } else if (element.isJsonArray()) {
+      JsonArray jsonArray = element.getAsJsonArray();
+      builder.append('[');
+      for (int i = 0; i < jsonArray.size(); i++) {
+        if (i > 0) {
+          builder.append(',');
+        }
+        writeElement(jsonArray.get(i));
+      }
+      builder.append(']');
+    } else {
+      JsonObject jsonObject = element.getAsJsonObject();
+      boolean outerFirstMember = firstMember;
+      writeObject(jsonObject);
+      firstMember = outerFirstMember;
+    }
+  }
+
+  private void writeNumber(@NonNull Number number) {
+    // avoid creating strings for the common number types, their representation is identical
+    if (number instanceof Float) {
+      value(number.floatValue());
+      return;
+    } else if (number instanceof Double) {
+      writeDouble(number.doubleValue());
+      return;
+    } else if (number instanceof Integer || number instanceof Long) {
+      value(number.longValue());
+      return;
+    }
+
+    String string = number.toString();
+    if (string.equals("-Infinity") || string.equals("Infinity") || string.equals("NaN")) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + string);
+    }
+    builder.append(string);
+  }
+
+  private void writeDouble(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    builder.append(value);
+  }
+
+  private void writeString(@NonNull String value) {
+    builder.append('"');
+    int last = 0;
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      String replacement;
+      if (c < 128) {
+        replacement = REPLACEMENT_CHARS[c];
+        if (replacement == null) {
+          continue;
+        }
+      } else if (c == '\u2028') {
+        replacement = "\\u2028";
+      } else if (c == '\u2029') {
+        replacement = "\\u2029";
+      } else {
+        continue;
+      }
+      builder.append(value, last, i).append(replacement);
+      last = i + 1;
+    }
+    builder.append(value, last, length).append('"');
+  }
+}
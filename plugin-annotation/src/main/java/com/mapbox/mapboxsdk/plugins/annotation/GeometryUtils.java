@@ -0,0 +1,116 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounding box and distance calculations for annotation geometries.
+ */
+final class GeometryUtils {
+
+  static final double METERS_PER_DEGREE = 111319.49;
+
+  private GeometryUtils() {
+    // utility class
+  }
+
+  /**
+   * Calculate the bounding box of a geometry.
+   *
+   * @param geometry the geometry
+   * @return the bounding box as west, south, east and north
+   */
+  @NonNull
+  static double[] boundingBox(@NonNull Geometry geometry) {
+    double[] bbox = new double[] {
+      Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+    for (List<Point> points : getLines(geometry)) {
+      for (Point point : points) {
+        bbox[0] = Math.min(bbox[0], point.longitude());
+        bbox[1] = Math.min(bbox[1], point.latitude());
+        bbox[2] = Math.max(bbox[2], point.longitude());
+        bbox[3] = Math.max(bbox[3], point.latitude());
+      }
+    }
+    return bbox;
+  }
+
+  /**
+   * Calculate the approximate distance between a location and a geometry.
+   * <p>
+   * Uses an equirectangular approximation around the location, which is precise enough for the
+   * short distances involved in hit-testing. Locations inside a polygon have a distance of 0.
+   * </p>
+   *
+   * @param geometry  the geometry
+   * @param latitude  the latitude of the location
+   * @param longitude the longitude of the location
+   * @return the distance in meters
+   */
+  static double distanceInMeters(@NonNull Geometry geometry, double latitude, double longitude) {
+    double scaleX = Math.cos(Math.toRadians(latitude)) * METERS_PER_DEGREE;
+    double minDistance = Double.POSITIVE_INFINITY;
+    boolean inside = false;
+
+    for (List<Point> points : getLines(geometry)) {
+      if (points.isEmpty()) {
+        continue;
+      }
+      // measure across the antimeridian, shifting whole lines keeps their segments intact
+      double lineLongitude = longitude + 360 * Math.round((points.get(0).longitude() - longitude) / 360);
+      if (points.size() == 1) {
+        Point point = points.get(0);
+        minDistance = Math.min(minDistance, Math.hypot(
+          (point.longitude() - lineLongitude) * scaleX, (point.latitude() - latitude) * METERS_PER_DEGREE));
+        continue;
+      }
+
+      for (int i = 1; i < points.size(); i++) {
+        Point start = points.get(i - 1);
+        Point end = points.get(i);
+        double startX = (start.longitude() - lineLongitude) * scaleX;
+        double startY = (start.latitude() - latitude) * METERS_PER_DEGREE;
+        double endX = (end.longitude() - lineLongitude) * scaleX;
+        double endY = (end.latitude() - latitude) * METERS_PER_DEGREE;
+        minDistance = Math.min(minDistance, distanceToSegment(startX, startY, endX, endY));
+
+        // even-odd rule, holes toggle the result back
+        if (geometry instanceof Polygon && (startY > 0) != (endY > 0)
+          && 0 < (endX - startX) * -startY / (endY - startY) + startX) {
+          inside = !inside;
+        }
+      }
+    }
+    return inside ? 0 : minDistance;
+  }
+
+  private static double distanceToSegment(double startX, double startY, double endX, double endY) {
+    double deltaX = endX - startX;
+    double deltaY = endY - startY;
+    double lengthSquared = deltaX * deltaX + deltaY * deltaY;
+    double fraction = 0;
+    if (lengthSquared > 0) {
+      fraction = Math.max(0, Math.min(1, -(startX * deltaX + startY * deltaY) / lengthSquared));
+    }
+    return Math.hypot(startX + fraction * deltaX, startY + fraction * deltaY);
+  }
+
+  private static List<List<Point>> getLines(@NonNull Geometry geometry) {
+    if (geometry instanceof Point) {
+      return Collections.singletonList(Collections.singletonList((Point) geometry));
+    } else if (geometry instanceof LineString) {
+      return Collections.singletonList(((LineString) geometry).coordinates());
+    } else if (geometry instanceof Polygon) {
+      return ((Polygon) geometry).coordinates();
+    }
+    throw new IllegalArgumentException("Unsupported geometry type: " + geometry.type());
+  }
+}
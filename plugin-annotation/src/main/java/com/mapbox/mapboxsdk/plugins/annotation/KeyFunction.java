@@ -0,0 +1,25 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Generic interface definition of a function providing the key identifying the annotation of an options object,
+ * used to match options with existing annotations in {@link AnnotationManager#submit(java.util.List, KeyFunction)}.
+ * <p>
+ * Keys are compared with equals and hashCode, typically the id of the model object shown by the annotation.
+ * </p>
+ *
+ * @param <S> generic parameter extending from Options
+ */
+public interface KeyFunction<S extends Options> {
+
+  /**
+   * Called to get the key of an options object
+   *
+   * @param options the options of an annotation.
+   * @return the key identifying the annotation.
+   */
+  @NonNull
+  Object getKey(@NonNull S options);
+
+}
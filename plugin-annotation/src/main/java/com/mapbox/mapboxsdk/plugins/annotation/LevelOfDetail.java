@@ -0,0 +1,328 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.LongSparseArray;
+
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simplifies line and polygon geometries depending on the zoom level of the map.
+ * <p>
+ * A single Douglas-Peucker pass calculates the significance of every vertex, the largest tolerance at which
+ * the vertex is kept. Simplified geometries are derived from these significances for levels at every
+ * {@link #ZOOM_STEP} zoom levels up to {@link #MAX_ZOOM}, using a tolerance of {@link #TOLERANCE_PIXELS} at
+ * the zoom of the level. The significances are calculated once per geometry and the levels are created on first
+ * use, so changing a geometry only recomputes the levels of that geometry. Above {@link #MAX_ZOOM} geometries
+ * are used at full resolution.
+ * </p>
+ */
+final class LevelOfDetail {
+
+  static final int MAX_ZOOM = 16;
+  static final int ZOOM_STEP = 2;
+  static final float TOLERANCE_PIXELS = 0.5f;
+
+  private static final int LEVEL_COUNT = MAX_ZOOM / ZOOM_STEP + 1;
+  private static final int TILE_SIZE = 512;
+  private static final int MIN_LINE_POINTS = 2;
+  private static final int MIN_RING_POINTS = 4;
+  private static final double MAX_SIN = 0.9999;
+
+  private final LongSparseArray<SimplifiedGeometry> geometries = new LongSparseArray<>();
+  private int level = LEVEL_COUNT;
+
+  /**
+   * Set the zoom level geometries are simplified for.
+   *
+   * @param zoom the zoom level of the map
+   * @return true if the zoom level selects a different level of detail
+   */
+  boolean setZoom(double zoom) {
+    int level = levelForZoom(zoom);
+    if (level == this.level) {
+      return false;
+    }
+    this.level = level;
+    return true;
+  }
+
+  /**
+   * Set the zoom level geometries are simplified for, only if it selects a finer level of detail.
+   *
+   * @param zoom the zoom level of the map
+   * @return true if the zoom level selects a finer level of detail
+   */
+  boolean refineZoom(double zoom) {
+    int level = levelForZoom(zoom);
+    if (level <= this.level) {
+      return false;
+    }
+    this.level = level;
+    return true;
+  }
+
+  /**
+   * Get the geometry of an annotation at the current level of detail.
+   *
+   * @param annotation the annotation
+   * @return the simplified geometry, the geometry of the annotation if it can't be simplified
+   */
+  @NonNull
+  Geometry getGeometry(@NonNull Annotation annotation) {
+    Geometry geometry = annotation.getGeometry();
+    if (level == LEVEL_COUNT || !(geometry instanceof LineString || geometry instanceof Polygon)) {
+      return geometry;
+    }
+
+    SimplifiedGeometry simplified = geometries.get(annotation.getId());
+    if (simplified == null || simplified.source != geometry) {
+      simplified = new SimplifiedGeometry(geometry);
+      geometries.put(annotation.getId(), simplified);
+    }
+    return simplified.getLevel(level);
+  }
+
+  /**
+   * Drop the simplified geometries of an annotation.
+   *
+   * @param id the id of the annotation
+   */
+  void remove(long id) {
+    geometries.remove(id);
+  }
+
+  /**
+   * Drop all simplified geometries.
+   */
+  void clear() {
+    geometries.clear();
+  }
+
+  private static int levelForZoom(double zoom) {
+    return zoom > MAX_ZOOM ? LEVEL_COUNT : (int) Math.ceil(Math.max(zoom, 0) / ZOOM_STEP);
+  }
+
+  private static class SimplifiedGeometry {
+
+    private final Geometry source;
+    private final List<List<Point>> rings;
+    private final float[][] significances;
+    private final Geometry[] levels = new Geometry[LEVEL_COUNT];
+
+    SimplifiedGeometry(@NonNull Geometry source) {
+      this.source = source;
+      rings = source instanceof LineString
+        ? Collections.singletonList(((LineString) source).coordinates())
+        : ((Polygon) source).coordinates();
+      significances = new float[rings.size()][];
+      for (int i = 0; i < rings.size(); i++) {
+        significances[i] = calculateSignificances(rings.get(i));
+      }
+    }
+
+    @NonNull
+    Geometry getLevel(int level) {
+      if (levels[level] == null) {
+        levels[level] = simplify(toleranceForZoom(level * ZOOM_STEP));
+      }
+      return levels[level];
+    }
+
+    @NonNull
+    private Geometry simplify(double tolerance) {
+      boolean simplified = false;
+      List<List<Point>> result = new ArrayList<>(rings.size());
+      int minPoints = source instanceof LineString ? MIN_LINE_POINTS : MIN_RING_POINTS;
+      for (int i = 0; i < rings.size(); i++) {
+        List<Point> points = rings.get(i);
+        List<Point> ring = filter(points, significances[i], tolerance, minPoints);
+        simplified |= ring.size() < points.size();
+        result.add(ring);
+      }
+
+      if (!simplified) {
+        return source;
+      }
+      return source instanceof LineString ? LineString.fromLngLats(result.get(0)) : Polygon.fromLngLats(result);
+    }
+  }
+
+  /**
+   * Calculate the tolerance in world coordinates, where the world spans from 0 to 1 in mercator projection.
+   *
+   * @param zoom the zoom level
+   * @return the tolerance at the zoom level
+   */
+  static double toleranceForZoom(int zoom) {
+    return TOLERANCE_PIXELS / (TILE_SIZE * Math.pow(2, zoom));
+  }
+
+  /**
+   * Calculate the largest Douglas-Peucker tolerance at which every point is kept, in world coordinates.
+   * <p>
+   * A point is never more significant than the point splitting the segment it is part of, keeping the
+   * results of filtering by significance identical to running Douglas-Peucker with that tolerance.
+   * </p>
+   *
+   * @param points the points of a line or ring
+   * @return the significance of every point, endpoints are always kept
+   */
+  @NonNull
+  static float[] calculateSignificances(@NonNull List<Point> points) {
+    int size = points.size();
+    double[] x = new double[size];
+    double[] y = new double[size];
+    for (int i = 0; i < size; i++) {
+      Point point = points.get(i);
+      x[i] = point.longitude() / 360 + 0.5;
+      double sin = Math.max(-MAX_SIN, Math.min(MAX_SIN, Math.sin(Math.toRadians(point.latitude()))));
+      y[i] = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    float[] significances = new float[size];
+    if (size == 0) {
+      return significances;
+    }
+    significances[0] = Float.POSITIVE_INFINITY;
+    significances[size - 1] = Float.POSITIVE_INFINITY;
+
+    // segments as start, end and the significance of the point splitting them off, without recursion
+    // as lines can have hundreds of thousands of points
+    int[] segments = new int[64];
+    float[] parents = new float[32];
+    int count = 0;
+    segments[0] = 0;
+    segments[1] = size - 1;
+    parents[0] = Float.POSITIVE_INFINITY;
+    count++;
+
+    while (count > 0) {
+      count--;
+      int start = segments[count * 2];
+      int end = segments[count * 2 + 1];
+      float parent = parents[count];
+      if (end - start < 2) {
+        continue;
+      }
+
+      int index = -1;
+      double max = -1;
+      for (int i = start + 1; i < end; i++) {
+        double distance = distanceToSegment(x[i], y[i], x[start], y[start], x[end], y[end]);
+        if (distance > max) {
+          max = distance;
+          index = i;
+        }
+      }
+
+      float significance = Math.min((float) max, parent);
+      significances[index] = significance;
+
+      if (count + 2 > parents.length) {
+        int[] expandedSegments = new int[segments.length * 2];
+        System.arraycopy(segments, 0, expandedSegments, 0, count * 2);
+        segments = expandedSegments;
+        float[] expandedParents = new float[parents.length * 2];
+        System.arraycopy(parents, 0, expandedParents, 0, count);
+        parents = expandedParents;
+      }
+      segments[count * 2] = start;
+      segments[count * 2 + 1] = index;
+      parents[count++] = significance;
+      segments[count * 2] = index;
+      segments[count * 2 + 1] = end;
+      parents[count++] = significance;
+    }
+    return significances;
+  }
+
+  /**
+   * Keep the points more significant than the tolerance.
+   *
+   * @param points        the points
+   * @param significances the significances of the points
+   * @param tolerance     the tolerance
+   * @param minPoints     the minimum amount of points to keep, the most significant points are kept
+   * @return the filtered points
+   */
+  @NonNull
+  static List<Point> filter(@NonNull List<Point> points, @NonNull float[] significances, double tolerance,
+                            int minPoints) {
+    boolean inclusive = false;
+    int kept = count(significances, tolerance, false);
+    if (kept < minPoints && points.size() > kept) {
+      // keep the most significant points instead of collapsing the geometry
+      tolerance = minimumSignificance(significances, minPoints);
+      inclusive = true;
+      kept = count(significances, tolerance, true);
+    }
+
+    if (kept == points.size()) {
+      return points;
+    }
+
+    List<Point> result = new ArrayList<>(kept);
+    for (int i = 0; i < points.size(); i++) {
+      if (significances[i] > tolerance || (inclusive && significances[i] == tolerance)) {
+        result.add(points.get(i));
+      }
+    }
+    return result;
+  }
+
+  private static int count(@NonNull float[] significances, double tolerance, boolean inclusive) {
+    int count = 0;
+    for (float significance : significances) {
+      if (significance > tolerance || (inclusive && significance == tolerance)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Find the significance of the least significant point among the given amount of most significant points.
+   */
+  private static double minimumSignificance(@NonNull float[] significances, int minPoints) {
+    if (significances.length <= minPoints) {
+      return Double.NEGATIVE_INFINITY;
+    }
+
+    // insertion into a tiny sorted array, the amount of points is small
+    float[] largest = new float[minPoints];
+    for (int i = 0; i < minPoints; i++) {
+      largest[i] = Float.NEGATIVE_INFINITY;
+    }
+    for (float significance : significances) {
+      if (significance > largest[minPoints - 1]) {
+        int i = minPoints - 1;
+        while (i > 0 && largest[i - 1] < significance) {
+          largest[i] = largest[i - 1];
+          i--;
+        }
+        largest[i] = significance;
+      }
+    }
+    return largest[minPoints - 1];
+  }
+
+  private static double distanceToSegment(double x, double y, double startX, double startY,
+                                          double endX, double endY) {
+    double dx = endX - startX;
+    double dy = endY - startY;
+    double lengthSquared = dx * dx + dy * dy;
+    if (lengthSquared == 0) {
+      return Math.hypot(x - startX, y - startY);
+    }
+
+    double t = Math.max(0, Math.min(1, ((x - startX) * dx + (y - startY) * dy) / lengthSquared));
+    return Math.hypot(x - startX - t * dx, y - startY - t * dy);
+  }
+}
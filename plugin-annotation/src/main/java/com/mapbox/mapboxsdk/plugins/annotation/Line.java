@@ -5,8 +5,6 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 import android.support.annotation.ColorInt;
 import android.graphics.PointF;
 import android.support.annotation.UiThread;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
@@ -42,31 +40,8 @@ public class Line extends Annotation<LineString> {
   }
 
   @Override
-  void setUsedDataDrivenProperties() {
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineJoin) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineJoin);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineOpacity) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineOpacity);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineColor);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineWidth) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineWidth);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineGapWidth) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineGapWidth);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineOffset) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineOffset);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_lineBlur) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_lineBlur);
-    }
-    if (!(jsonObject.get(LineOptions.PROPERTY_linePattern) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(LineOptions.PROPERTY_linePattern);
-    }
+  void onPropertySet(@NonNull String key) {
+    annotationManager.enableDataDrivenProperty(key);
   }
 
   /**
@@ -100,6 +75,15 @@ public class Line extends Annotation<LineString> {
     return latLngs;
   }
 
+  @Override
+  float getRenderedRadius(float tolerance) {
+    float width = isPropertySet(LineOptions.PROPERTY_lineWidth) ? getLineWidth() : 1;
+    float gapWidth = isPropertySet(LineOptions.PROPERTY_lineGapWidth) ? getLineGapWidth() : 0;
+    float offset = isPropertySet(LineOptions.PROPERTY_lineOffset) ? Math.abs(getLineOffset()) : 0;
+    // lines with a gap are drawn as two lines of the width on both sides of the gap
+    return (gapWidth > 0 ? gapWidth / 2 + width : width / 2) + offset;
+  }
+
   // Property accessors
 
   /**
@@ -111,7 +95,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around String
    */
   public String getLineJoin() {
-    return jsonObject.get(LineOptions.PROPERTY_lineJoin).getAsString();
+    return getStringProperty(LineOptions.PROPERTY_lineJoin);
   }
 
   /**
@@ -126,7 +110,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for String
    */
   public void setLineJoin(@Property.LINE_JOIN String value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineJoin, value);
+    setStringProperty(LineOptions.PROPERTY_lineJoin, value);
   }
 
   /**
@@ -138,7 +122,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around Float
    */
   public Float getLineOpacity() {
-    return jsonObject.get(LineOptions.PROPERTY_lineOpacity).getAsFloat();
+    return getFloatProperty(LineOptions.PROPERTY_lineOpacity);
   }
 
   /**
@@ -153,7 +137,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for Float
    */
   public void setLineOpacity(Float value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineOpacity, value);
+    setFloatProperty(LineOptions.PROPERTY_lineOpacity, value);
   }
 
   /**
@@ -166,7 +150,7 @@ public class Line extends Annotation<LineString> {
    */
   @ColorInt
   public int getLineColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(LineOptions.PROPERTY_lineColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(LineOptions.PROPERTY_lineColor));
   }
 
   /**
@@ -178,7 +162,7 @@ public class Line extends Annotation<LineString> {
    * @return color value for String
    */
   public String getLineColor() {
-    return jsonObject.get(LineOptions.PROPERTY_lineColor).getAsString();
+    return getStringProperty(LineOptions.PROPERTY_lineColor);
   }
 
   /**
@@ -193,7 +177,7 @@ public class Line extends Annotation<LineString> {
    * @param color value for String
    */
   public void setLineColor(@ColorInt int color) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(LineOptions.PROPERTY_lineColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -208,7 +192,7 @@ public class Line extends Annotation<LineString> {
    * @param color value for String
    */
   public void setLineColor(@NonNull String color) {
-    jsonObject.addProperty("line-color", color);
+    setStringProperty(LineOptions.PROPERTY_lineColor, color);
   }
 
   /**
@@ -220,7 +204,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around Float
    */
   public Float getLineWidth() {
-    return jsonObject.get(LineOptions.PROPERTY_lineWidth).getAsFloat();
+    return getFloatProperty(LineOptions.PROPERTY_lineWidth);
   }
 
   /**
@@ -235,7 +219,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for Float
    */
   public void setLineWidth(Float value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineWidth, value);
+    setFloatProperty(LineOptions.PROPERTY_lineWidth, value);
   }
 
   /**
@@ -247,7 +231,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around Float
    */
   public Float getLineGapWidth() {
-    return jsonObject.get(LineOptions.PROPERTY_lineGapWidth).getAsFloat();
+    return getFloatProperty(LineOptions.PROPERTY_lineGapWidth);
   }
 
   /**
@@ -262,7 +246,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for Float
    */
   public void setLineGapWidth(Float value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineGapWidth, value);
+    setFloatProperty(LineOptions.PROPERTY_lineGapWidth, value);
   }
 
   /**
@@ -274,7 +258,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around Float
    */
   public Float getLineOffset() {
-    return jsonObject.get(LineOptions.PROPERTY_lineOffset).getAsFloat();
+    return getFloatProperty(LineOptions.PROPERTY_lineOffset);
   }
 
   /**
@@ -289,7 +273,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for Float
    */
   public void setLineOffset(Float value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineOffset, value);
+    setFloatProperty(LineOptions.PROPERTY_lineOffset, value);
   }
 
   /**
@@ -301,7 +285,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around Float
    */
   public Float getLineBlur() {
-    return jsonObject.get(LineOptions.PROPERTY_lineBlur).getAsFloat();
+    return getFloatProperty(LineOptions.PROPERTY_lineBlur);
   }
 
   /**
@@ -316,7 +300,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for Float
    */
   public void setLineBlur(Float value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_lineBlur, value);
+    setFloatProperty(LineOptions.PROPERTY_lineBlur, value);
   }
 
   /**
@@ -328,7 +312,7 @@ public class Line extends Annotation<LineString> {
    * @return property wrapper value around String
    */
   public String getLinePattern() {
-    return jsonObject.get(LineOptions.PROPERTY_linePattern).getAsString();
+    return getStringProperty(LineOptions.PROPERTY_linePattern);
   }
 
   /**
@@ -343,7 +327,7 @@ public class Line extends Annotation<LineString> {
    * @param value constant property value for String
    */
   public void setLinePattern(String value) {
-    jsonObject.addProperty(LineOptions.PROPERTY_linePattern, value);
+    setStringProperty(LineOptions.PROPERTY_linePattern, value);
   }
 
   @Override
@@ -7,19 +7,25 @@ import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 import android.support.annotation.VisibleForTesting;
 
+import com.google.gson.JsonObject;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
 import com.mapbox.mapboxsdk.style.layers.LineLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.mapboxsdk.style.layers.PropertyValue;
 import com.mapbox.mapboxsdk.style.layers.PropertyFactory;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.style.layers.Property;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +39,10 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
 
   public static final String ID_GEOJSON_SOURCE = "mapbox-android-line-source";
   public static final String ID_GEOJSON_LAYER = "mapbox-android-line-layer";
+  public static final String ID_GEOJSON_DRAG_SOURCE = "mapbox-android-line-drag-source";
+  public static final String ID_GEOJSON_DRAG_LAYER = "mapbox-android-line-drag-layer";
+  public static final String ID_GEOJSON_CLUSTER_LAYER = "mapbox-android-line-cluster-layer";
+  public static final String ID_GEOJSON_CLUSTER_COUNT_LAYER = "mapbox-android-line-cluster-count-layer";
 
   private static final String PROPERTY_lineCap = "line-cap";
   private static final String PROPERTY_lineMiterLimit = "line-miter-limit";
@@ -89,13 +99,47 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
             return new GeoJsonSource(ID_GEOJSON_SOURCE);
           }
         }
+
+        @Override
+        public LineLayer getShardLayer(int shard) {
+          return new LineLayer(ID_GEOJSON_LAYER + "-" + shard, ID_GEOJSON_SOURCE + "-" + shard);
+        }
+
+        @Override
+        public GeoJsonSource getShardSource(int shard, @Nullable GeoJsonOptions geoJsonOptions) {
+          if (geoJsonOptions != null) {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard, geoJsonOptions);
+          } else {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard);
+          }
+        }
+
+        @Override
+        public LineLayer getDragLayer() {
+          return new LineLayer(ID_GEOJSON_DRAG_LAYER, ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public GeoJsonSource getDragSource() {
+          return new GeoJsonSource(ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public CircleLayer getClusterLayer() {
+          return new CircleLayer(ID_GEOJSON_CLUSTER_LAYER, ID_GEOJSON_SOURCE);
+        }
+
+        @Override
+        public SymbolLayer getClusterCountLayer() {
+          return new SymbolLayer(ID_GEOJSON_CLUSTER_COUNT_LAYER, ID_GEOJSON_SOURCE);
+        }
       },
      belowLayerId, geoJsonOptions, new DraggableAnnotationController<>(mapView, mapboxMap));
   }
 
   @VisibleForTesting
   LineManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @NonNull CoreElementProvider<LineLayer> coreElementProvider, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, DraggableAnnotationController<Line, OnLineDragListener> draggableAnnotationController) {
-    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions);
+    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions, null);
   }
 
   @Override
@@ -111,31 +155,31 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
   }
 
   @Override
-  protected void setDataDrivenPropertyIsUsed(@NonNull String property) {
+  protected void setDataDrivenPropertyIsUsed(@NonNull String property, @NonNull LineLayer targetLayer) {
     switch (property) {
       case LineOptions.PROPERTY_lineJoin:
-        layer.setProperties(lineJoin(get(LineOptions.PROPERTY_lineJoin)));
+        targetLayer.setProperties(lineJoin(get(LineOptions.PROPERTY_lineJoin)));
         break;
       case LineOptions.PROPERTY_lineOpacity:
-        layer.setProperties(lineOpacity(get(LineOptions.PROPERTY_lineOpacity)));
+        targetLayer.setProperties(lineOpacity(get(LineOptions.PROPERTY_lineOpacity)));
         break;
       case LineOptions.PROPERTY_lineColor:
-        layer.setProperties(lineColor(get(LineOptions.PROPERTY_lineColor)));
+        targetLayer.setProperties(lineColor(get(LineOptions.PROPERTY_lineColor)));
         break;
       case LineOptions.PROPERTY_lineWidth:
-        layer.setProperties(lineWidth(get(LineOptions.PROPERTY_lineWidth)));
+        targetLayer.setProperties(lineWidth(get(LineOptions.PROPERTY_lineWidth)));
         break;
       case LineOptions.PROPERTY_lineGapWidth:
-        layer.setProperties(lineGapWidth(get(LineOptions.PROPERTY_lineGapWidth)));
+        targetLayer.setProperties(lineGapWidth(get(LineOptions.PROPERTY_lineGapWidth)));
         break;
       case LineOptions.PROPERTY_lineOffset:
-        layer.setProperties(lineOffset(get(LineOptions.PROPERTY_lineOffset)));
+        targetLayer.setProperties(lineOffset(get(LineOptions.PROPERTY_lineOffset)));
         break;
       case LineOptions.PROPERTY_lineBlur:
-        layer.setProperties(lineBlur(get(LineOptions.PROPERTY_lineBlur)));
+        targetLayer.setProperties(lineBlur(get(LineOptions.PROPERTY_lineBlur)));
         break;
       case LineOptions.PROPERTY_linePattern:
-        layer.setProperties(linePattern(get(LineOptions.PROPERTY_linePattern)));
+        targetLayer.setProperties(linePattern(get(LineOptions.PROPERTY_linePattern)));
         break;
     }
   }
@@ -158,6 +202,9 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
    * <p>
    * Out of spec properties:<br>
    * "is-draggable" - Boolean, true if the line should be draggable, false otherwise
+   * <p>
+   * Large collections should be imported with {@link #importGeoJson(InputStream, OnAnnotationImportListener)}
+   * instead, which doesn't need to keep the whole collection in memory.
    *
    * @param json the GeoJSON defining the list of lines to build
    * @return the list of built lines
@@ -204,6 +251,44 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     return create(options);
   }
 
+  @Override
+  @Nullable
+  LineOptions optionsFromFeature(@NonNull Feature feature) {
+    return LineOptions.fromFeature(feature);
+  }
+
+  @Override
+  Line createAnnotation(long id, @NonNull JsonObject properties, @NonNull Geometry geometry) {
+    return new Line(id, this, properties, (LineString) geometry);
+  }
+
+  /**
+   * Set whether line geometries are simplified depending on the zoom level of the map.
+   * <p>
+   * When enabled, simplified versions of every geometry are derived for several zoom levels using Douglas-Peucker,
+   * and the version matching the current zoom level is added to the source. The level is re-evaluated when the camera
+   * becomes idle. Simplified versions are only recomputed for geometries that changed, the dragged line and
+   * zoom levels above 16 use the full geometry.
+   * </p>
+   *
+   * @param enabled true to simplify geometries depending on the zoom level
+   */
+  @Override
+  @UiThread
+  public void setLevelOfDetailEnabled(boolean enabled) {
+    super.setLevelOfDetailEnabled(enabled);
+  }
+
+  /**
+   * Returns whether line geometries are simplified depending on the zoom level of the map.
+   *
+   * @return true if geometries are simplified
+   */
+  @Override
+  public boolean isLevelOfDetailEnabled() {
+    return super.isLevelOfDetailEnabled();
+  }
+
   /**
    * Get the layer id of the annotation layer.
    *
@@ -249,6 +334,12 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     PropertyValue propertyValue = lineCap(value);
     constantPropertyUsageMap.put(PROPERTY_lineCap, propertyValue);
     layer.setProperties(propertyValue);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -275,6 +366,12 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     PropertyValue propertyValue = lineMiterLimit(value);
     constantPropertyUsageMap.put(PROPERTY_lineMiterLimit, propertyValue);
     layer.setProperties(propertyValue);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -301,6 +398,12 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     PropertyValue propertyValue = lineRoundLimit(value);
     constantPropertyUsageMap.put(PROPERTY_lineRoundLimit, propertyValue);
     layer.setProperties(propertyValue);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -327,6 +430,12 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     PropertyValue propertyValue = lineTranslate(value);
     constantPropertyUsageMap.put(PROPERTY_lineTranslate, propertyValue);
     layer.setProperties(propertyValue);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -353,6 +462,12 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     PropertyValue propertyValue = lineTranslateAnchor(value);
     constantPropertyUsageMap.put(PROPERTY_lineTranslateAnchor, propertyValue);
     layer.setProperties(propertyValue);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -379,6 +494,12 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
     PropertyValue propertyValue = lineDasharray(value);
     constantPropertyUsageMap.put(PROPERTY_lineDasharray, propertyValue);
     layer.setProperties(propertyValue);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -389,16 +510,28 @@ public class LineManager extends AnnotationManager<LineLayer, Line, LineOptions,
    @Override
   public void setFilter(@NonNull Expression expression) {
     layerFilter = expression;
-    layer.setFilter(layerFilter);
+    setLayerFilter(applyManagedFilters(layerFilter));
+  }
+
+  @Override
+  void setLayerFilter(@NonNull Expression filter) {
+    layer.setFilter(filter);
+    for (LineLayer shardLayer : shardLayers) {
+      shardLayer.setFilter(filter);
+    }
   }
 
   /**
-   * Get filter of the managed lines.
+   * Get filter of the managed lines, as set with {@link #setFilter(Expression)}.
+   * <p>
+   * The filter set on the layer also hides clusters and the groups hidden with
+   * {@link #setGroupVisible(String, boolean)}, those parts aren't returned.
+   * </p>
    *
    * @return expression
    */
   @Nullable
   public Expression getFilter() {
-    return layer.getFilter();
+    return layerFilter;
   }
 }
@@ -35,6 +35,7 @@ public class LineOptions extends Options<Line> {
   private Float lineOffset;
   private Float lineBlur;
   private String linePattern;
+  private String group;
 
   static final String PROPERTY_lineJoin = "line-join";
   static final String PROPERTY_lineOpacity = "line-opacity";
@@ -284,8 +285,30 @@ public class LineOptions extends Options<Line> {
     return this;
   }
 
+  /**
+   * Get the group to initialise the line with.
+   *
+   * @return the group, null if the line isn't part of a group
+   */
+  @Nullable
+  public String getGroup() {
+    return group;
+  }
+
+  /**
+   * Set the group to initialise the line with, all annotations of a group are shown or hidden at once with
+   * {@link AnnotationManager#setGroupVisible(String, boolean)}.
+   *
+   * @param group the group of the line
+   * @return this
+   */
+  public LineOptions withGroup(@Nullable String group) {
+    this.group = group;
+    return this;
+  }
+
   @Override
-  Line build(long id, AnnotationManager<?, Line, ?, ?, ?, ?> annotationManager) {
+  Line buildAnnotation(long id, AnnotationManager<?, Line, ?, ?, ?, ?> annotationManager) {
     if (geometry == null) {
       throw new RuntimeException("geometry field is required");
     }
@@ -298,11 +321,42 @@ public class LineOptions extends Options<Line> {
     jsonObject.addProperty(PROPERTY_lineOffset, lineOffset);
     jsonObject.addProperty(PROPERTY_lineBlur, lineBlur);
     jsonObject.addProperty(PROPERTY_linePattern, linePattern);
+    if (group != null) {
+      jsonObject.addProperty(Annotation.GROUP_KEY, group);
+    }
     Line line = new Line(id, annotationManager, jsonObject, geometry);
     line.setDraggable(isDraggable);
     return line;
   }
 
+  @Override
+  void enableDataDrivenProperties(AnnotationManager<?, Line, ?, ?, ?, ?> annotationManager) {
+    if (lineJoin != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineJoin);
+    }
+    if (lineOpacity != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineOpacity);
+    }
+    if (lineColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineColor);
+    }
+    if (lineWidth != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineWidth);
+    }
+    if (lineGapWidth != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineGapWidth);
+    }
+    if (lineOffset != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineOffset);
+    }
+    if (lineBlur != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_lineBlur);
+    }
+    if (linePattern != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_linePattern);
+    }
+  }
+
   /**
    * Creates LineOptions out of a Feature.
    *
@@ -346,6 +400,9 @@ public class LineOptions extends Options<Line> {
     if (feature.hasProperty(PROPERTY_isDraggable)) {
       options.isDraggable = feature.getProperty(PROPERTY_isDraggable).getAsBoolean();
     }
+    if (feature.hasNonNullValueForProperty(Annotation.GROUP_KEY)) {
+      options.group = feature.getStringProperty(Annotation.GROUP_KEY);
+    }
     return options;
   }
 }
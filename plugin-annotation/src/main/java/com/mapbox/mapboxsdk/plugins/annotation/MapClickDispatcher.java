@@ -0,0 +1,170 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Transforms map click events into annotation clicks for all annotation managers of a map.
+ * <p>
+ * Instead of every manager projecting the click and querying its own layers, the click is projected once and a
+ * single query runs over the layers of all managers having listeners. The top most feature is routed to the manager
+ * owning it. Ids are only unique within a manager, so several managers usually claim the same feature, for example a
+ * circle and a symbol sharing an id. Claims are first narrowed down to the managers knowing the data-driven properties
+ * of the feature. Only claims that are still ambiguous are verified against the layers of their manager, the manager
+ * created last wins, matching the default stacking of annotation layers. Managers hit testing with a spatial index are consulted in the same order when no
+ * rendered annotation was clicked.
+ * </p>
+ */
+final class MapClickDispatcher implements MapboxMap.OnMapClickListener, MapboxMap.OnMapLongClickListener {
+
+  // the map keeps its dispatcher alive as a listener, the entries are cleared with the map
+  private static final Map<MapboxMap, WeakReference<MapClickDispatcher>> DISPATCHERS = new WeakHashMap<>();
+
+  private final MapboxMap mapboxMap;
+  // ordered by priority, the manager created last first
+  private final List<AnnotationManager<?, ?, ?, ?, ?, ?>> managers = new ArrayList<>();
+  private final List<AnnotationManager<?, ?, ?, ?, ?, ?>> claimants = new ArrayList<>();
+  private final List<String> layerIds = new ArrayList<>();
+
+  private MapClickDispatcher(@NonNull MapboxMap mapboxMap) {
+    this.mapboxMap = mapboxMap;
+  }
+
+  /**
+   * Register an annotation manager with the dispatcher of its map, creating the dispatcher if needed.
+   *
+   * @param mapboxMap         the map of the annotation manager
+   * @param annotationManager the annotation manager to register
+   * @return the dispatcher of the map
+   */
+  @UiThread
+  @NonNull
+  static MapClickDispatcher register(@NonNull MapboxMap mapboxMap,
+                                     @NonNull AnnotationManager<?, ?, ?, ?, ?, ?> annotationManager) {
+    WeakReference<MapClickDispatcher> reference = DISPATCHERS.get(mapboxMap);
+    MapClickDispatcher dispatcher = reference != null ? reference.get() : null;
+    if (dispatcher == null) {
+      dispatcher = new MapClickDispatcher(mapboxMap);
+      mapboxMap.addOnMapClickListener(dispatcher);
+      mapboxMap.addOnMapLongClickListener(dispatcher);
+      DISPATCHERS.put(mapboxMap, new WeakReference<>(dispatcher));
+    }
+    dispatcher.managers.add(0, annotationManager);
+    return dispatcher;
+  }
+
+  /**
+   * Unregister an annotation manager, removing the dispatcher from the map after the last one.
+   *
+   * @param annotationManager the annotation manager to unregister
+   */
+  @UiThread
+  void unregister(@NonNull AnnotationManager<?, ?, ?, ?, ?, ?> annotationManager) {
+    if (managers.remove(annotationManager) && managers.isEmpty()) {
+      mapboxMap.removeOnMapClickListener(this);
+      mapboxMap.removeOnMapLongClickListener(this);
+      DISPATCHERS.remove(mapboxMap);
+    }
+  }
+
+  @Override
+  public boolean onMapClick(@NonNull LatLng point) {
+    dispatch(point, false);
+    return false;
+  }
+
+  @Override
+  public boolean onMapLongClick(@NonNull LatLng point) {
+    dispatch(point, true);
+    return false;
+  }
+
+  private void dispatch(@NonNull LatLng point, boolean longClick) {
+    boolean hasListeners = false;
+    layerIds.clear();
+    for (AnnotationManager<?, ?, ?, ?, ?, ?> manager : managers) {
+      if (manager.hasClickListeners(longClick)) {
+        hasListeners = true;
+        manager.addClickLayerIds(layerIds);
+      }
+    }
+    if (!hasListeners) {
+      return;
+    }
+
+    if (!layerIds.isEmpty()) {
+      long startNanos = System.nanoTime();
+      PointF screenPoint = mapboxMap.getProjection().toScreenLocation(point);
+      List<Feature> features = mapboxMap.queryRenderedFeatures(screenPoint, layerIds.toArray(new String[0]));
+      for (AnnotationManager<?, ?, ?, ?, ?, ?> manager : managers) {
+        if (manager.hasClickListeners(longClick)) {
+          manager.recordHitTest(startNanos);
+        }
+      }
+
+      for (Feature feature : features) {
+        AnnotationManager<?, ?, ?, ?, ?, ?> owner = findOwner(feature, screenPoint, longClick);
+        if (owner != null) {
+          owner.dispatchClick(feature, longClick);
+          return;
+        }
+      }
+    }
+
+    for (AnnotationManager<?, ?, ?, ?, ?, ?> manager : managers) {
+      if (manager.hasClickListeners(longClick) && manager.dispatchNearestClick(point, longClick)) {
+        return;
+      }
+    }
+  }
+
+  @Nullable
+  private AnnotationManager<?, ?, ?, ?, ?, ?> findOwner(@NonNull Feature feature, @NonNull PointF screenPoint,
+                                                         boolean longClick) {
+    claimants.clear();
+    for (AnnotationManager<?, ?, ?, ?, ?, ?> manager : managers) {
+      if (manager.hasClickListeners(longClick) && manager.isClickTarget(feature)) {
+        claimants.add(manager);
+      }
+    }
+    if (claimants.size() > 1) {
+      // features of different annotation types carry different data-driven properties
+      List<AnnotationManager<?, ?, ?, ?, ?, ?>> matching = new ArrayList<>();
+      for (AnnotationManager<?, ?, ?, ?, ?, ?> claimant : claimants) {
+        if (claimant.hasDataDrivenProperties(feature)) {
+          matching.add(claimant);
+        }
+      }
+      if (!matching.isEmpty()) {
+        claimants.retainAll(matching);
+      }
+    }
+    if (claimants.size() < 2) {
+      return claimants.isEmpty() ? null : claimants.get(0);
+    }
+
+    // ambiguous, for example managers of the same type or features without data-driven properties
+    for (AnnotationManager<?, ?, ?, ?, ?, ?> claimant : claimants) {
+      layerIds.clear();
+      claimant.addClickLayerIds(layerIds);
+      for (Feature candidate : mapboxMap.queryRenderedFeatures(screenPoint, layerIds.toArray(new String[0]))) {
+        if (feature.properties() != null && feature.properties().equals(candidate.properties())) {
+          return claimant;
+        }
+      }
+    }
+    return null;
+  }
+}
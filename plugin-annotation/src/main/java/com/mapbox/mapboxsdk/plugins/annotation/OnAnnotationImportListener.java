@@ -0,0 +1,36 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Generic interface definition of a callback to be invoked while annotations are imported from GeoJSON.
+ *
+ * @param <T> generic parameter extending from Annotation
+ */
+public interface OnAnnotationImportListener<T extends Annotation> {
+
+  /**
+   * Called when a chunk of annotations has been created
+   *
+   * @param annotations  the annotations created from the chunk.
+   * @param featureCount the amount of features read so far.
+   */
+  void onAnnotationsImported(@NonNull List<T> annotations, int featureCount);
+
+  /**
+   * Called when all features have been read and all annotations have been created
+   *
+   * @param featureCount the total amount of features read.
+   */
+  void onImportFinished(int featureCount);
+
+  /**
+   * Called when the import failed, annotations created from previous chunks are kept
+   *
+   * @param exception the cause of the failure.
+   */
+  void onImportFailed(@NonNull Exception exception);
+
+}
@@ -0,0 +1,17 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Interface definition of a callback to be invoked with the performance metrics of an annotation manager.
+ */
+public interface OnAnnotationMetricsListener {
+
+  /**
+   * Called on the main thread after the metrics changed, at most once per rendered frame
+   *
+   * @param metrics the metrics of the annotation manager, only valid during the callback.
+   */
+  void onMetricsUpdated(@NonNull AnnotationMetrics metrics);
+
+}
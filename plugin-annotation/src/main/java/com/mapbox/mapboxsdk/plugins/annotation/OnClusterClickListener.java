@@ -0,0 +1,24 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.geojson.Feature;
+
+import java.util.List;
+
+/**
+ * Generic interface definition of a callback to be invoked when a cluster of annotations has been clicked.
+ *
+ * @param <T> generic parameter extending from Annotation
+ */
+public interface OnClusterClickListener<T extends Annotation> {
+
+  /**
+   * Called when a cluster has been clicked
+   *
+   * @param cluster     the cluster feature clicked.
+   * @param annotations the annotations contained in the cluster.
+   */
+  void onClusterClick(@NonNull Feature cluster, @NonNull List<T> annotations);
+
+}
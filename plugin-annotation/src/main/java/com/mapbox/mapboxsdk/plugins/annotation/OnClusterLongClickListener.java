@@ -0,0 +1,24 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.geojson.Feature;
+
+import java.util.List;
+
+/**
+ * Generic interface definition of a callback to be invoked when a cluster of annotations has been long clicked.
+ *
+ * @param <T> generic parameter extending from Annotation
+ */
+public interface OnClusterLongClickListener<T extends Annotation> {
+
+  /**
+   * Called when a cluster has been long clicked
+   *
+   * @param cluster     the cluster feature long clicked.
+   * @param annotations the annotations contained in the cluster.
+   */
+  void onClusterLongClick(@NonNull Feature cluster, @NonNull List<T> annotations);
+
+}
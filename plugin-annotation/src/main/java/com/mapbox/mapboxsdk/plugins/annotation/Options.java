@@ -2,5 +2,25 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 
 public abstract class Options<T extends Annotation> {
 
-  abstract T build(long id, AnnotationManager<?, T, ?, ?, ?, ?> annotationManager);
+  T build(long id, AnnotationManager<?, T, ?, ?, ?, ?> annotationManager) {
+    T annotation = buildAnnotation(id, annotationManager);
+    enableDataDrivenProperties(annotationManager);
+    return annotation;
+  }
+
+  /**
+   * Build the annotation without changing the manager, allowing annotations to be built on worker threads.
+   *
+   * @param id                the id of the annotation
+   * @param annotationManager the manager the annotation is built for
+   * @return the annotation
+   */
+  abstract T buildAnnotation(long id, AnnotationManager<?, T, ?, ?, ?, ?> annotationManager);
+
+  /**
+   * Enable the data-driven properties set by these options on the manager.
+   *
+   * @param annotationManager the manager to enable the properties on
+   */
+  abstract void enableDataDrivenProperties(AnnotationManager<?, T, ?, ?, ?, ?> annotationManager);
 }
@@ -0,0 +1,118 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.UiThread;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Builds annotations from a list of options on a pool of worker threads.
+ * <p>
+ * The list is split into contiguous ranges, the calling thread builds the first range while worker threads
+ * build the others. The annotation of the options at index i gets the id firstId + i, the result doesn't
+ * depend on the scheduling of the threads. Building only allocates the annotations and their properties,
+ * enabling data-driven properties on the manager is left to the calling thread.
+ * </p>
+ */
+class ParallelAnnotationBuilder {
+
+  // smaller ranges don't outweigh the cost of handing them to another thread
+  static final int MIN_RANGE_SIZE = 2500;
+
+  private static ExecutorService sharedExecutor;
+
+  private final Executor executor;
+  private final int parallelism;
+
+  ParallelAnnotationBuilder() {
+    this(getSharedExecutor(), Runtime.getRuntime().availableProcessors());
+  }
+
+  @VisibleForTesting
+  ParallelAnnotationBuilder(Executor executor, int parallelism) {
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Build annotations, waiting for all worker threads to finish.
+   *
+   * @param optionsList       the options to build the annotations from
+   * @param firstId           the id of the first annotation
+   * @param annotationManager the manager the annotations are built for
+   * @param <T>               the type of annotation
+   * @return the annotations, in the order of the options
+   */
+  @UiThread
+  @NonNull
+  @SuppressWarnings("unchecked")
+  <T extends Annotation> List<T> build(@NonNull List<? extends Options<T>> optionsList, long firstId,
+                                       @NonNull AnnotationManager<?, T, ?, ?, ?, ?> annotationManager) {
+    Object[] options = optionsList.toArray();
+    Object[] annotations = new Object[options.length];
+    int rangeCount = Math.max(1, Math.min(parallelism, options.length / MIN_RANGE_SIZE));
+
+    List<FutureTask<Void>> tasks = new ArrayList<>(rangeCount - 1);
+    for (int range = 1; range < rangeCount; range++) {
+      int start = (int) ((long) options.length * range / rangeCount);
+      int end = (int) ((long) options.length * (range + 1) / rangeCount);
+      FutureTask<Void> task = new FutureTask<>(
+        () -> buildRange(options, start, end, firstId, annotationManager, annotations), null);
+      tasks.add(task);
+      executor.execute(task);
+    }
+
+    try {
+      buildRange(options, 0, options.length / rangeCount, firstId, annotationManager, annotations);
+      for (FutureTask<Void> task : tasks) {
+        task.get();
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(exception);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw new IllegalStateException(exception.getCause());
+    } finally {
+      for (FutureTask<Void> task : tasks) {
+        task.cancel(false);
+      }
+    }
+
+    List<T> annotationList = new ArrayList<>(annotations.length);
+    for (Object annotation : annotations) {
+      annotationList.add((T) annotation);
+    }
+    return annotationList;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends Annotation> void buildRange(Object[] options, int start, int end, long firstId,
+                                                        AnnotationManager<?, T, ?, ?, ?, ?> annotationManager,
+                                                        Object[] annotations) {
+    for (int i = start; i < end; i++) {
+      annotations[i] = ((Options<T>) options[i]).buildAnnotation(firstId + i, annotationManager);
+    }
+  }
+
+  private static synchronized ExecutorService getSharedExecutor() {
+    if (sharedExecutor == null) {
+      int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+      sharedExecutor = Executors.newFixedThreadPool(threadCount, runnable -> {
+        Thread thread = new Thread(runnable, "AnnotationBuilder");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return sharedExecutor;
+  }
+}
@@ -0,0 +1,254 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid over longitude and latitude, indexing the bounding boxes of annotations by id.
+ * <p>
+ * Every entry is referenced from all cells its bounding box overlaps. Entries spanning more than
+ * {@link #MAX_CELLS_PER_ENTRY} cells are kept in a separate list which is checked with every query.
+ * </p>
+ */
+class SpatialGridIndex {
+
+  static final double DEFAULT_CELL_SIZE = 0.1;
+  private static final int MAX_CELLS_PER_ENTRY = 256;
+
+  interface Visitor {
+    void visit(long id);
+  }
+
+  private final double cellSize;
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private final Map<Long, List<Entry>> cells = new HashMap<>();
+  private final List<Entry> largeEntries = new ArrayList<>();
+
+  SpatialGridIndex() {
+    this(DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Create a grid index.
+   *
+   * @param cellSize the size of a cell in degrees
+   */
+  SpatialGridIndex(double cellSize) {
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Add an entry or replace the entry with the same id.
+   *
+   * @param id    the id of the entry
+   * @param west  the western longitude of the bounding box
+   * @param south the southern latitude of the bounding box
+   * @param east  the eastern longitude of the bounding box
+   * @param north the northern latitude of the bounding box
+   */
+  void put(long id, double west, double south, double east, double north) {
+    remove(id);
+
+    Entry entry = new Entry(id, west, south, east, north);
+    entries.put(id, entry);
+    if (isLarge(entry)) {
+      largeEntries.add(entry);
+      return;
+    }
+
+    for (int x = entry.minCellX; x <= entry.maxCellX; x++) {
+      for (int y = entry.minCellY; y <= entry.maxCellY; y++) {
+        long key = cellKey(x, y);
+        List<Entry> cell = cells.get(key);
+        if (cell == null) {
+          cell = new ArrayList<>(4);
+          cells.put(key, cell);
+        }
+        cell.add(entry);
+      }
+    }
+  }
+
+  void remove(long id) {
+    Entry entry = entries.remove(id);
+    if (entry == null) {
+      return;
+    }
+
+    if (isLarge(entry)) {
+      largeEntries.remove(entry);
+      return;
+    }
+
+    for (int x = entry.minCellX; x <= entry.maxCellX; x++) {
+      for (int y = entry.minCellY; y <= entry.maxCellY; y++) {
+        long key = cellKey(x, y);
+        List<Entry> cell = cells.get(key);
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+          cells.remove(key);
+        }
+      }
+    }
+  }
+
+  void clear() {
+    entries.clear();
+    cells.clear();
+    largeEntries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Visit the ids of all entries whose bounding box intersects the given bounding box.
+   * Every id is visited once.
+   *
+   * @param west    the western longitude of the bounding box
+   * @param south   the southern latitude of the bounding box
+   * @param east    the eastern longitude of the bounding box
+   * @param north   the northern latitude of the bounding box
+   * @param visitor the visitor to notify
+   */
+  void query(double west, double south, double east, double north, @NonNull Visitor visitor) {
+    int minCellX = cell(west);
+    int minCellY = cell(south);
+    int maxCellX = cell(east);
+    int maxCellY = cell(north);
+
+    if ((long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) > cells.size()) {
+      // the query covers more cells than populated, checking every populated cell is cheaper
+      for (List<Entry> cell : cells.values()) {
+        for (Entry entry : cell) {
+          if (entry.intersects(west, south, east, north)
+            && isFirstCell(entry, cell, minCellX, minCellY)) {
+            visitor.visit(entry.id);
+          }
+        }
+      }
+    } else {
+      for (int x = minCellX; x <= maxCellX; x++) {
+        for (int y = minCellY; y <= maxCellY; y++) {
+          List<Entry> cell = cells.get(cellKey(x, y));
+          if (cell == null) {
+            continue;
+          }
+
+          for (Entry entry : cell) {
+            // an entry is reported from the first cell it shares with the query only
+            if (x == Math.max(entry.minCellX, minCellX) && y == Math.max(entry.minCellY, minCellY)
+              && entry.intersects(west, south, east, north)) {
+              visitor.visit(entry.id);
+            }
+          }
+        }
+      }
+    }
+
+    for (Entry entry : largeEntries) {
+      if (entry.intersects(west, south, east, north)) {
+        visitor.visit(entry.id);
+      }
+    }
+  }
+
+  /**
+   * Get the ids of all entries whose bounding box intersects the given bounding box. A western longitude greater
+   * than the eastern longitude denotes a bounding box crossing the antimeridian.
+   *
+   * @param west  the western longitude of the bounding box
+   * @param south the southern latitude of the bounding box
+   * @param east  the eastern longitude of the bounding box
+   * @param north the northern latitude of the bounding box
+   * @return the ids in ascending order
+   */
+  @NonNull
+  long[] queryIds(double west, double south, double east, double north) {
+    IdCollector collector = new IdCollector();
+    if (west > east) {
+      query(west, south, 180, north, collector);
+      query(-180, south, east, north, collector);
+    } else {
+      query(west, south, east, north, collector);
+    }
+    return collector.getSortedIds();
+  }
+
+  private boolean isFirstCell(Entry entry, List<Entry> cell, int minCellX, int minCellY) {
+    return cells.get(cellKey(Math.max(entry.minCellX, minCellX), Math.max(entry.minCellY, minCellY))) == cell;
+  }
+
+  private boolean isLarge(Entry entry) {
+    return (long) (entry.maxCellX - entry.minCellX + 1) * (entry.maxCellY - entry.minCellY + 1) > MAX_CELLS_PER_ENTRY;
+  }
+
+  private int cell(double degrees) {
+    return (int) Math.floor(degrees / cellSize);
+  }
+
+  private static long cellKey(int x, int y) {
+    return ((long) x << 32) | (y & 0xffffffffL);
+  }
+
+  private static class IdCollector implements Visitor {
+
+    private long[] ids = new long[16];
+    private int size;
+
+    @Override
+    public void visit(long id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+
+    @NonNull
+    long[] getSortedIds() {
+      Arrays.sort(ids, 0, size);
+      // entries crossing the antimeridian are visited by both queries
+      int unique = 0;
+      for (int i = 0; i < size; i++) {
+        if (unique == 0 || ids[i] != ids[unique - 1]) {
+          ids[unique++] = ids[i];
+        }
+      }
+      return Arrays.copyOf(ids, unique);
+    }
+  }
+
+  private class Entry {
+    final long id;
+    final double west;
+    final double south;
+    final double east;
+    final double north;
+    final int minCellX;
+    final int minCellY;
+    final int maxCellX;
+    final int maxCellY;
+
+    Entry(long id, double west, double south, double east, double north) {
+      this.id = id;
+      this.west = west;
+      this.south = south;
+      this.east = east;
+      this.north = north;
+      minCellX = cell(west);
+      minCellY = cell(south);
+      maxCellX = cell(east);
+      maxCellY = cell(north);
+    }
+
+    boolean intersects(double west, double south, double east, double north) {
+      return this.west <= east && this.east >= west && this.south <= north && this.north >= south;
+    }
+  }
+}
@@ -5,8 +5,6 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 import android.support.annotation.ColorInt;
 import android.graphics.PointF;
 import android.support.annotation.UiThread;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
@@ -42,85 +40,8 @@ public class Symbol extends Annotation<Point> {
   }
 
   @Override
-  void setUsedDataDrivenProperties() {
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconSize) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconSize);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconImage) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconImage);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconRotate) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconRotate);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconOffset) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconOffset);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconAnchor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconAnchor);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textField) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textField);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textFont) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textFont);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textSize) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textSize);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textMaxWidth) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textMaxWidth);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textLetterSpacing) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textLetterSpacing);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textJustify) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textJustify);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textAnchor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textAnchor);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textRotate) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textRotate);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textTransform) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textTransform);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textOffset) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textOffset);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconOpacity) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconOpacity);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconColor);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconHaloColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconHaloColor);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconHaloWidth) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconHaloWidth);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_iconHaloBlur) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_iconHaloBlur);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textOpacity) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textOpacity);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textColor);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textHaloColor) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textHaloColor);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textHaloWidth) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textHaloWidth);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_textHaloBlur) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_textHaloBlur);
-    }
-    if (!(jsonObject.get(SymbolOptions.PROPERTY_zIndex) instanceof JsonNull)) {
-      annotationManager.enableDataDrivenProperty(SymbolOptions.PROPERTY_zIndex);
-    }
+  void onPropertySet(@NonNull String key) {
+    annotationManager.enableDataDrivenProperty(key);
   }
 
   /**
@@ -157,7 +78,7 @@ public class Symbol extends Annotation<Point> {
    * @param index the z-index value
    */
   public void setZIndex(int index) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_zIndex, index);
+    setIntProperty(SymbolOptions.PROPERTY_zIndex, index);
   }
 
   /**
@@ -166,7 +87,30 @@ public class Symbol extends Annotation<Point> {
    * @return the z-index value, 0 if not set
    */
   public int getZIndex() {
-    return jsonObject.get(SymbolOptions.PROPERTY_zIndex).getAsInt();
+    return getIntProperty(SymbolOptions.PROPERTY_zIndex);
+  }
+
+  @Override
+  int getSourceZIndex() {
+    return isPropertySet(SymbolOptions.PROPERTY_zIndex) ? getZIndex() : 0;
+  }
+
+  @Override
+  float getRenderedRadius(float tolerance) {
+    // icon images are of unknown size, the tolerance stands for an icon at its default size
+    return isPropertySet(SymbolOptions.PROPERTY_iconSize) ? tolerance * (getIconSize() - 1) : 0;
+  }
+
+  @Override
+  @Nullable
+  PointF getRenderedOffset() {
+    if (!isPropertySet(SymbolOptions.PROPERTY_iconOffset)) {
+      return null;
+    }
+    float scale = isPropertySet(SymbolOptions.PROPERTY_iconSize) ? getIconSize() : 1;
+    PointF offset = getIconOffset();
+    offset.set(offset.x * scale, offset.y * scale);
+    return offset;
   }
 
   // Property accessors
@@ -180,7 +124,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getIconSize() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconSize).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_iconSize);
   }
 
   /**
@@ -195,7 +139,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setIconSize(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconSize, value);
+    setFloatProperty(SymbolOptions.PROPERTY_iconSize, value);
   }
 
   /**
@@ -207,7 +151,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String
    */
   public String getIconImage() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconImage).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_iconImage);
   }
 
   /**
@@ -222,7 +166,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String
    */
   public void setIconImage(String value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconImage, value);
+    setStringProperty(SymbolOptions.PROPERTY_iconImage, value);
   }
 
   /**
@@ -234,7 +178,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getIconRotate() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconRotate).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_iconRotate);
   }
 
   /**
@@ -249,7 +193,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setIconRotate(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconRotate, value);
+    setFloatProperty(SymbolOptions.PROPERTY_iconRotate, value);
   }
 
   /**
@@ -261,8 +205,8 @@ public class Symbol extends Annotation<Point> {
    * @return PointF value for Float[]
    */
   public PointF getIconOffset() {
-    JsonArray jsonArray = jsonObject.getAsJsonArray(SymbolOptions.PROPERTY_iconOffset);
-    return new PointF(jsonArray.get(0).getAsFloat(), jsonArray.get(1).getAsFloat());
+    Float[] value = getFloatArrayProperty(SymbolOptions.PROPERTY_iconOffset);
+    return new PointF(value[0], value[1]);
   }
 
   /**
@@ -277,10 +221,7 @@ public class Symbol extends Annotation<Point> {
    * @param pointF value for Float[]
    */
   public void setIconOffset(PointF pointF) {
-    JsonArray jsonArray = new JsonArray();
-    jsonArray.add(pointF.x);
-    jsonArray.add(pointF.y);
-    jsonObject.add(SymbolOptions.PROPERTY_iconOffset, jsonArray);
+    setArrayProperty(SymbolOptions.PROPERTY_iconOffset, new Float[] {pointF.x, pointF.y});
   }
 
   /**
@@ -292,7 +233,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String
    */
   public String getIconAnchor() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconAnchor).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_iconAnchor);
   }
 
   /**
@@ -307,7 +248,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String
    */
   public void setIconAnchor(@Property.ICON_ANCHOR String value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconAnchor, value);
+    setStringProperty(SymbolOptions.PROPERTY_iconAnchor, value);
   }
 
   /**
@@ -319,7 +260,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String
    */
   public String getTextField() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textField).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_textField);
   }
 
   /**
@@ -334,7 +275,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String
    */
   public void setTextField(String value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textField, value);
+    setStringProperty(SymbolOptions.PROPERTY_textField, value);
   }
 
   /**
@@ -346,12 +287,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String[]
    */
   public String[] getTextFont() {
-    JsonArray jsonArray = jsonObject.getAsJsonArray(SymbolOptions.PROPERTY_textFont);
-    String[] value = new String[jsonArray.size()];
-    for (int i = 0; i < jsonArray.size(); i++) {
-      value[i] = jsonArray.get(i).getAsString();
-    }
-    return value;
+    return getStringArrayProperty(SymbolOptions.PROPERTY_textFont);
   }
 
   /**
@@ -366,11 +302,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String[]
    */
   public void setTextFont(String[] value) {
-    JsonArray jsonArray = new JsonArray();
-    for (String element : value) {
-      jsonArray.add(element);
-    }
-    jsonObject.add(SymbolOptions.PROPERTY_textFont, jsonArray);
+    setArrayProperty(SymbolOptions.PROPERTY_textFont, value);
   }
 
   /**
@@ -382,7 +314,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextSize() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textSize).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textSize);
   }
 
   /**
@@ -397,7 +329,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextSize(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textSize, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textSize, value);
   }
 
   /**
@@ -409,7 +341,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextMaxWidth() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textMaxWidth).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textMaxWidth);
   }
 
   /**
@@ -424,7 +356,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextMaxWidth(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textMaxWidth, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textMaxWidth, value);
   }
 
   /**
@@ -436,7 +368,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextLetterSpacing() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textLetterSpacing).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textLetterSpacing);
   }
 
   /**
@@ -451,7 +383,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextLetterSpacing(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textLetterSpacing, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textLetterSpacing, value);
   }
 
   /**
@@ -463,7 +395,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String
    */
   public String getTextJustify() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textJustify).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_textJustify);
   }
 
   /**
@@ -478,7 +410,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String
    */
   public void setTextJustify(@Property.TEXT_JUSTIFY String value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textJustify, value);
+    setStringProperty(SymbolOptions.PROPERTY_textJustify, value);
   }
 
   /**
@@ -490,7 +422,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String
    */
   public String getTextAnchor() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textAnchor).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_textAnchor);
   }
 
   /**
@@ -505,7 +437,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String
    */
   public void setTextAnchor(@Property.TEXT_ANCHOR String value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textAnchor, value);
+    setStringProperty(SymbolOptions.PROPERTY_textAnchor, value);
   }
 
   /**
@@ -517,7 +449,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextRotate() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textRotate).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textRotate);
   }
 
   /**
@@ -532,7 +464,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextRotate(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textRotate, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textRotate, value);
   }
 
   /**
@@ -544,7 +476,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around String
    */
   public String getTextTransform() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textTransform).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_textTransform);
   }
 
   /**
@@ -559,7 +491,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for String
    */
   public void setTextTransform(@Property.TEXT_TRANSFORM String value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textTransform, value);
+    setStringProperty(SymbolOptions.PROPERTY_textTransform, value);
   }
 
   /**
@@ -571,8 +503,8 @@ public class Symbol extends Annotation<Point> {
    * @return PointF value for Float[]
    */
   public PointF getTextOffset() {
-    JsonArray jsonArray = jsonObject.getAsJsonArray(SymbolOptions.PROPERTY_textOffset);
-    return new PointF(jsonArray.get(0).getAsFloat(), jsonArray.get(1).getAsFloat());
+    Float[] value = getFloatArrayProperty(SymbolOptions.PROPERTY_textOffset);
+    return new PointF(value[0], value[1]);
   }
 
   /**
@@ -587,10 +519,7 @@ public class Symbol extends Annotation<Point> {
    * @param pointF value for Float[]
    */
   public void setTextOffset(PointF pointF) {
-    JsonArray jsonArray = new JsonArray();
-    jsonArray.add(pointF.x);
-    jsonArray.add(pointF.y);
-    jsonObject.add(SymbolOptions.PROPERTY_textOffset, jsonArray);
+    setArrayProperty(SymbolOptions.PROPERTY_textOffset, new Float[] {pointF.x, pointF.y});
   }
 
   /**
@@ -602,7 +531,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getIconOpacity() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconOpacity).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_iconOpacity);
   }
 
   /**
@@ -617,7 +546,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setIconOpacity(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconOpacity, value);
+    setFloatProperty(SymbolOptions.PROPERTY_iconOpacity, value);
   }
 
   /**
@@ -630,7 +559,7 @@ public class Symbol extends Annotation<Point> {
    */
   @ColorInt
   public int getIconColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(SymbolOptions.PROPERTY_iconColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(SymbolOptions.PROPERTY_iconColor));
   }
 
   /**
@@ -642,7 +571,7 @@ public class Symbol extends Annotation<Point> {
    * @return color value for String
    */
   public String getIconColor() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconColor).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_iconColor);
   }
 
   /**
@@ -657,7 +586,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setIconColor(@ColorInt int color) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(SymbolOptions.PROPERTY_iconColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -672,7 +601,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setIconColor(@NonNull String color) {
-    jsonObject.addProperty("icon-color", color);
+    setStringProperty(SymbolOptions.PROPERTY_iconColor, color);
   }
 
   /**
@@ -685,7 +614,7 @@ public class Symbol extends Annotation<Point> {
    */
   @ColorInt
   public int getIconHaloColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(SymbolOptions.PROPERTY_iconHaloColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(SymbolOptions.PROPERTY_iconHaloColor));
   }
 
   /**
@@ -697,7 +626,7 @@ public class Symbol extends Annotation<Point> {
    * @return color value for String
    */
   public String getIconHaloColor() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconHaloColor).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_iconHaloColor);
   }
 
   /**
@@ -712,7 +641,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setIconHaloColor(@ColorInt int color) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconHaloColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(SymbolOptions.PROPERTY_iconHaloColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -727,7 +656,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setIconHaloColor(@NonNull String color) {
-    jsonObject.addProperty("icon-halo-color", color);
+    setStringProperty(SymbolOptions.PROPERTY_iconHaloColor, color);
   }
 
   /**
@@ -739,7 +668,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getIconHaloWidth() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconHaloWidth).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_iconHaloWidth);
   }
 
   /**
@@ -754,7 +683,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setIconHaloWidth(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconHaloWidth, value);
+    setFloatProperty(SymbolOptions.PROPERTY_iconHaloWidth, value);
   }
 
   /**
@@ -766,7 +695,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getIconHaloBlur() {
-    return jsonObject.get(SymbolOptions.PROPERTY_iconHaloBlur).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_iconHaloBlur);
   }
 
   /**
@@ -781,7 +710,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setIconHaloBlur(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_iconHaloBlur, value);
+    setFloatProperty(SymbolOptions.PROPERTY_iconHaloBlur, value);
   }
 
   /**
@@ -793,7 +722,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextOpacity() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textOpacity).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textOpacity);
   }
 
   /**
@@ -808,7 +737,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextOpacity(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textOpacity, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textOpacity, value);
   }
 
   /**
@@ -821,7 +750,7 @@ public class Symbol extends Annotation<Point> {
    */
   @ColorInt
   public int getTextColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(SymbolOptions.PROPERTY_textColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(SymbolOptions.PROPERTY_textColor));
   }
 
   /**
@@ -833,7 +762,7 @@ public class Symbol extends Annotation<Point> {
    * @return color value for String
    */
   public String getTextColor() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textColor).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_textColor);
   }
 
   /**
@@ -848,7 +777,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setTextColor(@ColorInt int color) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(SymbolOptions.PROPERTY_textColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -863,7 +792,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setTextColor(@NonNull String color) {
-    jsonObject.addProperty("text-color", color);
+    setStringProperty(SymbolOptions.PROPERTY_textColor, color);
   }
 
   /**
@@ -876,7 +805,7 @@ public class Symbol extends Annotation<Point> {
    */
   @ColorInt
   public int getTextHaloColorAsInt() {
-    return ColorUtils.rgbaToColor(jsonObject.get(SymbolOptions.PROPERTY_textHaloColor).getAsString());
+    return ColorUtils.rgbaToColor(getStringProperty(SymbolOptions.PROPERTY_textHaloColor));
   }
 
   /**
@@ -888,7 +817,7 @@ public class Symbol extends Annotation<Point> {
    * @return color value for String
    */
   public String getTextHaloColor() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textHaloColor).getAsString();
+    return getStringProperty(SymbolOptions.PROPERTY_textHaloColor);
   }
 
   /**
@@ -903,7 +832,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setTextHaloColor(@ColorInt int color) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textHaloColor, ColorUtils.colorToRgbaString(color));
+    setStringProperty(SymbolOptions.PROPERTY_textHaloColor, ColorUtils.colorToRgbaString(color));
   }
 
   /**
@@ -918,7 +847,7 @@ public class Symbol extends Annotation<Point> {
    * @param color value for String
    */
   public void setTextHaloColor(@NonNull String color) {
-    jsonObject.addProperty("text-halo-color", color);
+    setStringProperty(SymbolOptions.PROPERTY_textHaloColor, color);
   }
 
   /**
@@ -930,7 +859,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextHaloWidth() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textHaloWidth).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textHaloWidth);
   }
 
   /**
@@ -945,7 +874,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextHaloWidth(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textHaloWidth, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textHaloWidth, value);
   }
 
   /**
@@ -957,7 +886,7 @@ public class Symbol extends Annotation<Point> {
    * @return property wrapper value around Float
    */
   public Float getTextHaloBlur() {
-    return jsonObject.get(SymbolOptions.PROPERTY_textHaloBlur).getAsFloat();
+    return getFloatProperty(SymbolOptions.PROPERTY_textHaloBlur);
   }
 
   /**
@@ -972,7 +901,7 @@ public class Symbol extends Annotation<Point> {
    * @param value constant property value for Float
    */
   public void setTextHaloBlur(Float value) {
-    jsonObject.addProperty(SymbolOptions.PROPERTY_textHaloBlur, value);
+    setFloatProperty(SymbolOptions.PROPERTY_textHaloBlur, value);
   }
 
   @Override
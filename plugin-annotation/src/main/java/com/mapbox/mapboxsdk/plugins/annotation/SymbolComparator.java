@@ -4,6 +4,12 @@ import com.mapbox.geojson.Feature;
 
 import java.util.Comparator;
 
+/**
+ * Comparator ordering symbol features by z-index.
+ *
+ * @deprecated symbols are kept ordered by z-index by {@link SymbolManager} without sorting
+ */
+@Deprecated
 public class SymbolComparator implements Comparator<Feature> {
   @Override
   public int compare(Feature left, Feature right) {
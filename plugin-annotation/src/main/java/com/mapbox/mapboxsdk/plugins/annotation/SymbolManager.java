@@ -7,12 +7,16 @@ import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 import android.support.annotation.VisibleForTesting;
 
+import com.google.gson.JsonObject;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.Point;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
 import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.mapboxsdk.style.layers.PropertyValue;
 import com.mapbox.mapboxsdk.style.layers.PropertyFactory;
@@ -20,6 +24,7 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.style.layers.Property;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +38,10 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
 
   public static final String ID_GEOJSON_SOURCE = "mapbox-android-symbol-source";
   public static final String ID_GEOJSON_LAYER = "mapbox-android-symbol-layer";
+  public static final String ID_GEOJSON_DRAG_SOURCE = "mapbox-android-symbol-drag-source";
+  public static final String ID_GEOJSON_DRAG_LAYER = "mapbox-android-symbol-drag-layer";
+  public static final String ID_GEOJSON_CLUSTER_LAYER = "mapbox-android-symbol-cluster-layer";
+  public static final String ID_GEOJSON_CLUSTER_COUNT_LAYER = "mapbox-android-symbol-cluster-count-layer";
 
   private static final String PROPERTY_symbolPlacement = "symbol-placement";
   private static final String PROPERTY_symbolSpacing = "symbol-spacing";
@@ -93,6 +102,20 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
    */
   @UiThread
   public SymbolManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions) {
+    this(mapView, mapboxMap, style, belowLayerId, geoJsonOptions, null);
+  }
+
+  /**
+   * Create a symbol manager, used to manage symbols.
+   *
+   * @param mapboxMap the map object to add symbols to
+   * @param style a valid a fully loaded style object
+   * @param belowLayerId the id of the layer above the circle layer
+   * @param geoJsonOptions options for the internal source
+   * @param clusterOptions options for clustering the symbols, null to not cluster symbols
+   */
+  @UiThread
+  public SymbolManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, @Nullable ClusterOptions clusterOptions) {
     this(mapView, mapboxMap, style,
       new CoreElementProvider<SymbolLayer>() {
         @Override
@@ -108,13 +131,52 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
             return new GeoJsonSource(ID_GEOJSON_SOURCE);
           }
         }
+
+        @Override
+        public SymbolLayer getShardLayer(int shard) {
+          return new SymbolLayer(ID_GEOJSON_LAYER + "-" + shard, ID_GEOJSON_SOURCE + "-" + shard);
+        }
+
+        @Override
+        public GeoJsonSource getShardSource(int shard, @Nullable GeoJsonOptions geoJsonOptions) {
+          if (geoJsonOptions != null) {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard, geoJsonOptions);
+          } else {
+            return new GeoJsonSource(ID_GEOJSON_SOURCE + "-" + shard);
+          }
+        }
+
+        @Override
+        public SymbolLayer getDragLayer() {
+          return new SymbolLayer(ID_GEOJSON_DRAG_LAYER, ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public GeoJsonSource getDragSource() {
+          return new GeoJsonSource(ID_GEOJSON_DRAG_SOURCE);
+        }
+
+        @Override
+        public CircleLayer getClusterLayer() {
+          return new CircleLayer(ID_GEOJSON_CLUSTER_LAYER, ID_GEOJSON_SOURCE);
+        }
+
+        @Override
+        public SymbolLayer getClusterCountLayer() {
+          return new SymbolLayer(ID_GEOJSON_CLUSTER_COUNT_LAYER, ID_GEOJSON_SOURCE);
+        }
       },
-     belowLayerId, geoJsonOptions, new DraggableAnnotationController<>(mapView, mapboxMap));
+     belowLayerId, geoJsonOptions, clusterOptions, new DraggableAnnotationController<>(mapView, mapboxMap));
   }
 
   @VisibleForTesting
   SymbolManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @NonNull CoreElementProvider<SymbolLayer> coreElementProvider, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController) {
-    super(mapView, mapboxMap, style, coreElementProvider, new SymbolComparator(), draggableAnnotationController, belowLayerId, geoJsonOptions);
+    this(mapView, mapboxMap, style, coreElementProvider, belowLayerId, geoJsonOptions, null, draggableAnnotationController);
+  }
+
+  @VisibleForTesting
+  SymbolManager(@NonNull MapView mapView, @NonNull MapboxMap mapboxMap, @NonNull Style style, @NonNull CoreElementProvider<SymbolLayer> coreElementProvider, @Nullable String belowLayerId, @Nullable GeoJsonOptions geoJsonOptions, @Nullable ClusterOptions clusterOptions, DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController) {
+    super(mapView, mapboxMap, style, coreElementProvider, null, draggableAnnotationController, belowLayerId, geoJsonOptions, clusterOptions);
   }
 
   @Override
@@ -148,85 +210,85 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
   }
 
   @Override
-  protected void setDataDrivenPropertyIsUsed(@NonNull String property) {
+  protected void setDataDrivenPropertyIsUsed(@NonNull String property, @NonNull SymbolLayer targetLayer) {
     switch (property) {
       case SymbolOptions.PROPERTY_iconSize:
-        layer.setProperties(iconSize(get(SymbolOptions.PROPERTY_iconSize)));
+        targetLayer.setProperties(iconSize(get(SymbolOptions.PROPERTY_iconSize)));
         break;
       case SymbolOptions.PROPERTY_iconImage:
-        layer.setProperties(iconImage(get(SymbolOptions.PROPERTY_iconImage)));
+        targetLayer.setProperties(iconImage(get(SymbolOptions.PROPERTY_iconImage)));
         break;
       case SymbolOptions.PROPERTY_iconRotate:
-        layer.setProperties(iconRotate(get(SymbolOptions.PROPERTY_iconRotate)));
+        targetLayer.setProperties(iconRotate(get(SymbolOptions.PROPERTY_iconRotate)));
         break;
       case SymbolOptions.PROPERTY_iconOffset:
-        layer.setProperties(iconOffset(get(SymbolOptions.PROPERTY_iconOffset)));
+        targetLayer.setProperties(iconOffset(get(SymbolOptions.PROPERTY_iconOffset)));
         break;
       case SymbolOptions.PROPERTY_iconAnchor:
-        layer.setProperties(iconAnchor(get(SymbolOptions.PROPERTY_iconAnchor)));
+        targetLayer.setProperties(iconAnchor(get(SymbolOptions.PROPERTY_iconAnchor)));
         break;
       case SymbolOptions.PROPERTY_textField:
-        layer.setProperties(textField(get(SymbolOptions.PROPERTY_textField)));
+        targetLayer.setProperties(textField(get(SymbolOptions.PROPERTY_textField)));
         break;
       case SymbolOptions.PROPERTY_textFont:
-        layer.setProperties(textFont(get(SymbolOptions.PROPERTY_textFont)));
+        targetLayer.setProperties(textFont(get(SymbolOptions.PROPERTY_textFont)));
         break;
       case SymbolOptions.PROPERTY_textSize:
-        layer.setProperties(textSize(get(SymbolOptions.PROPERTY_textSize)));
+        targetLayer.setProperties(textSize(get(SymbolOptions.PROPERTY_textSize)));
         break;
       case SymbolOptions.PROPERTY_textMaxWidth:
-        layer.setProperties(textMaxWidth(get(SymbolOptions.PROPERTY_textMaxWidth)));
+        targetLayer.setProperties(textMaxWidth(get(SymbolOptions.PROPERTY_textMaxWidth)));
         break;
       case SymbolOptions.PROPERTY_textLetterSpacing:
-        layer.setProperties(textLetterSpacing(get(SymbolOptions.PROPERTY_textLetterSpacing)));
+        targetLayer.setProperties(textLetterSpacing(get(SymbolOptions.PROPERTY_textLetterSpacing)));
         break;
       case SymbolOptions.PROPERTY_textJustify:
-        layer.setProperties(textJustify(get(SymbolOptions.PROPERTY_textJustify)));
+        targetLayer.setProperties(textJustify(get(SymbolOptions.PROPERTY_textJustify)));
         break;
       case SymbolOptions.PROPERTY_textAnchor:
-        layer.setProperties(textAnchor(get(SymbolOptions.PROPERTY_textAnchor)));
+        targetLayer.setProperties(textAnchor(get(SymbolOptions.PROPERTY_textAnchor)));
         break;
       case SymbolOptions.PROPERTY_textRotate:
-        layer.setProperties(textRotate(get(SymbolOptions.PROPERTY_textRotate)));
+        targetLayer.setProperties(textRotate(get(SymbolOptions.PROPERTY_textRotate)));
         break;
       case SymbolOptions.PROPERTY_textTransform:
-        layer.setProperties(textTransform(get(SymbolOptions.PROPERTY_textTransform)));
+        targetLayer.setProperties(textTransform(get(SymbolOptions.PROPERTY_textTransform)));
         break;
       case SymbolOptions.PROPERTY_textOffset:
-        layer.setProperties(textOffset(get(SymbolOptions.PROPERTY_textOffset)));
+        targetLayer.setProperties(textOffset(get(SymbolOptions.PROPERTY_textOffset)));
         break;
       case SymbolOptions.PROPERTY_iconOpacity:
-        layer.setProperties(iconOpacity(get(SymbolOptions.PROPERTY_iconOpacity)));
+        targetLayer.setProperties(iconOpacity(get(SymbolOptions.PROPERTY_iconOpacity)));
         break;
       case SymbolOptions.PROPERTY_iconColor:
-        layer.setProperties(iconColor(get(SymbolOptions.PROPERTY_iconColor)));
+        targetLayer.setProperties(iconColor(get(SymbolOptions.PROPERTY_iconColor)));
         break;
       case SymbolOptions.PROPERTY_iconHaloColor:
-        layer.setProperties(iconHaloColor(get(SymbolOptions.PROPERTY_iconHaloColor)));
+        targetLayer.setProperties(iconHaloColor(get(SymbolOptions.PROPERTY_iconHaloColor)));
         break;
       case SymbolOptions.PROPERTY_iconHaloWidth:
-        layer.setProperties(iconHaloWidth(get(SymbolOptions.PROPERTY_iconHaloWidth)));
+        targetLayer.setProperties(iconHaloWidth(get(SymbolOptions.PROPERTY_iconHaloWidth)));
         break;
       case SymbolOptions.PROPERTY_iconHaloBlur:
-        layer.setProperties(iconHaloBlur(get(SymbolOptions.PROPERTY_iconHaloBlur)));
+        targetLayer.setProperties(iconHaloBlur(get(SymbolOptions.PROPERTY_iconHaloBlur)));
         break;
       case SymbolOptions.PROPERTY_textOpacity:
-        layer.setProperties(textOpacity(get(SymbolOptions.PROPERTY_textOpacity)));
+        targetLayer.setProperties(textOpacity(get(SymbolOptions.PROPERTY_textOpacity)));
         break;
       case SymbolOptions.PROPERTY_textColor:
-        layer.setProperties(textColor(get(SymbolOptions.PROPERTY_textColor)));
+        targetLayer.setProperties(textColor(get(SymbolOptions.PROPERTY_textColor)));
         break;
       case SymbolOptions.PROPERTY_textHaloColor:
-        layer.setProperties(textHaloColor(get(SymbolOptions.PROPERTY_textHaloColor)));
+        targetLayer.setProperties(textHaloColor(get(SymbolOptions.PROPERTY_textHaloColor)));
         break;
       case SymbolOptions.PROPERTY_textHaloWidth:
-        layer.setProperties(textHaloWidth(get(SymbolOptions.PROPERTY_textHaloWidth)));
+        targetLayer.setProperties(textHaloWidth(get(SymbolOptions.PROPERTY_textHaloWidth)));
         break;
       case SymbolOptions.PROPERTY_textHaloBlur:
-        layer.setProperties(textHaloBlur(get(SymbolOptions.PROPERTY_textHaloBlur)));
+        targetLayer.setProperties(textHaloBlur(get(SymbolOptions.PROPERTY_textHaloBlur)));
         break;
       case SymbolOptions.PROPERTY_zIndex:
-        layer.setProperties(symbolZOrder(Property.SYMBOL_Z_ORDER_SOURCE));
+        targetLayer.setProperties(symbolZOrder(Property.SYMBOL_Z_ORDER_SOURCE));
         break;
     }
   }
@@ -267,6 +329,9 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
    * Out of spec properties:<br>
    * "z-index" - Integer, z-index of the feature within the manager<br>
    * "is-draggable" - Boolean, true if the symbol should be draggable, false otherwise
+   * <p>
+   * Large collections should be imported with {@link #importGeoJson(InputStream, OnAnnotationImportListener)}
+   * instead, which doesn't need to keep the whole collection in memory.
    *
    * @param json the GeoJSON defining the list of symbols to build
    * @return the list of built symbols
@@ -331,6 +396,17 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     return create(options);
   }
 
+  @Override
+  @Nullable
+  SymbolOptions optionsFromFeature(@NonNull Feature feature) {
+    return SymbolOptions.fromFeature(feature);
+  }
+
+  @Override
+  Symbol createAnnotation(long id, @NonNull JsonObject properties, @NonNull Geometry geometry) {
+    return new Symbol(id, this, properties, (Point) geometry);
+  }
+
   /**
    * Get the layer id of the annotation layer.
    *
@@ -376,6 +452,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = symbolPlacement(value);
     constantPropertyUsageMap.put(PROPERTY_symbolPlacement, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -402,6 +484,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = symbolSpacing(value);
     constantPropertyUsageMap.put(PROPERTY_symbolSpacing, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -428,6 +516,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = symbolAvoidEdges(value);
     constantPropertyUsageMap.put(PROPERTY_symbolAvoidEdges, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -454,6 +548,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconAllowOverlap(value);
     constantPropertyUsageMap.put(PROPERTY_iconAllowOverlap, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -480,6 +580,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconIgnorePlacement(value);
     constantPropertyUsageMap.put(PROPERTY_iconIgnorePlacement, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -506,6 +612,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconOptional(value);
     constantPropertyUsageMap.put(PROPERTY_iconOptional, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -532,6 +644,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconRotationAlignment(value);
     constantPropertyUsageMap.put(PROPERTY_iconRotationAlignment, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -558,6 +676,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconTextFit(value);
     constantPropertyUsageMap.put(PROPERTY_iconTextFit, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -584,6 +708,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconTextFitPadding(value);
     constantPropertyUsageMap.put(PROPERTY_iconTextFitPadding, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -610,6 +740,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconPadding(value);
     constantPropertyUsageMap.put(PROPERTY_iconPadding, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -636,6 +772,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconKeepUpright(value);
     constantPropertyUsageMap.put(PROPERTY_iconKeepUpright, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -662,6 +804,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconPitchAlignment(value);
     constantPropertyUsageMap.put(PROPERTY_iconPitchAlignment, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -688,6 +836,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textPitchAlignment(value);
     constantPropertyUsageMap.put(PROPERTY_textPitchAlignment, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -714,6 +868,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textRotationAlignment(value);
     constantPropertyUsageMap.put(PROPERTY_textRotationAlignment, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -740,6 +900,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textLineHeight(value);
     constantPropertyUsageMap.put(PROPERTY_textLineHeight, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -766,6 +932,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textMaxAngle(value);
     constantPropertyUsageMap.put(PROPERTY_textMaxAngle, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -792,6 +964,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textPadding(value);
     constantPropertyUsageMap.put(PROPERTY_textPadding, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -818,6 +996,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textKeepUpright(value);
     constantPropertyUsageMap.put(PROPERTY_textKeepUpright, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -844,6 +1028,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textAllowOverlap(value);
     constantPropertyUsageMap.put(PROPERTY_textAllowOverlap, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -870,6 +1060,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textIgnorePlacement(value);
     constantPropertyUsageMap.put(PROPERTY_textIgnorePlacement, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -896,6 +1092,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textOptional(value);
     constantPropertyUsageMap.put(PROPERTY_textOptional, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -922,6 +1124,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconTranslate(value);
     constantPropertyUsageMap.put(PROPERTY_iconTranslate, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -948,6 +1156,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = iconTranslateAnchor(value);
     constantPropertyUsageMap.put(PROPERTY_iconTranslateAnchor, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -974,6 +1188,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textTranslate(value);
     constantPropertyUsageMap.put(PROPERTY_textTranslate, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -1000,6 +1220,12 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
     PropertyValue propertyValue = textTranslateAnchor(value);
     constantPropertyUsageMap.put(PROPERTY_textTranslateAnchor, propertyValue);
     layer.setProperties(propertyValue);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setProperties(propertyValue);
+    }
+    if (dragLayer != null) {
+      dragLayer.setProperties(propertyValue);
+    }
   }
 
   /**
@@ -1010,16 +1236,28 @@ public class SymbolManager extends AnnotationManager<SymbolLayer, Symbol, Symbol
    @Override
   public void setFilter(@NonNull Expression expression) {
     layerFilter = expression;
-    layer.setFilter(layerFilter);
+    setLayerFilter(applyManagedFilters(layerFilter));
+  }
+
+  @Override
+  void setLayerFilter(@NonNull Expression filter) {
+    layer.setFilter(filter);
+    for (SymbolLayer shardLayer : shardLayers) {
+      shardLayer.setFilter(filter);
+    }
   }
 
   /**
-   * Get filter of the managed symbols.
+   * Get filter of the managed symbols, as set with {@link #setFilter(Expression)}.
+   * <p>
+   * The filter set on the layer also hides clusters and the groups hidden with
+   * {@link #setGroupVisible(String, boolean)}, those parts aren't returned.
+   * </p>
    *
    * @return expression
    */
   @Nullable
   public Expression getFilter() {
-    return layer.getFilter();
+    return layerFilter;
   }
 }
@@ -53,6 +53,7 @@ public class SymbolOptions extends Options<Symbol> {
   private Float textHaloWidth;
   private Float textHaloBlur;
   private int zIndex;
+  private String group;
 
   static final String PROPERTY_iconSize = "icon-size";
   static final String PROPERTY_iconImage = "icon-image";
@@ -747,8 +748,30 @@ public class SymbolOptions extends Options<Symbol> {
     return this;
   }
 
+  /**
+   * Get the group to initialise the symbol with.
+   *
+   * @return the group, null if the symbol isn't part of a group
+   */
+  @Nullable
+  public String getGroup() {
+    return group;
+  }
+
+  /**
+   * Set the group to initialise the symbol with, all annotations of a group are shown or hidden at once with
+   * {@link AnnotationManager#setGroupVisible(String, boolean)}.
+   *
+   * @param group the group of the symbol
+   * @return this
+   */
+  public SymbolOptions withGroup(@Nullable String group) {
+    this.group = group;
+    return this;
+  }
+
   @Override
-  Symbol build(long id, AnnotationManager<?, Symbol, ?, ?, ?, ?> annotationManager) {
+  Symbol buildAnnotation(long id, AnnotationManager<?, Symbol, ?, ?, ?, ?> annotationManager) {
     if (geometry == null) {
       throw new RuntimeException("geometry field is required");
     }
@@ -779,11 +802,94 @@ public class SymbolOptions extends Options<Symbol> {
     jsonObject.addProperty(PROPERTY_textHaloWidth, textHaloWidth);
     jsonObject.addProperty(PROPERTY_textHaloBlur, textHaloBlur);
     jsonObject.addProperty(PROPERTY_zIndex, zIndex);
+    if (group != null) {
+      jsonObject.addProperty(Annotation.GROUP_KEY, group);
+    }
     Symbol symbol = new Symbol(id, annotationManager, jsonObject, geometry);
     symbol.setDraggable(isDraggable);
     return symbol;
   }
 
+  @Override
+  void enableDataDrivenProperties(AnnotationManager<?, Symbol, ?, ?, ?, ?> annotationManager) {
+    if (iconSize != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconSize);
+    }
+    if (iconImage != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconImage);
+    }
+    if (iconRotate != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconRotate);
+    }
+    if (iconOffset != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconOffset);
+    }
+    if (iconAnchor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconAnchor);
+    }
+    if (textField != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textField);
+    }
+    if (textFont != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textFont);
+    }
+    if (textSize != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textSize);
+    }
+    if (textMaxWidth != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textMaxWidth);
+    }
+    if (textLetterSpacing != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textLetterSpacing);
+    }
+    if (textJustify != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textJustify);
+    }
+    if (textAnchor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textAnchor);
+    }
+    if (textRotate != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textRotate);
+    }
+    if (textTransform != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textTransform);
+    }
+    if (textOffset != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textOffset);
+    }
+    if (iconOpacity != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconOpacity);
+    }
+    if (iconColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconColor);
+    }
+    if (iconHaloColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconHaloColor);
+    }
+    if (iconHaloWidth != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconHaloWidth);
+    }
+    if (iconHaloBlur != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_iconHaloBlur);
+    }
+    if (textOpacity != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textOpacity);
+    }
+    if (textColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textColor);
+    }
+    if (textHaloColor != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textHaloColor);
+    }
+    if (textHaloWidth != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textHaloWidth);
+    }
+    if (textHaloBlur != null) {
+      annotationManager.enableDataDrivenProperty(PROPERTY_textHaloBlur);
+    }
+    annotationManager.enableDataDrivenProperty(PROPERTY_zIndex);
+  }
+
   /**
    * Creates SymbolOptions out of a Feature.
    *
@@ -881,6 +987,9 @@ public class SymbolOptions extends Options<Symbol> {
     if (feature.hasProperty(PROPERTY_isDraggable)) {
       options.isDraggable = feature.getProperty(PROPERTY_isDraggable).getAsBoolean();
     }
+    if (feature.hasNonNullValueForProperty(Annotation.GROUP_KEY)) {
+      options.group = feature.getStringProperty(Annotation.GROUP_KEY);
+    }
     return options;
   }
 }
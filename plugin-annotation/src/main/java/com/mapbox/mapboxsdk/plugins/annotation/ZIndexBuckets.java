@@ -0,0 +1,116 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LongSparseArray;
+
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Keeps values ordered by z-index, removing the need to sort all values with every source update.
+ * <p>
+ * Values are grouped in a bucket per z-index, within a bucket values are ordered by id. This matches
+ * the result of a stable sort by z-index over values ordered by id.
+ * </p>
+ *
+ * @param <V> the type of the values
+ */
+class ZIndexBuckets<V> {
+
+  private final TreeMap<Integer, LongSparseArray<V>> buckets = new TreeMap<>();
+  private final LongSparseArray<Integer> zIndices = new LongSparseArray<>();
+
+  /**
+   * Add a value or replace the value with the same id, moving it to another bucket if its z-index changed.
+   *
+   * @param id     the id of the value
+   * @param zIndex the z-index of the value
+   * @param value  the value
+   */
+  void put(long id, int zIndex, @NonNull V value) {
+    Integer currentZIndex = zIndices.get(id);
+    if (currentZIndex != null && currentZIndex != zIndex) {
+      removeFromBucket(id, currentZIndex);
+    }
+    zIndices.put(id, zIndex);
+
+    LongSparseArray<V> bucket = buckets.get(zIndex);
+    if (bucket == null) {
+      bucket = new LongSparseArray<>();
+      buckets.put(zIndex, bucket);
+    }
+    bucket.put(id, value);
+  }
+
+  @Nullable
+  V get(long id) {
+    Integer zIndex = zIndices.get(id);
+    return zIndex != null ? buckets.get(zIndex).get(id) : null;
+  }
+
+  void remove(long id) {
+    Integer zIndex = zIndices.get(id);
+    if (zIndex != null) {
+      zIndices.remove(id);
+      removeFromBucket(id, zIndex);
+    }
+  }
+
+  void clear() {
+    buckets.clear();
+    zIndices.clear();
+  }
+
+  int size() {
+    return zIndices.size();
+  }
+
+  /**
+   * Add all values in ascending z-index order to a list.
+   *
+   * @param list      the list to add the values to
+   * @param skippedId the id of a value which shouldn't be added, -1 to add all values
+   */
+  void addValuesTo(@NonNull List<? super V> list, long skippedId) {
+    for (LongSparseArray<V> bucket : buckets.values()) {
+      for (int i = 0; i < bucket.size(); i++) {
+        if (bucket.keyAt(i) != skippedId) {
+          list.add(bucket.valueAt(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Add values in ascending z-index order to the lists of their shards.
+   * <p>
+   * Values are assigned to a shard by their id modulo the amount of shards, see
+   * {@link AnnotationManager#setShardCount(int)}.
+   * </p>
+   *
+   * @param lists     the list per shard, null for shards which should be skipped
+   * @param skippedId the id of a value which shouldn't be added, -1 to add all values
+   */
+  void addShardValuesTo(@NonNull List<? extends List<? super V>> lists, long skippedId) {
+    int shardCount = lists.size();
+    long id;
+    for (LongSparseArray<V> bucket : buckets.values()) {
+      for (int i = 0; i < bucket.size(); i++) {
+        id = bucket.keyAt(i);
+        List<? super V> list = lists.get((int) (id % shardCount));
+        if (list != null && id != skippedId) {
+          list.add(bucket.valueAt(i));
+        }
+      }
+    }
+  }
+
+  private void removeFromBucket(long id, int zIndex) {
+    LongSparseArray<V> bucket = buckets.get(zIndex);
+    bucket.remove(id);
+    if (bucket.size() == 0) {
+      buckets.remove(zIndex);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class AnnotationAnimatorTest {
+
+  private static final long MILLIS = 1000000;
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private SymbolLayer symbolLayer;
+
+  @Mock
+  private CoreElementProvider<SymbolLayer> coreElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController;
+
+  private SymbolManager symbolManager;
+  private AnnotationAnimator<Symbol> animator;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(coreElementProvider.getLayer()).thenReturn(symbolLayer);
+    when(coreElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null,
+      draggableAnnotationController);
+    animator = symbolManager.getAnimator();
+  }
+
+  @Test
+  public void singleSourceUpdatePerFrame() {
+    List<Symbol> symbols = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      symbols.add(symbolManager.create(new SymbolOptions().withLatLng(new LatLng(0, 0))));
+    }
+    for (Symbol symbol : symbols) {
+      animator.animateLatLng(symbol, new LatLng(10, 20), 100);
+      animator.animate(symbol, AnnotationAnimator.ICON_ROTATE, 90, 100);
+    }
+    clearInvocations(geoJsonSource);
+
+    animator.doFrame(0);
+    animator.doFrame(50 * MILLIS);
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+    assertEquals(5, symbols.get(0).getLatLng().getLatitude(), 1e-9);
+    assertEquals(10, symbols.get(99).getLatLng().getLongitude(), 1e-9);
+    assertEquals(45, symbols.get(0).getIconRotate(), 1e-5);
+
+    animator.doFrame(150 * MILLIS);
+    assertEquals(10, symbols.get(0).getLatLng().getLatitude(), 0);
+    assertEquals(90, symbols.get(0).getIconRotate(), 0);
+    assertFalse(animator.isRunning());
+  }
+
+  @Test
+  public void replacingAnimationStartsAtCurrentValue() {
+    Symbol symbol = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()).withIconOpacity(0f));
+    animator.animate(symbol, AnnotationAnimator.ICON_OPACITY, 1, 100);
+    animator.doFrame(0);
+    animator.doFrame(50 * MILLIS);
+
+    animator.animate(symbol, AnnotationAnimator.ICON_OPACITY, 0, 100);
+    animator.doFrame(60 * MILLIS);
+    assertEquals(0.5f, symbol.getIconOpacity(), 1e-5);
+    animator.doFrame(110 * MILLIS);
+    assertEquals(0.25f, symbol.getIconOpacity(), 1e-5);
+  }
+
+  @Test
+  public void unsetPropertiesStartAtDefault() {
+    Symbol symbol = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()));
+    animator.animate(symbol, AnnotationAnimator.ICON_OPACITY, 0, 100);
+    animator.doFrame(0);
+    animator.doFrame(50 * MILLIS);
+    assertEquals(0.5f, symbol.getIconOpacity(), 1e-5);
+
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    Symbol compact = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()));
+    animator.animate(compact, AnnotationAnimator.ICON_ROTATE, 90, 100);
+    animator.doFrame(100 * MILLIS);
+    animator.doFrame(150 * MILLIS);
+    assertEquals(45, compact.getIconRotate(), 1e-5);
+  }
+
+  @Test
+  public void rotationTakesShortestDirection() {
+    Symbol symbol = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()).withIconRotate(350f));
+    animator.animate(symbol, AnnotationAnimator.ICON_ROTATE, 10, 100);
+    animator.doFrame(0);
+    animator.doFrame(50 * MILLIS);
+    assertEquals(360, symbol.getIconRotate(), 1e-4);
+  }
+
+  @Test
+  public void positionCrossesAntimeridian() {
+    Symbol symbol = symbolManager.create(new SymbolOptions().withLatLng(new LatLng(0, 170)));
+    animator.animateLatLng(symbol, new LatLng(0, -170), 100);
+    animator.doFrame(0);
+    animator.doFrame(75 * MILLIS);
+    assertEquals(-175, symbol.getLatLng().getLongitude(), 1e-9);
+  }
+
+  @Test
+  public void deletedAndCanceledAnnotationsStop() {
+    Symbol deleted = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()));
+    Symbol canceled = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()));
+    animator.animateLatLng(deleted, new LatLng(1, 1), 100);
+    animator.animateLatLng(canceled, new LatLng(1, 1), 100);
+    assertTrue(animator.isRunning());
+
+    symbolManager.delete(deleted);
+    animator.cancel(canceled);
+    clearInvocations(geoJsonSource);
+    animator.doFrame(0);
+
+    assertFalse(animator.isRunning());
+    assertEquals(0, canceled.getLatLng().getLatitude(), 0);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+}
@@ -0,0 +1,23 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnnotationMetricsTest {
+
+  @Test
+  public void histogramKeepsRecentSamples() {
+    AnnotationMetrics.Histogram histogram = new AnnotationMetrics.Histogram();
+    assertEquals(0, histogram.getPercentile(50));
+    for (int i = 1; i <= 200; i++) {
+      histogram.add(i);
+    }
+
+    assertEquals(AnnotationMetrics.Histogram.SIZE, histogram.getSampleCount());
+    assertEquals(73, histogram.getMin());
+    assertEquals(200, histogram.getMax());
+    assertEquals(136, histogram.getPercentile(50));
+    assertEquals(136.5, histogram.getMean(), 0);
+  }
+}
@@ -0,0 +1,160 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
+import com.mapbox.mapboxsdk.style.layers.LineLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class AnnotationSnapshotTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private CircleLayer circleLayer;
+
+  @Mock
+  private LineLayer lineLayer;
+
+  @Mock
+  private CoreElementProvider<CircleLayer> circleElementProvider;
+
+  @Mock
+  private CoreElementProvider<LineLayer> lineElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Circle, OnCircleDragListener> circleDragController;
+
+  @Mock
+  private DraggableAnnotationController<Line, OnLineDragListener> lineDragController;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(circleElementProvider.getLayer()).thenReturn(circleLayer);
+    when(circleElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(lineElementProvider.getLayer()).thenReturn(lineLayer);
+    when(lineElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+  }
+
+  @Test
+  public void restoreCircles() {
+    CircleManager circleManager = createCircleManager();
+    List<CircleOptions> options = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      options.add(new CircleOptions()
+        .withLatLng(new LatLng(i, i + 0.5))
+        .withCircleRadius(2f + i)
+        .withCircleColor("#ff000" + i)
+        .withDraggable(i == 1));
+    }
+    List<Circle> circles = circleManager.create(options);
+    circleManager.delete(circles.get(0));
+
+    CircleManager restoredManager = createCircleManager();
+    List<Circle> restored = restoredManager.restoreSnapshot(circleManager.createSnapshot());
+    assertEquals(2, restored.size());
+    for (Circle circle : restored) {
+      Circle original = circleManager.getAnnotations().get(circle.getId());
+      assertEquals(original.getFeature(), circle.getFeature());
+      assertEquals(original.getGeometry(), circle.getGeometry());
+      assertEquals(original.isDraggable(), circle.isDraggable());
+      assertEquals(circle, restoredManager.getAnnotations().get(circle.getId()));
+    }
+    assertTrue(restoredManager.dataDrivenPropertyUsageMap.get(CircleOptions.PROPERTY_circleRadius));
+    assertTrue(restoredManager.dataDrivenPropertyUsageMap.get(CircleOptions.PROPERTY_circleColor));
+    assertFalse(restoredManager.dataDrivenPropertyUsageMap.get(CircleOptions.PROPERTY_circleOpacity));
+
+    // new annotations don't reuse restored ids
+    assertEquals(3, restoredManager.create(new CircleOptions().withLatLng(new LatLng())).getId());
+  }
+
+  @Test
+  public void restoreLines() {
+    LineManager lineManager = new LineManager(mapView, mapboxMap, style, lineElementProvider, null, null,
+      lineDragController);
+    Line line = lineManager.create(new LineOptions()
+      .withLatLngs(Arrays.asList(new LatLng(0, 0), new LatLng(1, 1)))
+      .withLineWidth(4f));
+
+    LineManager restoredManager = new LineManager(mapView, mapboxMap, style, lineElementProvider, null, null,
+      lineDragController);
+    Line restored = restoredManager.restoreSnapshot(lineManager.createSnapshot()).get(0);
+    assertEquals(line.getFeature(), restored.getFeature());
+    assertEquals(line.getGeometry(), restored.getGeometry());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void restoreOtherType() {
+    CircleManager circleManager = createCircleManager();
+    circleManager.create(new CircleOptions().withLatLng(new LatLng()));
+    new LineManager(mapView, mapboxMap, style, lineElementProvider, null, null, lineDragController)
+      .restoreSnapshot(circleManager.createSnapshot());
+  }
+
+  @Test
+  public void restoreExistingIds() {
+    CircleManager circleManager = createCircleManager();
+    circleManager.create(new CircleOptions().withLatLng(new LatLng()));
+    byte[] snapshot = circleManager.createSnapshot();
+    try {
+      circleManager.restoreSnapshot(snapshot);
+    } catch (IllegalArgumentException exception) {
+      assertEquals(1, circleManager.getAnnotations().size());
+      return;
+    }
+    throw new AssertionError("Restoring an existing id should fail");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void restoreInvalidSnapshot() {
+    createCircleManager().restoreSnapshot(new byte[] {0, 0, 0, 1, 0});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void restoreCorruptLength() {
+    CircleManager circleManager = createCircleManager();
+    circleManager.create(new CircleOptions().withLatLng(new LatLng()));
+    byte[] snapshot = circleManager.createSnapshot();
+    // the length of the annotation type, following the version
+    snapshot[4] = 0x7f;
+    snapshot[5] = (byte) 0xff;
+    snapshot[6] = (byte) 0xff;
+    snapshot[7] = (byte) 0xff;
+    circleManager.restoreSnapshot(snapshot);
+  }
+
+  private CircleManager createCircleManager() {
+    return new CircleManager(mapView, mapboxMap, style, circleElementProvider, null, null, circleDragController);
+  }
+}
@@ -0,0 +1,118 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.gson.JsonObject;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Point;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class BackgroundSerializerTest {
+
+  private final Queue<Runnable> queuedTasks = new LinkedList<>();
+  private final List<String> results = new ArrayList<>();
+  private BackgroundSerializer backgroundSerializer;
+
+  @Before
+  public void before() {
+    backgroundSerializer = new BackgroundSerializer(queuedTasks::add, new Handler(Looper.getMainLooper()));
+  }
+
+  @Test
+  public void serializesSortedFeatures() {
+    List<Feature> features = new ArrayList<>();
+    features.add(createFeature(1));
+    features.add(createFeature(0));
+    backgroundSerializer.submit(features,
+      (left, right) -> Integer.compare(getId(left), getId(right)), results::add);
+    runQueuedTasks();
+
+    assertEquals(1, results.size());
+    List<Feature> serialized = FeatureCollection.fromJson(results.get(0)).features();
+    assertEquals(0, getId(serialized.get(0)));
+    assertEquals(1, getId(serialized.get(1)));
+  }
+
+  @Test
+  public void staleSnapshotsAreDropped() {
+    List<Feature> first = new ArrayList<>();
+    first.add(createFeature(0));
+    backgroundSerializer.submit(first, null, results::add);
+
+    List<Feature> second = new ArrayList<>();
+    second.add(createFeature(0));
+    second.add(createFeature(1));
+    backgroundSerializer.submit(second, null, results::add);
+    runQueuedTasks();
+
+    assertEquals(1, results.size());
+    assertEquals(2, FeatureCollection.fromJson(results.get(0)).features().size());
+  }
+
+  @Test
+  public void resultsOfRunningSerializationsAreDelivered() {
+    List<Feature> second = new ArrayList<>();
+    second.add(createFeature(0));
+    second.add(createFeature(1));
+    second.add(createFeature(2));
+    List<Feature> first = new ArrayList<>();
+    first.add(createFeature(1));
+    first.add(createFeature(0));
+    // the second snapshot is submitted while the first one is being serialized
+    backgroundSerializer.submit(first, (left, right) -> {
+      if (queuedTasks.isEmpty() && results.isEmpty()) {
+        backgroundSerializer.submit(second, null, results::add);
+      }
+      return Integer.compare(getId(left), getId(right));
+    }, results::add);
+    runQueuedTasks();
+
+    assertEquals(2, results.size());
+    assertEquals(2, FeatureCollection.fromJson(results.get(0)).features().size());
+    assertEquals(3, FeatureCollection.fromJson(results.get(1)).features().size());
+  }
+
+  @Test
+  public void cancelDropsPendingSnapshots() {
+    List<Feature> features = new ArrayList<>();
+    features.add(createFeature(0));
+    backgroundSerializer.submit(features, null, results::add);
+    backgroundSerializer.cancel();
+    runQueuedTasks();
+
+    assertTrue(results.isEmpty());
+  }
+
+  private void runQueuedTasks() {
+    while (!queuedTasks.isEmpty()) {
+      queuedTasks.poll().run();
+    }
+    ShadowLooper.runUiThreadTasks();
+  }
+
+  private static Feature createFeature(int id) {
+    JsonObject properties = new JsonObject();
+    properties.addProperty("id", id);
+    return Feature.fromGeometry(Point.fromLngLat(id, id), properties);
+  }
+
+  private static int getId(Feature feature) {
+    return feature.getNumberProperty("id").intValue();
+  }
+}
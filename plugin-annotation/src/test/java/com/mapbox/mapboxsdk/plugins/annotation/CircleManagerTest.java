@@ -4,8 +4,11 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.VisibleRegion;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
 import com.mapbox.mapboxsdk.style.layers.*;
@@ -14,21 +17,32 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.utils.ColorUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
 import android.graphics.PointF;
+import android.os.Handler;
 
 import static com.mapbox.mapboxsdk.plugins.annotation.ConvertUtils.convertArray;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.get;
 import static com.mapbox.mapboxsdk.style.layers.Property.*;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.*;
 import static junit.framework.Assert.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+@RunWith(RobolectricTestRunner.class)
 public class CircleManagerTest {
 
   private DraggableAnnotationController<Circle, OnCircleDragListener> draggableAnnotationController = mock(DraggableAnnotationController.class);
@@ -341,6 +355,76 @@ public class CircleManagerTest {
     assertEquals(expression, circleManager.layerFilter);
   }
 
+  @Test
+  public void testGroup() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Circle circle = circleManager.create(createOptions(new LatLng()));
+    assertNull(circle.getGroup());
+    circle.setGroup("parks");
+    assertEquals("parks", circle.getGroup());
+    assertEquals("parks", circle.getFeature().get(Annotation.GROUP_KEY).getAsString());
+  }
+
+  @Test
+  public void testGroupVisibility() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.create(createOptions(new LatLng()).withGroup("parks"));
+    clearInvocations(geoJsonSource);
+
+    circleManager.setGroupVisible("parks", false);
+    assertFalse(circleManager.isGroupVisible("parks"));
+    verify(circleLayer).setFilter(Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")));
+
+    circleManager.setGroupVisible("parks", true);
+    assertTrue(circleManager.isGroupVisible("parks"));
+    verify(circleLayer).setFilter(Expression.literal(true));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testHiddenGroupsCombinedWithFilter() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    circleManager.setFilter(filter);
+    circleManager.setGroupVisible("parks", false);
+    circleManager.setGroupVisible("lakes", false);
+    verify(circleLayer).setFilter(Expression.all(
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("lakes")),
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")),
+      filter));
+  }
+
+  @Test
+  public void testFilterWithHiddenGroups() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression expression = Expression.eq(Expression.get("test"), "selected");
+    circleManager.setFilter(expression);
+    circleManager.setGroupVisible("group", false);
+    assertEquals(expression, circleManager.getFilter());
+
+    // the filter hiding the group isn't made permanent
+    circleManager.setFilter(circleManager.getFilter());
+    circleManager.setGroupVisible("group", true);
+    verify(circleLayer, times(2)).setFilter(expression);
+  }
+
+  @Test
+  public void testGroupOptions() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Circle circle = circleManager.create(createOptions(new LatLng()).withGroup("group"));
+    assertEquals("group", circle.getGroup());
+
+    Feature feature = Feature.fromGeometry(circle.getGeometry());
+    feature.addStringProperty(Annotation.GROUP_KEY, "group");
+    assertEquals("group", CircleOptions.fromFeature(feature).getGroup());
+    assertNull(createOptions(new LatLng()).getGroup());
+
+    KeyFunction<CircleOptions> keyFunction = options -> "key";
+    circle = circleManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    circleManager.submit(Collections.singletonList(createOptions(new LatLng()).withGroup("other")), keyFunction);
+    assertEquals("other", circle.getGroup());
+  }
+
   @Test
   public void testClickListener() {
     OnCircleClickListener listener = mock(OnCircleClickListener.class);
@@ -397,6 +481,554 @@ public class CircleManagerTest {
 
     circleManager.update(circle);
     assertTrue(circleManager.getAnnotations().isEmpty());
+
+    circleManager.update(Collections.singletonList(circle));
+    assertTrue(circleManager.getAnnotations().isEmpty());
+  }
+
+  @Test
+  public void testIncrementalSourceUpdate() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    CircleOptions options = new CircleOptions().withLatLng(new LatLng());
+    Circle first = circleManager.create(options);
+    circleManager.create(options);
+    circleManager.update(first);
+    circleManager.updateSource();
+
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, times(5)).setGeoJson(captor.capture());
+    List<FeatureCollection> collections = captor.getAllValues();
+
+    // only the updated annotation is serialized again
+    assertNotSame(collections.get(2).features().get(0), collections.get(3).features().get(0));
+    assertSame(collections.get(2).features().get(1), collections.get(3).features().get(1));
+
+    // a full update serializes all annotations again
+    assertNotSame(collections.get(3).features().get(0), collections.get(4).features().get(0));
+    assertNotSame(collections.get(3).features().get(1), collections.get(4).features().get(1));
+  }
+
+  @Test
+  public void testDeferredUpdatesAreCoalesced() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setDeferredUpdatesEnabled(true);
+    assertTrue(circleManager.isDeferredUpdatesEnabled());
+    Circle circle = circleManager.create(createOptions(new LatLng()));
+    List<CircleOptions> options = new ArrayList<>();
+    options.add(createOptions(new LatLng(1, 1)));
+    options.add(createOptions(new LatLng(2, 2)));
+    circleManager.create(options);
+    circleManager.update(circle);
+    circleManager.delete(circle);
+    assertEquals(2, circleManager.getAnnotations().size());
+
+    // only the initial source update happened so far
+    verify(geoJsonSource, times(1)).setGeoJson(any(FeatureCollection.class));
+
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
   }
 
+  @Test
+  public void testDeferredUpdatesFlush() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setDeferredUpdatesEnabled(true);
+    circleManager.create(createOptions(new LatLng()));
+    circleManager.flush();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    // nothing left to commit with the next frame
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDisablingDeferredUpdatesFlushes() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setDeferredUpdatesEnabled(true);
+    circleManager.create(createOptions(new LatLng()));
+    circleManager.setDeferredUpdatesEnabled(false);
+    assertFalse(circleManager.isDeferredUpdatesEnabled());
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    circleManager.create(createOptions(new LatLng()));
+    verify(geoJsonSource, times(3)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDragUpdatesOnlyDragSource() {
+    CircleLayer dragLayer = mock(CircleLayer.class);
+    GeoJsonSource dragSource = mock(GeoJsonSource.class);
+    when(coreElementProvider.getDragLayer()).thenReturn(dragLayer);
+    when(coreElementProvider.getDragSource()).thenReturn(dragSource);
+    when(circleLayer.getId()).thenReturn(CircleManager.ID_GEOJSON_LAYER);
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Circle dragged = circleManager.create(createOptions(new LatLng()).withCircleOpacity(0.5f));
+    circleManager.create(createOptions(new LatLng(1, 1)));
+
+    circleManager.onDragStarted(dragged);
+    verify(style).addSource(dragSource);
+    verify(style).addLayerAbove(dragLayer, CircleManager.ID_GEOJSON_LAYER);
+    // data-driven properties in use are mirrored on the drag layer
+    verify(dragLayer, atLeastOnce()).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+    assertEquals(1, lastFeatureCollection().features().size());
+    verify(dragSource).setGeoJson(any(Feature.class));
+
+    circleManager.onDragUpdated(dragged);
+    verify(dragSource, times(2)).setGeoJson(any(Feature.class));
+    // created two circles, moved one to the drag layer
+    verify(geoJsonSource, times(4)).setGeoJson(any(FeatureCollection.class));
+
+    circleManager.onDragFinished(dragged);
+    circleManager.internalUpdateSource();
+    verify(dragSource).setGeoJson(argThat((FeatureCollection collection) -> collection.features().isEmpty()));
+    FeatureCollection featureCollection = lastFeatureCollection();
+    assertEquals(2, featureCollection.features().size());
+    assertTrue(featureCollection.features().contains(
+      Feature.fromGeometry(dragged.getGeometry(), dragged.getFeature())));
+
+    // constant properties are mirrored as well
+    circleManager.onDragStarted(dragged);
+    circleManager.setCircleTranslate(new Float[] {1.0f, 1.0f});
+    verify(dragLayer).setProperties(argThat((PropertyValue value) -> "circle-translate".equals(value.name)));
+  }
+
+  @Test
+  public void testViewportCulling() {
+    createCulledCircleManager();
+    assertEquals(3, lastFeatureCollection().features().size());
+    circleManager.setViewportCullingEnabled(true);
+    assertTrue(circleManager.isViewportCullingEnabled());
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    circleManager.setViewportCullingMargin(0);
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    circleManager.setViewportCullingEnabled(false);
+    assertFalse(circleManager.isViewportCullingEnabled());
+    assertEquals(3, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingDropsChangesOutsideRegion() {
+    createCulledCircleManager();
+    circleManager.setViewportCullingEnabled(true);
+    Circle circle = circleManager.create(createOptions(new LatLng(0, 10)));
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    moveTo(circle, new LatLng(0.5, 0.5));
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    moveTo(circle, new LatLng(0, -10));
+    assertEquals(2, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingFollowsCamera() {
+    createCulledCircleManager();
+    setVisibleBounds(LatLngBounds.from(10, 10, -10, -10));
+    circleManager.setViewportCullingEnabled(true);
+    ArgumentCaptor<AnnotationManager.ViewportCullingListener> listenerCaptor =
+      ArgumentCaptor.forClass(AnnotationManager.ViewportCullingListener.class);
+    verify(mapboxMap).addOnCameraMoveListener(listenerCaptor.capture());
+    AnnotationManager.ViewportCullingListener listener = listenerCaptor.getValue();
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    // idle shrinks the region to the visible region
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    listener.onCameraIdle();
+    assertEquals(2, lastFeatureCollection().features().size());
+    clearInvocations(geoJsonSource);
+
+    // moves within the margin don't update the source
+    setVisibleBounds(LatLngBounds.from(1, 1.5, -1, -0.5));
+    listener.onCameraMove();
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    setVisibleBounds(LatLngBounds.from(1, 5.5, -1, 3.5));
+    listener.onCameraMove();
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    circleManager.onDestroy();
+    verify(mapboxMap).removeOnCameraMoveListener(listener);
+    verify(mapboxMap).removeOnCameraIdleListener(listener);
+  }
+
+  @Test
+  public void testMetricsOfSourceUpdates() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    OnAnnotationMetricsListener listener = mock(OnAnnotationMetricsListener.class);
+    assertNull(circleManager.getMetrics());
+    circleManager.setMetricsListener(listener);
+    AnnotationMetrics metrics = circleManager.getMetrics();
+    assertNotNull(metrics);
+
+    List<CircleOptions> options = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    Circle circle = circleManager.create(options).get(0);
+    circleManager.update(circle);
+
+    assertEquals(2, metrics.getSourceUpdateCount());
+    assertEquals(6, metrics.getSerializedFeatureCount());
+    assertEquals(2, metrics.getFeaturesPerUpdate().getSampleCount());
+    assertEquals(3, metrics.getFeaturesPerUpdate().getMax());
+    assertEquals(2, metrics.getSerializationTime().getSampleCount());
+    // feature collections aren't measured
+    assertEquals(0, metrics.getSourceDataLength());
+
+    // listeners are notified once per frame
+    verify(listener, never()).onMetricsUpdated(metrics);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(metrics);
+
+    // collection restarts from 0
+    circleManager.setMetricsListener(null);
+    assertNull(circleManager.getMetrics());
+    circleManager.create(createOptions(new LatLng()));
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(any(AnnotationMetrics.class));
+    circleManager.setMetricsListener(listener);
+    assertEquals(0, circleManager.getMetrics().getSourceUpdateCount());
+  }
+
+  @Test
+  public void testMetricsOfSourceDataLength() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setDirectSerializationEnabled(true);
+    circleManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+    circleManager.create(createOptions(new LatLng()));
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(geoJsonSource, times(2)).setGeoJson(captor.capture());
+    AnnotationMetrics metrics = circleManager.getMetrics();
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLength());
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLengths().getMax());
+  }
+
+  @Test
+  public void testMetricsOfDragUpdatesAndHitTests() {
+    when(coreElementProvider.getDragLayer()).thenReturn(mock(CircleLayer.class));
+    when(coreElementProvider.getDragSource()).thenReturn(mock(GeoJsonSource.class));
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Circle circle = circleManager.create(createOptions(new LatLng()));
+    circleManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+
+    circleManager.onDragStarted(circle);
+    circleManager.onDragUpdated(circle);
+    circleManager.onDragUpdated(circle);
+    circleManager.onDragFinished(circle);
+    circleManager.queryMapForFeatures(new PointF());
+
+    AnnotationMetrics metrics = circleManager.getMetrics();
+    assertEquals(2, metrics.getDragUpdateCount());
+    assertEquals(2, metrics.getDragUpdateIntervals().getSampleCount());
+    assertEquals(1, metrics.getHitTestCount());
+    assertEquals(1, metrics.getHitTestTime().getSampleCount());
+  }
+
+  @Test
+  public void testDataDrivenPropertyEnabledBySetter() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Circle circle = circleManager.create(createOptions(new LatLng()));
+    assertFalse(circleManager.dataDrivenPropertyUsageMap.get(CircleOptions.PROPERTY_circleOpacity));
+    verify(circleLayer, never()).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+
+    circle.setCircleOpacity(0.5f);
+    assertTrue(circleManager.dataDrivenPropertyUsageMap.get(CircleOptions.PROPERTY_circleOpacity));
+    verify(circleLayer).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+
+    circle.setCircleOpacity(0.8f);
+    circleManager.update(circle);
+    verify(circleLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+  }
+
+  @Test
+  public void testDataDrivenPropertiesSurviveStyleReload() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.create(createOptions(new LatLng()).withCircleOpacity(0.5f));
+
+    ArgumentCaptor<MapView.OnDidFinishLoadingStyleListener> loadingArgumentCaptor = ArgumentCaptor.forClass(MapView.OnDidFinishLoadingStyleListener.class);
+    verify(mapView).addOnDidFinishLoadingStyleListener(loadingArgumentCaptor.capture());
+    loadingArgumentCaptor.getValue().onDidFinishLoadingStyle();
+    ArgumentCaptor<Style.OnStyleLoaded> styleLoadedArgumentCaptor = ArgumentCaptor.forClass(Style.OnStyleLoaded.class);
+    verify(mapboxMap).getStyle(styleLoadedArgumentCaptor.capture());
+
+    Style newStyle = mock(Style.class);
+    when(newStyle.isFullyLoaded()).thenReturn(true);
+    CircleLayer newLayer = mock(CircleLayer.class);
+    when(coreElementProvider.getLayer()).thenReturn(newLayer);
+    styleLoadedArgumentCaptor.getValue().onStyleLoaded(newStyle);
+
+    assertTrue(circleManager.dataDrivenPropertyUsageMap.get(CircleOptions.PROPERTY_circleOpacity));
+    verify(newLayer).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+    verify(newLayer, never()).setProperties(argThat(new PropertyValueMatcher(circleRadius(get("circle-radius")))));
+  }
+
+  @Test
+  public void testPropertyOverride() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.create(createOptions(new LatLng()).withCircleOpacity(1f));
+    clearInvocations(geoJsonSource, circleLayer);
+
+    circleManager.setPropertyOverride(circleOpacity(0.2f));
+    verify(circleLayer).setProperties(argThat(new PropertyValueMatcher(circleOpacity(0.2f))));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    // the per-feature value is used again
+    circleManager.clearPropertyOverride(CircleOptions.PROPERTY_circleOpacity);
+    verify(circleLayer).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+  }
+
+  @Test
+  public void testFilteredPropertyOverride() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    circleManager.setPropertyOverride(circleOpacity(0.5f), filter);
+    verify(circleLayer).setProperties(argThat(new PropertyValueMatcher(circleOpacity(
+      Expression.switchCase(filter, Expression.literal(0.5f), get("circle-opacity"))))));
+
+    // enabling the property for the first annotation using it keeps the override
+    circleManager.create(createOptions(new LatLng()).withCircleOpacity(1f));
+    verify(circleLayer, never()).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+
+    // properties no annotation uses are reset to the default
+    circleManager.setPropertyOverride(circleRadius(3f));
+    circleManager.clearPropertyOverrides();
+    verify(circleLayer).setProperties(argThat(new PropertyValueMatcher(new PropertyValue<>("circle-radius", null))));
+    verify(circleLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(circleOpacity(get("circle-opacity")))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstantPropertyOverride() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setPropertyOverride(circleTranslate(new Float[] {1f, 1f}));
+  }
+
+  @Test
+  public void testShardsUpdatedIndependently() {
+    CircleLayer shardLayer = mock(CircleLayer.class);
+    GeoJsonSource shardSource = mock(GeoJsonSource.class);
+    mockShard(shardLayer, shardSource);
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.literal(true);
+    circleManager.setFilter(filter);
+    circleManager.setShardCount(2);
+    verify(style).addSource(shardSource);
+    verify(style).addLayerAbove(shardLayer, CircleManager.ID_GEOJSON_LAYER);
+    verify(shardLayer).setFilter(filter);
+
+    List<CircleOptions> options = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    List<Circle> circles = circleManager.create(options);
+    assertEquals(2, lastFeatureCollection(geoJsonSource).features().size());
+    assertEquals(2, lastFeatureCollection(shardSource).features().size());
+
+    clearInvocations(geoJsonSource, shardSource);
+    moveTo(circles.get(1), new LatLng(10, 10));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    verify(shardSource).setGeoJson(any(FeatureCollection.class));
+
+    circleManager.setShardCount(1);
+    verify(style).removeLayer(shardLayer);
+    verify(style).removeSource(shardSource);
+    assertEquals(4, lastFeatureCollection(geoJsonSource).features().size());
+  }
+
+  @Test
+  public void testShardLayersShareProperties() {
+    CircleLayer shardLayer = mock(CircleLayer.class);
+    mockShard(shardLayer, mock(GeoJsonSource.class));
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setShardCount(2);
+    circleManager.setCircleTranslate(new Float[] {1.0f, 1.0f});
+    verify(shardLayer).setProperties(argThat((PropertyValue value) -> "circle-translate".equals(value.name)));
+
+    PointF point = new PointF();
+    String shardLayerId = CircleManager.ID_GEOJSON_LAYER + "-1";
+    when(mapboxMap.queryRenderedFeatures(point, CircleManager.ID_GEOJSON_LAYER, shardLayerId)).thenReturn(new ArrayList<>());
+    circleManager.queryMapForFeatures(point);
+    verify(mapboxMap).queryRenderedFeatures(point, CircleManager.ID_GEOJSON_LAYER, shardLayerId);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardCountMustBePositive() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setShardCount(0);
+  }
+
+  @Test
+  public void testBackgroundSerializationDroppedOnStyleReload() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Queue<Runnable> serializerTasks = new LinkedList<>();
+    Handler mainHandler = mock(Handler.class);
+    when(mainHandler.post(any(Runnable.class))).thenAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return true;
+    });
+    circleManager.setBackgroundSerializer(new BackgroundSerializer(serializerTasks::add, mainHandler));
+    circleManager.create(createOptions(new LatLng()));
+
+    // the style started reloading while the annotations were serialized
+    when(style.isFullyLoaded()).thenReturn(false);
+    while (!serializerTasks.isEmpty()) {
+      serializerTasks.poll().run();
+    }
+    verify(geoJsonSource, never()).setGeoJson(anyString());
+  }
+
+  @Test
+  public void testSubmitReconcilesByKey() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<CircleOptions, String> keys = new IdentityHashMap<>();
+    List<Circle> circles = circleManager.submit(Arrays.asList(
+      keyedOptions(keys, "a", 1f), keyedOptions(keys, "b", 1f), keyedOptions(keys, "c", 1f)), keys::get);
+    Circle unkeyed = circleManager.create(createOptions(new LatLng()));
+
+    List<Circle> submitted = circleManager.submit(Arrays.asList(
+      keyedOptions(keys, "c", 1f), keyedOptions(keys, "a", 0.5f), keyedOptions(keys, "d", 1f)), keys::get);
+    assertSame(circles.get(2), submitted.get(0));
+    assertSame(circles.get(0), submitted.get(1));
+    assertEquals(0.5f, submitted.get(1).getCircleOpacity(), 0);
+    assertEquals(4, submitted.get(2).getId());
+
+    // missing keys are deleted, annotations created without a key are kept
+    assertNull(circleManager.getAnnotations().get(circles.get(1).getId()));
+    assertSame(unkeyed, circleManager.getAnnotations().get(unkeyed.getId()));
+    assertEquals(4, circleManager.getAnnotations().size());
+  }
+
+  @Test
+  public void testSubmitUnchangedList() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<CircleOptions, String> keys = new IdentityHashMap<>();
+    circleManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    clearInvocations(geoJsonSource);
+    circleManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitDuplicateKeys() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<CircleOptions, String> keys = new IdentityHashMap<>();
+    Circle circle = circleManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0);
+    try {
+      circleManager.submit(Arrays.asList(keyedOptions(keys, "b", 1f), keyedOptions(keys, "b", 0.5f)), keys::get);
+      fail("Duplicate keys should be rejected");
+    } catch (IllegalArgumentException exception) {
+      // nothing changed
+      assertEquals(1, circleManager.getAnnotations().size());
+      assertSame(circle, circleManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0));
+    }
+  }
+
+  @Test
+  public void testSubmitUnchangedWithCompactStorage() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setCompactPropertyStorageEnabled(true);
+    KeyFunction<CircleOptions> keyFunction = options -> "key";
+    circleManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    clearInvocations(geoJsonSource);
+
+    circleManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitKeepsGroup() {
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    KeyFunction<CircleOptions> keyFunction = options -> "key";
+    Circle circle = circleManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    circle.setGroup("group");
+    circleManager.update(circle);
+    clearInvocations(geoJsonSource);
+
+    circleManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", circle.getGroup());
+
+    circleManager.submit(Collections.singletonList(createOptions(new LatLng(1, 1))), keyFunction);
+    verify(geoJsonSource).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", circle.getGroup());
+  }
+
+  @Test
+  public void testSpatialIndexHitTesting() {
+    Projection projection = mock(Projection.class);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    when(projection.getMetersPerPixelAtLatitude(anyDouble())).thenReturn(1000.0);
+    PointF touch = new PointF();
+    when(projection.fromScreenLocation(touch)).thenReturn(new LatLng());
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.setSpatialIndexEnabled(true);
+
+    // the annotation rendered on top wins
+    Circle first = circleManager.create(createOptions(new LatLng()));
+    Circle second = circleManager.create(createOptions(new LatLng()));
+    assertEquals(second, circleManager.queryMapForFeatures(touch));
+
+    // the rendered extent counts towards the hit tolerance
+    circleManager.delete(second);
+    PointF below = new PointF(0, 30);
+    when(projection.fromScreenLocation(below)).thenReturn(new LatLng(-30000 / GeometryUtils.METERS_PER_DEGREE, 0));
+    assertNull(circleManager.queryMapForFeatures(below));
+    first.setCircleRadius(10f);
+    circleManager.update(first);
+    assertEquals(first, circleManager.queryMapForFeatures(below));
+
+    // the index can't evaluate the layer filter
+    circleManager.setFilter(Expression.literal(false));
+    assertNull(circleManager.queryMapForFeatures(touch));
+    verify(mapboxMap).queryRenderedFeatures(touch, CircleManager.ID_GEOJSON_LAYER);
+  }
+
+  private CircleOptions keyedOptions(Map<CircleOptions, String> keys, String key, float opacity) {
+    CircleOptions options = createOptions(new LatLng(1, 1)).withCircleOpacity(opacity);
+    keys.put(options, key);
+    return options;
+  }
+
+  private void createCulledCircleManager() {
+    when(mapboxMap.getProjection()).thenReturn(mock(Projection.class));
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    circleManager = new CircleManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    circleManager.create(createOptions(new LatLng(0, 0)));
+    circleManager.create(createOptions(new LatLng(0, 1.5)));
+    circleManager.create(createOptions(new LatLng(0, 5)));
+  }
+
+  private void setVisibleBounds(LatLngBounds bounds) {
+    when(mapboxMap.getProjection().getVisibleRegion()).thenReturn(new VisibleRegion(
+      bounds.getNorthWest(), bounds.getNorthEast(), bounds.getSouthWest(), bounds.getSouthEast(), bounds));
+  }
+
+  private void moveTo(Circle circle, LatLng latLng) {
+    circle.setGeometry(createOptions(latLng).buildAnnotation(circle.getId(), circleManager).getGeometry());
+    circleManager.update(circle);
+  }
+
+  private void mockShard(CircleLayer shardLayer, GeoJsonSource shardSource) {
+    when(coreElementProvider.getShardLayer(1)).thenReturn(shardLayer);
+    when(coreElementProvider.getShardSource(1, null)).thenReturn(shardSource);
+    when(circleLayer.getId()).thenReturn(CircleManager.ID_GEOJSON_LAYER);
+    when(shardLayer.getId()).thenReturn(CircleManager.ID_GEOJSON_LAYER + "-1");
+  }
+
+  private FeatureCollection lastFeatureCollection() {
+    return lastFeatureCollection(geoJsonSource);
+  }
+
+  private static FeatureCollection lastFeatureCollection(GeoJsonSource source) {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(source, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private CircleOptions createOptions(LatLng latLng) {
+    return new CircleOptions().withLatLng(latLng);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Point;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.expressions.Expression;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class ClusterTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Projection projection;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private SymbolLayer symbolLayer;
+
+  @Mock
+  private CircleLayer clusterLayer;
+
+  @Mock
+  private SymbolLayer clusterCountLayer;
+
+  @Mock
+  private CoreElementProvider<SymbolLayer> coreElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController;
+
+  private SymbolManager symbolManager;
+  private GeoJsonOptions geoJsonOptions;
+  private Feature cluster;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    geoJsonOptions = new GeoJsonOptions();
+    when(coreElementProvider.getLayer()).thenReturn(symbolLayer);
+    when(coreElementProvider.getSource(geoJsonOptions)).thenReturn(geoJsonSource);
+    when(coreElementProvider.getClusterLayer()).thenReturn(clusterLayer);
+    when(coreElementProvider.getClusterCountLayer()).thenReturn(clusterCountLayer);
+    when(symbolLayer.getId()).thenReturn(SymbolManager.ID_GEOJSON_LAYER);
+    when(clusterLayer.getId()).thenReturn(SymbolManager.ID_GEOJSON_CLUSTER_LAYER);
+    when(style.isFullyLoaded()).thenReturn(true);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    when(projection.toScreenLocation(any(LatLng.class))).thenReturn(new PointF());
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, geoJsonOptions,
+      new ClusterOptions(), draggableAnnotationController);
+
+    cluster = Feature.fromGeometry(Point.fromLngLat(1, 2));
+    cluster.addNumberProperty(ClusterOptions.PROPERTY_POINT_COUNT, 2);
+  }
+
+  @Test
+  public void clusterLayersAreAdded() {
+    assertTrue(symbolManager.isClusteringEnabled());
+    assertEquals(true, geoJsonOptions.get("cluster"));
+    verify(style).addLayerAbove(clusterLayer, SymbolManager.ID_GEOJSON_LAYER);
+    verify(style).addLayerAbove(clusterCountLayer, SymbolManager.ID_GEOJSON_CLUSTER_LAYER);
+    verify(clusterLayer).setFilter(any(Expression.class));
+    verify(clusterCountLayer).setFilter(any(Expression.class));
+    // clusters are hidden from the symbol layer
+    verify(symbolLayer).setFilter(any(Expression.class));
+  }
+
+  @Test
+  public void clusterLeaves() {
+    List<Symbol> symbols = symbolManager.create(Arrays.asList(
+      new SymbolOptions().withLatLng(new LatLng()),
+      new SymbolOptions().withLatLng(new LatLng()),
+      new SymbolOptions().withLatLng(new LatLng())));
+    when(geoJsonSource.getClusterLeaves(cluster, 2, 0)).thenReturn(FeatureCollection.fromFeatures(Arrays.asList(
+      Feature.fromGeometry(symbols.get(2).getGeometry(), symbols.get(2).getFeature()),
+      Feature.fromGeometry(symbols.get(0).getGeometry(), symbols.get(0).getFeature()))));
+
+    assertEquals(Arrays.asList(symbols.get(2), symbols.get(0)), symbolManager.getClusterLeaves(cluster));
+  }
+
+  @Test
+  public void clusterClick() {
+    Symbol symbol = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()));
+    when(geoJsonSource.getClusterLeaves(cluster, 2, 0)).thenReturn(FeatureCollection.fromFeatures(
+      Collections.singletonList(Feature.fromGeometry(symbol.getGeometry(), symbol.getFeature()))));
+    when(mapboxMap.queryRenderedFeatures(any(PointF.class), eq(SymbolManager.ID_GEOJSON_CLUSTER_LAYER),
+      eq(SymbolManager.ID_GEOJSON_LAYER)))
+      .thenReturn(Collections.singletonList(cluster));
+
+    List<Symbol> clicked = new ArrayList<>();
+    symbolManager.addClusterClickListener((clusterFeature, annotations) -> clicked.addAll(annotations));
+    OnSymbolClickListener symbolClickListener = mock(OnSymbolClickListener.class);
+    symbolManager.addClickListener(symbolClickListener);
+
+    ArgumentCaptor<MapboxMap.OnMapClickListener> captor = ArgumentCaptor.forClass(MapboxMap.OnMapClickListener.class);
+    verify(mapboxMap).addOnMapClickListener(captor.capture());
+    captor.getValue().onMapClick(new LatLng());
+
+    assertEquals(Collections.singletonList(symbol), clicked);
+    verify(symbolClickListener, never()).onAnnotationClick(any(Symbol.class));
+  }
+
+  @Test
+  public void expandCluster() {
+    when(geoJsonSource.getClusterExpansionZoom(cluster)).thenReturn(12);
+    assertEquals(12, symbolManager.getClusterExpansionZoom(cluster));
+    symbolManager.expandCluster(cluster);
+    verify(mapboxMap).animateCamera(any());
+  }
+
+  @Test
+  public void notClustered() {
+    clearInvocations(coreElementProvider);
+    when(coreElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    SymbolManager manager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null,
+      draggableAnnotationController);
+    assertFalse(manager.isClusteringEnabled());
+    verify(coreElementProvider, never()).getClusterLayer();
+  }
+}
@@ -0,0 +1,147 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+
+import com.google.gson.JsonObject;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class CompactPropertyStorageTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private SymbolLayer symbolLayer;
+
+  @Mock
+  private CoreElementProvider<SymbolLayer> coreElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController;
+
+  private SymbolManager symbolManager;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(coreElementProvider.getLayer()).thenReturn(symbolLayer);
+    when(coreElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null,
+      draggableAnnotationController);
+  }
+
+  @Test
+  public void accessorsKeepWorking() {
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    assertTrue(symbolManager.isCompactPropertyStorageEnabled());
+    Symbol symbol = symbolManager.create(createOptions());
+
+    assertEquals(2.0f, symbol.getIconSize(), 0);
+    assertEquals("marker", symbol.getIconImage());
+    assertEquals(new PointF(1.0f, 2.0f), symbol.getIconOffset());
+    assertArrayEquals(new String[] {"Open Sans Regular"}, symbol.getTextFont());
+    assertEquals(3, symbol.getZIndex());
+
+    symbol.setIconSize(4.0f);
+    symbol.setIconImage("pin");
+    symbol.setIconOffset(new PointF(3.0f, 4.0f));
+    symbol.setTextFont(new String[] {"Arial Unicode MS Regular"});
+    symbol.setZIndex(5);
+
+    assertEquals(4.0f, symbol.getIconSize(), 0);
+    assertEquals("pin", symbol.getIconImage());
+    assertEquals(new PointF(3.0f, 4.0f), symbol.getIconOffset());
+    assertArrayEquals(new String[] {"Arial Unicode MS Regular"}, symbol.getTextFont());
+    assertEquals(5, symbol.getZIndex());
+  }
+
+  @Test
+  public void materializedFeaturesMatchJsonStorage() {
+    Symbol jsonSymbol = symbolManager.create(createOptions());
+    String expected = lastFeatureCollection().features().get(0).toJson();
+
+    symbolManager.deleteAll();
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    Symbol compactSymbol = symbolManager.create(createOptions());
+    Feature feature = lastFeatureCollection().features().get(0);
+
+    assertEquals(jsonSymbol.getId() + 1, compactSymbol.getId());
+    JsonObject expectedProperties = Feature.fromJson(expected).properties();
+    expectedProperties.addProperty(Annotation.ID_KEY, compactSymbol.getId());
+    assertEquals(expectedProperties, feature.properties());
+  }
+
+  @Test
+  public void togglingStorageKeepsProperties() {
+    Symbol symbol = symbolManager.create(createOptions());
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    assertEquals("marker", symbol.getIconImage());
+
+    symbol.setIconImage("pin");
+    symbolManager.setCompactPropertyStorageEnabled(false);
+    assertFalse(symbolManager.isCompactPropertyStorageEnabled());
+    assertEquals("pin", symbol.getIconImage());
+    assertEquals(3, symbol.getZIndex());
+  }
+
+  @Test
+  public void deletedAnnotationsKeepProperties() {
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    Symbol deleted = symbolManager.create(createOptions());
+    symbolManager.delete(deleted);
+    Symbol created = symbolManager.create(createOptions().withIconImage("pin"));
+
+    assertEquals("marker", deleted.getIconImage());
+    assertEquals("pin", created.getIconImage());
+  }
+
+  private FeatureCollection lastFeatureCollection() {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private static SymbolOptions createOptions() {
+    return new SymbolOptions()
+      .withLatLng(new LatLng(1, 1))
+      .withIconSize(2.0f)
+      .withIconImage("marker")
+      .withIconOffset(new Float[] {1.0f, 2.0f})
+      .withTextFont(new String[] {"Open Sans Regular"})
+      .withZIndex(3);
+  }
+}
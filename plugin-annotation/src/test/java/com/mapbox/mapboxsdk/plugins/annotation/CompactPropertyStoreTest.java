@@ -0,0 +1,117 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPropertyStoreTest {
+
+  private final CompactPropertyStore store = new CompactPropertyStore();
+
+  @Test
+  public void grow() {
+    for (int i = 0; i < 100; i++) {
+      int row = store.allocateRow();
+      assertEquals(i, row);
+      store.setFloat(row, "size", (float) i);
+    }
+    assertEquals(100, store.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, store.getFloat(i, "size"), 0);
+    }
+  }
+
+  @Test
+  public void releasedRowsAreReused() {
+    int first = store.allocateRow();
+    store.setString(first, "image", "marker");
+    store.releaseRow(first);
+
+    int second = store.allocateRow();
+    assertEquals(first, second);
+    assertFalse(store.isSet(second, "image"));
+  }
+
+  @Test
+  public void stringsAreInterned() {
+    int first = store.allocateRow();
+    int second = store.allocateRow();
+    store.setString(first, "image", new String("marker"));
+    store.setString(second, "image", new String("marker"));
+    assertSame(store.getString(first, "image"), store.getString(second, "image"));
+  }
+
+  @Test
+  public void overwrittenStringsAreDropped() {
+    int first = store.allocateRow();
+    int second = store.allocateRow();
+    store.setString(second, "text-field", "arrived");
+    for (int i = 0; i < 100; i++) {
+      store.setString(first, "text-field", i + " min");
+    }
+    assertEquals(2, store.getStringPoolSize());
+
+    store.setString(first, "text-field", "arrived");
+    assertEquals(1, store.getStringPoolSize());
+    store.clear(first, "text-field");
+    assertEquals(1, store.getStringPoolSize());
+    store.releaseRow(second);
+    assertEquals(0, store.getStringPoolSize());
+  }
+
+  @Test
+  public void nullClearsProperty() {
+    int row = store.allocateRow();
+    store.setFloat(row, "size", 1.0f);
+    store.setFloat(row, "size", null);
+    assertFalse(store.isSet(row, "size"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void unsetProperty() {
+    store.getFloat(store.allocateRow(), "size");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void typeMismatch() {
+    int row = store.allocateRow();
+    store.setFloat(row, "size", 1.0f);
+    store.setString(row, "size", "large");
+  }
+
+  @Test
+  public void jsonRoundTrip() {
+    JsonArray offset = new JsonArray();
+    offset.add(1.0f);
+    offset.add(2.0f);
+    JsonArray font = new JsonArray();
+    font.add("Open Sans Regular");
+
+    JsonObject jsonObject = new JsonObject();
+    jsonObject.addProperty("size", 1.0f);
+    jsonObject.addProperty("z-index", 2);
+    jsonObject.addProperty("image", "marker");
+    jsonObject.add("offset", offset);
+    jsonObject.add("font", font);
+    jsonObject.add("color", JsonNull.INSTANCE);
+
+    int row = store.allocateRow();
+    for (String key : jsonObject.keySet()) {
+      store.set(row, key, jsonObject.get(key));
+    }
+
+    assertTrue(store.isSet(row, "z-index"));
+    assertFalse(store.isSet(row, "color"));
+    assertEquals(2, store.getInt(row, "z-index"));
+
+    jsonObject.remove("color");
+    assertEquals(jsonObject, store.toJsonObject(row));
+  }
+}
@@ -0,0 +1,129 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class DirectSerializationTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private SymbolLayer symbolLayer;
+
+  @Mock
+  private CoreElementProvider<SymbolLayer> coreElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController;
+
+  private SymbolManager symbolManager;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(coreElementProvider.getLayer()).thenReturn(symbolLayer);
+    when(coreElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null,
+      draggableAnnotationController);
+  }
+
+  @Test
+  public void outputMatchesFeatureCollection() {
+    symbolManager.create(createOptions());
+    String expected = lastFeatureCollection().toJson();
+
+    symbolManager.setDirectSerializationEnabled(true);
+    assertTrue(symbolManager.isDirectSerializationEnabled());
+    assertEquals(expected, lastGeoJson());
+  }
+
+  @Test
+  public void updatesFollowZIndex() {
+    List<Symbol> symbols = symbolManager.create(createOptions());
+    symbolManager.setDirectSerializationEnabled(true);
+    symbols.get(0).setZIndex(10);
+    symbols.get(0).setTextField("<updated>");
+    symbolManager.update(symbols.get(0));
+    String geoJson = lastGeoJson();
+
+    symbolManager.setDirectSerializationEnabled(false);
+    assertFalse(symbolManager.isDirectSerializationEnabled());
+    assertEquals(lastFeatureCollection().toJson(), geoJson);
+    assertEquals(symbols.get(0).getId(),
+      FeatureCollection.fromJson(geoJson).features().get(1).getNumberProperty(Annotation.ID_KEY).longValue());
+  }
+
+  @Test
+  public void compactStorageIsWritten() {
+    symbolManager.create(createOptions());
+    // compact storage keeps unset properties out of the features, compare their serialized form
+    FeatureCollection expected = FeatureCollection.fromJson(lastFeatureCollection().toJson());
+
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    symbolManager.setDirectSerializationEnabled(true);
+    assertEquals(expected, FeatureCollection.fromJson(lastGeoJson()));
+  }
+
+  private FeatureCollection lastFeatureCollection() {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private String lastGeoJson() {
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(geoJsonSource, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private static List<SymbolOptions> createOptions() {
+    return Arrays.asList(
+      new SymbolOptions()
+        .withLatLng(new LatLng(1.123456789, -2.5))
+        .withIconSize(2.0f)
+        .withIconImage("marker")
+        .withIconOffset(new Float[] {1.0f, 2.0f})
+        .withTextFont(new String[] {"Open Sans Regular"})
+        .withTextField("\"quoted\" & <escaped>\n\u2028")
+        .withZIndex(3),
+      new SymbolOptions()
+        .withLatLng(new LatLng(0, 180))
+        .withTextSize(12.5f)
+        .withZIndex(5));
+  }
+}
@@ -0,0 +1,129 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.Projection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class DragGeometryBufferTest {
+
+  @Mock
+  private Projection projection;
+
+  private DragGeometryBuffer buffer;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    buffer = new DragGeometryBuffer();
+    // screen coordinates equal longitude and latitude
+    when(projection.toScreenLocation(any(LatLng.class))).thenAnswer(invocation -> {
+      LatLng latLng = invocation.getArgument(0);
+      return new PointF((float) latLng.getLongitude(), (float) latLng.getLatitude());
+    });
+    when(projection.fromScreenLocation(any(PointF.class))).thenAnswer(invocation -> {
+      PointF pointF = invocation.getArgument(0);
+      return new LatLng(pointF.y, pointF.x);
+    });
+  }
+
+  @Test
+  public void untrackedGeometries() {
+    assertFalse(buffer.begin(Point.fromLngLat(1, 2)));
+    assertFalse(buffer.begin(null));
+    assertFalse(buffer.isTracking(null));
+  }
+
+  @Test
+  public void linearTranslationProjectsOnce() {
+    LineString lineString = LineString.fromLngLats(Arrays.asList(
+      Point.fromLngLat(0, 0), Point.fromLngLat(10, 0), Point.fromLngLat(20, 0)));
+    assertTrue(buffer.begin(lineString));
+    assertTrue(buffer.isTracking(lineString));
+    buffer.setLinear(true);
+
+    Geometry offset = buffer.offset(projection, -5, 0);
+    assertEquals(LineString.fromLngLats(Arrays.asList(
+      Point.fromLngLat(5, 0), Point.fromLngLat(15, 0), Point.fromLngLat(25, 0))), offset);
+    assertTrue(buffer.isTracking(offset));
+    verify(projection, times(1)).toScreenLocation(any(LatLng.class));
+    verify(projection, times(1)).fromScreenLocation(any(PointF.class));
+  }
+
+  @Test
+  public void linearTranslationKeepsMercatorDistances() {
+    LineString lineString = LineString.fromLngLats(Arrays.asList(
+      Point.fromLngLat(0, 0), Point.fromLngLat(0, 60)));
+    buffer.begin(lineString);
+    buffer.setLinear(true);
+
+    LineString offset = (LineString) buffer.offset(projection, 0, -10);
+    double mercatorY = Math.log(Math.tan(Math.PI / 4 + Math.toRadians(60) / 2))
+      + Math.log(Math.tan(Math.PI / 4 + Math.toRadians(10) / 2));
+    assertEquals(10, offset.coordinates().get(0).latitude(), 1e-9);
+    assertEquals(Math.toDegrees(Math.atan(Math.sinh(mercatorY))), offset.coordinates().get(1).latitude(), 1e-9);
+  }
+
+  @Test
+  public void projectedPolygon() {
+    List<Point> ring = Arrays.asList(Point.fromLngLat(0, 0), Point.fromLngLat(1, 0), Point.fromLngLat(1, 1),
+      Point.fromLngLat(0, 0));
+    List<Point> hole = Arrays.asList(Point.fromLngLat(0.5, 0.5), Point.fromLngLat(0.75, 0.5),
+      Point.fromLngLat(0.5, 0.5));
+    assertTrue(buffer.begin(Polygon.fromLngLats(Arrays.asList(ring, hole))));
+
+    Polygon offset = (Polygon) buffer.offset(projection, 0, -1);
+    assertEquals(2, offset.coordinates().size());
+    assertEquals(Point.fromLngLat(1, 2), offset.coordinates().get(0).get(2));
+    assertEquals(Point.fromLngLat(0.75, 1.5), offset.coordinates().get(1).get(1));
+    verify(projection, times(7)).toScreenLocation(any(LatLng.class));
+
+    // coordinates accumulate across move events
+    offset = (Polygon) buffer.offset(projection, 0, -1);
+    assertEquals(Point.fromLngLat(1, 3), offset.coordinates().get(0).get(2));
+  }
+
+  @Test
+  public void outOfBoundsKeepsCoordinates() {
+    LineString lineString = LineString.fromLngLats(Collections.singletonList(Point.fromLngLat(0, 80)));
+    buffer.begin(lineString);
+
+    assertNull(buffer.offset(projection, 0, -10));
+    assertTrue(buffer.isTracking(lineString));
+    assertEquals(LineString.fromLngLats(Collections.singletonList(Point.fromLngLat(0, 81))),
+      buffer.offset(projection, 0, -1));
+  }
+
+  @Test
+  public void end() {
+    LineString lineString = LineString.fromLngLats(Collections.singletonList(Point.fromLngLat(0, 0)));
+    buffer.begin(lineString);
+    buffer.end();
+    assertFalse(buffer.isTracking(lineString));
+  }
+}
@@ -22,6 +22,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -89,6 +90,7 @@ public class DraggableAnnotationControllerTest {
     when(annotationManager.getDragListeners()).thenReturn(dragListenerList);
     draggableAnnotationController.startDragging(annotation);
     verify(dragListener, times(1)).onAnnotationDragStarted(annotation);
+    verify(annotationManager).onDragStarted(annotation);
   }
 
   @Test
@@ -103,6 +105,8 @@ public class DraggableAnnotationControllerTest {
     when(annotationManager.getDragListeners()).thenReturn(dragListenerList);
     draggableAnnotationController.stopDragging(annotation);
     verify(dragListener, times(1)).onAnnotationDragFinished(annotation);
+    verify(annotationManager).onDragFinished(annotation);
+    verify(annotationManager).internalUpdateSource();
   }
 
   @Test
@@ -112,6 +116,9 @@ public class DraggableAnnotationControllerTest {
     draggableAnnotationController.startDragging(annotation);
     draggableAnnotationController.onSourceUpdated();
     verify(dragListener, times(1)).onAnnotationDragFinished(annotation);
+    verify(annotationManager).onDragFinished(annotation);
+    // the manager updates the source itself after notifying the controller
+    verify(annotationManager, never()).internalUpdateSource();
   }
 
   @Test
@@ -249,7 +256,8 @@ public class DraggableAnnotationControllerTest {
 
     assertTrue(moved);
     verify(annotation).setGeometry(geometry);
-    verify(annotationManager).internalUpdateSource();
+    verify(annotationManager).onDragUpdated(annotation);
+    verify(annotationManager, never()).internalUpdateSource();
     verify(dragListener, times(1)).onAnnotationDrag(annotation);
   }
 
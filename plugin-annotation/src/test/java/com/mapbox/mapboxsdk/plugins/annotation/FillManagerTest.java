@@ -4,8 +4,11 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.VisibleRegion;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
 import com.mapbox.mapboxsdk.style.layers.*;
@@ -14,21 +17,32 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.utils.ColorUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
 import android.graphics.PointF;
+import android.os.Handler;
 
 import static com.mapbox.mapboxsdk.plugins.annotation.ConvertUtils.convertArray;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.get;
 import static com.mapbox.mapboxsdk.style.layers.Property.*;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.*;
 import static junit.framework.Assert.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+@RunWith(RobolectricTestRunner.class)
 public class FillManagerTest {
 
   private DraggableAnnotationController<Fill, OnFillDragListener> draggableAnnotationController = mock(DraggableAnnotationController.class);
@@ -385,6 +399,76 @@ public class FillManagerTest {
     assertEquals(expression, fillManager.layerFilter);
   }
 
+  @Test
+  public void testGroup() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Fill fill = fillManager.create(createOptions(new LatLng()));
+    assertNull(fill.getGroup());
+    fill.setGroup("parks");
+    assertEquals("parks", fill.getGroup());
+    assertEquals("parks", fill.getFeature().get(Annotation.GROUP_KEY).getAsString());
+  }
+
+  @Test
+  public void testGroupVisibility() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.create(createOptions(new LatLng()).withGroup("parks"));
+    clearInvocations(geoJsonSource);
+
+    fillManager.setGroupVisible("parks", false);
+    assertFalse(fillManager.isGroupVisible("parks"));
+    verify(fillLayer).setFilter(Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")));
+
+    fillManager.setGroupVisible("parks", true);
+    assertTrue(fillManager.isGroupVisible("parks"));
+    verify(fillLayer).setFilter(Expression.literal(true));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testHiddenGroupsCombinedWithFilter() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    fillManager.setFilter(filter);
+    fillManager.setGroupVisible("parks", false);
+    fillManager.setGroupVisible("lakes", false);
+    verify(fillLayer).setFilter(Expression.all(
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("lakes")),
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")),
+      filter));
+  }
+
+  @Test
+  public void testFilterWithHiddenGroups() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression expression = Expression.eq(Expression.get("test"), "selected");
+    fillManager.setFilter(expression);
+    fillManager.setGroupVisible("group", false);
+    assertEquals(expression, fillManager.getFilter());
+
+    // the filter hiding the group isn't made permanent
+    fillManager.setFilter(fillManager.getFilter());
+    fillManager.setGroupVisible("group", true);
+    verify(fillLayer, times(2)).setFilter(expression);
+  }
+
+  @Test
+  public void testGroupOptions() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Fill fill = fillManager.create(createOptions(new LatLng()).withGroup("group"));
+    assertEquals("group", fill.getGroup());
+
+    Feature feature = Feature.fromGeometry(fill.getGeometry());
+    feature.addStringProperty(Annotation.GROUP_KEY, "group");
+    assertEquals("group", FillOptions.fromFeature(feature).getGroup());
+    assertNull(createOptions(new LatLng()).getGroup());
+
+    KeyFunction<FillOptions> keyFunction = options -> "key";
+    fill = fillManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    fillManager.submit(Collections.singletonList(createOptions(new LatLng()).withGroup("other")), keyFunction);
+    assertEquals("other", fill.getGroup());
+  }
+
   @Test
   public void testClickListener() {
     OnFillClickListener listener = mock(OnFillClickListener.class);
@@ -453,6 +537,557 @@ public class FillManagerTest {
 
     fillManager.update(fill);
     assertTrue(fillManager.getAnnotations().isEmpty());
+
+    fillManager.update(Collections.singletonList(fill));
+    assertTrue(fillManager.getAnnotations().isEmpty());
+  }
+
+  @Test
+  public void testIncrementalSourceUpdate() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    List<LatLng>innerLatLngs = new ArrayList<>();
+    innerLatLngs.add(new LatLng());
+    innerLatLngs.add(new LatLng(1,1));
+    innerLatLngs.add(new LatLng(-1,-1));
+    List<List<LatLng>>latLngs = new ArrayList<>();
+    latLngs.add(innerLatLngs);
+    FillOptions options = new FillOptions().withLatLngs(latLngs);
+    Fill first = fillManager.create(options);
+    fillManager.create(options);
+    fillManager.update(first);
+    fillManager.updateSource();
+
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, times(5)).setGeoJson(captor.capture());
+    List<FeatureCollection> collections = captor.getAllValues();
+
+    // only the updated annotation is serialized again
+    assertNotSame(collections.get(2).features().get(0), collections.get(3).features().get(0));
+    assertSame(collections.get(2).features().get(1), collections.get(3).features().get(1));
+
+    // a full update serializes all annotations again
+    assertNotSame(collections.get(3).features().get(0), collections.get(4).features().get(0));
+    assertNotSame(collections.get(3).features().get(1), collections.get(4).features().get(1));
+  }
+
+  @Test
+  public void testDeferredUpdatesAreCoalesced() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setDeferredUpdatesEnabled(true);
+    assertTrue(fillManager.isDeferredUpdatesEnabled());
+    Fill fill = fillManager.create(createOptions(new LatLng()));
+    List<FillOptions> options = new ArrayList<>();
+    options.add(createOptions(new LatLng(1, 1)));
+    options.add(createOptions(new LatLng(2, 2)));
+    fillManager.create(options);
+    fillManager.update(fill);
+    fillManager.delete(fill);
+    assertEquals(2, fillManager.getAnnotations().size());
+
+    // only the initial source update happened so far
+    verify(geoJsonSource, times(1)).setGeoJson(any(FeatureCollection.class));
+
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDeferredUpdatesFlush() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setDeferredUpdatesEnabled(true);
+    fillManager.create(createOptions(new LatLng()));
+    fillManager.flush();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    // nothing left to commit with the next frame
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDisablingDeferredUpdatesFlushes() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setDeferredUpdatesEnabled(true);
+    fillManager.create(createOptions(new LatLng()));
+    fillManager.setDeferredUpdatesEnabled(false);
+    assertFalse(fillManager.isDeferredUpdatesEnabled());
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    fillManager.create(createOptions(new LatLng()));
+    verify(geoJsonSource, times(3)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDragUpdatesOnlyDragSource() {
+    FillLayer dragLayer = mock(FillLayer.class);
+    GeoJsonSource dragSource = mock(GeoJsonSource.class);
+    when(coreElementProvider.getDragLayer()).thenReturn(dragLayer);
+    when(coreElementProvider.getDragSource()).thenReturn(dragSource);
+    when(fillLayer.getId()).thenReturn(FillManager.ID_GEOJSON_LAYER);
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Fill dragged = fillManager.create(createOptions(new LatLng()).withFillOpacity(0.5f));
+    fillManager.create(createOptions(new LatLng(1, 1)));
+
+    fillManager.onDragStarted(dragged);
+    verify(style).addSource(dragSource);
+    verify(style).addLayerAbove(dragLayer, FillManager.ID_GEOJSON_LAYER);
+    // data-driven properties in use are mirrored on the drag layer
+    verify(dragLayer, atLeastOnce()).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+    assertEquals(1, lastFeatureCollection().features().size());
+    verify(dragSource).setGeoJson(any(Feature.class));
+
+    fillManager.onDragUpdated(dragged);
+    verify(dragSource, times(2)).setGeoJson(any(Feature.class));
+    // created two fills, moved one to the drag layer
+    verify(geoJsonSource, times(4)).setGeoJson(any(FeatureCollection.class));
+
+    fillManager.onDragFinished(dragged);
+    fillManager.internalUpdateSource();
+    verify(dragSource).setGeoJson(argThat((FeatureCollection collection) -> collection.features().isEmpty()));
+    FeatureCollection featureCollection = lastFeatureCollection();
+    assertEquals(2, featureCollection.features().size());
+    assertTrue(featureCollection.features().contains(
+      Feature.fromGeometry(dragged.getGeometry(), dragged.getFeature())));
+
+    // constant properties are mirrored as well
+    fillManager.onDragStarted(dragged);
+    fillManager.setFillTranslate(new Float[] {1.0f, 1.0f});
+    verify(dragLayer).setProperties(argThat((PropertyValue value) -> "fill-translate".equals(value.name)));
+  }
+
+  @Test
+  public void testViewportCulling() {
+    createCulledFillManager();
+    assertEquals(3, lastFeatureCollection().features().size());
+    fillManager.setViewportCullingEnabled(true);
+    assertTrue(fillManager.isViewportCullingEnabled());
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    fillManager.setViewportCullingMargin(0);
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    fillManager.setViewportCullingEnabled(false);
+    assertFalse(fillManager.isViewportCullingEnabled());
+    assertEquals(3, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingDropsChangesOutsideRegion() {
+    createCulledFillManager();
+    fillManager.setViewportCullingEnabled(true);
+    Fill fill = fillManager.create(createOptions(new LatLng(0, 10)));
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    moveTo(fill, new LatLng(0.5, 0.5));
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    moveTo(fill, new LatLng(0, -10));
+    assertEquals(2, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingFollowsCamera() {
+    createCulledFillManager();
+    setVisibleBounds(LatLngBounds.from(10, 10, -10, -10));
+    fillManager.setViewportCullingEnabled(true);
+    ArgumentCaptor<AnnotationManager.ViewportCullingListener> listenerCaptor =
+      ArgumentCaptor.forClass(AnnotationManager.ViewportCullingListener.class);
+    verify(mapboxMap).addOnCameraMoveListener(listenerCaptor.capture());
+    AnnotationManager.ViewportCullingListener listener = listenerCaptor.getValue();
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    // idle shrinks the region to the visible region
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    listener.onCameraIdle();
+    assertEquals(2, lastFeatureCollection().features().size());
+    clearInvocations(geoJsonSource);
+
+    // moves within the margin don't update the source
+    setVisibleBounds(LatLngBounds.from(1, 1.5, -1, -0.5));
+    listener.onCameraMove();
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    setVisibleBounds(LatLngBounds.from(1, 5.5, -1, 3.5));
+    listener.onCameraMove();
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    fillManager.onDestroy();
+    verify(mapboxMap).removeOnCameraMoveListener(listener);
+    verify(mapboxMap).removeOnCameraIdleListener(listener);
+  }
+
+  @Test
+  public void testMetricsOfSourceUpdates() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    OnAnnotationMetricsListener listener = mock(OnAnnotationMetricsListener.class);
+    assertNull(fillManager.getMetrics());
+    fillManager.setMetricsListener(listener);
+    AnnotationMetrics metrics = fillManager.getMetrics();
+    assertNotNull(metrics);
+
+    List<FillOptions> options = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    Fill fill = fillManager.create(options).get(0);
+    fillManager.update(fill);
+
+    assertEquals(2, metrics.getSourceUpdateCount());
+    assertEquals(6, metrics.getSerializedFeatureCount());
+    assertEquals(2, metrics.getFeaturesPerUpdate().getSampleCount());
+    assertEquals(3, metrics.getFeaturesPerUpdate().getMax());
+    assertEquals(2, metrics.getSerializationTime().getSampleCount());
+    // feature collections aren't measured
+    assertEquals(0, metrics.getSourceDataLength());
+
+    // listeners are notified once per frame
+    verify(listener, never()).onMetricsUpdated(metrics);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(metrics);
+
+    // collection restarts from 0
+    fillManager.setMetricsListener(null);
+    assertNull(fillManager.getMetrics());
+    fillManager.create(createOptions(new LatLng()));
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(any(AnnotationMetrics.class));
+    fillManager.setMetricsListener(listener);
+    assertEquals(0, fillManager.getMetrics().getSourceUpdateCount());
+  }
+
+  @Test
+  public void testMetricsOfSourceDataLength() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setDirectSerializationEnabled(true);
+    fillManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+    fillManager.create(createOptions(new LatLng()));
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(geoJsonSource, times(2)).setGeoJson(captor.capture());
+    AnnotationMetrics metrics = fillManager.getMetrics();
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLength());
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLengths().getMax());
+  }
+
+  @Test
+  public void testMetricsOfDragUpdatesAndHitTests() {
+    when(coreElementProvider.getDragLayer()).thenReturn(mock(FillLayer.class));
+    when(coreElementProvider.getDragSource()).thenReturn(mock(GeoJsonSource.class));
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Fill fill = fillManager.create(createOptions(new LatLng()));
+    fillManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+
+    fillManager.onDragStarted(fill);
+    fillManager.onDragUpdated(fill);
+    fillManager.onDragUpdated(fill);
+    fillManager.onDragFinished(fill);
+    fillManager.queryMapForFeatures(new PointF());
+
+    AnnotationMetrics metrics = fillManager.getMetrics();
+    assertEquals(2, metrics.getDragUpdateCount());
+    assertEquals(2, metrics.getDragUpdateIntervals().getSampleCount());
+    assertEquals(1, metrics.getHitTestCount());
+    assertEquals(1, metrics.getHitTestTime().getSampleCount());
+  }
+
+  @Test
+  public void testDataDrivenPropertyEnabledBySetter() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Fill fill = fillManager.create(createOptions(new LatLng()));
+    assertFalse(fillManager.dataDrivenPropertyUsageMap.get(FillOptions.PROPERTY_fillOpacity));
+    verify(fillLayer, never()).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+
+    fill.setFillOpacity(0.5f);
+    assertTrue(fillManager.dataDrivenPropertyUsageMap.get(FillOptions.PROPERTY_fillOpacity));
+    verify(fillLayer).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+
+    fill.setFillOpacity(0.8f);
+    fillManager.update(fill);
+    verify(fillLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+  }
+
+  @Test
+  public void testDataDrivenPropertiesSurviveStyleReload() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.create(createOptions(new LatLng()).withFillOpacity(0.5f));
+
+    ArgumentCaptor<MapView.OnDidFinishLoadingStyleListener> loadingArgumentCaptor = ArgumentCaptor.forClass(MapView.OnDidFinishLoadingStyleListener.class);
+    verify(mapView).addOnDidFinishLoadingStyleListener(loadingArgumentCaptor.capture());
+    loadingArgumentCaptor.getValue().onDidFinishLoadingStyle();
+    ArgumentCaptor<Style.OnStyleLoaded> styleLoadedArgumentCaptor = ArgumentCaptor.forClass(Style.OnStyleLoaded.class);
+    verify(mapboxMap).getStyle(styleLoadedArgumentCaptor.capture());
+
+    Style newStyle = mock(Style.class);
+    when(newStyle.isFullyLoaded()).thenReturn(true);
+    FillLayer newLayer = mock(FillLayer.class);
+    when(coreElementProvider.getLayer()).thenReturn(newLayer);
+    styleLoadedArgumentCaptor.getValue().onStyleLoaded(newStyle);
+
+    assertTrue(fillManager.dataDrivenPropertyUsageMap.get(FillOptions.PROPERTY_fillOpacity));
+    verify(newLayer).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+    verify(newLayer, never()).setProperties(argThat(new PropertyValueMatcher(fillColor(get("fill-color")))));
   }
 
+  @Test
+  public void testPropertyOverride() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.create(createOptions(new LatLng()).withFillOpacity(1f));
+    clearInvocations(geoJsonSource, fillLayer);
+
+    fillManager.setPropertyOverride(fillOpacity(0.2f));
+    verify(fillLayer).setProperties(argThat(new PropertyValueMatcher(fillOpacity(0.2f))));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    // the per-feature value is used again
+    fillManager.clearPropertyOverride(FillOptions.PROPERTY_fillOpacity);
+    verify(fillLayer).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+  }
+
+  @Test
+  public void testFilteredPropertyOverride() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    fillManager.setPropertyOverride(fillOpacity(0.5f), filter);
+    verify(fillLayer).setProperties(argThat(new PropertyValueMatcher(fillOpacity(
+      Expression.switchCase(filter, Expression.literal(0.5f), get("fill-opacity"))))));
+
+    // enabling the property for the first annotation using it keeps the override
+    fillManager.create(createOptions(new LatLng()).withFillOpacity(1f));
+    verify(fillLayer, never()).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+
+    // properties no annotation uses are reset to the default
+    fillManager.setPropertyOverride(fillColor("#ffffff"));
+    fillManager.clearPropertyOverrides();
+    verify(fillLayer).setProperties(argThat(new PropertyValueMatcher(new PropertyValue<>("fill-color", null))));
+    verify(fillLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(fillOpacity(get("fill-opacity")))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstantPropertyOverride() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setPropertyOverride(fillTranslate(new Float[] {1f, 1f}));
+  }
+
+  @Test
+  public void testShardsUpdatedIndependently() {
+    FillLayer shardLayer = mock(FillLayer.class);
+    GeoJsonSource shardSource = mock(GeoJsonSource.class);
+    mockShard(shardLayer, shardSource);
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.literal(true);
+    fillManager.setFilter(filter);
+    fillManager.setShardCount(2);
+    verify(style).addSource(shardSource);
+    verify(style).addLayerAbove(shardLayer, FillManager.ID_GEOJSON_LAYER);
+    verify(shardLayer).setFilter(filter);
+
+    List<FillOptions> options = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    List<Fill> fills = fillManager.create(options);
+    assertEquals(2, lastFeatureCollection(geoJsonSource).features().size());
+    assertEquals(2, lastFeatureCollection(shardSource).features().size());
+
+    clearInvocations(geoJsonSource, shardSource);
+    moveTo(fills.get(1), new LatLng(10, 10));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    verify(shardSource).setGeoJson(any(FeatureCollection.class));
+
+    fillManager.setShardCount(1);
+    verify(style).removeLayer(shardLayer);
+    verify(style).removeSource(shardSource);
+    assertEquals(4, lastFeatureCollection(geoJsonSource).features().size());
+  }
+
+  @Test
+  public void testShardLayersShareProperties() {
+    FillLayer shardLayer = mock(FillLayer.class);
+    mockShard(shardLayer, mock(GeoJsonSource.class));
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setShardCount(2);
+    fillManager.setFillTranslate(new Float[] {1.0f, 1.0f});
+    verify(shardLayer).setProperties(argThat((PropertyValue value) -> "fill-translate".equals(value.name)));
+
+    PointF point = new PointF();
+    String shardLayerId = FillManager.ID_GEOJSON_LAYER + "-1";
+    when(mapboxMap.queryRenderedFeatures(point, FillManager.ID_GEOJSON_LAYER, shardLayerId)).thenReturn(new ArrayList<>());
+    fillManager.queryMapForFeatures(point);
+    verify(mapboxMap).queryRenderedFeatures(point, FillManager.ID_GEOJSON_LAYER, shardLayerId);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardCountMustBePositive() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setShardCount(0);
+  }
+
+  @Test
+  public void testBackgroundSerializationDroppedOnStyleReload() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Queue<Runnable> serializerTasks = new LinkedList<>();
+    Handler mainHandler = mock(Handler.class);
+    when(mainHandler.post(any(Runnable.class))).thenAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return true;
+    });
+    fillManager.setBackgroundSerializer(new BackgroundSerializer(serializerTasks::add, mainHandler));
+    fillManager.create(createOptions(new LatLng()));
+
+    // the style started reloading while the annotations were serialized
+    when(style.isFullyLoaded()).thenReturn(false);
+    while (!serializerTasks.isEmpty()) {
+      serializerTasks.poll().run();
+    }
+    verify(geoJsonSource, never()).setGeoJson(anyString());
+  }
+
+  @Test
+  public void testSubmitReconcilesByKey() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<FillOptions, String> keys = new IdentityHashMap<>();
+    List<Fill> fills = fillManager.submit(Arrays.asList(
+      keyedOptions(keys, "a", 1f), keyedOptions(keys, "b", 1f), keyedOptions(keys, "c", 1f)), keys::get);
+    Fill unkeyed = fillManager.create(createOptions(new LatLng()));
+
+    List<Fill> submitted = fillManager.submit(Arrays.asList(
+      keyedOptions(keys, "c", 1f), keyedOptions(keys, "a", 0.5f), keyedOptions(keys, "d", 1f)), keys::get);
+    assertSame(fills.get(2), submitted.get(0));
+    assertSame(fills.get(0), submitted.get(1));
+    assertEquals(0.5f, submitted.get(1).getFillOpacity(), 0);
+    assertEquals(4, submitted.get(2).getId());
+
+    // missing keys are deleted, annotations created without a key are kept
+    assertNull(fillManager.getAnnotations().get(fills.get(1).getId()));
+    assertSame(unkeyed, fillManager.getAnnotations().get(unkeyed.getId()));
+    assertEquals(4, fillManager.getAnnotations().size());
+  }
+
+  @Test
+  public void testSubmitUnchangedList() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<FillOptions, String> keys = new IdentityHashMap<>();
+    fillManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    clearInvocations(geoJsonSource);
+    fillManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitDuplicateKeys() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<FillOptions, String> keys = new IdentityHashMap<>();
+    Fill fill = fillManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0);
+    try {
+      fillManager.submit(Arrays.asList(keyedOptions(keys, "b", 1f), keyedOptions(keys, "b", 0.5f)), keys::get);
+      fail("Duplicate keys should be rejected");
+    } catch (IllegalArgumentException exception) {
+      // nothing changed
+      assertEquals(1, fillManager.getAnnotations().size());
+      assertSame(fill, fillManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0));
+    }
+  }
+
+  @Test
+  public void testSubmitUnchangedWithCompactStorage() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setCompactPropertyStorageEnabled(true);
+    KeyFunction<FillOptions> keyFunction = options -> "key";
+    fillManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    clearInvocations(geoJsonSource);
+
+    fillManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitKeepsGroup() {
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    KeyFunction<FillOptions> keyFunction = options -> "key";
+    Fill fill = fillManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    fill.setGroup("group");
+    fillManager.update(fill);
+    clearInvocations(geoJsonSource);
+
+    fillManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", fill.getGroup());
+
+    fillManager.submit(Collections.singletonList(createOptions(new LatLng(1, 1))), keyFunction);
+    verify(geoJsonSource).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", fill.getGroup());
+  }
+
+  @Test
+  public void testSpatialIndexHitTesting() {
+    Projection projection = mock(Projection.class);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    when(projection.getMetersPerPixelAtLatitude(anyDouble())).thenReturn(1000.0);
+    PointF touch = new PointF();
+    when(projection.fromScreenLocation(touch)).thenReturn(new LatLng());
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.setSpatialIndexEnabled(true);
+
+    // the annotation rendered on top wins
+    Fill first = fillManager.create(createOptions(new LatLng()));
+    Fill second = fillManager.create(createOptions(new LatLng()));
+    assertEquals(second, fillManager.queryMapForFeatures(touch));
+
+    // the index can't evaluate the layer filter
+    fillManager.setFilter(Expression.literal(false));
+    assertNull(fillManager.queryMapForFeatures(touch));
+    verify(mapboxMap).queryRenderedFeatures(touch, FillManager.ID_GEOJSON_LAYER);
+  }
+
+  private FillOptions keyedOptions(Map<FillOptions, String> keys, String key, float opacity) {
+    FillOptions options = createOptions(new LatLng(1, 1)).withFillOpacity(opacity);
+    keys.put(options, key);
+    return options;
+  }
+
+  private void createCulledFillManager() {
+    when(mapboxMap.getProjection()).thenReturn(mock(Projection.class));
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    fillManager.create(createOptions(new LatLng(0, 0)));
+    fillManager.create(createOptions(new LatLng(0, 1.5)));
+    fillManager.create(createOptions(new LatLng(0, 5)));
+  }
+
+  private void setVisibleBounds(LatLngBounds bounds) {
+    when(mapboxMap.getProjection().getVisibleRegion()).thenReturn(new VisibleRegion(
+      bounds.getNorthWest(), bounds.getNorthEast(), bounds.getSouthWest(), bounds.getSouthEast(), bounds));
+  }
+
+  private void moveTo(Fill fill, LatLng latLng) {
+    fill.setGeometry(createOptions(latLng).buildAnnotation(fill.getId(), fillManager).getGeometry());
+    fillManager.update(fill);
+  }
+
+  private void mockShard(FillLayer shardLayer, GeoJsonSource shardSource) {
+    when(coreElementProvider.getShardLayer(1)).thenReturn(shardLayer);
+    when(coreElementProvider.getShardSource(1, null)).thenReturn(shardSource);
+    when(fillLayer.getId()).thenReturn(FillManager.ID_GEOJSON_LAYER);
+    when(shardLayer.getId()).thenReturn(FillManager.ID_GEOJSON_LAYER + "-1");
+  }
+
+  private FeatureCollection lastFeatureCollection() {
+    return lastFeatureCollection(geoJsonSource);
+  }
+
+  private static FeatureCollection lastFeatureCollection(GeoJsonSource source) {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(source, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private FillOptions createOptions(LatLng latLng) {
+    List<LatLng> innerLatLngs = new ArrayList<>();
+    innerLatLngs.add(latLng);
+    innerLatLngs.add(new LatLng(latLng.getLatitude() + 0.1, latLng.getLongitude() + 0.1));
+    innerLatLngs.add(new LatLng(latLng.getLatitude() - 0.1, latLng.getLongitude() - 0.1));
+    List<List<LatLng>> latLngs = new ArrayList<>();
+    latLngs.add(innerLatLngs);
+    return new FillOptions().withLatLngs(latLngs);
+  }
 }
\ No newline at end of file
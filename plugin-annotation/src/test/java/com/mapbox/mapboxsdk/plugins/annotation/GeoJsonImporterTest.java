@@ -0,0 +1,110 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.Point;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class GeoJsonImporterTest {
+
+  private static final String FEATURE_COLLECTION = "{\"type\":\"FeatureCollection\",\"features\":["
+    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1.0,2.0]},"
+    + "\"properties\":{\"circle-radius\":3.0}},"
+    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[1.0,2.0],[3.0,4.0]]}},"
+    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,0]]]}},"
+    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiPoint\",\"coordinates\":[[0,0]]}},"
+    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[5.0,6.0,7.0]}}"
+    + "],\"bbox\":[0,0,5,6]}";
+
+  private final List<List<Feature>> chunks = new ArrayList<>();
+  private final List<Integer> featureCounts = new ArrayList<>();
+  private final List<Exception> failures = new ArrayList<>();
+  private GeoJsonImporter<Feature> importer;
+
+  @Before
+  public void before() {
+    importer = new GeoJsonImporter<>(Runnable::run, new Handler(Looper.getMainLooper()));
+  }
+
+  @Test
+  public void importsInChunks() {
+    importer.start(new StringReader(FEATURE_COLLECTION), 2, feature -> feature, new RecordingCallback());
+
+    assertEquals(2, chunks.size());
+    assertEquals(2, chunks.get(0).size());
+    assertEquals(2, chunks.get(1).size());
+    // the multi point is skipped
+    assertEquals(2, (int) featureCounts.get(0));
+    assertEquals(5, (int) featureCounts.get(1));
+    assertEquals(5, (int) featureCounts.get(2));
+    assertTrue(failures.isEmpty());
+
+    Feature point = chunks.get(0).get(0);
+    assertEquals(Point.fromLngLat(1.0, 2.0), point.geometry());
+    assertEquals(3.0f, point.getNumberProperty("circle-radius").floatValue(), 0);
+    assertNotNull(chunks.get(0).get(1).properties());
+    assertEquals(Point.fromLngLat(5.0, 6.0, 7.0), chunks.get(1).get(1).geometry());
+  }
+
+  @Test
+  public void featuresConvertedToNullAreSkipped() {
+    importer.start(new StringReader(FEATURE_COLLECTION), 10,
+      feature -> feature.geometry() instanceof Point ? feature : null, new RecordingCallback());
+
+    assertEquals(1, chunks.size());
+    assertEquals(2, chunks.get(0).size());
+  }
+
+  @Test
+  public void malformedInputFails() {
+    importer.start(new StringReader("{\"type\":\"FeatureCollection\",\"features\":[{"), 10,
+      feature -> feature, new RecordingCallback());
+
+    assertEquals(1, failures.size());
+    assertTrue(featureCounts.isEmpty());
+  }
+
+  @Test
+  public void canceledImportDeliversNothing() {
+    importer.cancel();
+    importer.start(new StringReader(FEATURE_COLLECTION), 1, feature -> feature, new RecordingCallback());
+
+    assertTrue(chunks.isEmpty());
+    assertTrue(featureCounts.isEmpty());
+  }
+
+  private class RecordingCallback implements GeoJsonImporter.Callback<Feature> {
+
+    @Override
+    public void onChunk(@NonNull List<Feature> options, int featureCount) {
+      chunks.add(options);
+      featureCounts.add(featureCount);
+    }
+
+    @Override
+    public void onFinished(int featureCount) {
+      featureCounts.add(featureCount);
+    }
+
+    @Override
+    public void onFailed(@NonNull Exception exception) {
+      failures.add(exception);
+    }
+  }
+}
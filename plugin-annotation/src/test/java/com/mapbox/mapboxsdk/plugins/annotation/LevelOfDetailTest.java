@@ -0,0 +1,176 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.LineLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class LevelOfDetailTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private LineLayer lineLayer;
+
+  @Mock
+  private CoreElementProvider<LineLayer> coreElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Line, OnLineDragListener> draggableAnnotationController;
+
+  private LineManager lineManager;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(coreElementProvider.getLayer()).thenReturn(lineLayer);
+    when(coreElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null,
+      draggableAnnotationController);
+  }
+
+  @Test
+  public void significances() {
+    float[] significances = LevelOfDetail.calculateSignificances(Arrays.asList(
+      Point.fromLngLat(0, 0), Point.fromLngLat(1, 0), Point.fromLngLat(2, 1), Point.fromLngLat(3, 0),
+      Point.fromLngLat(4, 0)));
+
+    assertEquals(Float.POSITIVE_INFINITY, significances[0], 0);
+    assertEquals(Float.POSITIVE_INFINITY, significances[4], 0);
+    assertTrue(significances[2] > 0);
+    // a point is never more significant than the point splitting its segment off
+    assertTrue(significances[1] > 0 && significances[1] <= significances[2]);
+    assertTrue(significances[3] > 0 && significances[3] <= significances[2]);
+
+    // collinear points aren't significant
+    significances = LevelOfDetail.calculateSignificances(Arrays.asList(
+      Point.fromLngLat(0, 0), Point.fromLngLat(1, 0), Point.fromLngLat(2, 0)));
+    assertEquals(0, significances[1], 1e-12);
+  }
+
+  @Test
+  public void filterKeepsMinimumPoints() {
+    List<Point> ring = Arrays.asList(Point.fromLngLat(0, 0), Point.fromLngLat(3, 0), Point.fromLngLat(3, 1),
+      Point.fromLngLat(0, 2), Point.fromLngLat(0, 0));
+    float[] significances = LevelOfDetail.calculateSignificances(ring);
+
+    assertSame(ring, LevelOfDetail.filter(ring, significances, 0, 4));
+    assertEquals(4, LevelOfDetail.filter(ring, significances, 1, 4).size());
+    assertEquals(2, LevelOfDetail.filter(ring, significances, 1, 2).size());
+  }
+
+  @Test
+  public void simplifiedByZoom() {
+    Line line = lineManager.create(new LineOptions().withLatLngs(track(0)));
+    when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition(new LatLng(), 2, 0, 0));
+    lineManager.setLevelOfDetailEnabled(true);
+    assertTrue(lineManager.isLevelOfDetailEnabled());
+    assertEquals(2, lastLineString().coordinates().size());
+
+    // the full geometry is used above the maximum zoom
+    ArgumentCaptor<MapboxMap.OnCameraIdleListener> captor =
+      ArgumentCaptor.forClass(MapboxMap.OnCameraIdleListener.class);
+    verify(mapboxMap).addOnCameraIdleListener(captor.capture());
+    when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition(new LatLng(), 18, 0, 0));
+    captor.getValue().onCameraIdle();
+    assertEquals(line.getGeometry(), lastLineString());
+
+    lineManager.setLevelOfDetailEnabled(false);
+    assertFalse(lineManager.isLevelOfDetailEnabled());
+    verify(mapboxMap).removeOnCameraIdleListener(captor.getValue());
+  }
+
+  @Test
+  public void refinedWhileZoomingIn() {
+    Line line = lineManager.create(new LineOptions().withLatLngs(track(0)));
+    when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition(new LatLng(), 2, 0, 0));
+    lineManager.setLevelOfDetailEnabled(true);
+    ArgumentCaptor<MapboxMap.OnCameraMoveListener> moveCaptor =
+      ArgumentCaptor.forClass(MapboxMap.OnCameraMoveListener.class);
+    verify(mapboxMap).addOnCameraMoveListener(moveCaptor.capture());
+    ArgumentCaptor<MapboxMap.OnCameraIdleListener> idleCaptor =
+      ArgumentCaptor.forClass(MapboxMap.OnCameraIdleListener.class);
+    verify(mapboxMap).addOnCameraIdleListener(idleCaptor.capture());
+
+    when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition(new LatLng(), 18, 0, 0));
+    moveCaptor.getValue().onCameraMove();
+    assertEquals(line.getGeometry(), lastLineString());
+
+    // zooming out keeps the finer level until the camera is idle
+    when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition(new LatLng(), 2, 0, 0));
+    moveCaptor.getValue().onCameraMove();
+    assertEquals(line.getGeometry(), lastLineString());
+    idleCaptor.getValue().onCameraIdle();
+    assertEquals(2, lastLineString().coordinates().size());
+
+    lineManager.setLevelOfDetailEnabled(false);
+    verify(mapboxMap).removeOnCameraMoveListener(moveCaptor.getValue());
+  }
+
+  @Test
+  public void changedGeometriesAreSimplifiedAgain() {
+    when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition(new LatLng(), 2, 0, 0));
+    lineManager.setLevelOfDetailEnabled(true);
+    Line line = lineManager.create(new LineOptions().withLatLngs(track(0)));
+    assertEquals(2, lastLineString().coordinates().size());
+
+    line.setLatLngs(track(1));
+    lineManager.update(line);
+    assertEquals(Arrays.asList(Point.fromLngLat(1, 0), Point.fromLngLat(11, 0)), lastLineString().coordinates());
+  }
+
+  private LineString lastLineString() {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, atLeastOnce()).setGeoJson(captor.capture());
+    return (LineString) captor.getValue().features().get(0).geometry();
+  }
+
+  /**
+   * A track along the equator with noise that isn't visible at low zoom levels.
+   */
+  private static List<LatLng> track(double longitude) {
+    List<LatLng> latLngs = new ArrayList<>();
+    for (int i = 0; i <= 1000; i++) {
+      latLngs.add(new LatLng(i == 1000 ? 0 : (i % 2) * 1e-6, longitude + i * 0.01));
+    }
+    return latLngs;
+  }
+}
@@ -4,8 +4,11 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.VisibleRegion;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
 import com.mapbox.mapboxsdk.style.layers.*;
@@ -14,21 +17,32 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.utils.ColorUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
 import android.graphics.PointF;
+import android.os.Handler;
 
 import static com.mapbox.mapboxsdk.plugins.annotation.ConvertUtils.convertArray;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.get;
 import static com.mapbox.mapboxsdk.style.layers.Property.*;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.*;
 import static junit.framework.Assert.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+@RunWith(RobolectricTestRunner.class)
 public class LineManagerTest {
 
   private DraggableAnnotationController<Line, OnLineDragListener> draggableAnnotationController = mock(DraggableAnnotationController.class);
@@ -407,6 +421,76 @@ public class LineManagerTest {
     assertEquals(expression, lineManager.layerFilter);
   }
 
+  @Test
+  public void testGroup() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Line line = lineManager.create(createOptions(new LatLng()));
+    assertNull(line.getGroup());
+    line.setGroup("parks");
+    assertEquals("parks", line.getGroup());
+    assertEquals("parks", line.getFeature().get(Annotation.GROUP_KEY).getAsString());
+  }
+
+  @Test
+  public void testGroupVisibility() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.create(createOptions(new LatLng()).withGroup("parks"));
+    clearInvocations(geoJsonSource);
+
+    lineManager.setGroupVisible("parks", false);
+    assertFalse(lineManager.isGroupVisible("parks"));
+    verify(lineLayer).setFilter(Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")));
+
+    lineManager.setGroupVisible("parks", true);
+    assertTrue(lineManager.isGroupVisible("parks"));
+    verify(lineLayer).setFilter(Expression.literal(true));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testHiddenGroupsCombinedWithFilter() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    lineManager.setFilter(filter);
+    lineManager.setGroupVisible("parks", false);
+    lineManager.setGroupVisible("lakes", false);
+    verify(lineLayer).setFilter(Expression.all(
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("lakes")),
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")),
+      filter));
+  }
+
+  @Test
+  public void testFilterWithHiddenGroups() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression expression = Expression.eq(Expression.get("test"), "selected");
+    lineManager.setFilter(expression);
+    lineManager.setGroupVisible("group", false);
+    assertEquals(expression, lineManager.getFilter());
+
+    // the filter hiding the group isn't made permanent
+    lineManager.setFilter(lineManager.getFilter());
+    lineManager.setGroupVisible("group", true);
+    verify(lineLayer, times(2)).setFilter(expression);
+  }
+
+  @Test
+  public void testGroupOptions() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Line line = lineManager.create(createOptions(new LatLng()).withGroup("group"));
+    assertEquals("group", line.getGroup());
+
+    Feature feature = Feature.fromGeometry(line.getGeometry());
+    feature.addStringProperty(Annotation.GROUP_KEY, "group");
+    assertEquals("group", LineOptions.fromFeature(feature).getGroup());
+    assertNull(createOptions(new LatLng()).getGroup());
+
+    KeyFunction<LineOptions> keyFunction = options -> "key";
+    line = lineManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    lineManager.submit(Collections.singletonList(createOptions(new LatLng()).withGroup("other")), keyFunction);
+    assertEquals("other", line.getGroup());
+  }
+
   @Test
   public void testClickListener() {
     OnLineClickListener listener = mock(OnLineClickListener.class);
@@ -469,6 +553,560 @@ public class LineManagerTest {
 
     lineManager.update(line);
     assertTrue(lineManager.getAnnotations().isEmpty());
+
+    lineManager.update(Collections.singletonList(line));
+    assertTrue(lineManager.getAnnotations().isEmpty());
+  }
+
+  @Test
+  public void testIncrementalSourceUpdate() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    List<LatLng>latLngs = new ArrayList<>();
+    latLngs.add(new LatLng());
+    latLngs.add(new LatLng(1,1));
+    LineOptions options = new LineOptions().withLatLngs(latLngs);
+    Line first = lineManager.create(options);
+    lineManager.create(options);
+    lineManager.update(first);
+    lineManager.updateSource();
+
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, times(5)).setGeoJson(captor.capture());
+    List<FeatureCollection> collections = captor.getAllValues();
+
+    // only the updated annotation is serialized again
+    assertNotSame(collections.get(2).features().get(0), collections.get(3).features().get(0));
+    assertSame(collections.get(2).features().get(1), collections.get(3).features().get(1));
+
+    // a full update serializes all annotations again
+    assertNotSame(collections.get(3).features().get(0), collections.get(4).features().get(0));
+    assertNotSame(collections.get(3).features().get(1), collections.get(4).features().get(1));
+  }
+
+  @Test
+  public void testDeferredUpdatesAreCoalesced() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setDeferredUpdatesEnabled(true);
+    assertTrue(lineManager.isDeferredUpdatesEnabled());
+    Line line = lineManager.create(createOptions(new LatLng()));
+    List<LineOptions> options = new ArrayList<>();
+    options.add(createOptions(new LatLng(1, 1)));
+    options.add(createOptions(new LatLng(2, 2)));
+    lineManager.create(options);
+    lineManager.update(line);
+    lineManager.delete(line);
+    assertEquals(2, lineManager.getAnnotations().size());
+
+    // only the initial source update happened so far
+    verify(geoJsonSource, times(1)).setGeoJson(any(FeatureCollection.class));
+
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDeferredUpdatesFlush() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setDeferredUpdatesEnabled(true);
+    lineManager.create(createOptions(new LatLng()));
+    lineManager.flush();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    // nothing left to commit with the next frame
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDisablingDeferredUpdatesFlushes() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setDeferredUpdatesEnabled(true);
+    lineManager.create(createOptions(new LatLng()));
+    lineManager.setDeferredUpdatesEnabled(false);
+    assertFalse(lineManager.isDeferredUpdatesEnabled());
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    lineManager.create(createOptions(new LatLng()));
+    verify(geoJsonSource, times(3)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDragUpdatesOnlyDragSource() {
+    LineLayer dragLayer = mock(LineLayer.class);
+    GeoJsonSource dragSource = mock(GeoJsonSource.class);
+    when(coreElementProvider.getDragLayer()).thenReturn(dragLayer);
+    when(coreElementProvider.getDragSource()).thenReturn(dragSource);
+    when(lineLayer.getId()).thenReturn(LineManager.ID_GEOJSON_LAYER);
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Line dragged = lineManager.create(createOptions(new LatLng()).withLineOpacity(0.5f));
+    lineManager.create(createOptions(new LatLng(1, 1)));
+
+    lineManager.onDragStarted(dragged);
+    verify(style).addSource(dragSource);
+    verify(style).addLayerAbove(dragLayer, LineManager.ID_GEOJSON_LAYER);
+    // data-driven properties in use are mirrored on the drag layer
+    verify(dragLayer, atLeastOnce()).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+    assertEquals(1, lastFeatureCollection().features().size());
+    verify(dragSource).setGeoJson(any(Feature.class));
+
+    lineManager.onDragUpdated(dragged);
+    verify(dragSource, times(2)).setGeoJson(any(Feature.class));
+    // created two lines, moved one to the drag layer
+    verify(geoJsonSource, times(4)).setGeoJson(any(FeatureCollection.class));
+
+    lineManager.onDragFinished(dragged);
+    lineManager.internalUpdateSource();
+    verify(dragSource).setGeoJson(argThat((FeatureCollection collection) -> collection.features().isEmpty()));
+    FeatureCollection featureCollection = lastFeatureCollection();
+    assertEquals(2, featureCollection.features().size());
+    assertTrue(featureCollection.features().contains(
+      Feature.fromGeometry(dragged.getGeometry(), dragged.getFeature())));
+
+    // constant properties are mirrored as well
+    lineManager.onDragStarted(dragged);
+    lineManager.setLineTranslate(new Float[] {1.0f, 1.0f});
+    verify(dragLayer).setProperties(argThat((PropertyValue value) -> "line-translate".equals(value.name)));
+  }
+
+  @Test
+  public void testViewportCulling() {
+    createCulledLineManager();
+    assertEquals(3, lastFeatureCollection().features().size());
+    lineManager.setViewportCullingEnabled(true);
+    assertTrue(lineManager.isViewportCullingEnabled());
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    lineManager.setViewportCullingMargin(0);
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    lineManager.setViewportCullingEnabled(false);
+    assertFalse(lineManager.isViewportCullingEnabled());
+    assertEquals(3, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingDropsChangesOutsideRegion() {
+    createCulledLineManager();
+    lineManager.setViewportCullingEnabled(true);
+    Line line = lineManager.create(createOptions(new LatLng(0, 10)));
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    moveTo(line, new LatLng(0.5, 0.5));
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    moveTo(line, new LatLng(0, -10));
+    assertEquals(2, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingFollowsCamera() {
+    createCulledLineManager();
+    setVisibleBounds(LatLngBounds.from(10, 10, -10, -10));
+    lineManager.setViewportCullingEnabled(true);
+    ArgumentCaptor<AnnotationManager.ViewportCullingListener> listenerCaptor =
+      ArgumentCaptor.forClass(AnnotationManager.ViewportCullingListener.class);
+    verify(mapboxMap).addOnCameraMoveListener(listenerCaptor.capture());
+    AnnotationManager.ViewportCullingListener listener = listenerCaptor.getValue();
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    // idle shrinks the region to the visible region
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    listener.onCameraIdle();
+    assertEquals(2, lastFeatureCollection().features().size());
+    clearInvocations(geoJsonSource);
+
+    // moves within the margin don't update the source
+    setVisibleBounds(LatLngBounds.from(1, 1.5, -1, -0.5));
+    listener.onCameraMove();
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    setVisibleBounds(LatLngBounds.from(1, 5.5, -1, 3.5));
+    listener.onCameraMove();
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    lineManager.onDestroy();
+    verify(mapboxMap).removeOnCameraMoveListener(listener);
+    verify(mapboxMap).removeOnCameraIdleListener(listener);
+  }
+
+  @Test
+  public void testMetricsOfSourceUpdates() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    OnAnnotationMetricsListener listener = mock(OnAnnotationMetricsListener.class);
+    assertNull(lineManager.getMetrics());
+    lineManager.setMetricsListener(listener);
+    AnnotationMetrics metrics = lineManager.getMetrics();
+    assertNotNull(metrics);
+
+    List<LineOptions> options = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    Line line = lineManager.create(options).get(0);
+    lineManager.update(line);
+
+    assertEquals(2, metrics.getSourceUpdateCount());
+    assertEquals(6, metrics.getSerializedFeatureCount());
+    assertEquals(2, metrics.getFeaturesPerUpdate().getSampleCount());
+    assertEquals(3, metrics.getFeaturesPerUpdate().getMax());
+    assertEquals(2, metrics.getSerializationTime().getSampleCount());
+    // feature collections aren't measured
+    assertEquals(0, metrics.getSourceDataLength());
+
+    // listeners are notified once per frame
+    verify(listener, never()).onMetricsUpdated(metrics);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(metrics);
+
+    // collection restarts from 0
+    lineManager.setMetricsListener(null);
+    assertNull(lineManager.getMetrics());
+    lineManager.create(createOptions(new LatLng()));
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(any(AnnotationMetrics.class));
+    lineManager.setMetricsListener(listener);
+    assertEquals(0, lineManager.getMetrics().getSourceUpdateCount());
+  }
+
+  @Test
+  public void testMetricsOfSourceDataLength() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setDirectSerializationEnabled(true);
+    lineManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+    lineManager.create(createOptions(new LatLng()));
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(geoJsonSource, times(2)).setGeoJson(captor.capture());
+    AnnotationMetrics metrics = lineManager.getMetrics();
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLength());
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLengths().getMax());
+  }
+
+  @Test
+  public void testMetricsOfDragUpdatesAndHitTests() {
+    when(coreElementProvider.getDragLayer()).thenReturn(mock(LineLayer.class));
+    when(coreElementProvider.getDragSource()).thenReturn(mock(GeoJsonSource.class));
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Line line = lineManager.create(createOptions(new LatLng()));
+    lineManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+
+    lineManager.onDragStarted(line);
+    lineManager.onDragUpdated(line);
+    lineManager.onDragUpdated(line);
+    lineManager.onDragFinished(line);
+    lineManager.queryMapForFeatures(new PointF());
+
+    AnnotationMetrics metrics = lineManager.getMetrics();
+    assertEquals(2, metrics.getDragUpdateCount());
+    assertEquals(2, metrics.getDragUpdateIntervals().getSampleCount());
+    assertEquals(1, metrics.getHitTestCount());
+    assertEquals(1, metrics.getHitTestTime().getSampleCount());
+  }
+
+  @Test
+  public void testDataDrivenPropertyEnabledBySetter() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Line line = lineManager.create(createOptions(new LatLng()));
+    assertFalse(lineManager.dataDrivenPropertyUsageMap.get(LineOptions.PROPERTY_lineOpacity));
+    verify(lineLayer, never()).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+
+    line.setLineOpacity(0.5f);
+    assertTrue(lineManager.dataDrivenPropertyUsageMap.get(LineOptions.PROPERTY_lineOpacity));
+    verify(lineLayer).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+
+    line.setLineOpacity(0.8f);
+    lineManager.update(line);
+    verify(lineLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
   }
 
+  @Test
+  public void testDataDrivenPropertiesSurviveStyleReload() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.create(createOptions(new LatLng()).withLineOpacity(0.5f));
+
+    ArgumentCaptor<MapView.OnDidFinishLoadingStyleListener> loadingArgumentCaptor = ArgumentCaptor.forClass(MapView.OnDidFinishLoadingStyleListener.class);
+    verify(mapView).addOnDidFinishLoadingStyleListener(loadingArgumentCaptor.capture());
+    loadingArgumentCaptor.getValue().onDidFinishLoadingStyle();
+    ArgumentCaptor<Style.OnStyleLoaded> styleLoadedArgumentCaptor = ArgumentCaptor.forClass(Style.OnStyleLoaded.class);
+    verify(mapboxMap).getStyle(styleLoadedArgumentCaptor.capture());
+
+    Style newStyle = mock(Style.class);
+    when(newStyle.isFullyLoaded()).thenReturn(true);
+    LineLayer newLayer = mock(LineLayer.class);
+    when(coreElementProvider.getLayer()).thenReturn(newLayer);
+    styleLoadedArgumentCaptor.getValue().onStyleLoaded(newStyle);
+
+    assertTrue(lineManager.dataDrivenPropertyUsageMap.get(LineOptions.PROPERTY_lineOpacity));
+    verify(newLayer).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+    verify(newLayer, never()).setProperties(argThat(new PropertyValueMatcher(lineWidth(get("line-width")))));
+  }
+
+  @Test
+  public void testPropertyOverride() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.create(createOptions(new LatLng()).withLineOpacity(1f));
+    clearInvocations(geoJsonSource, lineLayer);
+
+    lineManager.setPropertyOverride(lineOpacity(0.2f));
+    verify(lineLayer).setProperties(argThat(new PropertyValueMatcher(lineOpacity(0.2f))));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    // the per-feature value is used again
+    lineManager.clearPropertyOverride(LineOptions.PROPERTY_lineOpacity);
+    verify(lineLayer).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+  }
+
+  @Test
+  public void testFilteredPropertyOverride() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    lineManager.setPropertyOverride(lineOpacity(0.5f), filter);
+    verify(lineLayer).setProperties(argThat(new PropertyValueMatcher(lineOpacity(
+      Expression.switchCase(filter, Expression.literal(0.5f), get("line-opacity"))))));
+
+    // enabling the property for the first annotation using it keeps the override
+    lineManager.create(createOptions(new LatLng()).withLineOpacity(1f));
+    verify(lineLayer, never()).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+
+    // properties no annotation uses are reset to the default
+    lineManager.setPropertyOverride(lineWidth(3f));
+    lineManager.clearPropertyOverrides();
+    verify(lineLayer).setProperties(argThat(new PropertyValueMatcher(new PropertyValue<>("line-width", null))));
+    verify(lineLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(lineOpacity(get("line-opacity")))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstantPropertyOverride() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setPropertyOverride(lineTranslate(new Float[] {1f, 1f}));
+  }
+
+  @Test
+  public void testShardsUpdatedIndependently() {
+    LineLayer shardLayer = mock(LineLayer.class);
+    GeoJsonSource shardSource = mock(GeoJsonSource.class);
+    mockShard(shardLayer, shardSource);
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.literal(true);
+    lineManager.setFilter(filter);
+    lineManager.setShardCount(2);
+    verify(style).addSource(shardSource);
+    verify(style).addLayerAbove(shardLayer, LineManager.ID_GEOJSON_LAYER);
+    verify(shardLayer).setFilter(filter);
+
+    List<LineOptions> options = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    List<Line> lines = lineManager.create(options);
+    assertEquals(2, lastFeatureCollection(geoJsonSource).features().size());
+    assertEquals(2, lastFeatureCollection(shardSource).features().size());
+
+    clearInvocations(geoJsonSource, shardSource);
+    moveTo(lines.get(1), new LatLng(10, 10));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    verify(shardSource).setGeoJson(any(FeatureCollection.class));
+
+    lineManager.setShardCount(1);
+    verify(style).removeLayer(shardLayer);
+    verify(style).removeSource(shardSource);
+    assertEquals(4, lastFeatureCollection(geoJsonSource).features().size());
+  }
+
+  @Test
+  public void testShardLayersShareProperties() {
+    LineLayer shardLayer = mock(LineLayer.class);
+    mockShard(shardLayer, mock(GeoJsonSource.class));
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setShardCount(2);
+    lineManager.setLineTranslate(new Float[] {1.0f, 1.0f});
+    verify(shardLayer).setProperties(argThat((PropertyValue value) -> "line-translate".equals(value.name)));
+
+    PointF point = new PointF();
+    String shardLayerId = LineManager.ID_GEOJSON_LAYER + "-1";
+    when(mapboxMap.queryRenderedFeatures(point, LineManager.ID_GEOJSON_LAYER, shardLayerId)).thenReturn(new ArrayList<>());
+    lineManager.queryMapForFeatures(point);
+    verify(mapboxMap).queryRenderedFeatures(point, LineManager.ID_GEOJSON_LAYER, shardLayerId);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardCountMustBePositive() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setShardCount(0);
+  }
+
+  @Test
+  public void testBackgroundSerializationDroppedOnStyleReload() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Queue<Runnable> serializerTasks = new LinkedList<>();
+    Handler mainHandler = mock(Handler.class);
+    when(mainHandler.post(any(Runnable.class))).thenAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return true;
+    });
+    lineManager.setBackgroundSerializer(new BackgroundSerializer(serializerTasks::add, mainHandler));
+    lineManager.create(createOptions(new LatLng()));
+
+    // the style started reloading while the annotations were serialized
+    when(style.isFullyLoaded()).thenReturn(false);
+    while (!serializerTasks.isEmpty()) {
+      serializerTasks.poll().run();
+    }
+    verify(geoJsonSource, never()).setGeoJson(anyString());
+  }
+
+  @Test
+  public void testSubmitReconcilesByKey() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<LineOptions, String> keys = new IdentityHashMap<>();
+    List<Line> lines = lineManager.submit(Arrays.asList(
+      keyedOptions(keys, "a", 1f), keyedOptions(keys, "b", 1f), keyedOptions(keys, "c", 1f)), keys::get);
+    Line unkeyed = lineManager.create(createOptions(new LatLng()));
+
+    List<Line> submitted = lineManager.submit(Arrays.asList(
+      keyedOptions(keys, "c", 1f), keyedOptions(keys, "a", 0.5f), keyedOptions(keys, "d", 1f)), keys::get);
+    assertSame(lines.get(2), submitted.get(0));
+    assertSame(lines.get(0), submitted.get(1));
+    assertEquals(0.5f, submitted.get(1).getLineOpacity(), 0);
+    assertEquals(4, submitted.get(2).getId());
+
+    // missing keys are deleted, annotations created without a key are kept
+    assertNull(lineManager.getAnnotations().get(lines.get(1).getId()));
+    assertSame(unkeyed, lineManager.getAnnotations().get(unkeyed.getId()));
+    assertEquals(4, lineManager.getAnnotations().size());
+  }
+
+  @Test
+  public void testSubmitUnchangedList() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<LineOptions, String> keys = new IdentityHashMap<>();
+    lineManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    clearInvocations(geoJsonSource);
+    lineManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitDuplicateKeys() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<LineOptions, String> keys = new IdentityHashMap<>();
+    Line line = lineManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0);
+    try {
+      lineManager.submit(Arrays.asList(keyedOptions(keys, "b", 1f), keyedOptions(keys, "b", 0.5f)), keys::get);
+      fail("Duplicate keys should be rejected");
+    } catch (IllegalArgumentException exception) {
+      // nothing changed
+      assertEquals(1, lineManager.getAnnotations().size());
+      assertSame(line, lineManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0));
+    }
+  }
+
+  @Test
+  public void testSubmitUnchangedWithCompactStorage() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setCompactPropertyStorageEnabled(true);
+    KeyFunction<LineOptions> keyFunction = options -> "key";
+    lineManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    clearInvocations(geoJsonSource);
+
+    lineManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitKeepsGroup() {
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    KeyFunction<LineOptions> keyFunction = options -> "key";
+    Line line = lineManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    line.setGroup("group");
+    lineManager.update(line);
+    clearInvocations(geoJsonSource);
+
+    lineManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", line.getGroup());
+
+    lineManager.submit(Collections.singletonList(createOptions(new LatLng(1, 1))), keyFunction);
+    verify(geoJsonSource).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", line.getGroup());
+  }
+
+  @Test
+  public void testSpatialIndexHitTesting() {
+    Projection projection = mock(Projection.class);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    when(projection.getMetersPerPixelAtLatitude(anyDouble())).thenReturn(1000.0);
+    PointF touch = new PointF();
+    when(projection.fromScreenLocation(touch)).thenReturn(new LatLng());
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.setSpatialIndexEnabled(true);
+
+    // the annotation rendered on top wins
+    Line first = lineManager.create(createOptions(new LatLng()));
+    Line second = lineManager.create(createOptions(new LatLng()));
+    assertEquals(second, lineManager.queryMapForFeatures(touch));
+
+    // the rendered extent counts towards the hit tolerance
+    lineManager.delete(second);
+    PointF below = new PointF(0, 30);
+    when(projection.fromScreenLocation(below)).thenReturn(new LatLng(-30000 / GeometryUtils.METERS_PER_DEGREE, 0));
+    assertNull(lineManager.queryMapForFeatures(below));
+    first.setLineWidth(20f);
+    lineManager.update(first);
+    assertEquals(first, lineManager.queryMapForFeatures(below));
+
+    // the index can't evaluate the layer filter
+    lineManager.setFilter(Expression.literal(false));
+    assertNull(lineManager.queryMapForFeatures(touch));
+    verify(mapboxMap).queryRenderedFeatures(touch, LineManager.ID_GEOJSON_LAYER);
+  }
+
+  private LineOptions keyedOptions(Map<LineOptions, String> keys, String key, float opacity) {
+    LineOptions options = createOptions(new LatLng(1, 1)).withLineOpacity(opacity);
+    keys.put(options, key);
+    return options;
+  }
+
+  private void createCulledLineManager() {
+    when(mapboxMap.getProjection()).thenReturn(mock(Projection.class));
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    lineManager = new LineManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    lineManager.create(createOptions(new LatLng(0, 0)));
+    lineManager.create(createOptions(new LatLng(0, 1.5)));
+    lineManager.create(createOptions(new LatLng(0, 5)));
+  }
+
+  private void setVisibleBounds(LatLngBounds bounds) {
+    when(mapboxMap.getProjection().getVisibleRegion()).thenReturn(new VisibleRegion(
+      bounds.getNorthWest(), bounds.getNorthEast(), bounds.getSouthWest(), bounds.getSouthEast(), bounds));
+  }
+
+  private void moveTo(Line line, LatLng latLng) {
+    line.setGeometry(createOptions(latLng).buildAnnotation(line.getId(), lineManager).getGeometry());
+    lineManager.update(line);
+  }
+
+  private void mockShard(LineLayer shardLayer, GeoJsonSource shardSource) {
+    when(coreElementProvider.getShardLayer(1)).thenReturn(shardLayer);
+    when(coreElementProvider.getShardSource(1, null)).thenReturn(shardSource);
+    when(lineLayer.getId()).thenReturn(LineManager.ID_GEOJSON_LAYER);
+    when(shardLayer.getId()).thenReturn(LineManager.ID_GEOJSON_LAYER + "-1");
+  }
+
+  private FeatureCollection lastFeatureCollection() {
+    return lastFeatureCollection(geoJsonSource);
+  }
+
+  private static FeatureCollection lastFeatureCollection(GeoJsonSource source) {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(source, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private LineOptions createOptions(LatLng latLng) {
+    List<LatLng> latLngs = new ArrayList<>();
+    latLngs.add(latLng);
+    latLngs.add(new LatLng(latLng.getLatitude() + 0.1, latLng.getLongitude() + 0.1));
+    return new LineOptions().withLatLngs(latLngs);
+  }
 }
\ No newline at end of file
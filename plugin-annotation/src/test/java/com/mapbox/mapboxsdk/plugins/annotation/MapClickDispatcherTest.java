@@ -0,0 +1,171 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class MapClickDispatcherTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Projection projection;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private CircleLayer circleLayer;
+
+  @Mock
+  private SymbolLayer symbolLayer;
+
+  @Mock
+  private CoreElementProvider<CircleLayer> circleElementProvider;
+
+  @Mock
+  private CoreElementProvider<SymbolLayer> symbolElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Circle, OnCircleDragListener> circleDragController;
+
+  @Mock
+  private DraggableAnnotationController<Symbol, OnSymbolDragListener> symbolDragController;
+
+  private final PointF screenPoint = new PointF();
+  private CircleManager circleManager;
+  private SymbolManager symbolManager;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(circleElementProvider.getLayer()).thenReturn(circleLayer);
+    when(circleElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(symbolElementProvider.getLayer()).thenReturn(symbolLayer);
+    when(symbolElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    when(projection.toScreenLocation(any(LatLng.class))).thenReturn(screenPoint);
+    circleManager = new CircleManager(mapView, mapboxMap, style, circleElementProvider, null, null,
+      circleDragController);
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, symbolElementProvider, null, null,
+      symbolDragController);
+  }
+
+  @Test
+  public void singleQueryForAllManagers() {
+    circleManager.create(new CircleOptions().withLatLng(new LatLng()));
+    Circle circle = circleManager.create(new CircleOptions().withLatLng(new LatLng(1, 1)));
+    OnCircleClickListener circleClickListener = mock(OnCircleClickListener.class);
+    circleManager.addClickListener(circleClickListener);
+    OnSymbolClickListener symbolClickListener = mock(OnSymbolClickListener.class);
+    symbolManager.addClickListener(symbolClickListener);
+    when(mapboxMap.queryRenderedFeatures(screenPoint, SymbolManager.ID_GEOJSON_LAYER, CircleManager.ID_GEOJSON_LAYER))
+      .thenReturn(Collections.singletonList(Feature.fromGeometry(circle.getGeometry(), circle.getFeature())));
+
+    clickListener().onMapClick(new LatLng(1, 1));
+
+    verify(mapboxMap, times(1))
+      .queryRenderedFeatures(screenPoint, SymbolManager.ID_GEOJSON_LAYER, CircleManager.ID_GEOJSON_LAYER);
+    verify(mapboxMap, never()).queryRenderedFeatures(screenPoint, CircleManager.ID_GEOJSON_LAYER);
+    verify(circleClickListener).onAnnotationClick(circle);
+    verify(symbolClickListener, never()).onAnnotationClick(any(Symbol.class));
+  }
+
+  @Test
+  public void sharedIdsAreVerified() {
+    Circle circle = circleManager.create(new CircleOptions().withLatLng(new LatLng()));
+    symbolManager.create(new SymbolOptions().withLatLng(new LatLng()));
+    OnCircleClickListener circleClickListener = mock(OnCircleClickListener.class);
+    circleManager.addClickListener(circleClickListener);
+    OnSymbolClickListener symbolClickListener = mock(OnSymbolClickListener.class);
+    symbolManager.addClickListener(symbolClickListener);
+    Feature feature = Feature.fromGeometry(circle.getGeometry(), circle.getFeature());
+    when(mapboxMap.queryRenderedFeatures(screenPoint, SymbolManager.ID_GEOJSON_LAYER, CircleManager.ID_GEOJSON_LAYER))
+      .thenReturn(Collections.singletonList(feature));
+    when(mapboxMap.queryRenderedFeatures(screenPoint, SymbolManager.ID_GEOJSON_LAYER))
+      .thenReturn(Collections.emptyList());
+    when(mapboxMap.queryRenderedFeatures(screenPoint, CircleManager.ID_GEOJSON_LAYER))
+      .thenReturn(Collections.singletonList(feature));
+
+    clickListener().onMapClick(new LatLng());
+
+    verify(circleClickListener).onAnnotationClick(circle);
+    verify(symbolClickListener, never()).onAnnotationClick(any(Symbol.class));
+  }
+
+  @Test
+  public void sharedIdsAreResolvedByProperties() {
+    circleManager.create(new CircleOptions().withLatLng(new LatLng()).withCircleRadius(3f));
+    Symbol symbol = symbolManager.create(new SymbolOptions().withLatLng(new LatLng()).withTextField("label"));
+    OnCircleClickListener circleClickListener = mock(OnCircleClickListener.class);
+    circleManager.addClickListener(circleClickListener);
+    OnSymbolClickListener symbolClickListener = mock(OnSymbolClickListener.class);
+    symbolManager.addClickListener(symbolClickListener);
+    when(mapboxMap.queryRenderedFeatures(screenPoint, SymbolManager.ID_GEOJSON_LAYER, CircleManager.ID_GEOJSON_LAYER))
+      .thenReturn(Collections.singletonList(Feature.fromGeometry(symbol.getGeometry(), symbol.getFeature())));
+
+    clickListener().onMapClick(new LatLng());
+
+    verify(mapboxMap, never()).queryRenderedFeatures(screenPoint, SymbolManager.ID_GEOJSON_LAYER);
+    verify(mapboxMap, never()).queryRenderedFeatures(screenPoint, CircleManager.ID_GEOJSON_LAYER);
+    verify(symbolClickListener).onAnnotationClick(symbol);
+    verify(circleClickListener, never()).onAnnotationClick(any(Circle.class));
+  }
+
+  @Test
+  public void noQueryWithoutListeners() {
+    clickListener().onMapClick(new LatLng());
+    verify(projection, never()).toScreenLocation(any(LatLng.class));
+  }
+
+  @Test
+  public void removedWithLastManager() {
+    MapClickDispatcher dispatcher = (MapClickDispatcher) clickListener();
+    circleManager.onDestroy();
+    verify(mapboxMap, never()).removeOnMapClickListener(dispatcher);
+    symbolManager.onDestroy();
+    verify(mapboxMap).removeOnMapClickListener(dispatcher);
+    verify(mapboxMap).removeOnMapLongClickListener(dispatcher);
+  }
+
+  private MapboxMap.OnMapClickListener clickListener() {
+    ArgumentCaptor<MapboxMap.OnMapClickListener> captor = ArgumentCaptor.forClass(MapboxMap.OnMapClickListener.class);
+    // registered once for all managers
+    verify(mapboxMap).addOnMapClickListener(captor.capture());
+    return captor.getValue();
+  }
+}
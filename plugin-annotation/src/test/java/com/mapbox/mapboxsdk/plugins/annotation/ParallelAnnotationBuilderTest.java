@@ -0,0 +1,61 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ParallelAnnotationBuilderTest {
+
+  private final CircleManager circleManager = mock(CircleManager.class);
+
+  @Test
+  public void idsFollowOrder() {
+    List<CircleOptions> options = createOptions(ParallelAnnotationBuilder.MIN_RANGE_SIZE * 4 + 1);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Circle> circles = new ParallelAnnotationBuilder(executor, 4).build(options, 10, circleManager);
+      assertEquals(options.size(), circles.size());
+      for (int i = 0; i < circles.size(); i++) {
+        assertEquals(10 + i, circles.get(i).getId());
+        assertEquals(i, circles.get(i).getCircleRadius(), 0);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    // data-driven properties are left to the main thread
+    verifyZeroInteractions(circleManager);
+  }
+
+  @Test
+  public void smallListsAreBuiltOnCallingThread() {
+    List<Runnable> tasks = new ArrayList<>();
+    List<Circle> circles = new ParallelAnnotationBuilder(tasks::add, 4)
+      .build(createOptions(ParallelAnnotationBuilder.MIN_RANGE_SIZE), 0, circleManager);
+    assertEquals(ParallelAnnotationBuilder.MIN_RANGE_SIZE, circles.size());
+    assertEquals(0, tasks.size());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void failuresArePropagated() {
+    List<CircleOptions> options = createOptions(ParallelAnnotationBuilder.MIN_RANGE_SIZE * 2);
+    options.set(options.size() - 1, new CircleOptions());
+    new ParallelAnnotationBuilder(Runnable::run, 2).build(options, 0, circleManager);
+  }
+
+  private static List<CircleOptions> createOptions(int count) {
+    List<CircleOptions> options = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      options.add(new CircleOptions().withLatLng(new LatLng()).withCircleRadius((float) i));
+    }
+    return options;
+  }
+}
@@ -0,0 +1,86 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialGridIndexTest {
+
+  private final SpatialGridIndex index = new SpatialGridIndex(1);
+
+  @Test
+  public void queryPoints() {
+    index.put(0, 0.5, 0.5, 0.5, 0.5);
+    index.put(1, 2.5, 2.5, 2.5, 2.5);
+    index.put(2, -0.5, -0.5, -0.5, -0.5);
+    assertEquals(Arrays.asList(0L), query(0, 0, 1, 1));
+    assertEquals(Arrays.asList(0L, 1L, 2L), query(-1, -1, 3, 3));
+    assertTrue(query(5, 5, 6, 6).isEmpty());
+  }
+
+  @Test
+  public void entriesSpanningCellsAreVisitedOnce() {
+    index.put(0, 0.5, 0.5, 3.5, 3.5);
+    assertEquals(Arrays.asList(0L), query(0, 0, 4, 4));
+    assertEquals(Arrays.asList(0L), query(2, 2, 2.5, 2.5));
+    // query covering more cells than populated
+    assertEquals(Arrays.asList(0L), query(-50, -50, 50, 50));
+  }
+
+  @Test
+  public void largeEntries() {
+    index.put(0, -100, -50, 100, 50);
+    index.put(1, 0.5, 0.5, 0.5, 0.5);
+    assertEquals(Arrays.asList(0L), query(-90, -40, -80, -30));
+    assertEquals(Arrays.asList(0L, 1L), query(0, 0, 1, 1));
+  }
+
+  @Test
+  public void replaceAndRemove() {
+    index.put(0, 0.5, 0.5, 0.5, 0.5);
+    index.put(0, 10.5, 10.5, 10.5, 10.5);
+    assertEquals(1, index.size());
+    assertTrue(query(0, 0, 1, 1).isEmpty());
+    assertEquals(Arrays.asList(0L), query(10, 10, 11, 11));
+
+    index.remove(0);
+    assertEquals(0, index.size());
+    assertTrue(query(10, 10, 11, 11).isEmpty());
+  }
+
+  @Test
+  public void queryIdsInAscendingOrder() {
+    for (long id = 0; id < 100; id++) {
+      index.put(id, -179.5 + (id * 7) % 100 * 3.5, 0.5, -179.5 + (id * 7) % 100 * 3.5, 0.5);
+    }
+    long[] ids = index.queryIds(-180, 0, 180, 1);
+    assertEquals(100, ids.length);
+    for (int i = 0; i < ids.length; i++) {
+      assertEquals(i, ids[i]);
+    }
+  }
+
+  @Test
+  public void queryIdsAcrossAntimeridian() {
+    index.put(0, 179.5, 0.5, 179.5, 0.5);
+    index.put(1, -179.5, 0.5, -179.5, 0.5);
+    index.put(2, 0.5, 0.5, 0.5, 0.5);
+    // entry covering both sides
+    index.put(3, -180, 0.5, 180, 0.5);
+    assertArrayEquals(new long[] {0, 1, 3}, index.queryIds(179, 0, -179, 1));
+  }
+
+  private List<Long> query(double west, double south, double east, double north) {
+    List<Long> ids = new ArrayList<>();
+    index.query(west, south, east, north, ids::add);
+    Collections.sort(ids);
+    return ids;
+  }
+}
@@ -0,0 +1,155 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import android.graphics.PointF;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+import com.mapbox.mapboxsdk.maps.Style;
+import com.mapbox.mapboxsdk.style.layers.FillLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.mapbox.mapboxsdk.style.expressions.Expression.literal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class SpatialIndexTest {
+
+  @Mock
+  private MapView mapView;
+
+  @Mock
+  private MapboxMap mapboxMap;
+
+  @Mock
+  private Projection projection;
+
+  @Mock
+  private Style style;
+
+  @Mock
+  private GeoJsonSource geoJsonSource;
+
+  @Mock
+  private FillLayer fillLayer;
+
+  @Mock
+  private CoreElementProvider<FillLayer> coreElementProvider;
+
+  @Mock
+  private DraggableAnnotationController<Fill, OnFillDragListener> draggableAnnotationController;
+
+  private FillManager fillManager;
+  private Fill first;
+  private Fill second;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(coreElementProvider.getLayer()).thenReturn(fillLayer);
+    when(coreElementProvider.getSource(null)).thenReturn(geoJsonSource);
+    when(style.isFullyLoaded()).thenReturn(true);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    // roughly 1 degree per 100 pixels
+    when(projection.getMetersPerPixelAtLatitude(anyDouble())).thenReturn(1000.0);
+    fillManager = new FillManager(mapView, mapboxMap, style, coreElementProvider, null, null,
+      draggableAnnotationController);
+    fillManager.setSpatialIndexEnabled(true);
+
+    first = fillManager.create(new FillOptions().withLatLngs(square(0, 0, 1)));
+    second = fillManager.create(new FillOptions().withLatLngs(square(10, 10, 1)));
+  }
+
+  @Test
+  public void annotationsInBounds() {
+    assertTrue(fillManager.isSpatialIndexEnabled());
+    assertEquals(Arrays.asList(first), fillManager.getAnnotationsIn(LatLngBounds.from(2, 2, -1, -1)));
+    assertEquals(Arrays.asList(first, second), fillManager.getAnnotationsIn(LatLngBounds.from(20, 20, -1, -1)));
+    assertTrue(fillManager.getAnnotationsIn(LatLngBounds.from(5, 5, 3, 3)).isEmpty());
+  }
+
+  @Test
+  public void indexFollowsChanges() {
+    second.setLatLngs(square(0, 0, 2));
+    fillManager.update(second);
+    assertEquals(Arrays.asList(first, second), fillManager.getAnnotationsIn(LatLngBounds.from(2, 2, -1, -1)));
+
+    fillManager.delete(first);
+    assertEquals(Arrays.asList(second), fillManager.getAnnotationsIn(LatLngBounds.from(2, 2, -1, -1)));
+
+    fillManager.deleteAll();
+    assertTrue(fillManager.getAnnotationsIn(LatLngBounds.from(2, 2, -1, -1)).isEmpty());
+  }
+
+  @Test
+  public void nearest() {
+    assertEquals(first, fillManager.getNearest(new LatLng(0.5, 0.5), 0));
+    assertEquals(first, fillManager.getNearest(new LatLng(1.05, 0.5), 10));
+    assertNull(fillManager.getNearest(new LatLng(1.5, 0.5), 10));
+    assertEquals(second, fillManager.getNearest(new LatLng(9.5, 9.5), 100));
+  }
+
+  @Test
+  public void nearestAcrossAntimeridian() {
+    Fill east = fillManager.create(new FillOptions().withLatLngs(square(0, 179.9, 0.0998)));
+    assertEquals(east, fillManager.getNearest(new LatLng(0.05, -179.9999), 10));
+    assertEquals(east, fillManager.getNearest(new LatLng(0.05, 180.0001), 10));
+  }
+
+  @Test
+  public void hitTestingUsesIndex() {
+    PointF pointF = new PointF();
+    when(projection.fromScreenLocation(pointF)).thenReturn(new LatLng(10.5, 10.5));
+    assertEquals(second, fillManager.queryMapForFeatures(pointF));
+    verify(mapboxMap, never()).queryRenderedFeatures(any(PointF.class), anyString());
+  }
+
+  @Test
+  public void hitTestingHonoursFilter() {
+    PointF pointF = new PointF();
+    when(projection.fromScreenLocation(pointF)).thenReturn(new LatLng(10.5, 10.5));
+    fillManager.setFilter(literal(false));
+    assertNull(fillManager.queryMapForFeatures(pointF));
+    verify(mapboxMap).queryRenderedFeatures(pointF, FillManager.ID_GEOJSON_LAYER);
+  }
+
+  @Test
+  public void queriesWithoutIndex() {
+    fillManager.setSpatialIndexEnabled(false);
+    assertEquals(Arrays.asList(first), fillManager.getAnnotationsIn(LatLngBounds.from(2, 2, -1, -1)));
+    assertEquals(second, fillManager.getNearest(new LatLng(10.5, 10.5), 0));
+  }
+
+  private static List<List<LatLng>> square(double latitude, double longitude, double size) {
+    List<LatLng> ring = new ArrayList<>();
+    ring.add(new LatLng(latitude, longitude));
+    ring.add(new LatLng(latitude, longitude + size));
+    ring.add(new LatLng(latitude + size, longitude + size));
+    ring.add(new LatLng(latitude + size, longitude));
+    ring.add(new LatLng(latitude, longitude));
+    List<List<LatLng>> latLngs = new ArrayList<>();
+    latLngs.add(ring);
+    return latLngs;
+  }
+}
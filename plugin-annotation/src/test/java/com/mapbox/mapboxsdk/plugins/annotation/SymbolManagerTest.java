@@ -4,8 +4,11 @@ package com.mapbox.mapboxsdk.plugins.annotation;
 
 import com.mapbox.geojson.*;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.VisibleRegion;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
 import com.mapbox.mapboxsdk.maps.Style;
 import com.mapbox.mapboxsdk.style.expressions.Expression;
 import com.mapbox.mapboxsdk.style.layers.*;
@@ -14,21 +17,32 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.utils.ColorUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
 import android.graphics.PointF;
+import android.os.Handler;
 
 import static com.mapbox.mapboxsdk.plugins.annotation.ConvertUtils.convertArray;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.get;
 import static com.mapbox.mapboxsdk.style.layers.Property.*;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.*;
 import static junit.framework.Assert.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+@RunWith(RobolectricTestRunner.class)
 public class SymbolManagerTest {
 
   private DraggableAnnotationController<Symbol, OnSymbolDragListener> draggableAnnotationController = mock(DraggableAnnotationController.class);
@@ -629,6 +643,76 @@ public class SymbolManagerTest {
     assertEquals(expression, symbolManager.layerFilter);
   }
 
+  @Test
+  public void testGroup() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Symbol symbol = symbolManager.create(createOptions(new LatLng()));
+    assertNull(symbol.getGroup());
+    symbol.setGroup("parks");
+    assertEquals("parks", symbol.getGroup());
+    assertEquals("parks", symbol.getFeature().get(Annotation.GROUP_KEY).getAsString());
+  }
+
+  @Test
+  public void testGroupVisibility() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.create(createOptions(new LatLng()).withGroup("parks"));
+    clearInvocations(geoJsonSource);
+
+    symbolManager.setGroupVisible("parks", false);
+    assertFalse(symbolManager.isGroupVisible("parks"));
+    verify(symbolLayer).setFilter(Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")));
+
+    symbolManager.setGroupVisible("parks", true);
+    assertTrue(symbolManager.isGroupVisible("parks"));
+    verify(symbolLayer).setFilter(Expression.literal(true));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testHiddenGroupsCombinedWithFilter() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    symbolManager.setFilter(filter);
+    symbolManager.setGroupVisible("parks", false);
+    symbolManager.setGroupVisible("lakes", false);
+    verify(symbolLayer).setFilter(Expression.all(
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("lakes")),
+      Expression.neq(get(Annotation.GROUP_KEY), Expression.literal("parks")),
+      filter));
+  }
+
+  @Test
+  public void testFilterWithHiddenGroups() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression expression = Expression.eq(Expression.get("test"), "selected");
+    symbolManager.setFilter(expression);
+    symbolManager.setGroupVisible("group", false);
+    assertEquals(expression, symbolManager.getFilter());
+
+    // the filter hiding the group isn't made permanent
+    symbolManager.setFilter(symbolManager.getFilter());
+    symbolManager.setGroupVisible("group", true);
+    verify(symbolLayer, times(2)).setFilter(expression);
+  }
+
+  @Test
+  public void testGroupOptions() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Symbol symbol = symbolManager.create(createOptions(new LatLng()).withGroup("group"));
+    assertEquals("group", symbol.getGroup());
+
+    Feature feature = Feature.fromGeometry(symbol.getGeometry());
+    feature.addStringProperty(Annotation.GROUP_KEY, "group");
+    assertEquals("group", SymbolOptions.fromFeature(feature).getGroup());
+    assertNull(createOptions(new LatLng()).getGroup());
+
+    KeyFunction<SymbolOptions> keyFunction = options -> "key";
+    symbol = symbolManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    symbolManager.submit(Collections.singletonList(createOptions(new LatLng()).withGroup("other")), keyFunction);
+    assertEquals("other", symbol.getGroup());
+  }
+
   @Test
   public void testClickListener() {
     OnSymbolClickListener listener = mock(OnSymbolClickListener.class);
@@ -685,6 +769,557 @@ public class SymbolManagerTest {
 
     symbolManager.update(symbol);
     assertTrue(symbolManager.getAnnotations().isEmpty());
+
+    symbolManager.update(Collections.singletonList(symbol));
+    assertTrue(symbolManager.getAnnotations().isEmpty());
+  }
+
+  @Test
+  public void testIncrementalSourceUpdate() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    SymbolOptions options = new SymbolOptions().withLatLng(new LatLng());
+    Symbol first = symbolManager.create(options);
+    symbolManager.create(options);
+    symbolManager.update(first);
+    symbolManager.updateSource();
+
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(geoJsonSource, times(5)).setGeoJson(captor.capture());
+    List<FeatureCollection> collections = captor.getAllValues();
+
+    // only the updated annotation is serialized again
+    assertNotSame(collections.get(2).features().get(0), collections.get(3).features().get(0));
+    assertSame(collections.get(2).features().get(1), collections.get(3).features().get(1));
+
+    // a full update serializes all annotations again
+    assertNotSame(collections.get(3).features().get(0), collections.get(4).features().get(0));
+    assertNotSame(collections.get(3).features().get(1), collections.get(4).features().get(1));
+  }
+
+  @Test
+  public void testDeferredUpdatesAreCoalesced() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setDeferredUpdatesEnabled(true);
+    assertTrue(symbolManager.isDeferredUpdatesEnabled());
+    Symbol symbol = symbolManager.create(createOptions(new LatLng()));
+    List<SymbolOptions> options = new ArrayList<>();
+    options.add(createOptions(new LatLng(1, 1)));
+    options.add(createOptions(new LatLng(2, 2)));
+    symbolManager.create(options);
+    symbolManager.update(symbol);
+    symbolManager.delete(symbol);
+    assertEquals(2, symbolManager.getAnnotations().size());
+
+    // only the initial source update happened so far
+    verify(geoJsonSource, times(1)).setGeoJson(any(FeatureCollection.class));
+
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
   }
 
+  @Test
+  public void testDeferredUpdatesFlush() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setDeferredUpdatesEnabled(true);
+    symbolManager.create(createOptions(new LatLng()));
+    symbolManager.flush();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    // nothing left to commit with the next frame
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDisablingDeferredUpdatesFlushes() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setDeferredUpdatesEnabled(true);
+    symbolManager.create(createOptions(new LatLng()));
+    symbolManager.setDeferredUpdatesEnabled(false);
+    assertFalse(symbolManager.isDeferredUpdatesEnabled());
+    verify(geoJsonSource, times(2)).setGeoJson(any(FeatureCollection.class));
+
+    symbolManager.create(createOptions(new LatLng()));
+    verify(geoJsonSource, times(3)).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testDragUpdatesOnlyDragSource() {
+    SymbolLayer dragLayer = mock(SymbolLayer.class);
+    GeoJsonSource dragSource = mock(GeoJsonSource.class);
+    when(coreElementProvider.getDragLayer()).thenReturn(dragLayer);
+    when(coreElementProvider.getDragSource()).thenReturn(dragSource);
+    when(symbolLayer.getId()).thenReturn(SymbolManager.ID_GEOJSON_LAYER);
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Symbol dragged = symbolManager.create(createOptions(new LatLng()).withIconOpacity(0.5f));
+    symbolManager.create(createOptions(new LatLng(1, 1)));
+
+    symbolManager.onDragStarted(dragged);
+    verify(style).addSource(dragSource);
+    verify(style).addLayerAbove(dragLayer, SymbolManager.ID_GEOJSON_LAYER);
+    // data-driven properties in use are mirrored on the drag layer
+    verify(dragLayer, atLeastOnce()).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+    assertEquals(1, lastFeatureCollection().features().size());
+    verify(dragSource).setGeoJson(any(Feature.class));
+
+    symbolManager.onDragUpdated(dragged);
+    verify(dragSource, times(2)).setGeoJson(any(Feature.class));
+    // created two symbols, moved one to the drag layer
+    verify(geoJsonSource, times(4)).setGeoJson(any(FeatureCollection.class));
+
+    symbolManager.onDragFinished(dragged);
+    symbolManager.internalUpdateSource();
+    verify(dragSource).setGeoJson(argThat((FeatureCollection collection) -> collection.features().isEmpty()));
+    FeatureCollection featureCollection = lastFeatureCollection();
+    assertEquals(2, featureCollection.features().size());
+    assertTrue(featureCollection.features().contains(
+      Feature.fromGeometry(dragged.getGeometry(), dragged.getFeature())));
+
+    // constant properties are mirrored as well
+    symbolManager.onDragStarted(dragged);
+    symbolManager.setIconTranslate(new Float[] {1.0f, 1.0f});
+    verify(dragLayer).setProperties(argThat((PropertyValue value) -> "icon-translate".equals(value.name)));
+  }
+
+  @Test
+  public void testViewportCulling() {
+    createCulledSymbolManager();
+    assertEquals(3, lastFeatureCollection().features().size());
+    symbolManager.setViewportCullingEnabled(true);
+    assertTrue(symbolManager.isViewportCullingEnabled());
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    symbolManager.setViewportCullingMargin(0);
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    symbolManager.setViewportCullingEnabled(false);
+    assertFalse(symbolManager.isViewportCullingEnabled());
+    assertEquals(3, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingDropsChangesOutsideRegion() {
+    createCulledSymbolManager();
+    symbolManager.setViewportCullingEnabled(true);
+    Symbol symbol = symbolManager.create(createOptions(new LatLng(0, 10)));
+    assertEquals(2, lastFeatureCollection().features().size());
+
+    moveTo(symbol, new LatLng(0.5, 0.5));
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    moveTo(symbol, new LatLng(0, -10));
+    assertEquals(2, lastFeatureCollection().features().size());
+  }
+
+  @Test
+  public void testViewportCullingFollowsCamera() {
+    createCulledSymbolManager();
+    setVisibleBounds(LatLngBounds.from(10, 10, -10, -10));
+    symbolManager.setViewportCullingEnabled(true);
+    ArgumentCaptor<AnnotationManager.ViewportCullingListener> listenerCaptor =
+      ArgumentCaptor.forClass(AnnotationManager.ViewportCullingListener.class);
+    verify(mapboxMap).addOnCameraMoveListener(listenerCaptor.capture());
+    AnnotationManager.ViewportCullingListener listener = listenerCaptor.getValue();
+    assertEquals(3, lastFeatureCollection().features().size());
+
+    // idle shrinks the region to the visible region
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    listener.onCameraIdle();
+    assertEquals(2, lastFeatureCollection().features().size());
+    clearInvocations(geoJsonSource);
+
+    // moves within the margin don't update the source
+    setVisibleBounds(LatLngBounds.from(1, 1.5, -1, -0.5));
+    listener.onCameraMove();
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    setVisibleBounds(LatLngBounds.from(1, 5.5, -1, 3.5));
+    listener.onCameraMove();
+    assertEquals(1, lastFeatureCollection().features().size());
+
+    symbolManager.onDestroy();
+    verify(mapboxMap).removeOnCameraMoveListener(listener);
+    verify(mapboxMap).removeOnCameraIdleListener(listener);
+  }
+
+  @Test
+  public void testMetricsOfSourceUpdates() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    OnAnnotationMetricsListener listener = mock(OnAnnotationMetricsListener.class);
+    assertNull(symbolManager.getMetrics());
+    symbolManager.setMetricsListener(listener);
+    AnnotationMetrics metrics = symbolManager.getMetrics();
+    assertNotNull(metrics);
+
+    List<SymbolOptions> options = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    Symbol symbol = symbolManager.create(options).get(0);
+    symbolManager.update(symbol);
+
+    assertEquals(2, metrics.getSourceUpdateCount());
+    assertEquals(6, metrics.getSerializedFeatureCount());
+    assertEquals(2, metrics.getFeaturesPerUpdate().getSampleCount());
+    assertEquals(3, metrics.getFeaturesPerUpdate().getMax());
+    assertEquals(2, metrics.getSerializationTime().getSampleCount());
+    // feature collections aren't measured
+    assertEquals(0, metrics.getSourceDataLength());
+
+    // listeners are notified once per frame
+    verify(listener, never()).onMetricsUpdated(metrics);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(metrics);
+
+    // collection restarts from 0
+    symbolManager.setMetricsListener(null);
+    assertNull(symbolManager.getMetrics());
+    symbolManager.create(createOptions(new LatLng()));
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    verify(listener, times(1)).onMetricsUpdated(any(AnnotationMetrics.class));
+    symbolManager.setMetricsListener(listener);
+    assertEquals(0, symbolManager.getMetrics().getSourceUpdateCount());
+  }
+
+  @Test
+  public void testMetricsOfSourceDataLength() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setDirectSerializationEnabled(true);
+    symbolManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+    symbolManager.create(createOptions(new LatLng()));
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(geoJsonSource, times(2)).setGeoJson(captor.capture());
+    AnnotationMetrics metrics = symbolManager.getMetrics();
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLength());
+    assertEquals(captor.getValue().length(), metrics.getSourceDataLengths().getMax());
+  }
+
+  @Test
+  public void testMetricsOfDragUpdatesAndHitTests() {
+    when(coreElementProvider.getDragLayer()).thenReturn(mock(SymbolLayer.class));
+    when(coreElementProvider.getDragSource()).thenReturn(mock(GeoJsonSource.class));
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Symbol symbol = symbolManager.create(createOptions(new LatLng()));
+    symbolManager.setMetricsListener(mock(OnAnnotationMetricsListener.class));
+
+    symbolManager.onDragStarted(symbol);
+    symbolManager.onDragUpdated(symbol);
+    symbolManager.onDragUpdated(symbol);
+    symbolManager.onDragFinished(symbol);
+    symbolManager.queryMapForFeatures(new PointF());
+
+    AnnotationMetrics metrics = symbolManager.getMetrics();
+    assertEquals(2, metrics.getDragUpdateCount());
+    assertEquals(2, metrics.getDragUpdateIntervals().getSampleCount());
+    assertEquals(1, metrics.getHitTestCount());
+    assertEquals(1, metrics.getHitTestTime().getSampleCount());
+  }
+
+  @Test
+  public void testDataDrivenPropertyEnabledBySetter() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Symbol symbol = symbolManager.create(createOptions(new LatLng()));
+    assertFalse(symbolManager.dataDrivenPropertyUsageMap.get(SymbolOptions.PROPERTY_iconOpacity));
+    verify(symbolLayer, never()).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+
+    symbol.setIconOpacity(0.5f);
+    assertTrue(symbolManager.dataDrivenPropertyUsageMap.get(SymbolOptions.PROPERTY_iconOpacity));
+    verify(symbolLayer).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+
+    symbol.setIconOpacity(0.8f);
+    symbolManager.update(symbol);
+    verify(symbolLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+  }
+
+  @Test
+  public void testDataDrivenPropertiesSurviveStyleReload() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.create(createOptions(new LatLng()).withIconOpacity(0.5f));
+
+    ArgumentCaptor<MapView.OnDidFinishLoadingStyleListener> loadingArgumentCaptor = ArgumentCaptor.forClass(MapView.OnDidFinishLoadingStyleListener.class);
+    verify(mapView).addOnDidFinishLoadingStyleListener(loadingArgumentCaptor.capture());
+    loadingArgumentCaptor.getValue().onDidFinishLoadingStyle();
+    ArgumentCaptor<Style.OnStyleLoaded> styleLoadedArgumentCaptor = ArgumentCaptor.forClass(Style.OnStyleLoaded.class);
+    verify(mapboxMap).getStyle(styleLoadedArgumentCaptor.capture());
+
+    Style newStyle = mock(Style.class);
+    when(newStyle.isFullyLoaded()).thenReturn(true);
+    SymbolLayer newLayer = mock(SymbolLayer.class);
+    when(coreElementProvider.getLayer()).thenReturn(newLayer);
+    styleLoadedArgumentCaptor.getValue().onStyleLoaded(newStyle);
+
+    assertTrue(symbolManager.dataDrivenPropertyUsageMap.get(SymbolOptions.PROPERTY_iconOpacity));
+    verify(newLayer).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+    verify(newLayer, never()).setProperties(argThat(new PropertyValueMatcher(iconSize(get("icon-size")))));
+  }
+
+  @Test
+  public void testPropertyOverride() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.create(createOptions(new LatLng()).withIconOpacity(1f));
+    clearInvocations(geoJsonSource, symbolLayer);
+
+    symbolManager.setPropertyOverride(iconOpacity(0.2f));
+    verify(symbolLayer).setProperties(argThat(new PropertyValueMatcher(iconOpacity(0.2f))));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+
+    // the per-feature value is used again
+    symbolManager.clearPropertyOverride(SymbolOptions.PROPERTY_iconOpacity);
+    verify(symbolLayer).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+  }
+
+  @Test
+  public void testFilteredPropertyOverride() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.eq(Expression.get("test"), "selected");
+    symbolManager.setPropertyOverride(iconOpacity(0.5f), filter);
+    verify(symbolLayer).setProperties(argThat(new PropertyValueMatcher(iconOpacity(
+      Expression.switchCase(filter, Expression.literal(0.5f), get("icon-opacity"))))));
+
+    // enabling the property for the first annotation using it keeps the override
+    symbolManager.create(createOptions(new LatLng()).withIconOpacity(1f));
+    verify(symbolLayer, never()).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+
+    // properties no annotation uses are reset to the default
+    symbolManager.setPropertyOverride(iconSize(3f));
+    symbolManager.clearPropertyOverrides();
+    verify(symbolLayer).setProperties(argThat(new PropertyValueMatcher(new PropertyValue<>("icon-size", null))));
+    verify(symbolLayer, times(1)).setProperties(argThat(new PropertyValueMatcher(iconOpacity(get("icon-opacity")))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstantPropertyOverride() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setPropertyOverride(iconTranslate(new Float[] {1f, 1f}));
+  }
+
+  @Test
+  public void testShardsUpdatedIndependently() {
+    SymbolLayer shardLayer = mock(SymbolLayer.class);
+    GeoJsonSource shardSource = mock(GeoJsonSource.class);
+    mockShard(shardLayer, shardSource);
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Expression filter = Expression.literal(true);
+    symbolManager.setFilter(filter);
+    symbolManager.setShardCount(2);
+    verify(style).addSource(shardSource);
+    verify(style).addLayerAbove(shardLayer, SymbolManager.ID_GEOJSON_LAYER);
+    verify(shardLayer).setFilter(filter);
+
+    List<SymbolOptions> options = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      options.add(createOptions(new LatLng(i, i)));
+    }
+    List<Symbol> symbols = symbolManager.create(options);
+    assertEquals(2, lastFeatureCollection(geoJsonSource).features().size());
+    assertEquals(2, lastFeatureCollection(shardSource).features().size());
+
+    clearInvocations(geoJsonSource, shardSource);
+    moveTo(symbols.get(1), new LatLng(10, 10));
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    verify(shardSource).setGeoJson(any(FeatureCollection.class));
+
+    symbolManager.setShardCount(1);
+    verify(style).removeLayer(shardLayer);
+    verify(style).removeSource(shardSource);
+    assertEquals(4, lastFeatureCollection(geoJsonSource).features().size());
+  }
+
+  @Test
+  public void testShardLayersShareProperties() {
+    SymbolLayer shardLayer = mock(SymbolLayer.class);
+    mockShard(shardLayer, mock(GeoJsonSource.class));
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setShardCount(2);
+    symbolManager.setIconTranslate(new Float[] {1.0f, 1.0f});
+    verify(shardLayer).setProperties(argThat((PropertyValue value) -> "icon-translate".equals(value.name)));
+
+    PointF point = new PointF();
+    String shardLayerId = SymbolManager.ID_GEOJSON_LAYER + "-1";
+    when(mapboxMap.queryRenderedFeatures(point, SymbolManager.ID_GEOJSON_LAYER, shardLayerId)).thenReturn(new ArrayList<>());
+    symbolManager.queryMapForFeatures(point);
+    verify(mapboxMap).queryRenderedFeatures(point, SymbolManager.ID_GEOJSON_LAYER, shardLayerId);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardCountMustBePositive() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setShardCount(0);
+  }
+
+  @Test
+  public void testBackgroundSerializationDroppedOnStyleReload() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Queue<Runnable> serializerTasks = new LinkedList<>();
+    Handler mainHandler = mock(Handler.class);
+    when(mainHandler.post(any(Runnable.class))).thenAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return true;
+    });
+    symbolManager.setBackgroundSerializer(new BackgroundSerializer(serializerTasks::add, mainHandler));
+    symbolManager.create(createOptions(new LatLng()));
+
+    // the style started reloading while the annotations were serialized
+    when(style.isFullyLoaded()).thenReturn(false);
+    while (!serializerTasks.isEmpty()) {
+      serializerTasks.poll().run();
+    }
+    verify(geoJsonSource, never()).setGeoJson(anyString());
+  }
+
+  @Test
+  public void testSubmitReconcilesByKey() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<SymbolOptions, String> keys = new IdentityHashMap<>();
+    List<Symbol> symbols = symbolManager.submit(Arrays.asList(
+      keyedOptions(keys, "a", 1f), keyedOptions(keys, "b", 1f), keyedOptions(keys, "c", 1f)), keys::get);
+    Symbol unkeyed = symbolManager.create(createOptions(new LatLng()));
+
+    List<Symbol> submitted = symbolManager.submit(Arrays.asList(
+      keyedOptions(keys, "c", 1f), keyedOptions(keys, "a", 0.5f), keyedOptions(keys, "d", 1f)), keys::get);
+    assertSame(symbols.get(2), submitted.get(0));
+    assertSame(symbols.get(0), submitted.get(1));
+    assertEquals(0.5f, submitted.get(1).getIconOpacity(), 0);
+    assertEquals(4, submitted.get(2).getId());
+
+    // missing keys are deleted, annotations created without a key are kept
+    assertNull(symbolManager.getAnnotations().get(symbols.get(1).getId()));
+    assertSame(unkeyed, symbolManager.getAnnotations().get(unkeyed.getId()));
+    assertEquals(4, symbolManager.getAnnotations().size());
+  }
+
+  @Test
+  public void testSubmitUnchangedList() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<SymbolOptions, String> keys = new IdentityHashMap<>();
+    symbolManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    clearInvocations(geoJsonSource);
+    symbolManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitDuplicateKeys() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    Map<SymbolOptions, String> keys = new IdentityHashMap<>();
+    Symbol symbol = symbolManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0);
+    try {
+      symbolManager.submit(Arrays.asList(keyedOptions(keys, "b", 1f), keyedOptions(keys, "b", 0.5f)), keys::get);
+      fail("Duplicate keys should be rejected");
+    } catch (IllegalArgumentException exception) {
+      // nothing changed
+      assertEquals(1, symbolManager.getAnnotations().size());
+      assertSame(symbol, symbolManager.submit(Collections.singletonList(keyedOptions(keys, "a", 1f)), keys::get).get(0));
+    }
+  }
+
+  @Test
+  public void testSubmitUnchangedWithCompactStorage() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setCompactPropertyStorageEnabled(true);
+    KeyFunction<SymbolOptions> keyFunction = options -> "key";
+    symbolManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    clearInvocations(geoJsonSource);
+
+    symbolManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+  }
+
+  @Test
+  public void testSubmitKeepsGroup() {
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    KeyFunction<SymbolOptions> keyFunction = options -> "key";
+    Symbol symbol = symbolManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction).get(0);
+    symbol.setGroup("group");
+    symbolManager.update(symbol);
+    clearInvocations(geoJsonSource);
+
+    symbolManager.submit(Collections.singletonList(createOptions(new LatLng())), keyFunction);
+    verify(geoJsonSource, never()).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", symbol.getGroup());
+
+    symbolManager.submit(Collections.singletonList(createOptions(new LatLng(1, 1))), keyFunction);
+    verify(geoJsonSource).setGeoJson(any(FeatureCollection.class));
+    assertEquals("group", symbol.getGroup());
+  }
+
+  @Test
+  public void testSpatialIndexHitTesting() {
+    Projection projection = mock(Projection.class);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    when(projection.getMetersPerPixelAtLatitude(anyDouble())).thenReturn(1000.0);
+    PointF touch = new PointF();
+    when(projection.fromScreenLocation(touch)).thenReturn(new LatLng());
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.setSpatialIndexEnabled(true);
+
+    // the annotation rendered on top wins
+    Symbol first = symbolManager.create(createOptions(new LatLng()));
+    Symbol second = symbolManager.create(createOptions(new LatLng()));
+    assertEquals(second, symbolManager.queryMapForFeatures(touch));
+    first.setZIndex(1);
+    symbolManager.update(first);
+    assertEquals(first, symbolManager.queryMapForFeatures(touch));
+
+    // the rendered extent counts towards the hit tolerance
+    symbolManager.delete(second);
+    PointF below = new PointF(0, 30);
+    when(projection.fromScreenLocation(below)).thenReturn(new LatLng(-30000 / GeometryUtils.METERS_PER_DEGREE, 0));
+    assertNull(symbolManager.queryMapForFeatures(below));
+    first.setIconOffset(new PointF(0, 30));
+    symbolManager.update(first);
+    assertEquals(first, symbolManager.queryMapForFeatures(below));
+
+    // the index can't evaluate the layer filter
+    symbolManager.setFilter(Expression.literal(false));
+    assertNull(symbolManager.queryMapForFeatures(touch));
+    verify(mapboxMap).queryRenderedFeatures(touch, SymbolManager.ID_GEOJSON_LAYER);
+  }
+
+  private SymbolOptions keyedOptions(Map<SymbolOptions, String> keys, String key, float opacity) {
+    SymbolOptions options = createOptions(new LatLng(1, 1)).withIconOpacity(opacity);
+    keys.put(options, key);
+    return options;
+  }
+
+  private void createCulledSymbolManager() {
+    when(mapboxMap.getProjection()).thenReturn(mock(Projection.class));
+    setVisibleBounds(LatLngBounds.from(1, 1, -1, -1));
+    symbolManager = new SymbolManager(mapView, mapboxMap, style, coreElementProvider, null, null, draggableAnnotationController);
+    symbolManager.create(createOptions(new LatLng(0, 0)));
+    symbolManager.create(createOptions(new LatLng(0, 1.5)));
+    symbolManager.create(createOptions(new LatLng(0, 5)));
+  }
+
+  private void setVisibleBounds(LatLngBounds bounds) {
+    when(mapboxMap.getProjection().getVisibleRegion()).thenReturn(new VisibleRegion(
+      bounds.getNorthWest(), bounds.getNorthEast(), bounds.getSouthWest(), bounds.getSouthEast(), bounds));
+  }
+
+  private void moveTo(Symbol symbol, LatLng latLng) {
+    symbol.setGeometry(createOptions(latLng).buildAnnotation(symbol.getId(), symbolManager).getGeometry());
+    symbolManager.update(symbol);
+  }
+
+  private void mockShard(SymbolLayer shardLayer, GeoJsonSource shardSource) {
+    when(coreElementProvider.getShardLayer(1)).thenReturn(shardLayer);
+    when(coreElementProvider.getShardSource(1, null)).thenReturn(shardSource);
+    when(symbolLayer.getId()).thenReturn(SymbolManager.ID_GEOJSON_LAYER);
+    when(shardLayer.getId()).thenReturn(SymbolManager.ID_GEOJSON_LAYER + "-1");
+  }
+
+  private FeatureCollection lastFeatureCollection() {
+    return lastFeatureCollection(geoJsonSource);
+  }
+
+  private static FeatureCollection lastFeatureCollection(GeoJsonSource source) {
+    ArgumentCaptor<FeatureCollection> captor = ArgumentCaptor.forClass(FeatureCollection.class);
+    verify(source, atLeastOnce()).setGeoJson(captor.capture());
+    return captor.getValue();
+  }
+
+  private SymbolOptions createOptions(LatLng latLng) {
+    return new SymbolOptions().withLatLng(latLng);
+  }
 }
\ No newline at end of file
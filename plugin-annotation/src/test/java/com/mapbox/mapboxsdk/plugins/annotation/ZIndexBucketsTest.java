@@ -0,0 +1,58 @@
+package com.mapbox.mapboxsdk.plugins.annotation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ZIndexBucketsTest {
+
+  private final ZIndexBuckets<String> buckets = new ZIndexBuckets<>();
+
+  @Test
+  public void orderedByZIndexThenId() {
+    buckets.put(3, 1, "d");
+    buckets.put(0, 1, "b");
+    buckets.put(1, -1, "a");
+    buckets.put(2, 5, "e");
+    buckets.put(4, 1, "c");
+    assertEquals(Arrays.asList("a", "b", "d", "c", "e"), values(-1));
+  }
+
+  @Test
+  public void zIndexChange() {
+    buckets.put(0, 0, "a");
+    buckets.put(1, 0, "b");
+    buckets.put(0, 1, "a");
+    assertEquals(2, buckets.size());
+    assertEquals(Arrays.asList("b", "a"), values(-1));
+  }
+
+  @Test
+  public void remove() {
+    buckets.put(0, 0, "a");
+    buckets.put(1, 1, "b");
+    buckets.remove(1);
+    buckets.remove(5);
+    assertEquals(1, buckets.size());
+    assertNull(buckets.get(1));
+    assertEquals(Arrays.asList("a"), values(-1));
+  }
+
+  @Test
+  public void skippedId() {
+    buckets.put(0, 0, "a");
+    buckets.put(1, 0, "b");
+    assertEquals(Arrays.asList("b"), values(0));
+  }
+
+  private List<String> values(long skippedId) {
+    List<String> values = new ArrayList<>();
+    buckets.addValuesTo(values, skippedId);
+    return values;
+  }
+}